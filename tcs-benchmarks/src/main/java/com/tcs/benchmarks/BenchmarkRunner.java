@@ -0,0 +1,42 @@
+package com.tcs.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.
+ *
+ * Accepts the usual JMH command line, but by default adds the GC profiler (allocation rate per
+ * operation) and writes JSON results to {@code results/jmh-<commit>.json}, where the commit is
+ * taken from the GIT_COMMIT environment variable, so runs can be compared across commits.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+        // Prevent instantiation
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        options.resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON));
+        options.result(commandLine.getResult().orElse(defaultResultFile()));
+
+        new Runner(options.build()).run();
+    }
+
+    private static String defaultResultFile() {
+        String commit = System.getenv("GIT_COMMIT");
+        return "results/jmh-" + (commit == null || commit.isBlank() ? "local" : commit) + ".json";
+    }
+}
@@ -0,0 +1,71 @@
+package com.tcs.benchmarks;
+
+import com.tcs.common.util.IdGenerator;
+import com.tcs.common.util.SnowflakeIdGenerator;
+import com.tcs.common.util.TraceContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID and trace id generation, paid on every order, trade and request
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGenerationBenchmark {
+
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, Clock.systemUTC());
+
+    @Benchmark
+    public String orderId() {
+        return IdGenerator.generateOrderId();
+    }
+
+    @Benchmark
+    public String tradeId() {
+        return IdGenerator.generateTradeId();
+    }
+
+    /**
+     * The primitive ID alone, as callers that keep it as a long pay
+     */
+    @Benchmark
+    public long snowflakeId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String uuid() {
+        return IdGenerator.generateUuid();
+    }
+
+    /**
+     * A request arriving without a trace id: one is generated and bound to the thread
+     */
+    @Benchmark
+    public String newTraceId() {
+        TraceContext.clear();
+        return TraceContext.getTraceId();
+    }
+
+    /**
+     * Later lookups on the same request thread
+     */
+    @Benchmark
+    public String boundTraceId() {
+        return TraceContext.getTraceId();
+    }
+}
@@ -0,0 +1,131 @@
+package com.tcs.benchmarks;
+
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.enums.OrderType;
+import com.tcs.common.enums.TimeInForce;
+import com.tcs.common.events.avro.OrderCreatedEvent;
+import com.tcs.common.numeric.FixedPoint;
+import com.tcs.common.numeric.SymbolScales;
+import com.tcs.trade.matching.BookOrder;
+import com.tcs.trade.matching.MatchResult;
+import com.tcs.trade.matching.OrderBook;
+import com.tcs.trade.pipeline.MatchOutput;
+import com.tcs.trade.pipeline.MatchingCommand;
+import com.tcs.trade.pipeline.MatchingShard;
+import com.tcs.trade.pipeline.PipelineStage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order processing in the matching engine, without Kafka or the database.
+ *
+ * {@code shardOrder} runs an order event through a matching shard, as the engine does: parsing,
+ * matching and handing the output to the next stage's ring buffer, whose consumer discards it.
+ * {@code bookSubmit} isolates the order book. Both replay the same seeded flow of limit orders
+ * within ten ticks of a fixed mid price, a third of them IOC.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchingBenchmark {
+
+    private static final int FLOW_SIZE = 1 << 16;  // power of two
+    private static final int BATCH_SIZE = 64;
+    private static final String[] SYMBOLS = {"AAPL", "MSFT", "GOOG", "AMZN"};
+    private static final int SCALE = FixedPoint.DB_SCALE;
+    private static final long MID_PRICE = 100 * FixedPoint.pow10(SCALE);
+    private static final long TICK = FixedPoint.pow10(SCALE - 2);
+
+    private final OrderCreatedEvent[] events = new OrderCreatedEvent[FLOW_SIZE];
+    private final OrderSide[] sides = new OrderSide[FLOW_SIZE];
+    private final TimeInForce[] timesInForce = new TimeInForce[FLOW_SIZE];
+    private final long[] prices = new long[FLOW_SIZE];
+    private final long[] quantities = new long[FLOW_SIZE];
+
+    private PipelineStage<MatchOutput> sink;
+    private MatchingShard shard;
+    private final MatchingCommand command = new MatchingCommand();
+    private OrderBook book;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < FLOW_SIZE; i++) {
+            sides[i] = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+            timesInForce[i] = random.nextInt(3) == 0 ? TimeInForce.IOC : TimeInForce.GTC;
+            prices[i] = MID_PRICE + (random.nextInt(21) - 10) * TICK;
+            quantities[i] = (1 + random.nextInt(100)) * FixedPoint.pow10(SCALE);
+
+            events[i] = OrderCreatedEvent.newBuilder()
+                    .setOrderId("ORD-" + i)
+                    .setUserId("user-" + random.nextInt(1000))
+                    .setAccountId("account-1")
+                    .setSymbol(SYMBOLS[i % SYMBOLS.length])
+                    .setSide(sides[i].name())
+                    .setType(OrderType.LIMIT.name())
+                    .setQuantity(FixedPoint.format(quantities[i], SCALE))
+                    .setPrice(FixedPoint.format(prices[i], SCALE))
+                    .setTimeInForce(timesInForce[i].name())
+                    .setStatus("PENDING")
+                    .setTimestamp(0L)
+                    .build();
+        }
+
+        sink = new PipelineStage<>("benchmark-sink", 1 << 16, MatchOutput::new,
+                (output, ringSequence, endOfBatch) -> output.clear(), reason -> { });
+        sink.start();
+        shard = new MatchingShard(0, sink, SymbolScales.defaults(), null, null, reason -> { });
+        shard.recover();
+        book = new OrderBook(SYMBOLS[0]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        sink.stop();
+    }
+
+    @Benchmark
+    public void shardOrder() {
+        int i = (int) (sequence & (FLOW_SIZE - 1));
+        OrderCreatedEvent event = events[i];
+        // Order ids must be unique while resting; a fresh one costs what deserializing it would
+        event.setOrderId(Long.toString(sequence));
+        command.set(event, 0, sequence, null);
+        sequence++;
+        shard.onEvent(command, sequence, sequence % BATCH_SIZE == 0);
+    }
+
+    @Benchmark
+    public MatchResult bookSubmit() {
+        int i = (int) (sequence & (FLOW_SIZE - 1));
+        BookOrder order = BookOrder.builder()
+                .orderId(Long.toString(sequence++))
+                .userId("user-1")
+                .symbol(SYMBOLS[0])
+                .side(sides[i])
+                .type(OrderType.LIMIT)
+                .timeInForce(timesInForce[i])
+                .price(prices[i])
+                .quantity(quantities[i])
+                .priceScale(SCALE)
+                .quantityScale(SCALE)
+                .build();
+        return book.submit(order);
+    }
+}
@@ -0,0 +1,163 @@
+package com.tcs.benchmarks;
+
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.events.avro.TradeExecutedEvent;
+import com.tcs.common.util.SnowflakeIdGenerator;
+import com.tcs.risk.domain.repository.RiskLimitRepository;
+import com.tcs.risk.dto.RiskCheckRequest;
+import com.tcs.risk.dto.RiskCheckResponse;
+import com.tcs.risk.service.ReferencePriceCache;
+import com.tcs.risk.service.RiskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RiskService#checkRisk} with in-memory stand-ins for Redis and the limits repository,
+ * so the figures show the service's own cost rather than network round trips.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RiskCheckBenchmark {
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private RiskService riskService;
+    private RiskCheckRequest limitOrder;
+    private RiskCheckRequest marketOrder;
+
+    @Setup
+    public void setUp() {
+        ReferencePriceCache referencePrices = new ReferencePriceCache(300);
+        referencePrices.onTrade(TradeExecutedEvent.newBuilder()
+                .setTradeId("TRD-1")
+                .setOrderId("ORD-1")
+                .setUserId("user-0")
+                .setSymbol("AAPL")
+                .setSide("BUY")
+                .setQuantity("10")
+                .setPrice("10.00")
+                .setTotalAmount("100.00")
+                .setTimestamp(System.currentTimeMillis())
+                .build());
+
+        riskService = new RiskService(limitRepository(), new InMemoryRedisTemplate(redis), referencePrices,
+                new SnowflakeIdGenerator(0, Clock.systemUTC()));
+        // Limits high enough that every check passes and reserves quota
+        setField("defaultNotionalLimit", new BigDecimal("10000000000"));
+        setField("defaultPositionLimit", new BigDecimal("10000000000"));
+        setField("defaultOrderCountLimit", Integer.MAX_VALUE);
+        setField("quotaTtl", 86400L);
+        setField("marketOrderFallbackPrice", new BigDecimal("100"));
+        setField("priceBandPercent", new BigDecimal("10"));
+
+        limitOrder = request(new BigDecimal("10.05"));
+        marketOrder = request(null);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetQuotas() {
+        redis.clear();
+    }
+
+    @Benchmark
+    public RiskCheckResponse limitOrder() {
+        return riskService.checkRisk(limitOrder);
+    }
+
+    @Benchmark
+    public RiskCheckResponse marketOrder() {
+        return riskService.checkRisk(marketOrder);
+    }
+
+    private static RiskCheckRequest request(BigDecimal price) {
+        return RiskCheckRequest.builder()
+                .orderId("ORD-1")
+                .userId("user-1")
+                .accountId("account-1")
+                .symbol("AAPL")
+                .side(OrderSide.BUY)
+                .quantity(BigDecimal.ONE)
+                .price(price)
+                .build();
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(RiskService.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, riskService, value);
+    }
+
+    /**
+     * No configured limits, so the service falls back to its defaults
+     */
+    private static RiskLimitRepository limitRepository() {
+        return (RiskLimitRepository) Proxy.newProxyInstance(RiskLimitRepository.class.getClassLoader(),
+                new Class<?>[]{RiskLimitRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findAccountLimit", "findSymbolLimit" -> Optional.empty();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "RiskLimitRepository stand-in";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Map-backed template covering the value operations the risk service uses
+     */
+    private static final class InMemoryRedisTemplate extends StringRedisTemplate {
+
+        private final ValueOperations<String, String> valueOperations;
+
+        @SuppressWarnings("unchecked")
+        InMemoryRedisTemplate(Map<String, String> store) {
+            this.valueOperations = (ValueOperations<String, String>) Proxy.newProxyInstance(
+                    ValueOperations.class.getClassLoader(), new Class<?>[]{ValueOperations.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "get" -> store.get((String) args[0]);
+                        case "set" -> store.put((String) args[0], (String) args[1]);
+                        case "increment" -> add(store, (String) args[0], args.length > 1 ? (Long) args[1] : 1L);
+                        case "decrement" -> add(store, (String) args[0], args.length > 1 ? -(Long) args[1] : -1L);
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private static Long add(Map<String, String> store, String key, long delta) {
+            return Long.parseLong(store.merge(key, Long.toString(delta),
+                    (current, increment) -> Long.toString(Long.parseLong(current) + Long.parseLong(increment))));
+        }
+
+        @Override
+        public ValueOperations<String, String> opsForValue() {
+            return valueOperations;
+        }
+
+        @Override
+        public Boolean expire(String key, long timeout, TimeUnit unit) {
+            return Boolean.TRUE;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.tcs.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tcs.common.events.avro.OrderCreatedEvent;
+import com.tcs.common.events.avro.TradeExecutedEvent;
+import com.tcs.common.serde.AvroDeserializer;
+import com.tcs.common.serde.AvroSerializer;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (as the services used to send) against Avro single-object encoding of the Kafka events
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final String TOPIC = "benchmark";
+
+    @Param({"order", "trade"})
+    public String event;
+
+    private ObjectMapper objectMapper;
+    private AvroSerializer<SpecificRecord> avroSerializer;
+    private AvroDeserializer<SpecificRecord> avroDeserializer;
+    private SpecificRecord record;
+    private byte[] json;
+    private byte[] avro;
+
+    /**
+     * Keeps Avro's schema accessors out of the JSON form
+     */
+    @JsonIgnoreProperties(value = {"schema", "specificData"}, ignoreUnknown = true)
+    abstract static class AvroMixIn {
+    }
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper().addMixIn(SpecificRecordBase.class, AvroMixIn.class);
+        avroSerializer = new AvroSerializer<>();
+        avroSerializer.configure(Map.of(), false);
+        avroDeserializer = new AvroDeserializer<>();
+        avroDeserializer.configure(Map.of(), false);
+
+        record = "order".equals(event) ? orderEvent() : tradeEvent();
+        json = objectMapper.writeValueAsBytes(record);
+        avro = avroSerializer.serialize(TOPIC, record);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(record);
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() throws Exception {
+        return objectMapper.readValue(json, record.getClass());
+    }
+
+    @Benchmark
+    public byte[] avroSerialize() {
+        return avroSerializer.serialize(TOPIC, record);
+    }
+
+    @Benchmark
+    public SpecificRecord avroDeserialize() {
+        return avroDeserializer.deserialize(TOPIC, avro);
+    }
+
+    private static OrderCreatedEvent orderEvent() {
+        return OrderCreatedEvent.newBuilder()
+                .setOrderId("ORD-1718000000000-12345")
+                .setClientOrderId("client-7f3c9a")
+                .setUserId("user-42")
+                .setAccountId("account-42")
+                .setSymbol("AAPL")
+                .setSide("BUY")
+                .setType("LIMIT")
+                .setQuantity("150.00000000")
+                .setPrice("189.25000000")
+                .setTimeInForce("GTC")
+                .setStatus("PENDING")
+                .setTimestamp(1718000000000L)
+                .setTraceId("3b2f8c1e-5d4a-4f6b-9e7d-2a1c0b9f8e7d")
+                .build();
+    }
+
+    private static TradeExecutedEvent tradeEvent() {
+        return TradeExecutedEvent.newBuilder()
+                .setTradeId("TRD-1718000000001-54321")
+                .setOrderId("ORD-1718000000000-12345")
+                .setUserId("user-42")
+                .setSymbol("AAPL")
+                .setSide("BUY")
+                .setQuantity("150")
+                .setPrice("189.25")
+                .setTotalAmount("28387.50")
+                .setTimestamp(1718000000001L)
+                .setTraceId("3b2f8c1e-5d4a-4f6b-9e7d-2a1c0b9f8e7d")
+                .build();
+    }
+}
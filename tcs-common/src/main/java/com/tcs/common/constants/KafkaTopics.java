@@ -14,4 +14,6 @@ public final class KafkaTopics {
     public static final String TRADES = "trades";
     public static final String RISK_EVENTS = "risk-events";
     public static final String AUDIT_EVENTS = "audit-events";
+    public static final String MARKET_DEPTH = "market-depth";
+    public static final String BOOK_HANDOFF = "order-book-handoff";
 }
@@ -13,7 +13,9 @@ public final class RedisKeys {
     public static final String ORDER_LOCK_PREFIX = "lock:order:";
     public static final String USER_QUOTA_PREFIX = "quota:";
     public static final String SUBMIT_TIME_PREFIX = "submit_time:";
+    public static final String IDEMPOTENCY_PREFIX = "idempotency:";
     public static final String RATE_LIMIT_PREFIX = "rate_limit:";
+    public static final String ID_NODE_PREFIX = "id_node:";
 
     public static String orderSummary(String orderId) {
         return ORDER_SUMMARY_PREFIX + orderId;
@@ -27,11 +29,20 @@ public final class RedisKeys {
         return USER_QUOTA_PREFIX + userId;
     }
 
-    public static String submitTime(String userId) {
-        return SUBMIT_TIME_PREFIX + userId;
+    public static String submitTime(String userId, String fingerprint) {
+        return SUBMIT_TIME_PREFIX + userId + ":" + fingerprint;
+    }
+
+    // Client order IDs are chosen by clients, so they are only unique per user
+    public static String idempotency(String userId, String clientOrderId) {
+        return IDEMPOTENCY_PREFIX + userId + ":" + clientOrderId;
     }
 
     public static String rateLimit(String identifier) {
         return RATE_LIMIT_PREFIX + identifier;
     }
+
+    public static String idNode(String service, int nodeId) {
+        return ID_NODE_PREFIX + service + ":" + nodeId;
+    }
 }
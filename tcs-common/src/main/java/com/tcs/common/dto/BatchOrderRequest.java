@@ -0,0 +1,25 @@
+package com.tcs.common.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for submitting a basket of orders in one call.
+ * Orders are validated one by one, so an invalid order fails only itself.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderRequest {
+
+    @NotEmpty(message = "Orders are required")
+    @Size(max = 1000, message = "At most 1000 orders per batch")
+    private List<CreateOrderRequest> orders;
+}
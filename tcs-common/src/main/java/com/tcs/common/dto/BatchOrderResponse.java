@@ -0,0 +1,34 @@
+package com.tcs.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for a basket of orders: one result per submitted order, in submission order
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderResponse {
+
+    private List<Result> results;
+
+    /**
+     * Either the created (possibly risk-rejected) order, or why it was not accepted
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        private int index;
+        private OrderResponse order;
+        private String errorCode;
+        private String error;
+    }
+}
@@ -0,0 +1,23 @@
+package com.tcs.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of trade history, newest first.
+ * Pass nextCursor back to get the following page; it is null on the last page. A page reaching
+ * into archived days can hold fewer trades than asked for, even none, with nextCursor still set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradePageResponse {
+
+    private List<TradeResponse> trades;
+    private String nextCursor;
+}
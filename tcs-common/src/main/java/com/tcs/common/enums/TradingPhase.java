@@ -0,0 +1,9 @@
+package com.tcs.common.enums;
+
+/**
+ * Trading phase of a symbol's order book
+ */
+public enum TradingPhase {
+    CONTINUOUS,  // Orders match on arrival
+    AUCTION      // Orders are collected without matching and executed together at the uncross
+}
@@ -0,0 +1,17 @@
+package com.tcs.common.exception;
+
+import lombok.Getter;
+
+/**
+ * A request rejected by a rate limit, with the time after which a retry can succeed
+ */
+@Getter
+public class RateLimitExceededException extends TcsException {
+
+    private final long retryAfterMillis;
+
+    public RateLimitExceededException(String details, long retryAfterMillis) {
+        super(ErrorCode.RATE_LIMIT_EXCEEDED, details);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+}
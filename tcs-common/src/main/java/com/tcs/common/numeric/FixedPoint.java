@@ -0,0 +1,238 @@
+package com.tcs.common.numeric;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Arithmetic on scaled longs: a value v at scale s is stored as v * 10^s.
+ *
+ * All operations are exact or fail with {@link ArithmeticException}; nothing silently rounds
+ * or overflows. Scales are limited to 0..9 so intermediate products of two fractional parts
+ * always fit in a long.
+ */
+public final class FixedPoint {
+
+    /**
+     * Scale of the NUMERIC(20,8) price and quantity columns
+     */
+    public static final int DB_SCALE = 8;
+
+    /**
+     * Scale of the NUMERIC(20,2) trade total_amount column
+     */
+    public static final int AMOUNT_SCALE = 2;
+
+    public static final int MAX_SCALE = 9;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L,
+            100_000_000L, 1_000_000_000L
+    };
+
+    private FixedPoint() {
+        // Prevent instantiation
+    }
+
+    public static long pow10(int scale) {
+        checkScale(scale);
+        return POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * Parse a plain decimal string such as "180.50" into units at the given scale.
+     * Fails if the value has non-zero digits beyond the scale or does not fit in a long.
+     */
+    public static long parse(CharSequence text, int scale) {
+        checkScale(scale);
+        int length = text.length();
+        if (length == 0) {
+            throw new NumberFormatException("Empty decimal");
+        }
+
+        int pos = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            pos++;
+        }
+
+        long units = 0;
+        int fractionDigits = -1;  // -1 until the decimal point is seen
+        boolean anyDigit = false;
+        for (; pos < length; pos++) {
+            char c = text.charAt(pos);
+            if (c == '.') {
+                if (fractionDigits >= 0) {
+                    throw new NumberFormatException("Invalid decimal: " + text);
+                }
+                fractionDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Invalid decimal: " + text);
+            }
+            anyDigit = true;
+            if (fractionDigits >= 0) {
+                if (fractionDigits == scale) {
+                    if (c != '0') {
+                        throw new ArithmeticException("More than " + scale + " decimal places: " + text);
+                    }
+                    continue;
+                }
+                fractionDigits++;
+            }
+            units = Math.addExact(Math.multiplyExact(units, 10L), c - '0');
+        }
+        if (!anyDigit) {
+            throw new NumberFormatException("Invalid decimal: " + text);
+        }
+
+        int scaledDigits = Math.max(fractionDigits, 0);
+        units = Math.multiplyExact(units, POWERS_OF_TEN[scale - scaledDigits]);
+        return negative ? -units : units;
+    }
+
+    /**
+     * Plain decimal string without trailing fractional zeros, e.g. 18050 at scale 2 is "180.5"
+     */
+    public static String format(long units, int scale) {
+        checkScale(scale);
+        if (scale == 0) {
+            return Long.toString(units);
+        }
+        long divisor = POWERS_OF_TEN[scale];
+        long integer = units / divisor;
+        long fraction = Math.abs(units % divisor);
+
+        StringBuilder sb = new StringBuilder(24);
+        if (units < 0 && integer == 0) {
+            sb.append('-');
+        }
+        sb.append(integer);
+        if (fraction != 0) {
+            int digits = scale;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            sb.append('.');
+            String fractionText = Long.toString(fraction);
+            for (int i = fractionText.length(); i < digits; i++) {
+                sb.append('0');
+            }
+            sb.append(fractionText);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Exact conversion from a decimal, e.g. a NUMERIC(20,8) column value
+     */
+    public static long fromBigDecimal(BigDecimal value, int scale) {
+        checkScale(scale);
+        return value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long units, int scale) {
+        checkScale(scale);
+        return BigDecimal.valueOf(units, scale);
+    }
+
+    /**
+     * Move units between scales; scaling down must not drop non-zero digits
+     */
+    public static long rescale(long units, int fromScale, int toScale) {
+        checkScale(fromScale);
+        checkScale(toScale);
+        if (toScale >= fromScale) {
+            return Math.multiplyExact(units, POWERS_OF_TEN[toScale - fromScale]);
+        }
+        long divisor = POWERS_OF_TEN[fromScale - toScale];
+        if (units % divisor != 0) {
+            throw new ArithmeticException("Rescaling " + units + " from scale " + fromScale
+                    + " to " + toScale + " loses precision");
+        }
+        return units / divisor;
+    }
+
+    /**
+     * Move units to a scale, rounding half-up when scaling down. For values stored at a coarser
+     * scale than they are computed at, such as trade amounts.
+     */
+    public static long round(long units, int fromScale, int toScale) {
+        checkScale(fromScale);
+        checkScale(toScale);
+        if (toScale >= fromScale) {
+            return Math.multiplyExact(units, POWERS_OF_TEN[toScale - fromScale]);
+        }
+        long divisor = POWERS_OF_TEN[fromScale - toScale];
+        long quotient = units / divisor;
+        long remainder = units % divisor;
+        if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+            quotient += units < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Product a * b where b is at {@code bScale}; the result keeps a's scale and is truncated
+     * toward zero. Throws if the result itself does not fit in a long.
+     */
+    public static long multiply(long a, long b, int bScale) {
+        long divisor = pow10(bScale);
+        boolean negative = (a < 0) != (b < 0);
+        long x = Math.absExact(a);
+        long y = Math.absExact(b);
+
+        // x * y / d = xq * y + xr * yq + xr * yr / d, with xr, yr < d <= 10^9
+        long xq = x / divisor;
+        long xr = x % divisor;
+        long yq = y / divisor;
+        long yr = y % divisor;
+        long result = Math.addExact(
+                Math.addExact(Math.multiplyExact(xq, y), Math.multiplyExact(xr, yq)),
+                xr * yr / divisor);
+        return negative ? -result : result;
+    }
+
+    /**
+     * Quotient a / b where b is at {@code bScale}; the result keeps a's scale and is rounded
+     * half-up. Used for average prices, e.g. notional / filled quantity.
+     */
+    public static long divide(long a, long b, int bScale) {
+        long multiplier = pow10(bScale);
+        if (b == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        long quotient = a / b;
+        long remainder = a % b;
+        try {
+            long scaled = Math.multiplyExact(quotient, multiplier);
+            long fraction = Math.multiplyExact(remainder, multiplier);
+            long fractionQuotient = fraction / b;
+            long fractionRemainder = fraction % b;
+            long result = Math.addExact(scaled, fractionQuotient);
+            if (Math.abs(fractionRemainder) >= Math.abs(b) - Math.abs(fractionRemainder)) {
+                result = Math.addExact(result, (a < 0) != (b < 0) ? -1 : 1);
+            }
+            return result;
+        } catch (ArithmeticException e) {
+            // Rare wide intermediate; fall back to exact big-integer arithmetic
+            BigInteger[] qr = BigInteger.valueOf(a).multiply(BigInteger.valueOf(multiplier))
+                    .divideAndRemainder(BigInteger.valueOf(b));
+            BigInteger result = qr[0];
+            if (qr[1].abs().shiftLeft(1).compareTo(BigInteger.valueOf(b).abs()) >= 0) {
+                result = result.add(BigInteger.valueOf(qr[1].signum() * Long.signum(b)));
+            }
+            return result.longValueExact();
+        }
+    }
+
+    static void checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Scale must be between 0 and " + MAX_SCALE + ": " + scale);
+        }
+    }
+}
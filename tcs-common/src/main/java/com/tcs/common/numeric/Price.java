@@ -0,0 +1,89 @@
+package com.tcs.common.numeric;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable price held as a scaled long.
+ *
+ * Meant for the edges (REST, JPA, events); hot paths work on the raw units with
+ * {@link FixedPoint} and only wrap them when a value leaves the engine.
+ */
+public final class Price implements Comparable<Price> {
+
+    private final long units;
+    private final int scale;
+
+    private Price(long units, int scale) {
+        FixedPoint.checkScale(scale);
+        this.units = units;
+        this.scale = scale;
+    }
+
+    public static Price ofUnits(long units, int scale) {
+        return new Price(units, scale);
+    }
+
+    public static Price parse(String text, int scale) {
+        return new Price(FixedPoint.parse(text, scale), scale);
+    }
+
+    public static Price of(BigDecimal value, int scale) {
+        return new Price(FixedPoint.fromBigDecimal(value, scale), scale);
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public boolean isPositive() {
+        return units > 0;
+    }
+
+    /**
+     * Notional value price * quantity at this price's scale, truncated
+     */
+    public Price multiply(Quantity quantity) {
+        return new Price(FixedPoint.multiply(units, quantity.getUnits(), quantity.getScale()), scale);
+    }
+
+    public Price withScale(int newScale) {
+        return new Price(FixedPoint.rescale(units, scale, newScale), newScale);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return FixedPoint.toBigDecimal(units, scale);
+    }
+
+    @Override
+    public int compareTo(Price other) {
+        if (scale == other.scale) {
+            return Long.compare(units, other.units);
+        }
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Price other)) {
+            return false;
+        }
+        return units == other.units && scale == other.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(units) + scale;
+    }
+
+    @Override
+    public String toString() {
+        return FixedPoint.format(units, scale);
+    }
+}
@@ -0,0 +1,90 @@
+package com.tcs.common.numeric;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable quantity held as a scaled long.
+ *
+ * Meant for the edges (REST, JPA, events); hot paths work on the raw units with
+ * {@link FixedPoint} and only wrap them when a value leaves the engine.
+ */
+public final class Quantity implements Comparable<Quantity> {
+
+    private final long units;
+    private final int scale;
+
+    private Quantity(long units, int scale) {
+        FixedPoint.checkScale(scale);
+        this.units = units;
+        this.scale = scale;
+    }
+
+    public static Quantity ofUnits(long units, int scale) {
+        return new Quantity(units, scale);
+    }
+
+    public static Quantity parse(String text, int scale) {
+        return new Quantity(FixedPoint.parse(text, scale), scale);
+    }
+
+    public static Quantity of(BigDecimal value, int scale) {
+        return new Quantity(FixedPoint.fromBigDecimal(value, scale), scale);
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public boolean isPositive() {
+        return units > 0;
+    }
+
+    public Quantity add(Quantity other) {
+        return new Quantity(Math.addExact(units, other.withScale(scale).units), scale);
+    }
+
+    public Quantity subtract(Quantity other) {
+        return new Quantity(Math.subtractExact(units, other.withScale(scale).units), scale);
+    }
+
+    public Quantity withScale(int newScale) {
+        return new Quantity(FixedPoint.rescale(units, scale, newScale), newScale);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return FixedPoint.toBigDecimal(units, scale);
+    }
+
+    @Override
+    public int compareTo(Quantity other) {
+        if (scale == other.scale) {
+            return Long.compare(units, other.units);
+        }
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Quantity other)) {
+            return false;
+        }
+        return units == other.units && scale == other.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(units) + scale;
+    }
+
+    @Override
+    public String toString() {
+        return FixedPoint.format(units, scale);
+    }
+}
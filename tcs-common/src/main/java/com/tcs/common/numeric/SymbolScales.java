@@ -0,0 +1,39 @@
+package com.tcs.common.numeric;
+
+import java.util.Map;
+
+/**
+ * Price and quantity scale per symbol, e.g. 2 price decimals for equities quoted in cents.
+ * Symbols without an override use the defaults, which match the NUMERIC(20,8) columns.
+ */
+public final class SymbolScales {
+
+    private final int defaultPriceScale;
+    private final int defaultQuantityScale;
+    private final Map<String, Integer> priceScales;
+    private final Map<String, Integer> quantityScales;
+
+    public SymbolScales(int defaultPriceScale, int defaultQuantityScale,
+                        Map<String, Integer> priceScales, Map<String, Integer> quantityScales) {
+        FixedPoint.checkScale(defaultPriceScale);
+        FixedPoint.checkScale(defaultQuantityScale);
+        priceScales.values().forEach(FixedPoint::checkScale);
+        quantityScales.values().forEach(FixedPoint::checkScale);
+        this.defaultPriceScale = defaultPriceScale;
+        this.defaultQuantityScale = defaultQuantityScale;
+        this.priceScales = Map.copyOf(priceScales);
+        this.quantityScales = Map.copyOf(quantityScales);
+    }
+
+    public static SymbolScales defaults() {
+        return new SymbolScales(FixedPoint.DB_SCALE, FixedPoint.DB_SCALE, Map.of(), Map.of());
+    }
+
+    public int priceScale(String symbol) {
+        return priceScales.getOrDefault(symbol, defaultPriceScale);
+    }
+
+    public int quantityScale(String symbol) {
+        return quantityScales.getOrDefault(symbol, defaultQuantityScale);
+    }
+}
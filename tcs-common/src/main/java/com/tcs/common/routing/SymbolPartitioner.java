@@ -0,0 +1,77 @@
+package com.tcs.common.routing;
+
+import com.tcs.common.constants.KafkaTopics;
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Producer partitioner placing records keyed by symbol with a {@link SymbolRouter}.
+ *
+ * Applies to the topics in {@value #TOPICS_CONFIG} (default: the orders topic); records of any
+ * other topic are placed by the murmur2 hash of their key, as by Kafka's default partitioner.
+ */
+public class SymbolPartitioner implements Partitioner {
+
+    /**
+     * Producer config key: comma-separated topics keyed by symbol
+     */
+    public static final String TOPICS_CONFIG = "tcs.routing.topics";
+
+    /**
+     * Producer config key: dedicated partitions as {@code SYMBOL:partition,...}
+     */
+    public static final String DEDICATED_PARTITIONS_CONFIG = "tcs.routing.dedicated-partitions";
+
+    private Set<String> topics = Set.of(KafkaTopics.ORDERS);
+    private Map<String, Integer> dedicatedPartitions = Map.of();
+    private volatile SymbolRouter router;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object topicsConfig = configs.get(TOPICS_CONFIG);
+        if (topicsConfig != null && !topicsConfig.toString().isBlank()) {
+            topics = Arrays.stream(topicsConfig.toString().split(","))
+                    .map(String::trim)
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+        Object dedicatedConfig = configs.get(DEDICATED_PARTITIONS_CONFIG);
+        dedicatedPartitions = SymbolRouter.parseDedicatedPartitions(
+                dedicatedConfig == null ? null : dedicatedConfig.toString());
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes,
+                         Cluster cluster) {
+        int partitionCount = cluster.partitionCountForTopic(topic);
+        if (topics.contains(topic)) {
+            if (!(key instanceof String symbol)) {
+                throw new IllegalArgumentException("Records of " + topic + " must be keyed by symbol");
+            }
+            return routerFor(partitionCount).partitionFor(symbol);
+        }
+        if (keyBytes == null) {
+            return ThreadLocalRandom.current().nextInt(partitionCount);
+        }
+        return Utils.toPositive(Utils.murmur2(keyBytes)) % partitionCount;
+    }
+
+    private SymbolRouter routerFor(int partitionCount) {
+        SymbolRouter current = router;
+        if (current == null || current.getPartitionCount() != partitionCount) {
+            current = new SymbolRouter(partitionCount, dedicatedPartitions);
+            router = current;
+        }
+        return current;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,80 @@
+package com.tcs.common.routing;
+
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Deterministic symbol to orders-partition mapping, shared by the producers and the matching engine.
+ *
+ * Hot symbols can be given dedicated partitions, which no other symbol hashes to. Every other
+ * symbol is hashed over the remaining partitions with Kafka's murmur2 key hash, so without
+ * dedicated partitions the mapping is the same as Kafka's default partitioner for symbol keys.
+ * The mapping changes with the partition count or the dedicated partitions, and both may only
+ * change while no order flow is in flight.
+ */
+public final class SymbolRouter {
+
+    private final int partitionCount;
+    private final Map<String, Integer> dedicatedPartitions;
+    private final int[] sharedPartitions;
+
+    public SymbolRouter(int partitionCount, Map<String, Integer> dedicatedPartitions) {
+        dedicatedPartitions.forEach((symbol, partition) -> {
+            if (partition < 0 || partition >= partitionCount) {
+                throw new IllegalArgumentException("Dedicated partition " + partition + " of " + symbol
+                        + " is outside the " + partitionCount + " orders partitions");
+            }
+        });
+        Set<Integer> dedicated = Set.copyOf(dedicatedPartitions.values());
+        this.sharedPartitions = IntStream.range(0, partitionCount).filter(p -> !dedicated.contains(p)).toArray();
+        if (sharedPartitions.length == 0) {
+            throw new IllegalArgumentException("Dedicated partitions leave no partition for the other symbols");
+        }
+        this.partitionCount = partitionCount;
+        this.dedicatedPartitions = Map.copyOf(dedicatedPartitions);
+    }
+
+    public int partitionFor(String symbol) {
+        Integer dedicated = dedicatedPartitions.get(symbol);
+        if (dedicated != null) {
+            return dedicated;
+        }
+        int hash = Utils.toPositive(Utils.murmur2(symbol.getBytes(StandardCharsets.UTF_8)));
+        return sharedPartitions[hash % sharedPartitions.length];
+    }
+
+    public boolean isDedicated(String symbol) {
+        return dedicatedPartitions.containsKey(symbol);
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public Map<String, Integer> getDedicatedPartitions() {
+        return dedicatedPartitions;
+    }
+
+    /**
+     * Parse dedicated partitions given as {@code SYMBOL:partition,...}; blank means none
+     */
+    public static Map<String, Integer> parseDedicatedPartitions(String spec) {
+        Map<String, Integer> partitions = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return partitions;
+        }
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected SYMBOL:partition but got '" + entry.trim() + "'");
+            }
+            partitions.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,76 @@
+package com.tcs.common.serde;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kafka deserializer for {@link AvroSerializer} payloads.
+ *
+ * The writer schema is looked up by the fingerprint in the payload, and the record is read into
+ * the generated class of the same name, resolving any schema differences between the versions.
+ * No target type needs configuring, so one deserializer serves every event topic.
+ */
+public class AvroDeserializer<T extends SpecificRecord> implements Deserializer<T> {
+
+    private static final int HEADER_LENGTH = 10;  // marker and fingerprint
+    private static final int FINGERPRINT_OFFSET = 2;
+
+    private final AvroSchemaStore schemaStore = AvroSchemaStore.getDefault();
+    private final Map<Class<?>, BinaryMessageDecoder<T>> decoders = new ConcurrentHashMap<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        schemaStore.configure(configs);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length < HEADER_LENGTH) {
+            throw new SerializationException("Payload on topic " + topic + " is too short for an Avro message");
+        }
+
+        long fingerprint = readFingerprint(data);
+        Schema writerSchema = schemaStore.findByFingerprint(fingerprint);
+        if (writerSchema == null) {
+            throw new SerializationException("Unknown schema fingerprint " + Long.toHexString(fingerprint)
+                    + " on topic " + topic);
+        }
+        Class<?> type = SpecificData.get().getClass(writerSchema);
+        if (type == null) {
+            throw new SerializationException("No generated class for " + writerSchema.getFullName());
+        }
+
+        try {
+            return decoderFor(type).decode(data);
+        } catch (IOException | AvroRuntimeException e) {
+            throw new SerializationException("Failed to deserialize " + writerSchema.getFullName()
+                    + " from topic " + topic, e);
+        }
+    }
+
+    private BinaryMessageDecoder<T> decoderFor(Class<?> type) {
+        return decoders.computeIfAbsent(type, t ->
+                new BinaryMessageDecoder<>(SpecificData.getForClass(t), SpecificData.get().getSchema(t), schemaStore));
+    }
+
+    private static long readFingerprint(byte[] data) {
+        // Single-object encoding stores the fingerprint little-endian
+        long fingerprint = 0;
+        for (int i = HEADER_LENGTH - 1; i >= FINGERPRINT_OFFSET; i--) {
+            fingerprint = (fingerprint << 8) | (data[i] & 0xFF);
+        }
+        return fingerprint;
+    }
+}
@@ -0,0 +1,115 @@
+package com.tcs.common.serde;
+
+import com.tcs.common.events.avro.AuditEvent;
+import com.tcs.common.events.avro.BookHandoffEvent;
+import com.tcs.common.events.avro.MarketDepthEvent;
+import com.tcs.common.events.avro.OrderCreatedEvent;
+import com.tcs.common.events.avro.OrderUpdatedEvent;
+import com.tcs.common.events.avro.RiskCheckedEvent;
+import com.tcs.common.events.avro.TradeExecutedEvent;
+import com.tcs.common.events.avro.TradingPhaseEvent;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaCompatibility;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.message.SchemaStore;
+import org.apache.avro.specific.SpecificData;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local stand-in for a schema registry.
+ *
+ * Event payloads use Avro single-object encoding, which carries the 64-bit fingerprint of the
+ * writer schema instead of a registry id. The store maps fingerprints to schemas: it starts with
+ * the current version of every event schema in tcs-common, and superseded versions are added
+ * from a directory of .avsc files, so consumers keep reading records written by older producers.
+ * A version the current classes cannot read is refused when it is registered.
+ */
+public final class AvroSchemaStore implements SchemaStore {
+
+    /**
+     * Serde config key: directory of older schema versions to register
+     */
+    public static final String SCHEMA_DIRECTORY_CONFIG = "tcs.avro.schema.directory";
+
+    private static final AvroSchemaStore DEFAULT = new AvroSchemaStore();
+
+    static {
+        DEFAULT.register(OrderCreatedEvent.getClassSchema());
+        DEFAULT.register(OrderUpdatedEvent.getClassSchema());
+        DEFAULT.register(TradeExecutedEvent.getClassSchema());
+        DEFAULT.register(MarketDepthEvent.getClassSchema());
+        DEFAULT.register(RiskCheckedEvent.getClassSchema());
+        DEFAULT.register(AuditEvent.getClassSchema());
+        DEFAULT.register(TradingPhaseEvent.getClassSchema());
+        DEFAULT.register(BookHandoffEvent.getClassSchema());
+    }
+
+    private final Map<Long, Schema> schemas = new ConcurrentHashMap<>();
+    private final Set<Path> loadedDirectories = ConcurrentHashMap.newKeySet();
+
+    public static AvroSchemaStore getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Register a schema version, returning its fingerprint
+     */
+    public long register(Schema schema) {
+        long fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+        if (schemas.containsKey(fingerprint)) {
+            return fingerprint;
+        }
+
+        Class<?> type = SpecificData.get().getClass(schema);
+        if (type != null) {
+            Schema current = SpecificData.get().getSchema(type);
+            SchemaCompatibility.SchemaPairCompatibility compatibility =
+                    SchemaCompatibility.checkReaderWriterCompatibility(current, schema);
+            if (compatibility.getType() != SchemaCompatibility.SchemaCompatibilityType.COMPATIBLE) {
+                throw new IllegalArgumentException("Schema version of " + schema.getFullName()
+                        + " is not readable by the current class: " + compatibility.getDescription());
+            }
+        }
+        schemas.put(fingerprint, schema);
+        return fingerprint;
+    }
+
+    /**
+     * Register every .avsc file in a directory, once per directory
+     */
+    public void registerDirectory(Path directory) {
+        if (!loadedDirectories.add(directory.toAbsolutePath().normalize())) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.avsc")) {
+            for (Path file : files) {
+                register(new Schema.Parser().parse(file.toFile()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load schemas from " + directory, e);
+        }
+    }
+
+    /**
+     * Apply the serde configuration shared by the serializer and deserializer
+     */
+    void configure(Map<String, ?> configs) {
+        Object directory = configs.get(SCHEMA_DIRECTORY_CONFIG);
+        if (directory != null && !directory.toString().isBlank()) {
+            registerDirectory(Path.of(directory.toString()));
+        }
+    }
+
+    @Override
+    public Schema findByFingerprint(long fingerprint) {
+        return schemas.get(fingerprint);
+    }
+}
@@ -0,0 +1,51 @@
+package com.tcs.common.serde;
+
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kafka serializer writing generated Avro events in single-object encoding:
+ * a two byte marker, the writer schema fingerprint, then the binary record.
+ */
+public class AvroSerializer<T extends SpecificRecord> implements Serializer<T> {
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private final AvroSchemaStore schemaStore = AvroSchemaStore.getDefault();
+    private final Map<Class<?>, BinaryMessageEncoder<T>> encoders = new ConcurrentHashMap<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        schemaStore.configure(configs);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        try {
+            encoderFor(data).encode(data, out);
+        } catch (IOException e) {
+            throw new SerializationException("Failed to serialize " + data.getSchema().getFullName()
+                    + " for topic " + topic, e);
+        }
+        return out.toByteArray();
+    }
+
+    private BinaryMessageEncoder<T> encoderFor(T data) {
+        return encoders.computeIfAbsent(data.getClass(), type -> {
+            schemaStore.register(data.getSchema());
+            return new BinaryMessageEncoder<>(SpecificData.getForClass(type), data.getSchema());
+        });
+    }
+}
@@ -1,36 +1,53 @@
 package com.tcs.common.util;
 
-import java.time.Instant;
+import java.time.Clock;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * ID generator utility for orders, trades, etc.
+ *
+ * IDs come from a {@link SnowflakeIdGenerator}. Services inject one on a node ID leased at
+ * startup ({@link NodeIdLease}); the static methods use a process-wide one on a random node ID,
+ * for tools and benchmarks.
  */
-public class IdGenerator {
+public final class IdGenerator {
+
+    private static final SnowflakeIdGenerator SYSTEM = new SnowflakeIdGenerator(
+            ThreadLocalRandom.current().nextInt(SnowflakeIdGenerator.MAX_NODE_ID + 1), Clock.systemUTC());
 
     private IdGenerator() {
         // Prevent instantiation
     }
 
+    /**
+     * Thread-safe source on the system clock, used by the static methods
+     */
+    public static IdSource system() {
+        return SYSTEM;
+    }
+
+    /**
+     * Deterministic source: the same clock readings and seed give the same IDs
+     */
+    public static IdSource seeded(Clock clock, long seed) {
+        return new SnowflakeIdGenerator((int) (seed & SnowflakeIdGenerator.MAX_NODE_ID), clock);
+    }
+
     /**
      * Generate unique order ID
-     * Format: ORD-{timestamp}-{random}
+     * Format: ORD-{13 Base32 digits}
      */
     public static String generateOrderId() {
-        long timestamp = Instant.now().toEpochMilli();
-        int random = ThreadLocalRandom.current().nextInt(10000, 99999);
-        return String.format("ORD-%d-%d", timestamp, random);
+        return SYSTEM.nextOrderId();
     }
 
     /**
      * Generate unique trade ID
-     * Format: TRD-{timestamp}-{random}
+     * Format: TRD-{13 Base32 digits}
      */
     public static String generateTradeId() {
-        long timestamp = Instant.now().toEpochMilli();
-        int random = ThreadLocalRandom.current().nextInt(10000, 99999);
-        return String.format("TRD-%d-%d", timestamp, random);
+        return SYSTEM.nextTradeId();
     }
 
     /**
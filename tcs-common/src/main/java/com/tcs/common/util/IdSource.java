@@ -0,0 +1,11 @@
+package com.tcs.common.util;
+
+/**
+ * Source of order and trade IDs, injectable so replays can generate them deterministically
+ */
+public interface IdSource {
+
+    String nextOrderId();
+
+    String nextTradeId();
+}
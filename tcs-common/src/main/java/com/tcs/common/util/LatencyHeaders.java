@@ -0,0 +1,53 @@
+package com.tcs.common.util;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Kafka headers carrying wall-clock stage timestamps of an order, in epoch microseconds.
+ * Set only when latency tracing is enabled; used to break order-to-trade latency into stages.
+ */
+public final class LatencyHeaders {
+
+    /**
+     * Order handed to the producer by the order service
+     */
+    public static final String SENT_AT = "tcs-sent-at-us";
+
+    /**
+     * Order record received by the trade engine
+     */
+    public static final String RECEIVED_AT = "tcs-received-at-us";
+
+    /**
+     * Order matched by its shard
+     */
+    public static final String MATCHED_AT = "tcs-matched-at-us";
+
+    private LatencyHeaders() {
+        // Prevent instantiation
+    }
+
+    public static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+
+    public static void add(Headers headers, String key, long micros) {
+        headers.add(key, ByteBuffer.allocate(Long.BYTES).putLong(micros).array());
+    }
+
+    /**
+     * Timestamp under {@code key}, or 0 when absent
+     */
+    public static long get(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return 0;
+        }
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+}
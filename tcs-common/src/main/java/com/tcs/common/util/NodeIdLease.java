@@ -0,0 +1,144 @@
+package com.tcs.common.util;
+
+import com.tcs.common.constants.RedisKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link SnowflakeIdGenerator} node ID leased from Redis for the life of the process.
+ *
+ * Node IDs of a service are keys id_node:{service}:{id}, set if absent with a TTL and renewed by
+ * a daemon thread at a third of it. Startup tries the IDs from a random one on, so instances
+ * starting together rarely contend. Closing the lease gives the ID back.
+ *
+ * The lease is only trusted until the TTL of its last successful set or renewal, counted from
+ * before the request. A generator on the lease refuses to issue IDs past that, so an instance
+ * cut off from Redis stops before another can take its ID over. If another instance has taken
+ * it, the lease is lost until the key is free to be taken back.
+ */
+@Slf4j
+public class NodeIdLease implements AutoCloseable {
+
+    // Extends the lease only if this instance still holds it
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+    private final String token;
+    private final int nodeId;
+    private final long ttlMillis;
+    private final ScheduledExecutorService renewer;
+
+    // Wall-clock time the lease may have expired at; 0 once lost to another instance
+    private volatile long validUntilMillis;
+
+    private NodeIdLease(StringRedisTemplate redisTemplate, String key, String token, int nodeId, long ttlMillis,
+                        long validUntilMillis) {
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+        this.token = token;
+        this.nodeId = nodeId;
+        this.ttlMillis = ttlMillis;
+        this.validUntilMillis = validUntilMillis;
+        this.renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "node-id-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        renewer.scheduleWithFixedDelay(this::renew, ttlMillis / 3, ttlMillis / 3, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lease a free node ID of the service
+     *
+     * @throws IllegalStateException if all node IDs are taken
+     */
+    public static NodeIdLease acquire(StringRedisTemplate redisTemplate, String service, long ttlMillis) {
+        String token = UUID.randomUUID().toString();
+        int nodeCount = SnowflakeIdGenerator.MAX_NODE_ID + 1;
+        int start = ThreadLocalRandom.current().nextInt(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            int nodeId = (start + i) % nodeCount;
+            String key = RedisKeys.idNode(service, nodeId);
+            long requestedAt = System.currentTimeMillis();
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(key, token, Duration.ofMillis(ttlMillis)))) {
+                log.info("Leased node ID {} for {}", nodeId, service);
+                return new NodeIdLease(redisTemplate, key, token, nodeId, ttlMillis, requestedAt + ttlMillis);
+            }
+        }
+        throw new IllegalStateException("All " + nodeCount + " node IDs of " + service + " are leased");
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Wall-clock time up to which the node ID is known to be this instance's
+     */
+    public long getValidUntilMillis() {
+        return validUntilMillis;
+    }
+
+    public boolean isHeld() {
+        return System.currentTimeMillis() < validUntilMillis;
+    }
+
+    @Override
+    public void close() {
+        renewer.shutdownNow();
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(key), token);
+        } catch (RuntimeException e) {
+            // The lease expires on its own
+            log.warn("Failed to release node ID lease {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void renew() {
+        try {
+            long requestedAt = System.currentTimeMillis();
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(key), token, String.valueOf(ttlMillis));
+            if (renewed != null && renewed != 0) {
+                validUntilMillis = requestedAt + ttlMillis;
+                return;
+            }
+            // Expired while Redis was unreachable: take it back unless another instance has
+            boolean retaken = Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(key, token, Duration.ofMillis(ttlMillis)));
+            if (retaken) {
+                validUntilMillis = requestedAt + ttlMillis;
+                log.warn("Took node ID lease {} back after it expired", key);
+            } else if (validUntilMillis != 0) {
+                validUntilMillis = 0;
+                log.error("Node ID lease {} was taken by another instance; no IDs are issued until it is free", key);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew node ID lease {}, valid for {} ms more: {}",
+                    key, Math.max(0, validUntilMillis - System.currentTimeMillis()), e.getMessage());
+        }
+    }
+}
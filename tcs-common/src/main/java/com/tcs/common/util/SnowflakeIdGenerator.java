@@ -0,0 +1,154 @@
+package com.tcs.common.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 64-bit time-ordered IDs: 41 bits of milliseconds since 2024-01-01, a 10-bit node ID and a
+ * 12-bit sequence, so one node issues up to 4096 IDs per millisecond without collision.
+ *
+ * The last timestamp and sequence are packed in one {@link AtomicLong} and advanced by CAS, so
+ * {@link #nextId()} is lock-free and allocation-free. IDs never go backwards: if the clock steps
+ * back, or a millisecond's sequence runs out, issuing continues from the last ID until the clock
+ * catches up.
+ *
+ * On a {@link NodeIdLease}, IDs are only issued while the lease is held; past that, issuing
+ * fails with {@link IllegalStateException} rather than risk colliding with the ID's next holder.
+ *
+ * As strings, IDs are a prefix and 13 Crockford Base32 digits, e.g. ORD-0A8B2FA600N1R. The
+ * digits are fixed width, so strings of one prefix sort like the IDs they encode.
+ */
+public class SnowflakeIdGenerator implements IdSource {
+
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] DIGITS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long node;
+    private final Clock clock;
+    private final NodeIdLease lease;
+
+    // (milliseconds since the epoch << SEQUENCE_BITS) | sequence, of the last ID issued
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId, Clock clock) {
+        this(nodeId, clock, null);
+    }
+
+    /**
+     * Generator on a leased node ID, issuing only while the lease is held
+     */
+    public SnowflakeIdGenerator(NodeIdLease lease, Clock clock) {
+        this(lease.getNodeId(), clock, lease);
+    }
+
+    private SnowflakeIdGenerator(int nodeId, Clock clock, NodeIdLease lease) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.node = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+        this.lease = lease;
+    }
+
+    /**
+     * Next ID of this node
+     */
+    public long nextId() {
+        long millis = clock.millis();
+        if (lease != null && millis >= lease.getValidUntilMillis()) {
+            throw new IllegalStateException("Node ID lease of node " + getNodeId() + " expired or was lost");
+        }
+        long now = (millis - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = last.get();
+            // A new millisecond starts at sequence 0; otherwise the sequence, overflowing into the timestamp
+            next = now > previous ? now : previous + 1;
+        } while (!last.compareAndSet(previous, next));
+        return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | node | (next & SEQUENCE_MASK);
+    }
+
+    /**
+     * Next ID of this node, encoded after the prefix
+     */
+    public String nextId(String prefix) {
+        return encode(prefix, nextId());
+    }
+
+    @Override
+    public String nextOrderId() {
+        return nextId("ORD");
+    }
+
+    @Override
+    public String nextTradeId() {
+        return nextId("TRD");
+    }
+
+    public int getNodeId() {
+        return (int) (node >>> SEQUENCE_BITS);
+    }
+
+    /**
+     * The prefix, a dash and the ID in 13 Base32 digits
+     */
+    public static String encode(String prefix, long id) {
+        char[] chars = new char[prefix.length() + 1 + ENCODED_LENGTH];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        chars[prefix.length()] = '-';
+        for (int i = chars.length - 1; i > prefix.length(); i--) {
+            chars[i] = DIGITS[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * The ID encoded in a string from {@link #encode}
+     */
+    public static long decode(String encoded) {
+        if (encoded.length() < ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Not an encoded ID: " + encoded);
+        }
+        long id = 0;
+        for (int i = encoded.length() - ENCODED_LENGTH; i < encoded.length(); i++) {
+            int digit = digit(encoded.charAt(i));
+            if (digit < 0) {
+                throw new IllegalArgumentException("Not an encoded ID: " + encoded);
+            }
+            id = id << 5 | digit;
+        }
+        return id;
+    }
+
+    /**
+     * Time an ID was issued at, to the millisecond
+     */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+
+    /**
+     * Node that issued an ID
+     */
+    public static int nodeOf(long id) {
+        return (int) (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+    private static int digit(char c) {
+        for (int i = 0; i < DIGITS.length; i++) {
+            if (DIGITS[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,42 @@
+package com.tcs.common.util;
+
+/**
+ * Thread-local durations of the stages of the current request, in the form of an HTTP
+ * Server-Timing header value ({@code risk;dur=1.250, db;dur=0.410}, durations in milliseconds)
+ */
+public final class StageTimings {
+
+    private static final ThreadLocal<StringBuilder> TIMINGS = ThreadLocal.withInitial(StringBuilder::new);
+
+    private StageTimings() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Record a stage that started at {@code startNanos} ({@link System#nanoTime}) and ends now
+     */
+    public static void record(String stage, long startNanos) {
+        long micros = (System.nanoTime() - startNanos) / 1_000;
+        StringBuilder timings = TIMINGS.get();
+        if (!timings.isEmpty()) {
+            timings.append(", ");
+        }
+        timings.append(stage).append(";dur=").append(micros / 1_000).append('.');
+        long fraction = micros % 1_000;
+        if (fraction < 100) {
+            timings.append(fraction < 10 ? "00" : "0");
+        }
+        timings.append(fraction);
+    }
+
+    /**
+     * Recorded stages as a Server-Timing value, empty when none were recorded
+     */
+    public static String toHeaderValue() {
+        return TIMINGS.get().toString();
+    }
+
+    public static void clear() {
+        TIMINGS.get().setLength(0);
+    }
+}
@@ -0,0 +1,169 @@
+package com.tcs.common.numeric;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FixedPointTest {
+
+    @Test
+    void parsesToUnitsAtScale() {
+        assertEquals(18050, FixedPoint.parse("180.50", 2));
+        assertEquals(18050, FixedPoint.parse("180.5", 2));
+        assertEquals(18000, FixedPoint.parse("180", 2));
+        assertEquals(50, FixedPoint.parse(".5", 2));
+        assertEquals(-5, FixedPoint.parse("-0.05", 2));
+        assertEquals(5, FixedPoint.parse("+0.05", 2));
+        assertEquals(1, FixedPoint.parse("0.000000001", FixedPoint.MAX_SCALE));
+        assertEquals(7, FixedPoint.parse("7", 0));
+    }
+
+    @Test
+    void parseAcceptsTrailingZerosBeyondScale() {
+        assertEquals(18050, FixedPoint.parse("180.50000", 2));
+        assertEquals(180, FixedPoint.parse("180.000", 0));
+    }
+
+    @Test
+    void parseRejectsDigitsBeyondScale() {
+        assertThrows(ArithmeticException.class, () -> FixedPoint.parse("180.505", 2));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.parse("0.0000000001", FixedPoint.MAX_SCALE));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.parse("1.5", 0));
+    }
+
+    @Test
+    void parseFailsOnOverflow() {
+        assertEquals(Long.MAX_VALUE, FixedPoint.parse("9223372036854775807", 0));
+        assertEquals(Long.MAX_VALUE, FixedPoint.parse("92233720368.54775807", FixedPoint.DB_SCALE));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.parse("9223372036854775808", 0));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.parse("92233720368.54775808", FixedPoint.DB_SCALE));
+        // Fits as digits, overflows once scaled
+        assertThrows(ArithmeticException.class, () -> FixedPoint.parse("92233720369", FixedPoint.DB_SCALE));
+    }
+
+    @Test
+    void parseRejectsMalformedInput() {
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("", 2));
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("-", 2));
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse(".", 2));
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("1.2.3", 2));
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("1e5", 2));
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse(" 1", 2));
+    }
+
+    @Test
+    void scaleMustBeWithinLimits() {
+        assertEquals(1_000_000_000L, FixedPoint.pow10(FixedPoint.MAX_SCALE));
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.parse("1", FixedPoint.MAX_SCALE + 1));
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.parse("1", -1));
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.multiply(1, 1, FixedPoint.MAX_SCALE + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> FixedPoint.fromBigDecimal(BigDecimal.ONE, FixedPoint.MAX_SCALE + 1));
+    }
+
+    @Test
+    void multiplyKeepsTheScaleOfTheFirstOperand() {
+        // 180.50 * 2.5 = 451.25
+        assertEquals(45125, FixedPoint.multiply(18050, 25, 1));
+        // 180.50 * 0.00000001 = 0.0000018050, truncated to 0.00 at scale 2
+        assertEquals(0, FixedPoint.multiply(18050, 1, FixedPoint.DB_SCALE));
+        assertEquals(18050, FixedPoint.multiply(18050, 100_000_000L, FixedPoint.DB_SCALE));
+    }
+
+    @Test
+    void multiplyTruncatesTowardZero() {
+        // 1.50 * 0.333 = 0.4995
+        assertEquals(49, FixedPoint.multiply(150, 333, 3));
+        assertEquals(-49, FixedPoint.multiply(-150, 333, 3));
+        assertEquals(-49, FixedPoint.multiply(150, -333, 3));
+        assertEquals(49, FixedPoint.multiply(-150, -333, 3));
+    }
+
+    @Test
+    void multiplyIsExactWhereTheFullProductWouldOverflow() {
+        // The product of the raw units exceeds a long; the result does not
+        long price = FixedPoint.parse("92233720.36854775", FixedPoint.DB_SCALE);
+        long quantity = FixedPoint.parse("99.99999999", FixedPoint.DB_SCALE);
+        BigDecimal expected = FixedPoint.toBigDecimal(price, FixedPoint.DB_SCALE)
+                .multiply(FixedPoint.toBigDecimal(quantity, FixedPoint.DB_SCALE))
+                .setScale(FixedPoint.DB_SCALE, RoundingMode.DOWN);
+
+        assertEquals(FixedPoint.fromBigDecimal(expected, FixedPoint.DB_SCALE),
+                FixedPoint.multiply(price, quantity, FixedPoint.DB_SCALE));
+        assertEquals(Long.MAX_VALUE, FixedPoint.multiply(Long.MAX_VALUE, 1_000_000_000L, FixedPoint.MAX_SCALE));
+    }
+
+    @Test
+    void multiplyFailsWhenTheResultOverflows() {
+        assertThrows(ArithmeticException.class,
+                () -> FixedPoint.multiply(Long.MAX_VALUE, 2_000_000_000L, FixedPoint.MAX_SCALE));
+        assertThrows(ArithmeticException.class,
+                () -> FixedPoint.multiply(Long.MIN_VALUE, 1, 0));
+    }
+
+    @Test
+    void fromBigDecimalIsExact() {
+        assertEquals(18050, FixedPoint.fromBigDecimal(new BigDecimal("180.50"), 2));
+        assertEquals(18_050_000_000L, FixedPoint.fromBigDecimal(new BigDecimal("180.5"), FixedPoint.DB_SCALE));
+        assertEquals(1005, FixedPoint.fromBigDecimal(new BigDecimal("1.00500000"), 3));
+        assertEquals(-5, FixedPoint.fromBigDecimal(new BigDecimal("-0.05"), 2));
+        assertEquals(Long.MAX_VALUE,
+                FixedPoint.fromBigDecimal(new BigDecimal("92233720368.54775807"), FixedPoint.DB_SCALE));
+    }
+
+    @Test
+    void fromBigDecimalRefusesToRound() {
+        assertThrows(ArithmeticException.class, () -> FixedPoint.fromBigDecimal(new BigDecimal("1.005"), 2));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.fromBigDecimal(new BigDecimal("0.5"), 0));
+    }
+
+    @Test
+    void fromBigDecimalFailsOnOverflow() {
+        assertThrows(ArithmeticException.class,
+                () -> FixedPoint.fromBigDecimal(new BigDecimal("92233720368.54775808"), FixedPoint.DB_SCALE));
+        // The largest NUMERIC(20,8) value does not fit a long at scale 8
+        assertThrows(ArithmeticException.class,
+                () -> FixedPoint.fromBigDecimal(new BigDecimal("999999999999.99999999"), FixedPoint.DB_SCALE));
+    }
+
+    @Test
+    void divideRoundsHalfUp() {
+        // 10 / 4 = 2.5, 10 / 3 = 3.33.., at scale 0
+        assertEquals(3, FixedPoint.divide(10, 4, 0));
+        assertEquals(-3, FixedPoint.divide(-10, 4, 0));
+        assertEquals(3, FixedPoint.divide(10, 3, 0));
+        // Average price of 451.25 notional over 2.5 filled: 180.50
+        assertEquals(18050, FixedPoint.divide(45125, 25, 1));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.divide(1, 0, 0));
+    }
+
+    @Test
+    void roundGoesHalfUpWhenScalingDown() {
+        // 0.004999 -> 0.00, 0.005 -> 0.01, 451.249999 -> 451.25
+        assertEquals(0, FixedPoint.round(4999, 6, FixedPoint.AMOUNT_SCALE));
+        assertEquals(1, FixedPoint.round(5000, 6, FixedPoint.AMOUNT_SCALE));
+        assertEquals(-1, FixedPoint.round(-5000, 6, FixedPoint.AMOUNT_SCALE));
+        assertEquals(45125, FixedPoint.round(451_249_999, 6, FixedPoint.AMOUNT_SCALE));
+        assertEquals(18050, FixedPoint.round(18050, 2, FixedPoint.AMOUNT_SCALE));
+        assertEquals(18000, FixedPoint.round(180, 0, FixedPoint.AMOUNT_SCALE));
+        assertEquals(Long.MAX_VALUE / 10 + 1, FixedPoint.round(Long.MAX_VALUE, 1, 0));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.round(Long.MAX_VALUE, 0, 1));
+    }
+
+    @Test
+    void rescaleAndFormatRoundTrip() {
+        assertEquals(1_805_000, FixedPoint.rescale(18050, 2, 4));
+        assertEquals(18050, FixedPoint.rescale(1_805_000, 4, 2));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.rescale(1_805_001, 4, 2));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.rescale(Long.MAX_VALUE, 0, 1));
+
+        assertEquals("180.5", FixedPoint.format(18050, 2));
+        assertEquals("180", FixedPoint.format(18000, 2));
+        assertEquals("-0.05", FixedPoint.format(-5, 2));
+        assertEquals("0.000000001", FixedPoint.format(1, FixedPoint.MAX_SCALE));
+    }
+}
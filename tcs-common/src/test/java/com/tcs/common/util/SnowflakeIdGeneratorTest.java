@@ -0,0 +1,167 @@
+package com.tcs.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long START_MILLIS = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+
+    private final SettableClock clock = new SettableClock(START_MILLIS);
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, clock);
+
+    @Test
+    void idsCarryTheTimeAndNode() {
+        long id = generator.nextId();
+
+        assertEquals(Instant.ofEpochMilli(START_MILLIS), SnowflakeIdGenerator.timestampOf(id));
+        assertEquals(7, SnowflakeIdGenerator.nodeOf(id));
+        assertEquals(7, generator.getNodeId());
+    }
+
+    @Test
+    void idsIncreaseWithinAndAcrossMilliseconds() {
+        long first = generator.nextId();
+        long second = generator.nextId();
+        clock.millis = START_MILLIS + 1;
+        long third = generator.nextId();
+
+        assertEquals(first + 1, second);
+        assertTrue(third > second);
+        assertEquals(Instant.ofEpochMilli(START_MILLIS + 1), SnowflakeIdGenerator.timestampOf(third));
+    }
+
+    @Test
+    void clockSteppingBackNeverRepeatsOrReordersIds() {
+        clock.millis = START_MILLIS + 1_000;
+        long beforeStep = generator.nextId();
+
+        clock.millis = START_MILLIS;
+        long afterStep = generator.nextId();
+        long next = generator.nextId();
+
+        assertTrue(afterStep > beforeStep);
+        assertTrue(next > afterStep);
+        // Issuing carries on from the last ID's millisecond until the clock catches up
+        assertEquals(Instant.ofEpochMilli(START_MILLIS + 1_000), SnowflakeIdGenerator.timestampOf(next));
+
+        clock.millis = START_MILLIS + 2_000;
+        assertEquals(Instant.ofEpochMilli(START_MILLIS + 2_000),
+                SnowflakeIdGenerator.timestampOf(generator.nextId()));
+    }
+
+    @Test
+    void exhaustedSequenceBorrowsTheNextMillisecond() {
+        long last = 0;
+        for (int i = 0; i <= 1 << SnowflakeIdGenerator.SEQUENCE_BITS; i++) {
+            long id = generator.nextId();
+            assertTrue(id > last);
+            last = id;
+        }
+
+        assertEquals(Instant.ofEpochMilli(START_MILLIS + 1), SnowflakeIdGenerator.timestampOf(last));
+        assertEquals(7, SnowflakeIdGenerator.nodeOf(last));
+    }
+
+    @Test
+    void concurrentCallersGetDistinctIds() throws Exception {
+        int threads = 4;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    long[] ids = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+
+            Set<Long> seen = new HashSet<>();
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertTrue(seen.add(ids[i]));
+                    if (i > 0) {
+                        assertTrue(ids[i] > ids[i - 1]);
+                    }
+                }
+            }
+            assertEquals(threads * perThread, seen.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void encodedIdsRoundTripAndSortLikeTheIds() {
+        long first = generator.nextId();
+        clock.millis = START_MILLIS + 86_400_000L;
+        long second = generator.nextId();
+
+        String a = SnowflakeIdGenerator.encode("ORD", first);
+        String b = SnowflakeIdGenerator.encode("ORD", second);
+
+        assertEquals(17, a.length());
+        assertTrue(a.startsWith("ORD-"));
+        assertEquals(first, SnowflakeIdGenerator.decode(a));
+        assertEquals(second, SnowflakeIdGenerator.decode(b));
+        assertTrue(a.compareTo(b) < 0);
+        assertThrows(IllegalArgumentException.class, () -> SnowflakeIdGenerator.decode("ORD-123"));
+        assertThrows(IllegalArgumentException.class, () -> SnowflakeIdGenerator.decode("ORD-0A8B2FA600N1U"));
+    }
+
+    @Test
+    void nodeIdMustFitItsBits() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1, clock));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1, clock));
+    }
+
+    private static final class SettableClock extends Clock {
+
+        private volatile long millis;
+
+        private SettableClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
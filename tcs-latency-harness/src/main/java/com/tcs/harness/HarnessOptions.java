@@ -0,0 +1,52 @@
+package com.tcs.harness;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Harness settings, given as {@code --name=value} arguments.
+ * Jar paths are relative to the repository root, where the harness is meant to be started.
+ */
+final class HarnessOptions {
+
+    final int rate;                 // orders per second, sent open loop
+    final int durationSeconds;      // measured period
+    final int warmupSeconds;        // discarded lead-in
+    final int symbols;
+    final int partitions;           // per topic
+    final Path orderServiceJar;
+    final Path riskServiceJar;
+    final Path tradeEngineJar;
+    final Path resultsDirectory;
+
+    private HarnessOptions(Map<String, String> values) {
+        rate = Integer.parseInt(values.getOrDefault("rate", "1000"));
+        durationSeconds = Integer.parseInt(values.getOrDefault("duration", "60"));
+        warmupSeconds = Integer.parseInt(values.getOrDefault("warmup", "15"));
+        symbols = Integer.parseInt(values.getOrDefault("symbols", "8"));
+        partitions = Integer.parseInt(values.getOrDefault("partitions", "4"));
+        orderServiceJar = Path.of(values.getOrDefault("order-service-jar",
+                "tcs-order-service/target/tcs-order-service-1.0.0-SNAPSHOT.jar"));
+        riskServiceJar = Path.of(values.getOrDefault("risk-service-jar",
+                "tcs-risk-service/target/tcs-risk-service-1.0.0-SNAPSHOT-exec.jar"));
+        tradeEngineJar = Path.of(values.getOrDefault("trade-engine-jar",
+                "tcs-trade-engine/target/tcs-trade-engine-1.0.0-SNAPSHOT-exec.jar"));
+        resultsDirectory = Path.of(values.getOrDefault("results", "results"));
+        if (rate <= 0 || durationSeconds <= 0 || warmupSeconds < 0 || symbols <= 0 || partitions <= 0) {
+            throw new IllegalArgumentException("rate, duration, symbols and partitions must be positive");
+        }
+    }
+
+    static HarnessOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new HarnessOptions(values);
+    }
+}
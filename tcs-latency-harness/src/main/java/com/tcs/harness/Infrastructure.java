@@ -0,0 +1,84 @@
+package com.tcs.harness;
+
+import com.tcs.common.constants.KafkaTopics;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Embedded Kafka broker plus throwaway Postgres and Redis containers, using the images and
+ * credentials of docker-compose.yml
+ */
+final class Infrastructure implements AutoCloseable {
+
+    static final String DB_USERNAME = "tcs_user";
+    static final String DB_PASSWORD = "tcs_password";
+    static final String ORDERS_DATABASE = "tcs_orders";
+    static final String RISK_DATABASE = "tcs_risk";
+    static final String TRADES_DATABASE = "tcs_trades";
+
+    private static final int POSTGRES_PORT = 5432;
+    private static final int REDIS_PORT = 6379;
+
+    private final EmbeddedKafkaKraftBroker kafka;
+    private final PostgreSQLContainer<?> postgres;
+    private final GenericContainer<?> redis;
+
+    Infrastructure(int partitions) {
+        kafka = new EmbeddedKafkaKraftBroker(1, partitions,
+                KafkaTopics.ORDERS, KafkaTopics.ORDER_STATUS, KafkaTopics.TRADES, KafkaTopics.MARKET_DEPTH);
+        // Single broker: internal topics cannot use the default replication of 3
+        kafka.brokerProperties(Map.of(
+                "transaction.state.log.replication.factor", "1",
+                "transaction.state.log.min.isr", "1"));
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"))
+                .withDatabaseName(ORDERS_DATABASE)
+                .withUsername(DB_USERNAME)
+                .withPassword(DB_PASSWORD);
+        redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+                .withExposedPorts(REDIS_PORT);
+    }
+
+    void start() throws SQLException {
+        kafka.afterPropertiesSet();
+        postgres.start();
+        redis.start();
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), DB_USERNAME, DB_PASSWORD);
+             Statement statement = connection.createStatement()) {
+            for (String database : List.of(RISK_DATABASE, TRADES_DATABASE)) {
+                statement.execute("CREATE DATABASE " + database);
+            }
+        }
+    }
+
+    String kafkaBootstrapServers() {
+        return kafka.getBrokersAsString();
+    }
+
+    String jdbcUrl(String database) {
+        return "jdbc:postgresql://" + postgres.getHost() + ":" + postgres.getMappedPort(POSTGRES_PORT) + "/" + database;
+    }
+
+    String redisHost() {
+        return redis.getHost();
+    }
+
+    int redisPort() {
+        return redis.getMappedPort(REDIS_PORT);
+    }
+
+    @Override
+    public void close() {
+        redis.stop();
+        postgres.stop();
+        kafka.destroy();
+    }
+}
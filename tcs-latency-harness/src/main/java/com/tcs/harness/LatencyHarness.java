@@ -0,0 +1,137 @@
+package com.tcs.harness;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Order-to-trade latency harness.
+ *
+ * Starts the order service, risk service and trade engine from their built jars against an
+ * embedded Kafka broker and Postgres and Redis containers, drives POST /api/orders at a fixed
+ * open-loop rate, and records the latency of each stage into HdrHistograms. After the warmup
+ * it writes one interval per second, tagged by stage, to {@code latency-<time>.hlog} (readable
+ * with HdrHistogram's log tools), then prints a percentile summary and writes the full
+ * distributions to {@code latency-<time>.txt}.
+ *
+ * Run from the repository root after {@code mvn package -DskipTests}, e.g.
+ * {@code mvn -pl tcs-latency-harness exec:java -Dexec.args="--rate=2000 --duration=120"}.
+ */
+@Slf4j
+public final class LatencyHarness {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private LatencyHarness() {
+        // Prevent instantiation
+    }
+
+    public static void main(String[] args) throws Exception {
+        HarnessOptions options = HarnessOptions.parse(args);
+        Files.createDirectories(options.resultsDirectory);
+        Path logs = options.resultsDirectory.resolve("logs");
+        Path journal = Files.createTempDirectory("tcs-harness-journal");
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        try (Infrastructure infrastructure = new Infrastructure(options.partitions)) {
+            infrastructure.start();
+            List<String> common = List.of(
+                    "spring.kafka.bootstrap-servers=" + infrastructure.kafkaBootstrapServers(),
+                    "spring.data.redis.host=" + infrastructure.redisHost(),
+                    "spring.data.redis.port=" + infrastructure.redisPort(),
+                    "app.latency-tracing.enabled=true",
+                    "logging.level.com.tcs=WARN",
+                    "logging.level.org.hibernate.SQL=WARN");
+
+            int riskPort = ServiceProcess.freePort();
+            try (ServiceProcess risk = ServiceProcess.start("risk-service", options.riskServiceJar, riskPort, logs,
+                         with(common,
+                                 "spring.datasource.url=" + infrastructure.jdbcUrl(Infrastructure.RISK_DATABASE),
+                                 // Limits out of the way: the harness measures latency, not rejections
+                                 "app.risk.default-notional-limit=1000000000000",
+                                 "app.risk.default-position-limit=1000000000000",
+                                 "app.risk.default-order-count-limit=2000000000"));
+                 ServiceProcess engine = ServiceProcess.start("trade-engine", options.tradeEngineJar,
+                         ServiceProcess.freePort(), logs,
+                         with(common,
+                                 "spring.datasource.url=" + infrastructure.jdbcUrl(Infrastructure.TRADES_DATABASE),
+                                 "app.journal.directory=" + journal));
+                 ServiceProcess orders = ServiceProcess.start("order-service", options.orderServiceJar,
+                         ServiceProcess.freePort(), logs,
+                         with(common,
+                                 "spring.datasource.url=" + infrastructure.jdbcUrl(Infrastructure.ORDERS_DATABASE),
+                                 "app.feign.risk-service.url=http://localhost:" + riskPort,
+                                 "app.rate-limit.enabled=false"))) {
+
+                risk.awaitHealthy(client, STARTUP_TIMEOUT);
+                engine.awaitHealthy(client, STARTUP_TIMEOUT);
+                orders.awaitHealthy(client, STARTUP_TIMEOUT);
+                run(options, client, URI.create("http://localhost:" + orders.getPort() + "/api/orders"),
+                        infrastructure.kafkaBootstrapServers());
+            }
+        }
+    }
+
+    private static void run(HarnessOptions options, HttpClient client, URI ordersUri, String bootstrapServers)
+            throws Exception {
+        StageRecorder recorder = new StageRecorder();
+        Map<String, Long> scheduledAtMicros = new ConcurrentHashMap<>();
+        LoadGenerator load = new LoadGenerator(client, ordersUri, options.rate, options.symbols,
+                Duration.ofSeconds(options.warmupSeconds + options.durationSeconds), recorder, scheduledAtMicros);
+
+        long startMillis = System.currentTimeMillis();
+        Path hlog = options.resultsDirectory.resolve("latency-" + startMillis + ".hlog");
+        Path distributions = options.resultsDirectory.resolve("latency-" + startMillis + ".txt");
+
+        try (TradeListener trades = new TradeListener(bootstrapServers, recorder, scheduledAtMicros);
+             PrintStream hlogOut = new PrintStream(Files.newOutputStream(hlog), false, StandardCharsets.UTF_8)) {
+            HistogramLogWriter writer = new HistogramLogWriter(hlogOut);
+            Thread listenerThread = new Thread(trades, "harness-trades");
+            Thread loadThread = new Thread(load, "harness-load");
+            listenerThread.start();
+            log.info("Offering {} orders/s for {} s warmup and {} s measurement",
+                    options.rate, options.warmupSeconds, options.durationSeconds);
+            loadThread.start();
+
+            Thread.sleep(options.warmupSeconds * 1000L);
+            recorder.reset();
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(System.currentTimeMillis());
+            writer.outputLegend();
+            while (loadThread.isAlive()) {
+                loadThread.join(1000);
+                recorder.writeInterval(writer);
+            }
+
+            // Let the last orders reach their trades
+            long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+            while (!scheduledAtMicros.isEmpty() && System.nanoTime() < drainDeadline) {
+                Thread.sleep(100);
+            }
+            recorder.writeInterval(writer);
+            log.info("{} trades received, {} order errors, {} taking orders without a trade",
+                    trades.getTrades(), load.getErrors(), scheduledAtMicros.size());
+        }
+
+        recorder.printSummary(System.out);
+        recorder.writeDistributions(distributions);
+        log.info("Wrote {} and {}", hlog, distributions);
+    }
+
+    private static List<String> with(List<String> common, String... properties) {
+        return Stream.concat(common.stream(), Arrays.stream(properties)).toList();
+    }
+}
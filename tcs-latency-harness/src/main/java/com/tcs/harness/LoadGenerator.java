@@ -0,0 +1,148 @@
+package com.tcs.harness;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tcs.common.util.LatencyHeaders;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop order load: requests are sent on a fixed schedule whether or not earlier ones have
+ * completed, and latency is measured from each request's scheduled time, so a stalled service
+ * shows up as queueing delay instead of lowering the offered rate.
+ *
+ * Orders come in pairs per symbol, a resting buy then a sell at the same price, so every sell
+ * takes and produces a trade. Each order carries its own trace id, which the trade records repeat.
+ */
+@Slf4j
+final class LoadGenerator implements Runnable {
+
+    private static final String PRICE = "100.00";
+    private static final int USERS = 50;
+
+    private final HttpClient client;
+    private final URI ordersUri;
+    private final int rate;
+    private final int symbols;
+    private final Duration duration;
+    private final StageRecorder recorder;
+    private final Map<String, Long> scheduledAtMicros;  // taking orders awaiting their trade, by trace id
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong errors = new AtomicLong();
+
+    LoadGenerator(HttpClient client, URI ordersUri, int rate, int symbols, Duration duration,
+                  StageRecorder recorder, Map<String, Long> scheduledAtMicros) {
+        this.client = client;
+        this.ordersUri = ordersUri;
+        this.rate = rate;
+        this.symbols = symbols;
+        this.duration = duration;
+        this.recorder = recorder;
+        this.scheduledAtMicros = scheduledAtMicros;
+    }
+
+    long getErrors() {
+        return errors.get();
+    }
+
+    @Override
+    public void run() {
+        long intervalNanos = 1_000_000_000L / rate;
+        long startNanos = System.nanoTime();
+        long startMicros = LatencyHeaders.nowMicros();
+        long orders = duration.getSeconds() * rate;
+
+        for (long i = 0; i < orders; i++) {
+            long scheduledNanos = startNanos + i * intervalNanos;
+            long wait;
+            while ((wait = scheduledNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            try {
+                send(i, scheduledNanos, startMicros + (scheduledNanos - startNanos) / 1_000);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        log.info("Sent {} orders", orders);
+    }
+
+    private void send(long sequence, long scheduledNanos, long scheduledMicros) throws JsonProcessingException {
+        long pair = sequence / 2;
+        boolean taking = sequence % 2 == 1;
+        String traceId = UUID.randomUUID().toString();
+        String userId = "harness-user-" + (pair % USERS);
+
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("clientOrderId", traceId);
+        order.put("symbol", symbol((int) (pair % symbols)));
+        order.put("side", taking ? "SELL" : "BUY");
+        order.put("type", "LIMIT");
+        order.put("quantity", "1");
+        order.put("price", PRICE);
+        order.put("timeInForce", "GTC");
+        order.put("accountId", "harness-account");
+
+        HttpRequest request = HttpRequest.newBuilder(ordersUri)
+                .header("Content-Type", "application/json")
+                .header("X-User-Id", userId)
+                .header("X-Trace-Id", traceId)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(order)))
+                .build();
+        if (taking) {
+            scheduledAtMicros.put(traceId, scheduledMicros);
+        }
+
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error != null || response.statusCode() != 201) {
+                errors.incrementAndGet();
+                scheduledAtMicros.remove(traceId);
+                return;
+            }
+            recorder.record(Stage.REST_INGRESS, (System.nanoTime() - scheduledNanos) / 1_000);
+            response.headers().firstValue("Server-Timing").ifPresent(this::recordServerTiming);
+        });
+    }
+
+    /**
+     * Parse {@code risk;dur=1.250, db;dur=0.410, kafka;dur=0.020}, durations in milliseconds
+     */
+    private void recordServerTiming(String header) {
+        for (String metric : header.split(",")) {
+            String[] parts = metric.trim().split(";dur=");
+            if (parts.length != 2) {
+                continue;
+            }
+            long micros = Math.round(Double.parseDouble(parts[1]) * 1_000);
+            switch (parts[0]) {
+                case "risk" -> recorder.record(Stage.RISK_CALL, micros);
+                case "db" -> recorder.record(Stage.DB_INSERT, micros);
+                case "kafka" -> recorder.record(Stage.KAFKA_SEND, micros);
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * HA, HB, ... then HBA, HBB, ...: valid order symbols for any count
+     */
+    private static String symbol(int index) {
+        StringBuilder name = new StringBuilder();
+        do {
+            name.insert(0, (char) ('A' + index % 26));
+            index /= 26;
+        } while (index > 0);
+        return "H" + name;
+    }
+}
@@ -0,0 +1,21 @@
+package com.tcs.harness;
+
+/**
+ * Measured stages of an order's path, in path order
+ */
+enum Stage {
+    REST_INGRESS("POST /api/orders, from its intended send time to the response"),
+    RISK_CALL("Risk service call, from the order service's Server-Timing"),
+    DB_INSERT("Order insert, from the order service's Server-Timing"),
+    KAFKA_SEND("Hand-off to the Kafka producer, from the order service's Server-Timing"),
+    KAFKA_HOP("Order service send to trade engine receipt"),
+    MATCHING("Trade engine receipt to match"),
+    PUBLISH("Match to trade record arriving at the harness: trade store commit and publish"),
+    END_TO_END("Intended send time to trade record arriving at the harness");
+
+    final String description;
+
+    Stage(String description) {
+        this.description = description;
+    }
+}
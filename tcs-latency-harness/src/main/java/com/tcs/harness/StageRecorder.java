@@ -0,0 +1,87 @@
+package com.tcs.harness;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One HdrHistogram recorder per stage, in microseconds.
+ * Recorders are safe to write from the load and listener threads concurrently.
+ */
+final class StageRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<Stage, Recorder> recorders = new EnumMap<>(Stage.class);
+    private final Map<Stage, Histogram> totals = new EnumMap<>(Stage.class);
+
+    StageRecorder() {
+        for (Stage stage : Stage.values()) {
+            recorders.put(stage, new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS));
+            totals.put(stage, new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS));
+        }
+    }
+
+    void record(Stage stage, long micros) {
+        if (micros >= 0) {
+            recorders.get(stage).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        }
+    }
+
+    /**
+     * Drop everything recorded so far, at the end of the warmup
+     */
+    void reset() {
+        recorders.values().forEach(Recorder::reset);
+    }
+
+    /**
+     * Append the interval since the last call to the log, tagged by stage, and add it to the totals
+     */
+    void writeInterval(HistogramLogWriter writer) {
+        for (Stage stage : Stage.values()) {
+            Histogram interval = recorders.get(stage).getIntervalHistogram();
+            interval.setTag(stage.name());
+            writer.outputIntervalHistogram(interval);
+            totals.get(stage).add(interval);
+        }
+    }
+
+    void printSummary(PrintStream out) {
+        out.printf("%-13s %9s %9s %9s %9s %9s %9s%n", "stage (ms)", "count", "p50", "p90", "p99", "p99.9", "max");
+        for (Stage stage : Stage.values()) {
+            Histogram histogram = totals.get(stage);
+            out.printf("%-13s %9d %9.3f %9.3f %9.3f %9.3f %9.3f%n", stage.name().toLowerCase(),
+                    histogram.getTotalCount(),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+    }
+
+    /**
+     * Full percentile distribution of each stage, in milliseconds
+     */
+    void writeDistributions(Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            for (Stage stage : Stage.values()) {
+                out.printf("# %s: %s%n", stage.name(), stage.description);
+                totals.get(stage).outputPercentileDistribution(out, 1000.0);
+                out.println();
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,94 @@
+package com.tcs.harness;
+
+import com.tcs.common.constants.KafkaTopics;
+import com.tcs.common.events.avro.TradeExecutedEvent;
+import com.tcs.common.serde.AvroDeserializer;
+import com.tcs.common.util.LatencyHeaders;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads the trades topic and splits each taking order's latency into stages, using the
+ * timestamps the order service and trade engine put in the trade record's headers
+ */
+@Slf4j
+final class TradeListener implements Runnable, AutoCloseable {
+
+    private final KafkaConsumer<String, TradeExecutedEvent> consumer;
+    private final StageRecorder recorder;
+    private final Map<String, Long> scheduledAtMicros;
+    private final AtomicLong trades = new AtomicLong();
+
+    TradeListener(String bootstrapServers, StageRecorder recorder, Map<String, Long> scheduledAtMicros) {
+        this.recorder = recorder;
+        this.scheduledAtMicros = scheduledAtMicros;
+        this.consumer = new KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false,
+                ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed"),
+                new StringDeserializer(), new AvroDeserializer<>());
+
+        // Assigned up front, so no trade is missed while a group would still be joining
+        List<TopicPartition> partitions = consumer.partitionsFor(KafkaTopics.TRADES).stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
+        consumer.assign(partitions);
+        consumer.seekToEnd(partitions);
+        partitions.forEach(consumer::position);
+    }
+
+    long getTrades() {
+        return trades.get();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                for (ConsumerRecord<String, TradeExecutedEvent> record : consumer.poll(Duration.ofMillis(100))) {
+                    onTrade(record);
+                }
+            }
+        } catch (WakeupException e) {
+            // Closing
+        } finally {
+            consumer.close();
+        }
+    }
+
+    private void onTrade(ConsumerRecord<String, TradeExecutedEvent> record) {
+        long arrivedMicros = LatencyHeaders.nowMicros();
+        trades.incrementAndGet();
+        long matchedMicros = LatencyHeaders.get(record.headers(), LatencyHeaders.MATCHED_AT);
+        if (matchedMicros == 0) {
+            return;  // maker side, or a later fill of the same order
+        }
+        long sentMicros = LatencyHeaders.get(record.headers(), LatencyHeaders.SENT_AT);
+        long receivedMicros = LatencyHeaders.get(record.headers(), LatencyHeaders.RECEIVED_AT);
+        if (sentMicros != 0) {
+            recorder.record(Stage.KAFKA_HOP, receivedMicros - sentMicros);
+        }
+        recorder.record(Stage.MATCHING, matchedMicros - receivedMicros);
+        recorder.record(Stage.PUBLISH, arrivedMicros - matchedMicros);
+
+        Long scheduled = scheduledAtMicros.remove(record.value().getTraceId());
+        if (scheduled != null) {
+            recorder.record(Stage.END_TO_END, arrivedMicros - scheduled);
+        }
+    }
+
+    @Override
+    public void close() {
+        consumer.wakeup();
+    }
+}
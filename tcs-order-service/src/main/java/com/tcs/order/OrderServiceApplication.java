@@ -1,15 +1,21 @@
 package com.tcs.order;
 
+import com.tcs.order.config.RateLimitProperties;
+import com.tcs.order.config.RiskBatchingProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaAuditing
 @EnableKafka
 @EnableFeignClients
+@EnableScheduling
+@EnableConfigurationProperties({RateLimitProperties.class, RiskBatchingProperties.class})
 public class OrderServiceApplication {
 
     public static void main(String[] args) {
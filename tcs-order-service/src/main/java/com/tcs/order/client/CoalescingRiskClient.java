@@ -0,0 +1,198 @@
+package com.tcs.order.client;
+
+import com.tcs.common.exception.ErrorCode;
+import com.tcs.common.exception.TcsException;
+import com.tcs.order.client.dto.RiskCheckRequest;
+import com.tcs.order.client.dto.RiskCheckResponse;
+import com.tcs.order.config.RiskBatchingProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces concurrent single-order risk checks into calls of the batch endpoint.
+ *
+ * Callers queue their request and wait on its future. A dispatcher thread sends what is queued
+ * as one batch of up to app.risk-batching.max-batch-size, with at most max-in-flight batches
+ * outstanding. It waits window-micros for more requests only while other batches are in flight,
+ * so a lone request at low load is sent at once, through the single-order endpoint. A batch that
+ * fails is decided by {@link RiskServiceFallbackFactory}, so every order in it is rejected.
+ */
+@Slf4j
+@Component
+public class CoalescingRiskClient {
+
+    private final RiskServiceClient riskServiceClient;
+    private final RiskServiceFallbackFactory fallbackFactory;
+    private final RiskBatchingProperties properties;
+    private final BlockingQueue<PendingCheck> queue;
+    private final Semaphore inFlight;
+    private final ExecutorService senders;
+    private final DistributionSummary batchSizes;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    public CoalescingRiskClient(RiskServiceClient riskServiceClient, RiskServiceFallbackFactory fallbackFactory,
+                                RiskBatchingProperties properties, MeterRegistry meterRegistry) {
+        this.riskServiceClient = riskServiceClient;
+        this.fallbackFactory = fallbackFactory;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.inFlight = new Semaphore(properties.getMaxInFlight());
+        AtomicInteger senderCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(properties.getMaxInFlight(), runnable -> {
+            Thread thread = new Thread(runnable, "risk-batch-sender-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSizes = DistributionSummary.builder("tcs.order.risk.batch.size")
+                .description("Risk checks per call to the risk service")
+                .register(meterRegistry);
+        this.dispatcher = new Thread(this::dispatch, "risk-batch-dispatcher");
+        this.dispatcher.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (properties.isEnabled()) {
+            dispatcher.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        dispatcher.interrupt();
+        senders.shutdown();
+        List<PendingCheck> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        reject(abandoned);
+    }
+
+    /**
+     * Risk check one order, as part of whatever batch it lands in
+     */
+    public RiskCheckResponse checkRisk(RiskCheckRequest request) {
+        if (!properties.isEnabled()) {
+            return riskServiceClient.checkRisk(request);
+        }
+        PendingCheck pending = new PendingCheck(request, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            // Saturated: call directly rather than queue without bound
+            return riskServiceClient.checkRisk(request);
+        }
+        try {
+            return pending.future().get(properties.getTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TcsException(ErrorCode.RISK_CHECK_FAILED, "Interrupted waiting for risk check", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new TcsException(ErrorCode.RISK_CHECK_FAILED,
+                    "No risk decision for order " + request.getOrderId(), e);
+        }
+    }
+
+    private void dispatch() {
+        int maxBatchSize = properties.getMaxBatchSize();
+        long windowNanos = TimeUnit.MICROSECONDS.toNanos(properties.getWindowMicros());
+        List<PendingCheck> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingCheck first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - batch.size());
+
+                // Under concurrency, give more requests the window to join
+                if (inFlight.availablePermits() < properties.getMaxInFlight()) {
+                    long deadline = System.nanoTime() + windowNanos;
+                    while (batch.size() < maxBatchSize) {
+                        PendingCheck next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                    }
+                }
+
+                // Requests keep joining while all senders are busy
+                inFlight.acquire();
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                List<PendingCheck> sending = List.copyOf(batch);
+                senders.execute(() -> {
+                    try {
+                        send(sending);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Risk batch dispatch failed for {} orders", batch.size(), e);
+                complete(batch, fallbackFactory.create(e).checkRiskBatch(requests(batch)));
+                batch.clear();
+            }
+        }
+        reject(batch);
+    }
+
+    private void send(List<PendingCheck> batch) {
+        batchSizes.record(batch.size());
+        List<RiskCheckRequest> requests = requests(batch);
+        List<RiskCheckResponse> responses;
+        try {
+            responses = batch.size() == 1
+                    ? List.of(riskServiceClient.checkRisk(requests.get(0)))
+                    : riskServiceClient.checkRiskBatch(requests);
+            if (responses.size() != requests.size()) {
+                throw new IllegalStateException("Expected " + requests.size() + " risk decisions, got "
+                        + responses.size());
+            }
+        } catch (RuntimeException e) {
+            responses = fallbackFactory.create(e).checkRiskBatch(requests);
+        }
+        complete(batch, responses);
+    }
+
+    private void reject(List<PendingCheck> batch) {
+        if (!batch.isEmpty()) {
+            complete(batch, fallbackFactory.create(new IllegalStateException("Order service shutting down"))
+                    .checkRiskBatch(requests(batch)));
+        }
+    }
+
+    private static void complete(List<PendingCheck> batch, List<RiskCheckResponse> responses) {
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future().complete(responses.get(i));
+        }
+    }
+
+    private static List<RiskCheckRequest> requests(List<PendingCheck> batch) {
+        return batch.stream().map(PendingCheck::request).toList();
+    }
+
+    private record PendingCheck(RiskCheckRequest request, CompletableFuture<RiskCheckResponse> future) {
+    }
+}
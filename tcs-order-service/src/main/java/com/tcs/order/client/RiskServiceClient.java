@@ -6,6 +6,8 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
+
 /**
  * Feign client for Risk Service
  */
@@ -18,4 +20,7 @@ public interface RiskServiceClient {
 
     @PostMapping("/api/risk/check")
     RiskCheckResponse checkRisk(@RequestBody RiskCheckRequest request);
+
+    @PostMapping("/api/risk/check/batch")
+    List<RiskCheckResponse> checkRiskBatch(@RequestBody List<RiskCheckRequest> requests);
 }
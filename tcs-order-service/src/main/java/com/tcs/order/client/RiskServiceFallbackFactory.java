@@ -6,6 +6,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.openfeign.FallbackFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Fallback factory for Risk Service circuit breaker
  */
@@ -25,6 +27,17 @@ public class RiskServiceFallbackFactory implements FallbackFactory<RiskServiceCl
                         .reason("Risk service unavailable")
                         .build();
             }
+
+            @Override
+            public List<RiskCheckResponse> checkRiskBatch(List<RiskCheckRequest> requests) {
+                log.error("Risk service batch call failed for {} orders: {}", requests.size(), cause.getMessage());
+                return requests.stream()
+                        .map(request -> RiskCheckResponse.builder()
+                                .approved(false)
+                                .reason("Risk service unavailable")
+                                .build())
+                        .toList();
+            }
         };
     }
 }
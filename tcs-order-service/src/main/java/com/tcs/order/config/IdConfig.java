@@ -0,0 +1,50 @@
+package com.tcs.order.config;
+
+import com.tcs.common.util.IdSource;
+import com.tcs.common.util.NodeIdLease;
+import com.tcs.common.util.SnowflakeIdGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Clock;
+
+/**
+ * Order IDs from a {@link SnowflakeIdGenerator} on the node ID in app.id.node-id, or on one
+ * leased from Redis at startup when it is -1. IDs are not issued while the lease is not held.
+ */
+@Configuration
+public class IdConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.id.node-id", havingValue = "-1")
+    public NodeIdLease nodeIdLease(StringRedisTemplate redisTemplate,
+                                   @Value("${app.id.lease-ttl-ms}") long leaseTtlMillis) {
+        return NodeIdLease.acquire(redisTemplate, "order-service", leaseTtlMillis);
+    }
+
+    @Bean
+    public IdSource idSource(ObjectProvider<NodeIdLease> nodeIdLease, @Value("${app.id.node-id}") int nodeId) {
+        NodeIdLease lease = nodeIdLease.getIfAvailable();
+        return lease != null
+                ? new SnowflakeIdGenerator(lease, Clock.systemUTC())
+                : new SnowflakeIdGenerator(nodeId, Clock.systemUTC());
+    }
+
+    /**
+     * Down while the lease is not held, when no IDs can be issued, so the instance is taken out
+     * of service until it holds it again or is restarted on a new one
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.id.node-id", havingValue = "-1")
+    public HealthIndicator nodeIdLeaseHealth(NodeIdLease nodeIdLease) {
+        return () -> (nodeIdLease.isHeld() ? Health.up() : Health.down())
+                .withDetail("nodeId", nodeIdLease.getNodeId())
+                .build();
+    }
+}
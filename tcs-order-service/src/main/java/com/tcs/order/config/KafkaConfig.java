@@ -0,0 +1,22 @@
+package com.tcs.order.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+/**
+ * Error handling of the listener containers: a failed record and those after it are redelivered
+ * every retry interval for up to the retry period, then logged and skipped
+ */
+@Configuration
+public class KafkaConfig {
+
+    @Bean
+    public CommonErrorHandler kafkaErrorHandler(@Value("${app.kafka.retry-interval-ms}") long retryIntervalMs,
+                                                @Value("${app.kafka.retry-period-ms}") long retryPeriodMs) {
+        return new DefaultErrorHandler(new FixedBackOff(retryIntervalMs, retryPeriodMs / retryIntervalMs));
+    }
+}
@@ -0,0 +1,21 @@
+package com.tcs.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Order ingress rate limits, bound from app.rate-limit. Rates are orders per second; a bucket
+ * holds up to its burst.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private double userRate = 50;
+    private int userBurst = 100;
+    private double accountRate = 200;
+    private int accountBurst = 400;
+    private long syncIntervalMs = 200;
+    private long idleEvictMs = 60_000;
+}
@@ -0,0 +1,19 @@
+package com.tcs.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Coalescing of concurrent risk checks into batch calls, bound from app.risk-batching
+ */
+@Data
+@ConfigurationProperties(prefix = "app.risk-batching")
+public class RiskBatchingProperties {
+
+    private boolean enabled = true;
+    private long windowMicros = 200;
+    private int maxBatchSize = 64;
+    private int maxInFlight = 8;
+    private int queueCapacity = 10_000;
+    private long timeoutMs = 5_000;
+}
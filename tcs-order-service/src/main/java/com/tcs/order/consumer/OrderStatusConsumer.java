@@ -0,0 +1,109 @@
+package com.tcs.order.consumer;
+
+import com.tcs.common.constants.KafkaTopics;
+import com.tcs.common.enums.OrderStatus;
+import com.tcs.common.events.avro.OrderUpdatedEvent;
+import com.tcs.order.domain.repository.OrderStatusBatchWriter;
+import com.tcs.order.domain.repository.OrderStatusBatchWriter.AppliedUpdate;
+import com.tcs.order.domain.repository.OrderStatusBatchWriter.StatusUpdate;
+import com.tcs.order.service.OrderSummaryCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies the order status updates published by the trade engine to the orders table.
+ *
+ * Updates of one order share a partition, so within a poll batch the last one carries the
+ * order's latest state and the earlier ones are dropped; the batch is then written with a
+ * few set-based UPDATEs. Orders are only published once their insert has committed, so an
+ * update of an order that is not there is unexpected: the batch fails from that update's
+ * record on, leaving its offset uncommitted, and the container's error handler redelivers it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderStatusConsumer {
+
+    private final OrderStatusBatchWriter statusWriter;
+    private final OrderSummaryCache summaryCache;
+
+    @KafkaListener(id = "order-status", topics = KafkaTopics.ORDER_STATUS, groupId = "order-service-status-group")
+    public void consumeStatusUpdates(List<ConsumerRecord<String, Object>> records) {
+        Map<String, StatusUpdate> latest = new LinkedHashMap<>();
+        // Index of the record each order's latest update came from
+        Map<String, Integer> latestIndex = new HashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, Object> record = records.get(i);
+            if (!(record.value() instanceof OrderUpdatedEvent event)) {
+                continue;
+            }
+            try {
+                latest.put(event.getOrderId(), toUpdate(event));
+                latestIndex.put(event.getOrderId(), i);
+            } catch (RuntimeException e) {
+                log.error("Skipping malformed status update {}-{}: {}",
+                        record.partition(), record.offset(), e.getMessage());
+            }
+        }
+
+        List<String> missing = apply(latest, records.size());
+        if (!missing.isEmpty()) {
+            // Earlier records are done; the ones from here on are redelivered, and reapplying them is harmless
+            String first = missing.stream().min(Comparator.comparing(latestIndex::get)).get();
+            throw new BatchListenerFailedException("Status updates of " + missing.size()
+                    + " unknown orders, first of order " + first, latestIndex.get(first));
+        }
+    }
+
+    /**
+     * @return the orders that were not found
+     */
+    private List<String> apply(Map<String, StatusUpdate> latest, int recordCount) {
+        if (latest.isEmpty()) {
+            return List.of();
+        }
+
+        long start = System.nanoTime();
+        List<AppliedUpdate> appliedUpdates = statusWriter.apply(new ArrayList<>(latest.values()));
+        summaryCache.applyStatusUpdates(appliedUpdates);
+        Set<String> applied = new HashSet<>();
+        appliedUpdates.forEach(update -> applied.add(update.getOrderId()));
+        List<String> notApplied = new ArrayList<>();
+        for (String orderId : latest.keySet()) {
+            if (!applied.contains(orderId)) {
+                notApplied.add(orderId);
+            }
+        }
+        // Not applied because stale, or because the order is not there
+        Set<String> existing = statusWriter.findExisting(notApplied);
+        List<String> missing = notApplied.stream().filter(orderId -> !existing.contains(orderId)).toList();
+
+        log.info("Applied {} of {} order status updates from {} records in {} ms, {} orders not found",
+                applied.size(), latest.size(), recordCount, (System.nanoTime() - start) / 1_000_000,
+                missing.size());
+        return missing;
+    }
+
+    private static StatusUpdate toUpdate(OrderUpdatedEvent event) {
+        return new StatusUpdate(
+                event.getOrderId(),
+                OrderStatus.valueOf(event.getStatus()),
+                new BigDecimal(event.getFilledQuantity()),
+                event.getAvgPrice() != null ? new BigDecimal(event.getAvgPrice()) : null,
+                event.getRejectReason());
+    }
+}
@@ -2,9 +2,11 @@ package com.tcs.order.controller;
 
 import com.tcs.common.exception.ErrorCode;
 import com.tcs.common.exception.ErrorResponse;
+import com.tcs.common.exception.RateLimitExceededException;
 import com.tcs.common.exception.TcsException;
 import com.tcs.common.util.TraceContext;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -33,6 +35,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(response);
     }
 
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceeded(RateLimitExceededException ex) {
+        log.warn("Rate limit exceeded: {}", ex.getDetails());
+
+        ErrorResponse response = ErrorResponse.from(ex);
+        response.setTraceId(TraceContext.getTraceId());
+
+        // Retry-After is in whole seconds; the exact wait goes in a custom header
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf((ex.getRetryAfterMillis() + 999) / 1000))
+                .header("X-RateLimit-Retry-After-Ms", String.valueOf(ex.getRetryAfterMillis()))
+                .body(response);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationException(MethodArgumentNotValidException ex) {
         String details = ex.getBindingResult().getAllErrors().stream()
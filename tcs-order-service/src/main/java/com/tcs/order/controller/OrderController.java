@@ -1,18 +1,36 @@
 package com.tcs.order.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tcs.common.dto.BatchOrderRequest;
+import com.tcs.common.dto.BatchOrderResponse;
 import com.tcs.common.dto.CreateOrderRequest;
+import com.tcs.common.dto.OrderPageResponse;
 import com.tcs.common.dto.OrderResponse;
+import com.tcs.common.enums.OrderSide;
 import com.tcs.common.enums.OrderStatus;
+import com.tcs.common.util.StageTimings;
 import com.tcs.common.util.TraceContext;
+import com.tcs.order.domain.repository.OrderHistoryFilter;
+import com.tcs.order.service.OrderRateLimiter;
 import com.tcs.order.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.function.Supplier;
 
 /**
  * REST controller for order operations
@@ -24,6 +42,11 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.latency-tracing.enabled}")
+    private boolean latencyTracing;
 
     @PostMapping
     public ResponseEntity<OrderResponse> createOrder(
@@ -46,9 +69,54 @@ public class OrderController {
         log.info("Received order creation request for user {} with traceId {}",
                 request.getUserId(), TraceContext.getTraceId());
 
-        OrderResponse response = orderService.createOrder(request);
+        // Shed excess orders before they reach the database or the risk service
+        rateLimiter.acquire(request.getUserId(), request.getAccountId());
+
+        try {
+            OrderResponse response = retryOnConflict(() -> orderService.createOrder(request));
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            ResponseEntity.BodyBuilder created = ResponseEntity.status(HttpStatus.CREATED);
+            if (latencyTracing) {
+                // Risk call, insert and send durations, for the latency harness
+                created.header("Server-Timing", StageTimings.toHeaderValue());
+            }
+            return created.body(response);
+        } finally {
+            StageTimings.clear();
+        }
+    }
+
+    /**
+     * Submit a basket of orders. Results are per order, so the call itself succeeds
+     * even when some of its orders are invalid, rate limited or rejected.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchOrderResponse> createOrders(
+            @Valid @RequestBody BatchOrderRequest request,
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            @RequestHeader(value = "X-Trace-Id", required = false) String traceId) {
+
+        TraceContext.setTraceId(traceId != null ? traceId : TraceContext.generateTraceId());
+        if (userId != null) {
+            request.getOrders().stream()
+                    .filter(Objects::nonNull)
+                    .forEach(order -> order.setUserId(userId));
+        }
+
+        log.info("Received basket of {} orders for user {} with traceId {}",
+                request.getOrders().size(), userId, TraceContext.getTraceId());
+
+        try {
+            BatchOrderResponse response = retryOnConflict(() -> orderService.createOrders(request.getOrders()));
+
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+            if (latencyTracing) {
+                ok.header("Server-Timing", StageTimings.toHeaderValue());
+            }
+            return ok.body(response);
+        } finally {
+            StageTimings.clear();
+        }
     }
 
     @GetMapping("/{orderId}")
@@ -59,20 +127,75 @@ public class OrderController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<OrderResponse>> getUserOrders(
+    public ResponseEntity<OrderPageResponse> getUserOrders(
             @RequestHeader("X-User-Id") String userId,
             @RequestParam(required = false) OrderStatus status,
-            Pageable pageable) {
+            @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) OrderSide side,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
 
         log.info("Fetching orders for user {} with status {}", userId, status);
+        OrderHistoryFilter filter = historyFilter(userId, status, symbol, side, from, to);
+        return ResponseEntity.ok(orderService.getOrderHistory(filter, cursor, limit));
+    }
 
-        Page<OrderResponse> orders;
-        if (status != null) {
-            orders = orderService.getUserOrdersByStatus(userId, status, pageable);
-        } else {
-            orders = orderService.getUserOrders(userId, pageable);
+    /**
+     * Full order history as newline-delimited JSON, streamed from a database cursor
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUserOrders(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) OrderSide side,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+
+        log.info("Exporting orders for user {}", userId);
+        OrderHistoryFilter filter = historyFilter(userId, status, symbol, side, from, to);
+        StreamingResponseBody body = outputStream -> {
+            BufferedOutputStream output = new BufferedOutputStream(outputStream, 64 * 1024);
+            orderService.exportOrderHistory(filter, order -> {
+                try {
+                    output.write(objectMapper.writeValueAsBytes(order));
+                    output.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            output.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    /**
+     * Run an order creation once more if its insert broke a unique key, as when another request
+     * created the order with the same clientOrderId at the same instant. The first attempt rolled
+     * back, and the second finds that order and returns it.
+     */
+    private static <T> T retryOnConflict(Supplier<T> create) {
+        try {
+            return create.get();
+        } catch (DataIntegrityViolationException e) {
+            log.info("Order creation conflicted with a concurrent one, retrying: {}", e.getMessage());
+            return create.get();
         }
+    }
 
-        return ResponseEntity.ok(orders);
+    private static OrderHistoryFilter historyFilter(String userId, OrderStatus status, String symbol,
+                                                    OrderSide side, Instant from, Instant to) {
+        return OrderHistoryFilter.builder()
+                .userId(userId)
+                .status(status)
+                .symbol(symbol)
+                .side(side)
+                .from(from)
+                .to(to)
+                .build();
     }
 }
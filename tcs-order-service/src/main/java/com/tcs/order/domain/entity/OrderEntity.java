@@ -16,12 +16,11 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.math.BigDecimal;
 import java.time.Instant;
 
+/**
+ * An order. The table is partitioned by day of created_at; its indexes live in the migrations.
+ */
 @Entity
-@Table(name = "orders", indexes = {
-        @Index(name = "idx_user_created", columnList = "userId,createdAt"),
-        @Index(name = "idx_symbol_status", columnList = "symbol,status,createdAt"),
-        @Index(name = "idx_client_order", columnList = "clientOrderId")
-})
+@Table(name = "orders")
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @Builder
@@ -29,11 +28,19 @@ import java.time.Instant;
 @AllArgsConstructor
 public class OrderEntity {
 
+    /**
+     * Ids taken per call of orders_id_seq, which increments by as much
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled: one sequence call per 50 ids, and inserts can be batched unlike with IDENTITY
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_id")
+    @SequenceGenerator(name = "orders_id", sequenceName = "orders_id_seq",
+            allocationSize = OrderEntity.ID_ALLOCATION_SIZE)
     private Long id;
 
-    @Column(nullable = false, unique = true, length = 64)
+    @Column(nullable = false, length = 64)
     private String orderId;
 
     @Column(length = 64)
@@ -0,0 +1,64 @@
+package com.tcs.order.domain.repository;
+
+import com.tcs.common.util.SnowflakeIdGenerator;
+import lombok.Value;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Bounds on the created_at of orders from the time in their Snowflake IDs, so lookups by order
+ * ID only search the daily partitions around it.
+ *
+ * An order is inserted moments after its ID is issued, once its risk check is done. The margin
+ * also covers a clock stepping back, which the generator rides out by issuing IDs ahead of it.
+ */
+@Value
+public class CreatedAtRange {
+
+    static final Duration MARGIN = Duration.ofHours(1);
+
+    private static final String PREFIX = "ORD-";
+    private static final int SNOWFLAKE_LENGTH = PREFIX.length() + 13;
+
+    Instant from;
+    Instant to;
+
+    /**
+     * Range of the order's created_at, or null for an ID issued before Snowflake IDs, which
+     * carries no time
+     */
+    public static CreatedAtRange of(String orderId) {
+        Instant issued = issuedAt(orderId);
+        return issued != null ? new CreatedAtRange(issued.minus(MARGIN), issued.plus(MARGIN)) : null;
+    }
+
+    /**
+     * Smallest range holding the created_at of all the orders, or null if one of them has no range
+     */
+    public static CreatedAtRange covering(Collection<String> orderIds) {
+        Instant first = null;
+        Instant last = null;
+        for (String orderId : orderIds) {
+            Instant issued = issuedAt(orderId);
+            if (issued == null) {
+                return null;
+            }
+            first = first == null || issued.isBefore(first) ? issued : first;
+            last = last == null || issued.isAfter(last) ? issued : last;
+        }
+        return first != null ? new CreatedAtRange(first.minus(MARGIN), last.plus(MARGIN)) : null;
+    }
+
+    private static Instant issuedAt(String orderId) {
+        if (orderId.length() != SNOWFLAKE_LENGTH || !orderId.startsWith(PREFIX)) {
+            return null;
+        }
+        try {
+            return SnowflakeIdGenerator.timestampOf(SnowflakeIdGenerator.decode(orderId));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.tcs.order.domain.repository;
+
+import com.tcs.order.domain.entity.OrderEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts a basket of orders as one JDBC batch per chunk, in the caller's transaction.
+ *
+ * Ids come from orders_id_seq in pooled blocks, as Hibernate takes them: each sequence value
+ * is the top of a block of {@link OrderEntity#ID_ALLOCATION_SIZE} ids. With reWriteBatchedInserts
+ * on the connection URL, the driver sends each batch as a few multi-row INSERTs.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderBatchWriter {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO orders (id, order_id, client_order_id, user_id, "
+            + "account_id, symbol, side, type, quantity, price, time_in_force, status, filled_quantity, "
+            + "reject_reason, trace_id, created_at, updated_at, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert the orders, filling in their ids, timestamps and version
+     */
+    public void insertAll(List<OrderEntity> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<Long> ids = allocateIds(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            OrderEntity order = orders.get(i);
+            order.setId(ids.get(i));
+            order.setCreatedAt(now);
+            order.setUpdatedAt(now);
+            order.setVersion(0L);
+        }
+
+        Timestamp timestamp = Timestamp.from(now);
+        for (int from = 0; from < orders.size(); from += CHUNK_SIZE) {
+            List<OrderEntity> chunk = orders.subList(from, Math.min(orders.size(), from + CHUNK_SIZE));
+            jdbcTemplate.batchUpdate(INSERT_SQL, parameters(chunk, timestamp));
+        }
+    }
+
+    private List<Long> allocateIds(int count) {
+        int blocks = (count + OrderEntity.ID_ALLOCATION_SIZE - 1) / OrderEntity.ID_ALLOCATION_SIZE;
+        List<Long> tops = jdbcTemplate.queryForList(
+                "SELECT nextval('orders_id_seq') FROM generate_series(1, ?)", Long.class, blocks);
+        List<Long> ids = new ArrayList<>(blocks * OrderEntity.ID_ALLOCATION_SIZE);
+        for (long top : tops) {
+            for (long id = top - OrderEntity.ID_ALLOCATION_SIZE + 1; id <= top; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static List<Object[]> parameters(List<OrderEntity> chunk, Timestamp timestamp) {
+        List<Object[]> parameters = new ArrayList<>(chunk.size());
+        for (OrderEntity order : chunk) {
+            parameters.add(new Object[]{
+                    order.getId(),
+                    order.getOrderId(),
+                    order.getClientOrderId(),
+                    order.getUserId(),
+                    order.getAccountId(),
+                    order.getSymbol(),
+                    order.getSide().name(),
+                    order.getType().name(),
+                    order.getQuantity(),
+                    order.getPrice(),
+                    order.getTimeInForce().name(),
+                    order.getStatus().name(),
+                    order.getFilledQuantity(),
+                    order.getRejectReason(),
+                    order.getTraceId(),
+                    timestamp,
+                    timestamp
+            });
+        }
+        return parameters;
+    }
+}
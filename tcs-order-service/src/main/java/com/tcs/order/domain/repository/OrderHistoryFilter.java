@@ -0,0 +1,22 @@
+package com.tcs.order.domain.repository;
+
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.enums.OrderStatus;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Filters of a user's order history; null fields do not filter
+ */
+@Value
+@Builder
+public class OrderHistoryFilter {
+    String userId;
+    OrderStatus status;
+    String symbol;
+    OrderSide side;
+    Instant from;       // inclusive
+    Instant to;         // exclusive
+}
@@ -0,0 +1,140 @@
+package com.tcs.order.domain.repository;
+
+import com.tcs.common.dto.OrderResponse;
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.enums.OrderStatus;
+import com.tcs.common.enums.OrderType;
+import com.tcs.common.enums.TimeInForce;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads a user's order history newest first, by keyset on (created_at, id) rather than OFFSET,
+ * so every page costs the same however deep it is. Served by the (user_id, created_at, id) index.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderHistoryRepository {
+
+    private static final String COLUMNS = "id, order_id, client_order_id, user_id, account_id, symbol, side, type, "
+            + "quantity, price, time_in_force, status, filled_quantity, avg_price, reject_reason, "
+            + "created_at, updated_at";
+
+    private static final RowMapper<HistoryRow> ROW_MAPPER = (rs, rowNum) -> new HistoryRow(
+            rs.getLong("id"), rs.getTimestamp("created_at").toInstant(), toResponse(rs));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Up to {@code limit} orders older than the position, or the newest ones without a position
+     */
+    public List<HistoryRow> findPage(OrderHistoryFilter filter, Position after, int limit) {
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder sql = select(filter, parameters);
+        if (after != null) {
+            sql.append(" AND (created_at, id) < (?, ?)");
+            parameters.add(Timestamp.from(after.getCreatedAt()));
+            parameters.add(after.getId());
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        parameters.add(limit);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, parameters.toArray());
+    }
+
+    /**
+     * Hand every matching order to the consumer, newest first, through a server-side cursor
+     * fetching {@code fetchSize} rows at a time
+     */
+    public void stream(OrderHistoryFilter filter, int fetchSize, Consumer<OrderResponse> consumer) {
+        List<Object> parameters = new ArrayList<>();
+        String sql = select(filter, parameters).append(" ORDER BY created_at DESC, id DESC").toString();
+        // Postgres only uses a cursor for a fetch size inside a transaction
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(toResponse(rs))));
+    }
+
+    private static StringBuilder select(OrderHistoryFilter filter, List<Object> parameters) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM orders WHERE user_id = ?");
+        parameters.add(filter.getUserId());
+        if (filter.getStatus() != null) {
+            sql.append(" AND status = ?");
+            parameters.add(filter.getStatus().name());
+        }
+        if (filter.getSymbol() != null) {
+            sql.append(" AND symbol = ?");
+            parameters.add(filter.getSymbol());
+        }
+        if (filter.getSide() != null) {
+            sql.append(" AND side = ?");
+            parameters.add(filter.getSide().name());
+        }
+        if (filter.getFrom() != null) {
+            sql.append(" AND created_at >= ?");
+            parameters.add(Timestamp.from(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND created_at < ?");
+            parameters.add(Timestamp.from(filter.getTo()));
+        }
+        return sql;
+    }
+
+    private static OrderResponse toResponse(ResultSet rs) throws SQLException {
+        return OrderResponse.builder()
+                .orderId(rs.getString("order_id"))
+                .clientOrderId(rs.getString("client_order_id"))
+                .userId(rs.getString("user_id"))
+                .accountId(rs.getString("account_id"))
+                .symbol(rs.getString("symbol"))
+                .side(OrderSide.valueOf(rs.getString("side")))
+                .type(OrderType.valueOf(rs.getString("type")))
+                .quantity(rs.getBigDecimal("quantity"))
+                .price(rs.getBigDecimal("price"))
+                .timeInForce(TimeInForce.valueOf(rs.getString("time_in_force")))
+                .status(OrderStatus.valueOf(rs.getString("status")))
+                .filledQuantity(rs.getBigDecimal("filled_quantity"))
+                .avgPrice(rs.getBigDecimal("avg_price"))
+                .rejectReason(rs.getString("reject_reason"))
+                .createdAt(rs.getTimestamp("created_at").toInstant())
+                .updatedAt(rs.getTimestamp("updated_at").toInstant())
+                .build();
+    }
+
+    /**
+     * Keyset position of an order in the history
+     */
+    @Value
+    public static class Position {
+        Instant createdAt;
+        long id;
+    }
+
+    @Value
+    public static class HistoryRow {
+        long id;
+        Instant createdAt;
+        OrderResponse order;
+    }
+}
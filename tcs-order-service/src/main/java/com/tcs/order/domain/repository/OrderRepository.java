@@ -1,36 +1,34 @@
 package com.tcs.order.domain.repository;
 
-import com.tcs.common.enums.OrderStatus;
 import com.tcs.order.domain.entity.OrderEntity;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
-import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
 
-    Optional<OrderEntity> findByOrderId(String orderId);
+    /**
+     * Order by ID, searching only the partitions of the days around the time in its ID
+     * (see {@link CreatedAtRange}); IDs without one search every partition
+     */
+    default Optional<OrderEntity> findByOrderId(String orderId) {
+        CreatedAtRange range = CreatedAtRange.of(orderId);
+        return range != null
+                ? findByOrderIdAndCreatedAtBetween(orderId, range.getFrom(), range.getTo())
+                : findInAnyPartition(orderId);
+    }
 
-    Optional<OrderEntity> findByClientOrderId(String clientOrderId);
+    Optional<OrderEntity> findByOrderIdAndCreatedAtBetween(String orderId, Instant from, Instant to);
 
-    @Query("SELECT o FROM OrderEntity o WHERE o.userId = :userId ORDER BY o.createdAt DESC")
-    Page<OrderEntity> findByUserId(@Param("userId") String userId, Pageable pageable);
+    @Query("SELECT o FROM OrderEntity o WHERE o.orderId = :orderId")
+    Optional<OrderEntity> findInAnyPartition(@Param("orderId") String orderId);
 
-    @Query("SELECT o FROM OrderEntity o WHERE o.userId = :userId AND o.status = :status ORDER BY o.createdAt DESC")
-    Page<OrderEntity> findByUserIdAndStatus(@Param("userId") String userId,
-                                            @Param("status") OrderStatus status,
-                                            Pageable pageable);
-
-    @Query("SELECT o FROM OrderEntity o WHERE o.symbol = :symbol AND o.status IN :statuses ORDER BY o.createdAt DESC")
-    List<OrderEntity> findBySymbolAndStatusIn(@Param("symbol") String symbol,
-                                              @Param("statuses") List<OrderStatus> statuses);
+    Optional<OrderEntity> findByUserIdAndClientOrderId(String userId, String clientOrderId);
 
     @Query("SELECT COUNT(o) FROM OrderEntity o WHERE o.userId = :userId AND o.createdAt >= :since")
     long countByUserIdAndCreatedAtAfter(@Param("userId") String userId, @Param("since") Instant since);
@@ -0,0 +1,164 @@
+package com.tcs.order.domain.repository;
+
+import com.tcs.common.enums.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies order status updates with one set-based UPDATE per chunk of orders.
+ *
+ * An update only moves an order forward: it is skipped if the order is already final or has
+ * filled more than the update says, so redelivered or stale updates are harmless. Every applied
+ * update bumps the version, so a concurrent JPA save of the same order fails its optimistic lock.
+ * Both statements bound created_at by the times in the order IDs ({@link CreatedAtRange}), so
+ * they only touch the partitions of the days the orders were created on.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderStatusBatchWriter {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String UPDATE_PREFIX = """
+            UPDATE orders o
+            SET status = v.status,
+                filled_quantity = v.filled_quantity,
+                avg_price = COALESCE(v.avg_price, o.avg_price),
+                reject_reason = COALESCE(v.reject_reason, o.reject_reason),
+                updated_at = CURRENT_TIMESTAMP,
+                version = o.version + 1
+            FROM (VALUES\s""";
+
+    private static final String UPDATE_ROW =
+            "(CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS NUMERIC), CAST(? AS NUMERIC), CAST(? AS VARCHAR))";
+
+    private static final String UPDATE_JOIN = """
+            ) AS v(order_id, status, filled_quantity, avg_price, reject_reason)
+            WHERE o.order_id = v.order_id
+            """;
+
+    private static final String CREATED_AT_BOUND = "  AND o.created_at BETWEEN ? AND ?\n";
+
+    private static final String UPDATE_SUFFIX = """
+              AND o.status NOT IN ('FILLED', 'CANCELLED', 'REJECTED', 'EXPIRED', 'RISK_REJECTED')
+              AND o.filled_quantity <= v.filled_quantity
+            RETURNING o.order_id, o.status, o.filled_quantity, o.avg_price, o.reject_reason, o.updated_at,
+                o.version""";
+
+    private static final RowMapper<AppliedUpdate> APPLIED_MAPPER = (rs, rowNum) -> new AppliedUpdate(
+            rs.getString("order_id"),
+            OrderStatus.valueOf(rs.getString("status")),
+            rs.getBigDecimal("filled_quantity"),
+            rs.getBigDecimal("avg_price"),
+            rs.getString("reject_reason"),
+            rs.getTimestamp("updated_at").toInstant(),
+            rs.getLong("version"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Apply updates, at most one per order
+     *
+     * @return the resulting state of the orders that were updated
+     */
+    public List<AppliedUpdate> apply(List<StatusUpdate> updates) {
+        List<AppliedUpdate> applied = new ArrayList<>(updates.size());
+        for (int from = 0; from < updates.size(); from += CHUNK_SIZE) {
+            List<StatusUpdate> chunk = updates.subList(from, Math.min(updates.size(), from + CHUNK_SIZE));
+            CreatedAtRange range = CreatedAtRange.covering(chunk.stream().map(StatusUpdate::getOrderId).toList());
+            applied.addAll(jdbcTemplate.query(updateSql(chunk.size(), range != null), APPLIED_MAPPER,
+                    parameters(chunk, range)));
+        }
+        return applied;
+    }
+
+    /**
+     * Of the given orders, those that exist
+     */
+    public Set<String> findExisting(Collection<String> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(orderIds.size(), "?"));
+        String sql = "SELECT order_id FROM orders WHERE order_id IN (" + placeholders + ")";
+        List<Object> parameters = new ArrayList<>(orderIds);
+        CreatedAtRange range = CreatedAtRange.covering(orderIds);
+        if (range != null) {
+            sql += " AND created_at BETWEEN ? AND ?";
+            parameters.add(Timestamp.from(range.getFrom()));
+            parameters.add(Timestamp.from(range.getTo()));
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(sql, String.class, parameters.toArray()));
+    }
+
+    private static String updateSql(int rows, boolean bounded) {
+        StringBuilder sql = new StringBuilder(UPDATE_PREFIX.length() + rows * (UPDATE_ROW.length() + 2) + 256);
+        sql.append(UPDATE_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(UPDATE_ROW);
+        }
+        sql.append(UPDATE_JOIN);
+        if (bounded) {
+            sql.append(CREATED_AT_BOUND);
+        }
+        return sql.append(UPDATE_SUFFIX).toString();
+    }
+
+    private static Object[] parameters(List<StatusUpdate> chunk, CreatedAtRange range) {
+        List<Object> parameters = new ArrayList<>(chunk.size() * 5 + 2);
+        for (StatusUpdate update : chunk) {
+            parameters.add(update.getOrderId());
+            parameters.add(update.getStatus().name());
+            parameters.add(update.getFilledQuantity());
+            parameters.add(update.getAvgPrice());
+            parameters.add(update.getRejectReason());
+        }
+        if (range != null) {
+            parameters.add(Timestamp.from(range.getFrom()));
+            parameters.add(Timestamp.from(range.getTo()));
+        }
+        return parameters.toArray();
+    }
+
+    /**
+     * Latest state of one order, as reported by the trade engine
+     */
+    @Value
+    public static class StatusUpdate {
+        String orderId;
+        OrderStatus status;
+        BigDecimal filledQuantity;
+        BigDecimal avgPrice;
+        String rejectReason;
+    }
+
+    /**
+     * State of an order after an applied update
+     */
+    @Value
+    public static class AppliedUpdate {
+        String orderId;
+        OrderStatus status;
+        BigDecimal filledQuantity;
+        BigDecimal avgPrice;
+        String rejectReason;
+        Instant updatedAt;
+        long version;
+    }
+}
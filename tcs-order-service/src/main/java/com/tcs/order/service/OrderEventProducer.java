@@ -1,15 +1,19 @@
 package com.tcs.order.service;
 
 import com.tcs.common.constants.KafkaTopics;
+import com.tcs.common.events.avro.OrderCreatedEvent;
+import com.tcs.common.events.avro.OrderUpdatedEvent;
+import com.tcs.common.util.LatencyHeaders;
 import com.tcs.order.domain.entity.OrderEntity;
-import com.tcs.order.service.dto.OrderCreatedEvent;
-import com.tcs.order.service.dto.OrderUpdatedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -22,44 +26,61 @@ public class OrderEventProducer {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
+    @Value("${app.latency-tracing.enabled}")
+    private boolean latencyTracing;
+
     public void publishOrderCreated(OrderEntity order) {
-        OrderCreatedEvent event = OrderCreatedEvent.builder()
-                .orderId(order.getOrderId())
-                .clientOrderId(order.getClientOrderId())
-                .userId(order.getUserId())
-                .accountId(order.getAccountId())
-                .symbol(order.getSymbol())
-                .side(order.getSide().name())
-                .type(order.getType().name())
-                .quantity(order.getQuantity().toString())
-                .price(order.getPrice() != null ? order.getPrice().toString() : null)
-                .timeInForce(order.getTimeInForce().name())
-                .status(order.getStatus().name())
-                .timestamp(order.getCreatedAt().toEpochMilli())
-                .traceId(order.getTraceId())
+        OrderCreatedEvent event = OrderCreatedEvent.newBuilder()
+                .setOrderId(order.getOrderId())
+                .setClientOrderId(order.getClientOrderId())
+                .setUserId(order.getUserId())
+                .setAccountId(order.getAccountId())
+                .setSymbol(order.getSymbol())
+                .setSide(order.getSide().name())
+                .setType(order.getType().name())
+                .setQuantity(order.getQuantity().toString())
+                .setPrice(order.getPrice() != null ? order.getPrice().toString() : null)
+                .setTimeInForce(order.getTimeInForce().name())
+                .setStatus(order.getStatus().name())
+                .setTimestamp(order.getCreatedAt().toEpochMilli())
+                .setTraceId(order.getTraceId())
                 .build();
 
-        sendEvent(KafkaTopics.ORDERS, order.getOrderId(), event);
+        // Keyed by symbol: each symbol's orders stay on one partition, and so on one engine instance
+        sendEvent(KafkaTopics.ORDERS, order.getSymbol(), event);
+    }
+
+    /**
+     * Publish the creation of a basket of orders. The sends are issued back to back, so the
+     * producer packs them into one batch per partition within linger.ms.
+     */
+    public void publishOrdersCreated(List<OrderEntity> orders) {
+        for (OrderEntity order : orders) {
+            publishOrderCreated(order);
+        }
     }
 
     public void publishOrderUpdated(OrderEntity order) {
-        OrderUpdatedEvent event = OrderUpdatedEvent.builder()
-                .orderId(order.getOrderId())
-                .userId(order.getUserId())
-                .status(order.getStatus().name())
-                .filledQuantity(order.getFilledQuantity().toString())
-                .avgPrice(order.getAvgPrice() != null ? order.getAvgPrice().toString() : null)
-                .rejectReason(order.getRejectReason())
-                .timestamp(order.getUpdatedAt().toEpochMilli())
-                .traceId(order.getTraceId())
+        OrderUpdatedEvent event = OrderUpdatedEvent.newBuilder()
+                .setOrderId(order.getOrderId())
+                .setUserId(order.getUserId())
+                .setStatus(order.getStatus().name())
+                .setFilledQuantity(order.getFilledQuantity().toString())
+                .setAvgPrice(order.getAvgPrice() != null ? order.getAvgPrice().toString() : null)
+                .setRejectReason(order.getRejectReason())
+                .setTimestamp(order.getUpdatedAt().toEpochMilli())
+                .setTraceId(order.getTraceId())
                 .build();
 
         sendEvent(KafkaTopics.ORDER_STATUS, order.getOrderId(), event);
     }
 
     private void sendEvent(String topic, String key, Object event) {
-        CompletableFuture<SendResult<String, Object>> future =
-                kafkaTemplate.send(topic, key, event);
+        ProducerRecord<String, Object> record = new ProducerRecord<>(topic, key, event);
+        if (latencyTracing) {
+            LatencyHeaders.add(record.headers(), LatencyHeaders.SENT_AT, LatencyHeaders.nowMicros());
+        }
+        CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(record);
 
         future.whenComplete((result, ex) -> {
             if (ex == null) {
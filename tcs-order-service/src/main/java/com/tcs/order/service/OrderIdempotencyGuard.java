@@ -0,0 +1,243 @@
+package com.tcs.order.service;
+
+import com.tcs.common.constants.RedisKeys;
+import com.tcs.common.dto.CreateOrderRequest;
+import com.tcs.common.dto.OrderResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Guards order creation against repeated submissions with one Redis round trip per order.
+ *
+ * An order claims its user's clientOrderId for app.order.idempotency-ttl seconds or, without one,
+ * a fingerprint of the request for app.order.double-click-window milliseconds. The claim stores the
+ * new order ID, so a repeat learns which order it repeats. Responses of recently created orders
+ * are kept in a small local near-cache, so repeats hitting the same instance skip Redis too.
+ * Claims expire, so a clientOrderId is also checked against the orders table, which has the
+ * last word.
+ */
+@Slf4j
+@Component
+public class OrderIdempotencyGuard {
+
+    // Claims the key for the new order ID, or returns the order ID that already holds it
+    private static final RedisScript<String> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            local existing = redis.call('GET', KEYS[1])
+            if existing then
+                return existing
+            end
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            return false
+            """, String.class);
+
+    // Drops a claim only if it still belongs to the given order
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long idempotencyTtlMillis;
+    private final long doubleClickWindowMillis;
+    private final Map<String, CachedResponse> nearCache;
+
+    public OrderIdempotencyGuard(StringRedisTemplate redisTemplate,
+                                 @Value("${app.order.idempotency-ttl}") long idempotencyTtlSeconds,
+                                 @Value("${app.order.double-click-window}") long doubleClickWindowMillis,
+                                 @Value("${app.order.near-cache-size}") int nearCacheSize) {
+        this.redisTemplate = redisTemplate;
+        this.idempotencyTtlMillis = idempotencyTtlSeconds * 1000;
+        this.doubleClickWindowMillis = doubleClickWindowMillis;
+        this.nearCache = new LinkedHashMap<>(nearCacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > nearCacheSize;
+            }
+        };
+    }
+
+    /**
+     * Claim the request for a new order
+     *
+     * @return the claim, holding the ID of the order that claimed the request first
+     */
+    public Claim claim(CreateOrderRequest request, String orderId) {
+        Claim claim = newClaim(request, orderId);
+        OrderResponse cached = getCached(claim.key);
+        if (cached != null) {
+            return claim.repeatOf(cached.getOrderId(), cached);
+        }
+        String existing = redisTemplate.execute(CLAIM_SCRIPT, List.of(claim.key),
+                orderId, String.valueOf(claim.ttlMillis));
+        return existing != null ? claim.repeatOf(existing, null) : claim;
+    }
+
+    /**
+     * Claim a basket of requests for new orders, in one pipelined round trip. A request repeating
+     * an earlier one of the same basket gets a repeat of that one's order.
+     *
+     * @return the claims, in the order of the requests
+     */
+    public List<Claim> claimAll(List<CreateOrderRequest> requests, List<String> orderIds) {
+        Claim[] claims = new Claim[requests.size()];
+        List<Integer> unresolved = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Claim claim = newClaim(requests.get(i), orderIds.get(i));
+            OrderResponse cached = getCached(claim.key);
+            if (cached != null) {
+                claims[i] = claim.repeatOf(cached.getOrderId(), cached);
+            } else {
+                claims[i] = claim;
+                unresolved.add(i);
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return Arrays.asList(claims);
+        }
+
+        byte[] script = CLAIM_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        List<Object> existing = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i : unresolved) {
+                Claim claim = claims[i];
+                connection.scriptingCommands().eval(script, ReturnType.VALUE, 1,
+                        bytes(claim.key), bytes(claim.orderId), bytes(String.valueOf(claim.ttlMillis)));
+            }
+            return null;
+        });
+        for (int j = 0; j < unresolved.size(); j++) {
+            int i = unresolved.get(j);
+            if (existing.get(j) != null) {
+                claims[i] = claims[i].repeatOf((String) existing.get(j), null);
+            }
+        }
+        return Arrays.asList(claims);
+    }
+
+    /**
+     * Remember the response of a claim's order once it is committed
+     */
+    public void complete(Claim claim, OrderResponse response) {
+        synchronized (nearCache) {
+            nearCache.put(claim.key, new CachedResponse(response, System.currentTimeMillis() + claim.ttlMillis));
+        }
+    }
+
+    /**
+     * Give up a claim whose order was not created, so the request can be retried
+     */
+    public void release(Claim claim) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(claim.key), claim.orderId);
+        } catch (RuntimeException e) {
+            // The claim expires on its own
+            log.warn("Failed to release order claim {}: {}", claim.key, e.getMessage());
+        }
+    }
+
+    private Claim newClaim(CreateOrderRequest request, String orderId) {
+        return request.getClientOrderId() != null
+                ? new Claim(RedisKeys.idempotency(request.getUserId(), request.getClientOrderId()), orderId,
+                idempotencyTtlMillis)
+                : new Claim(RedisKeys.submitTime(request.getUserId(), fingerprint(request)), orderId,
+                doubleClickWindowMillis);
+    }
+
+    private OrderResponse getCached(String key) {
+        synchronized (nearCache) {
+            CachedResponse cached = nearCache.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expiresAt <= System.currentTimeMillis()) {
+                nearCache.remove(key);
+                return null;
+            }
+            return cached.response;
+        }
+    }
+
+    /**
+     * Identifies a repeat of the same order from the same user: a SHA-256 digest of the order's
+     * fields, so distinct orders never pass for repeats of each other
+     */
+    private static String fingerprint(CreateOrderRequest request) {
+        String fields = String.join("|", request.getAccountId(), request.getSymbol(),
+                String.valueOf(request.getSide()), String.valueOf(request.getType()),
+                String.valueOf(request.getTimeInForce()), request.getQuantity().toPlainString(),
+                request.getPrice() != null ? request.getPrice().toPlainString() : "");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes(fields));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform provides SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record CachedResponse(OrderResponse response, long expiresAt) {
+    }
+
+    /**
+     * A request's claim: new if {@link #isRepeat()} is false, otherwise the order it repeats
+     */
+    public static final class Claim {
+        private final String key;
+        private final String orderId;
+        private final long ttlMillis;
+        private final boolean repeat;
+        private final OrderResponse cachedResponse;
+
+        private Claim(String key, String orderId, long ttlMillis) {
+            this(key, orderId, ttlMillis, false, null);
+        }
+
+        private Claim(String key, String orderId, long ttlMillis, boolean repeat, OrderResponse cachedResponse) {
+            this.key = key;
+            this.orderId = orderId;
+            this.ttlMillis = ttlMillis;
+            this.repeat = repeat;
+            this.cachedResponse = cachedResponse;
+        }
+
+        private Claim repeatOf(String existingOrderId, OrderResponse response) {
+            return new Claim(key, existingOrderId, ttlMillis, true, response);
+        }
+
+        public boolean isRepeat() {
+            return repeat;
+        }
+
+        public String getOrderId() {
+            return orderId;
+        }
+
+        /**
+         * Response of the repeated order, if this instance created it recently
+         */
+        public OrderResponse getCachedResponse() {
+            return cachedResponse;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.tcs.order.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps daily partitions of the orders table created app.order.partitions.days-ahead days ahead,
+ * so an insert never finds its day missing. Safe to run on every replica at once.
+ *
+ * Partitions past app.order.partitions.retention-days are detached into the orders_archive
+ * schema once none of their orders is open, so the table, its indexes and lookups without a
+ * created_at bound stay at the retention window. Archived days stay queryable there. The
+ * legacy partition goes once the first daily one is past the horizon. A transaction-scoped
+ * advisory lock lets only one replica archive.
+ */
+@Slf4j
+@Component
+public class OrderPartitionMaintainer {
+
+    private static final String LEGACY = "orders_legacy";
+    private static final String DAILY_PREFIX = "orders_";
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    // Arbitrary key of the advisory lock taken while archiving, unique within the database
+    private static final long ARCHIVE_LOCK_KEY = 0x5443534F52444552L;  // "TCSORDER"
+
+    private static final String OPEN_ORDERS_SQL = "SELECT EXISTS (SELECT 1 FROM %s WHERE status NOT IN "
+            + "('FILLED', 'CANCELLED', 'REJECTED', 'EXPIRED', 'RISK_REJECTED'))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int daysAhead;
+    private final int retentionDays;
+
+    public OrderPartitionMaintainer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                    @Value("${app.order.partitions.days-ahead}") int daysAhead,
+                                    @Value("${app.order.partitions.retention-days}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.daysAhead = daysAhead;
+        this.retentionDays = retentionDays;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.order.partitions.check-interval-ms}")
+    public void createUpcomingPartitions() {
+        try {
+            Integer created = jdbcTemplate.queryForObject("SELECT create_orders_partitions(?)", Integer.class,
+                    daysAhead);
+            if (created != null && created > 0) {
+                log.info("Created {} upcoming daily partitions of orders", created);
+            }
+        } catch (RuntimeException e) {
+            // Retried next interval, with days of partitions still ahead
+            log.error("Failed to create upcoming partitions of orders: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.order.partitions.check-interval-ms}",
+            fixedDelayString = "${app.order.partitions.check-interval-ms}")
+    public void archiveExpiredPartitions() {
+        try {
+            // One transaction per partition, each holding the lock only briefly
+            LocalDate horizon = LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays);
+            for (String partition : expiredPartitions(horizon)) {
+                if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> archive(partition)))) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Nothing was detached for the failed partition; retried next interval
+            log.error("Failed to archive partitions of orders: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Attached partitions wholly before the horizon, oldest first
+     */
+    private List<String> expiredPartitions(LocalDate horizon) {
+        List<String> names = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'orders'::regclass
+                """, String.class);
+        List<LocalDate> days = names.stream()
+                .map(OrderPartitionMaintainer::dayOf)
+                .filter(Objects::nonNull)
+                .sorted()
+                .toList();
+        List<String> expired = new ArrayList<>();
+        // The legacy partition ends where the first daily one begins
+        if (names.contains(LEGACY) && !days.isEmpty() && !days.get(0).isAfter(horizon)) {
+            expired.add(LEGACY);
+        }
+        days.stream()
+                .filter(day -> day.isBefore(horizon))
+                .forEach(day -> expired.add(DAILY_PREFIX + DAY_FORMAT.format(day)));
+        return expired;
+    }
+
+    /**
+     * Detach the partition into the archive schema unless it still holds open orders or another
+     * replica is archiving
+     *
+     * @return whether to go on with the next partition
+     */
+    private boolean archive(String partition) {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                Boolean.class, ARCHIVE_LOCK_KEY))) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(OPEN_ORDERS_SQL.formatted(partition), Boolean.class))) {
+            log.debug("Keeping {} past retention while it has open orders", partition);
+            return true;
+        }
+        long start = System.currentTimeMillis();
+        jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION " + partition);
+        jdbcTemplate.execute("ALTER TABLE " + partition + " SET SCHEMA orders_archive");
+        log.info("Archived {} in {} ms", partition, System.currentTimeMillis() - start);
+        return true;
+    }
+
+    private static LocalDate dayOf(String name) {
+        if (!name.startsWith(DAILY_PREFIX) || LEGACY.equals(name)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(name.substring(DAILY_PREFIX.length()), DAY_FORMAT);
+        } catch (DateTimeParseException e) {
+            // Not one of ours
+            return null;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.tcs.order.service;
+
+import com.tcs.common.constants.RedisKeys;
+import com.tcs.common.exception.RateLimitExceededException;
+import com.tcs.order.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limits per user and per account at order ingress.
+ *
+ * Requests take tokens from local buckets only. Every app.rate-limit.sync-interval-ms the tokens
+ * taken locally are charged to a shared bucket per key in Redis, in one pipelined round trip, and
+ * each local bucket is lowered to the shared level. Replicas thereby share one budget, overshooting
+ * it by at most about one sync interval of traffic each, without a Redis call per request.
+ */
+@Slf4j
+@Component
+public class OrderRateLimiter {
+
+    // Refills the shared bucket to Redis time, charges the tokens taken and returns the level left.
+    // Debt is bounded by the burst, so a replica that overshot recovers within burst / rate.
+    private static final byte[] CHARGE_SCRIPT = """
+            local now = redis.call('TIME')
+            local nowMs = tonumber(now[1]) * 1000 + math.floor(tonumber(now[2]) / 1000)
+            local rate = tonumber(ARGV[1])
+            local burst = tonumber(ARGV[2])
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1]) or burst
+            local ts = tonumber(state[2]) or nowMs
+            tokens = math.min(burst, tokens + math.max(0, nowMs - ts) * rate / 1000)
+            tokens = math.max(-burst, tokens - tonumber(ARGV[3]))
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', nowMs)
+            redis.call('PEXPIRE', KEYS[1], ARGV[4])
+            return tostring(tokens)
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimitProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final Counter rejectedCounter;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public OrderRateLimiter(RateLimitProperties properties, StringRedisTemplate redisTemplate,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.rejectedCounter = Counter.builder("tcs.order.rate-limited")
+                .description("Orders rejected by ingress rate limits")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take one token from the user's and the account's bucket, or neither
+     *
+     * @throws RateLimitExceededException if either bucket is empty
+     */
+    public void acquire(String userId, String accountId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        Bucket userBucket = userId != null
+                ? bucket("user:" + userId, properties.getUserRate(), properties.getUserBurst())
+                : null;
+        Bucket accountBucket = bucket("account:" + accountId, properties.getAccountRate(),
+                properties.getAccountBurst());
+
+        long waitMillis = userBucket != null ? userBucket.tryTake(now) : 0;
+        if (waitMillis == 0) {
+            waitMillis = accountBucket.tryTake(now);
+            if (waitMillis > 0 && userBucket != null) {
+                userBucket.giveBack();
+            }
+        }
+        if (waitMillis > 0) {
+            rejectedCounter.increment();
+            log.debug("Rate limited order for user {} account {}, retry in {} ms", userId, accountId, waitMillis);
+            throw new RateLimitExceededException("Too many orders for user " + userId + " or account "
+                    + accountId, waitMillis);
+        }
+    }
+
+    /**
+     * Charge locally taken tokens to the shared buckets and adopt their levels
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.sync-interval-ms}")
+    public void sync() {
+        if (!properties.isEnabled() || buckets.isEmpty()) {
+            return;
+        }
+        long nowMillis = System.currentTimeMillis();
+        List<Bucket> charged = new ArrayList<>();
+        List<Integer> takenCounts = new ArrayList<>();
+        buckets.values().removeIf(bucket -> {
+            int taken = bucket.drainTaken();
+            if (taken > 0) {
+                charged.add(bucket);
+                takenCounts.add(taken);
+                return false;
+            }
+            return nowMillis - bucket.lastUsedMillis > properties.getIdleEvictMs();
+        });
+        if (charged.isEmpty()) {
+            return;
+        }
+
+        List<Object> levels;
+        try {
+            levels = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < charged.size(); i++) {
+                    Bucket bucket = charged.get(i);
+                    connection.scriptingCommands().eval(CHARGE_SCRIPT, ReturnType.VALUE, 1,
+                            bytes(RedisKeys.rateLimit(bucket.key)),
+                            bytes(String.valueOf(bucket.rate)),
+                            bytes(String.valueOf(bucket.burst)),
+                            bytes(String.valueOf(takenCounts.get(i))),
+                            bytes(String.valueOf(bucket.redisTtlMillis())));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // Keep limiting locally; the tokens are charged with the next sync
+            log.warn("Failed to sync rate limits for {} keys: {}", charged.size(), e.getMessage());
+            for (int i = 0; i < charged.size(); i++) {
+                charged.get(i).restoreTaken(takenCounts.get(i));
+            }
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (int i = 0; i < charged.size(); i++) {
+            charged.get(i).lowerTo(Double.parseDouble(String.valueOf(levels.get(i))), now);
+        }
+    }
+
+    private Bucket bucket(String key, double rate, int burst) {
+        return buckets.computeIfAbsent(key, k -> new Bucket(k, rate, burst));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Bucket {
+        private final String key;
+        private final double rate;      // tokens per second
+        private final int burst;
+        private double tokens;
+        private long refilledAtNanos;
+        private int taken;              // since the last sync
+        private volatile long lastUsedMillis = System.currentTimeMillis();
+
+        private Bucket(String key, double rate, int burst) {
+            this.key = key;
+            this.rate = rate;
+            this.burst = burst;
+            this.tokens = burst;
+            this.refilledAtNanos = System.nanoTime();
+        }
+
+        /**
+         * @return 0 if a token was taken, otherwise milliseconds until one is available
+         */
+        synchronized long tryTake(long now) {
+            refill(now);
+            lastUsedMillis = System.currentTimeMillis();
+            if (tokens >= 1) {
+                tokens--;
+                taken++;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) * 1000 / rate));
+        }
+
+        synchronized void giveBack() {
+            tokens++;
+            taken--;
+        }
+
+        synchronized int drainTaken() {
+            int drained = taken;
+            taken = 0;
+            return drained;
+        }
+
+        synchronized void restoreTaken(int count) {
+            taken += count;
+        }
+
+        synchronized void lowerTo(double sharedTokens, long now) {
+            refill(now);
+            tokens = Math.min(tokens, sharedTokens);
+        }
+
+        long redisTtlMillis() {
+            // Long enough to outlive a refill to full, after which the key is equivalent to a new one
+            return Math.max(TimeUnit.MINUTES.toMillis(1), (long) Math.ceil(burst * 1000 / rate) * 2);
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAtNanos) * rate / 1_000_000_000);
+            refilledAtNanos = now;
+        }
+    }
+}
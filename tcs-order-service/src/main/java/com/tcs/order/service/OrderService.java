@@ -1,29 +1,49 @@
 package com.tcs.order.service;
 
+import com.tcs.common.dto.BatchOrderResponse;
 import com.tcs.common.dto.CreateOrderRequest;
+import com.tcs.common.dto.OrderPageResponse;
 import com.tcs.common.dto.OrderResponse;
 import com.tcs.common.enums.OrderStatus;
 import com.tcs.common.enums.OrderType;
 import com.tcs.common.exception.ErrorCode;
 import com.tcs.common.exception.TcsException;
-import com.tcs.common.util.IdGenerator;
+import com.tcs.common.util.IdSource;
+import com.tcs.common.util.StageTimings;
 import com.tcs.common.util.TraceContext;
+import com.tcs.order.client.CoalescingRiskClient;
 import com.tcs.order.client.RiskServiceClient;
 import com.tcs.order.client.dto.RiskCheckRequest;
 import com.tcs.order.client.dto.RiskCheckResponse;
 import com.tcs.order.domain.entity.OrderEntity;
+import com.tcs.order.domain.repository.OrderBatchWriter;
+import com.tcs.order.domain.repository.OrderHistoryFilter;
+import com.tcs.order.domain.repository.OrderHistoryRepository;
 import com.tcs.order.domain.repository.OrderRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Order service business logic
@@ -36,10 +56,24 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final OrderEventProducer eventProducer;
     private final RiskServiceClient riskServiceClient;
-    private final RedissonClient redissonClient;
+    private final CoalescingRiskClient coalescingRiskClient;
+    private final OrderIdempotencyGuard idempotencyGuard;
+    private final OrderSummaryCache summaryCache;
+    private final OrderHistoryRepository orderHistoryRepository;
+    private final OrderBatchWriter orderBatchWriter;
+    private final OrderRateLimiter rateLimiter;
+    private final Validator validator;
+    private final IdSource idSource;
+
+    @Value("${app.order.history.max-page-size}")
+    private int maxPageSize;
+
+    @Value("${app.order.history.export-fetch-size}")
+    private int exportFetchSize;
 
     /**
-     * Create a new order
+     * Create a new order. A repeat of a recent request, by clientOrderId or within the
+     * double-click window, returns the order created for the first one.
      */
     @Transactional
     public OrderResponse createOrder(CreateOrderRequest request) {
@@ -49,93 +83,207 @@ public class OrderService {
         // Validate request
         validateOrderRequest(request);
 
-        // Check for idempotency
-        if (request.getClientOrderId() != null) {
-            OrderEntity existingOrder = orderRepository
-                    .findByClientOrderId(request.getClientOrderId())
-                    .orElse(null);
-            if (existingOrder != null) {
-                log.info("Duplicate order detected: clientOrderId={}", request.getClientOrderId());
-                return mapToResponse(existingOrder);
-            }
-        }
-
         // Generate order ID
-        String orderId = IdGenerator.generateOrderId();
+        String orderId = idSource.nextOrderId();
 
-        // Acquire distributed lock to prevent double submission
-        RLock lock = redissonClient.getLock("lock:order:" + orderId);
-        try {
-            if (!lock.tryLock(5, 10, TimeUnit.SECONDS)) {
-                throw new TcsException(ErrorCode.INTERNAL_SERVER_ERROR, "Failed to acquire lock");
+        // Claim the request, so a repeat finds this order instead of creating another
+        OrderIdempotencyGuard.Claim claim = claim(request, orderId);
+        if (claim != null && claim.isRepeat()) {
+            return repeatedOrder(request, claim);
+        }
+        // The database has the last word on clientOrderIds, whose claims expire
+        OrderResponse existing = findByClientOrderId(request);
+        if (existing != null) {
+            if (claim != null) {
+                idempotencyGuard.release(claim);
             }
+            return existing;
+        }
 
+        try {
             // Perform risk check
+            long stageStart = System.nanoTime();
             RiskCheckResponse riskCheck = performRiskCheck(orderId, request);
+            StageTimings.record("risk", stageStart);
             if (!riskCheck.isApproved()) {
                 log.warn("Risk check failed for order {}: {}", orderId, riskCheck.getReason());
-                return createRejectedOrder(orderId, request, riskCheck.getReason(), traceId);
+                return completed(claim, createRejectedOrder(orderId, request, riskCheck.getReason(), traceId));
             }
 
             // Create order entity
-            OrderEntity order = OrderEntity.builder()
-                    .orderId(orderId)
-                    .clientOrderId(request.getClientOrderId())
-                    .userId(request.getUserId())
-                    .accountId(request.getAccountId())
-                    .symbol(request.getSymbol())
-                    .side(request.getSide())
-                    .type(request.getType())
-                    .quantity(request.getQuantity())
-                    .price(request.getPrice())
-                    .timeInForce(request.getTimeInForce())
-                    .status(OrderStatus.PENDING)
-                    .filledQuantity(BigDecimal.ZERO)
-                    .traceId(traceId)
-                    .build();
+            OrderEntity order = buildOrder(orderId, request, OrderStatus.PENDING, null, traceId);
 
             // Save to database
+            stageStart = System.nanoTime();
             order = orderRepository.save(order);
+            StageTimings.record("db", stageStart);
             log.info("Order {} created successfully with status {}", orderId, order.getStatus());
 
-            // Publish to Kafka
-            eventProducer.publishOrderCreated(order);
+            publishCreatedAfterCommit(List.of(order));
+
+            return completed(claim, order);
+
+        } catch (RuntimeException e) {
+            if (claim != null) {
+                idempotencyGuard.release(claim);
+            }
+            throw e;
+        }
+    }
 
-            return mapToResponse(order);
+    /**
+     * Create a basket of orders with one risk call, one multi-row insert and one producer batch.
+     * Each order succeeds or fails on its own; results come back in submission order.
+     */
+    @Transactional
+    public BatchOrderResponse createOrders(List<CreateOrderRequest> requests) {
+        String traceId = TraceContext.getTraceId();
+        log.info("Creating basket of {} orders with traceId {}", requests.size(), traceId);
+
+        BatchOrderResponse.Result[] results = new BatchOrderResponse.Result[requests.size()];
+        List<Integer> indexes = new ArrayList<>();
+        List<CreateOrderRequest> accepted = new ArrayList<>();
+        List<String> orderIds = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CreateOrderRequest request = requests.get(i);
+            try {
+                validateBasketItem(request);
+                // Each order of a basket takes its own token
+                rateLimiter.acquire(request.getUserId(), request.getAccountId());
+            } catch (TcsException e) {
+                results[i] = failed(i, e);
+                continue;
+            }
+            indexes.add(i);
+            accepted.add(request);
+            orderIds.add(idSource.nextOrderId());
+        }
+
+        List<OrderIdempotencyGuard.Claim> claims = claimAll(accepted, orderIds);
+        Map<String, Integer> createdIndex = new HashMap<>();
+        // Orders repeating an earlier one, with that order's ID
+        Map<Integer, String> repeats = new LinkedHashMap<>();
+        // Fresh orders by user and clientOrderId, for repeats within the basket when there are no claims
+        Map<List<String>, String> basketClientOrderIds = new HashMap<>();
+        List<Integer> fresh = new ArrayList<>();
+        for (int j = 0; j < accepted.size(); j++) {
+            CreateOrderRequest request = accepted.get(j);
+            if (claims != null && claims.get(j).isRepeat()) {
+                repeats.put(j, claims.get(j).getOrderId());
+                continue;
+            }
+            List<String> clientKey = request.getClientOrderId() != null
+                    ? Arrays.asList(request.getUserId(), request.getClientOrderId())
+                    : null;
+            String earlier = clientKey != null ? basketClientOrderIds.get(clientKey) : null;
+            if (earlier != null) {
+                repeats.put(j, earlier);
+                continue;
+            }
+            OrderResponse existing = findByClientOrderId(request);
+            if (existing != null) {
+                if (claims != null) {
+                    idempotencyGuard.release(claims.get(j));
+                }
+                results[indexes.get(j)] = ok(indexes.get(j), existing);
+            } else {
+                createdIndex.put(orderIds.get(j), fresh.size());
+                fresh.add(j);
+                if (clientKey != null) {
+                    basketClientOrderIds.put(clientKey, orderIds.get(j));
+                }
+            }
+        }
+
+        List<OrderEntity> orders = new ArrayList<>(fresh.size());
+        try {
+            long stageStart = System.nanoTime();
+            List<RiskCheckResponse> riskChecks = performRiskChecks(fresh, accepted, orderIds);
+            StageTimings.record("risk", stageStart);
+            for (int k = 0; k < fresh.size(); k++) {
+                int j = fresh.get(k);
+                RiskCheckResponse riskCheck = riskChecks.get(k);
+                orders.add(riskCheck.isApproved()
+                        ? buildOrder(orderIds.get(j), accepted.get(j), OrderStatus.PENDING, null, traceId)
+                        : buildOrder(orderIds.get(j), accepted.get(j), OrderStatus.RISK_REJECTED,
+                        riskCheck.getReason(), traceId));
+            }
+
+            stageStart = System.nanoTime();
+            orderBatchWriter.insertAll(orders);
+            StageTimings.record("db", stageStart);
+
+            publishCreatedAfterCommit(orders);
+        } catch (RuntimeException e) {
+            if (claims != null) {
+                fresh.forEach(j -> idempotencyGuard.release(claims.get(j)));
+            }
+            throw e;
+        }
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new TcsException(ErrorCode.INTERNAL_SERVER_ERROR, "Order creation interrupted", e);
-        } finally {
-            if (lock.isHeldByCurrentThread()) {
-                lock.unlock();
+        List<OrderResponse> responses = completedAll(claims, fresh, orders);
+        for (int k = 0; k < fresh.size(); k++) {
+            results[indexes.get(fresh.get(k))] = ok(indexes.get(fresh.get(k)), responses.get(k));
+        }
+        for (Map.Entry<Integer, String> repeat : repeats.entrySet()) {
+            int j = repeat.getKey();
+            Integer created = createdIndex.get(repeat.getValue());
+            try {
+                // A repeat of an order earlier in this basket gets that order
+                results[indexes.get(j)] = ok(indexes.get(j), created != null
+                        ? responses.get(created)
+                        : repeatedOrder(accepted.get(j), claims.get(j)));
+            } catch (TcsException e) {
+                results[indexes.get(j)] = failed(indexes.get(j), e);
             }
         }
+
+        log.info("Basket of {} orders: {} created, {} repeats, {} invalid or rate limited",
+                requests.size(), orders.size(), repeats.size(), requests.size() - accepted.size());
+        return BatchOrderResponse.builder()
+                .results(Arrays.asList(results))
+                .build();
     }
 
     /**
-     * Get order by ID
+     * Get order by ID, from the summary cache when possible
      */
     public OrderResponse getOrder(String orderId) {
+        OrderResponse cached = summaryCache.get(orderId);
+        if (cached != null) {
+            return cached;
+        }
         OrderEntity order = orderRepository.findByOrderId(orderId)
                 .orElseThrow(() -> new TcsException(ErrorCode.ORDER_NOT_FOUND, orderId));
-        return mapToResponse(order);
+        OrderResponse response = mapToResponse(order);
+        summaryCache.put(response, order.getVersion());
+        return response;
     }
 
     /**
-     * Get orders for a user
+     * Get a page of a user's orders, newest first, continuing after the cursor if given
      */
-    public Page<OrderResponse> getUserOrders(String userId, Pageable pageable) {
-        return orderRepository.findByUserId(userId, pageable)
-                .map(this::mapToResponse);
+    public OrderPageResponse getOrderHistory(OrderHistoryFilter filter, String cursor, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new TcsException(ErrorCode.INVALID_REQUEST, "Limit must be between 1 and " + maxPageSize);
+        }
+        // One extra row tells whether there is a next page, without counting
+        List<OrderHistoryRepository.HistoryRow> rows =
+                orderHistoryRepository.findPage(filter, decodeCursor(cursor), limit + 1);
+
+        boolean more = rows.size() > limit;
+        List<OrderHistoryRepository.HistoryRow> page = more ? rows.subList(0, limit) : rows;
+        return OrderPageResponse.builder()
+                .orders(page.stream().map(OrderHistoryRepository.HistoryRow::getOrder).toList())
+                .nextCursor(more ? encodeCursor(page.get(page.size() - 1)) : null)
+                .build();
     }
 
     /**
-     * Get user orders by status
+     * Stream all of a user's matching orders, newest first, in constant memory
      */
-    public Page<OrderResponse> getUserOrdersByStatus(String userId, OrderStatus status, Pageable pageable) {
-        return orderRepository.findByUserIdAndStatus(userId, status, pageable)
-                .map(this::mapToResponse);
+    public void exportOrderHistory(OrderHistoryFilter filter, Consumer<OrderResponse> consumer) {
+        orderHistoryRepository.stream(filter, exportFetchSize, consumer);
     }
 
     /**
@@ -152,11 +300,177 @@ public class OrderService {
         }
 
         order = orderRepository.save(order);
-        eventProducer.publishOrderUpdated(order);
+        updatedAfterCommit(order);
 
         log.info("Order {} status updated to {}", orderId, status);
     }
 
+    /**
+     * Claim the request, or null if Redis is unavailable and the database check has to do
+     */
+    private OrderIdempotencyGuard.Claim claim(CreateOrderRequest request, String orderId) {
+        try {
+            return idempotencyGuard.claim(request, orderId);
+        } catch (DataAccessException e) {
+            log.warn("Idempotency check unavailable, falling back to the database: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private List<OrderIdempotencyGuard.Claim> claimAll(List<CreateOrderRequest> requests, List<String> orderIds) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return idempotencyGuard.claimAll(requests, orderIds);
+        } catch (DataAccessException e) {
+            log.warn("Idempotency check unavailable, falling back to the database: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private OrderResponse repeatedOrder(CreateOrderRequest request, OrderIdempotencyGuard.Claim claim) {
+        log.info("Duplicate order detected: clientOrderId={}, orderId={}",
+                request.getClientOrderId(), claim.getOrderId());
+        if (claim.getCachedResponse() != null) {
+            return claim.getCachedResponse();
+        }
+        OrderResponse cached = summaryCache.get(claim.getOrderId());
+        if (cached != null) {
+            return cached;
+        }
+        return orderRepository.findByOrderId(claim.getOrderId())
+                .map(this::mapToResponse)
+                .orElseThrow(() -> new TcsException(ErrorCode.DUPLICATE_ORDER,
+                        "Order " + claim.getOrderId() + " for this request is still being processed"));
+    }
+
+    private OrderResponse findByClientOrderId(CreateOrderRequest request) {
+        if (request.getClientOrderId() == null) {
+            return null;
+        }
+        OrderEntity existingOrder = orderRepository
+                .findByUserIdAndClientOrderId(request.getUserId(), request.getClientOrderId()).orElse(null);
+        if (existingOrder == null) {
+            return null;
+        }
+        log.info("Duplicate order detected: clientOrderId={}", request.getClientOrderId());
+        return mapToResponse(existingOrder);
+    }
+
+    /**
+     * Settle the claim with the transaction: cache the response once committed, release it on rollback
+     */
+    private OrderResponse completed(OrderIdempotencyGuard.Claim claim, OrderEntity order) {
+        OrderResponse response = mapToResponse(order);
+        long version = order.getVersion();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    summaryCache.put(response, version);
+                    if (claim != null) {
+                        idempotencyGuard.complete(claim, response);
+                    }
+                } else if (claim != null) {
+                    idempotencyGuard.release(claim);
+                }
+            }
+        });
+        return response;
+    }
+
+    /**
+     * {@link #completed} for a basket, with one synchronization for all of its orders
+     */
+    private List<OrderResponse> completedAll(List<OrderIdempotencyGuard.Claim> claims, List<Integer> fresh,
+                                             List<OrderEntity> orders) {
+        List<OrderResponse> responses = orders.stream().map(this::mapToResponse).toList();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (int k = 0; k < orders.size(); k++) {
+                    OrderIdempotencyGuard.Claim claim = claims != null ? claims.get(fresh.get(k)) : null;
+                    if (status == STATUS_COMMITTED) {
+                        summaryCache.put(responses.get(k), orders.get(k).getVersion());
+                        if (claim != null) {
+                            idempotencyGuard.complete(claim, responses.get(k));
+                        }
+                    } else if (claim != null) {
+                        idempotencyGuard.release(claim);
+                    }
+                }
+            }
+        });
+        return responses;
+    }
+
+    private static BatchOrderResponse.Result ok(int index, OrderResponse order) {
+        return BatchOrderResponse.Result.builder()
+                .index(index)
+                .order(order)
+                .build();
+    }
+
+    private static BatchOrderResponse.Result failed(int index, TcsException e) {
+        return BatchOrderResponse.Result.builder()
+                .index(index)
+                .errorCode(e.getErrorCode().getCode())
+                .error(e.getMessage())
+                .build();
+    }
+
+    /**
+     * Publish the creation of orders once their insert has committed, so the trade engine never
+     * matches, and reports the status of, an order that is not in the table or was rolled back
+     */
+    private void publishCreatedAfterCommit(List<OrderEntity> orders) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long stageStart = System.nanoTime();
+                eventProducer.publishOrdersCreated(orders);
+                StageTimings.record("kafka", stageStart);
+            }
+        });
+    }
+
+    /**
+     * Publish and cache the order as committed. Its version and update time are only set when
+     * the update is flushed, so they are read after the commit rather than now.
+     */
+    private void updatedAfterCommit(OrderEntity order) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eventProducer.publishOrderUpdated(order);
+                summaryCache.put(mapToResponse(order), order.getVersion());
+            }
+        });
+    }
+
+    /**
+     * Opaque continuation token: the keyset position of the last order returned
+     */
+    private static String encodeCursor(OrderHistoryRepository.HistoryRow row) {
+        Instant createdAt = row.getCreatedAt();
+        String position = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + row.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static OrderHistoryRepository.Position decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new OrderHistoryRepository.Position(createdAt, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new TcsException(ErrorCode.INVALID_REQUEST, "Invalid cursor");
+        }
+    }
+
     private void validateOrderRequest(CreateOrderRequest request) {
         // Validate limit order has price
         if (request.getType() == OrderType.LIMIT && request.getPrice() == null) {
@@ -174,19 +488,56 @@ public class OrderService {
         }
     }
 
-    private RiskCheckResponse performRiskCheck(String orderId, CreateOrderRequest request) {
+    /**
+     * Bean validation of a basket item, which the request body does not cascade into,
+     * then the same checks as a single order
+     */
+    private void validateBasketItem(CreateOrderRequest request) {
+        if (request == null) {
+            throw new TcsException(ErrorCode.INVALID_REQUEST, "Order is required");
+        }
+        Set<ConstraintViolation<CreateOrderRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<CreateOrderRequest> violation = violations.iterator().next();
+            throw new TcsException(ErrorCode.INVALID_REQUEST,
+                    violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        validateOrderRequest(request);
+    }
+
+    /**
+     * Risk decisions for the selected orders with one call, rejecting all of them if it fails
+     */
+    private List<RiskCheckResponse> performRiskChecks(List<Integer> selected, List<CreateOrderRequest> requests,
+                                                      List<String> orderIds) {
+        if (selected.isEmpty()) {
+            return List.of();
+        }
+        List<RiskCheckRequest> riskRequests = new ArrayList<>(selected.size());
+        for (int j : selected) {
+            riskRequests.add(riskRequest(orderIds.get(j), requests.get(j)));
+        }
+        String reason;
         try {
-            RiskCheckRequest riskRequest = RiskCheckRequest.builder()
-                    .orderId(orderId)
-                    .userId(request.getUserId())
-                    .accountId(request.getAccountId())
-                    .symbol(request.getSymbol())
-                    .side(request.getSide())
-                    .quantity(request.getQuantity())
-                    .price(request.getPrice())
-                    .build();
+            List<RiskCheckResponse> responses = riskServiceClient.checkRiskBatch(riskRequests);
+            if (responses.size() == riskRequests.size()) {
+                return responses;
+            }
+            reason = "Risk service error: expected " + riskRequests.size() + " decisions, got " + responses.size();
+        } catch (Exception e) {
+            reason = "Risk service error: " + e.getMessage();
+        }
+        log.error("Risk check failed for basket of {} orders: {}", riskRequests.size(), reason);
+        RiskCheckResponse rejected = RiskCheckResponse.builder()
+                .approved(false)
+                .reason(reason)
+                .build();
+        return Collections.nCopies(riskRequests.size(), rejected);
+    }
 
-            return riskServiceClient.checkRisk(riskRequest);
+    private RiskCheckResponse performRiskCheck(String orderId, CreateOrderRequest request) {
+        try {
+            return coalescingRiskClient.checkRisk(riskRequest(orderId, request));
         } catch (Exception e) {
             log.error("Risk check failed for order {}: {}", orderId, e.getMessage());
             return RiskCheckResponse.builder()
@@ -196,9 +547,30 @@ public class OrderService {
         }
     }
 
-    private OrderResponse createRejectedOrder(String orderId, CreateOrderRequest request,
-                                              String rejectReason, String traceId) {
-        OrderEntity order = OrderEntity.builder()
+    private static RiskCheckRequest riskRequest(String orderId, CreateOrderRequest request) {
+        return RiskCheckRequest.builder()
+                .orderId(orderId)
+                .userId(request.getUserId())
+                .accountId(request.getAccountId())
+                .symbol(request.getSymbol())
+                .side(request.getSide())
+                .quantity(request.getQuantity())
+                .price(request.getPrice())
+                .build();
+    }
+
+    private OrderEntity createRejectedOrder(String orderId, CreateOrderRequest request,
+                                            String rejectReason, String traceId) {
+        OrderEntity order = buildOrder(orderId, request, OrderStatus.RISK_REJECTED, rejectReason, traceId);
+        order = orderRepository.save(order);
+        publishCreatedAfterCommit(List.of(order));
+
+        return order;
+    }
+
+    private static OrderEntity buildOrder(String orderId, CreateOrderRequest request, OrderStatus status,
+                                          String rejectReason, String traceId) {
+        return OrderEntity.builder()
                 .orderId(orderId)
                 .clientOrderId(request.getClientOrderId())
                 .userId(request.getUserId())
@@ -209,16 +581,11 @@ public class OrderService {
                 .quantity(request.getQuantity())
                 .price(request.getPrice())
                 .timeInForce(request.getTimeInForce())
-                .status(OrderStatus.RISK_REJECTED)
+                .status(status)
                 .filledQuantity(BigDecimal.ZERO)
                 .rejectReason(rejectReason)
                 .traceId(traceId)
                 .build();
-
-        order = orderRepository.save(order);
-        eventProducer.publishOrderCreated(order);
-
-        return mapToResponse(order);
     }
 
     private OrderResponse mapToResponse(OrderEntity order) {
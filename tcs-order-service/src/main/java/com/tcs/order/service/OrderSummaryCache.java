@@ -0,0 +1,257 @@
+package com.tcs.order.service;
+
+import com.tcs.common.constants.RedisKeys;
+import com.tcs.common.dto.OrderResponse;
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.enums.OrderStatus;
+import com.tcs.common.enums.OrderType;
+import com.tcs.common.enums.TimeInForce;
+import com.tcs.order.domain.repository.OrderStatusBatchWriter.AppliedUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-through cache of order summaries for status polling.
+ *
+ * Two tiers: a small in-process LRU with a short TTL, in front of a Redis hash per order under
+ * order:summary:. Entries carry the order's row version and Redis writes are conditional on it,
+ * so a late write of an older state never replaces a newer one. Status updates rewrite only the
+ * fields they change, and only for orders already cached.
+ */
+@Slf4j
+@Component
+public class OrderSummaryCache {
+
+    // ARGV: version, full|partial, ttl ms, field/value pairs. A full write replaces the hash;
+    // a partial write needs an existing entry. Either needs a newer version than the stored one.
+    private static final byte[] WRITE_SCRIPT = """
+            local current = redis.call('HGET', KEYS[1], 'version')
+            if current and tonumber(current) >= tonumber(ARGV[1]) then
+                return 0
+            end
+            if ARGV[2] == 'full' then
+                redis.call('DEL', KEYS[1])
+            elseif not current then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'version', ARGV[1], unpack(ARGV, 4))
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long localTtlMillis;
+    private final long redisTtlMillis;
+    private final Map<String, Entry> local;
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+
+    public OrderSummaryCache(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+                             @Value("${app.order.summary-cache.local-size}") int localSize,
+                             @Value("${app.order.summary-cache.local-ttl-ms}") long localTtlMillis,
+                             @Value("${app.order.summary-cache.redis-ttl}") long redisTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.localTtlMillis = localTtlMillis;
+        this.redisTtlMillis = redisTtlSeconds * 1000;
+        this.local = new LinkedHashMap<>(localSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > localSize;
+            }
+        };
+        this.localHits = lookups(meterRegistry, "local");
+        this.redisHits = lookups(meterRegistry, "redis");
+        this.misses = lookups(meterRegistry, "miss");
+    }
+
+    /**
+     * Cached summary of an order, or null to load it from the database
+     */
+    public OrderResponse get(String orderId) {
+        long now = System.currentTimeMillis();
+        synchronized (local) {
+            Entry entry = local.get(orderId);
+            if (entry != null && entry.expiresAt > now) {
+                localHits.increment();
+                return entry.response;
+            }
+        }
+
+        Map<Object, Object> hash;
+        try {
+            hash = redisTemplate.opsForHash().entries(RedisKeys.orderSummary(orderId));
+        } catch (RuntimeException e) {
+            log.warn("Order summary cache unavailable: {}", e.getMessage());
+            misses.increment();
+            return null;
+        }
+        if (hash.isEmpty()) {
+            misses.increment();
+            return null;
+        }
+        redisHits.increment();
+        OrderResponse response = fromHash(orderId, hash);
+        putLocal(response, Long.parseLong((String) hash.get("version")), now);
+        return response;
+    }
+
+    /**
+     * Cache the full state of an order at a row version
+     */
+    public void put(OrderResponse response, long version) {
+        putLocal(response, version, System.currentTimeMillis());
+        List<String> fields = new ArrayList<>();
+        addField(fields, "clientOrderId", response.getClientOrderId());
+        addField(fields, "userId", response.getUserId());
+        addField(fields, "accountId", response.getAccountId());
+        addField(fields, "symbol", response.getSymbol());
+        addField(fields, "side", response.getSide());
+        addField(fields, "type", response.getType());
+        addField(fields, "quantity", response.getQuantity());
+        addField(fields, "price", response.getPrice());
+        addField(fields, "timeInForce", response.getTimeInForce());
+        addField(fields, "status", response.getStatus());
+        addField(fields, "filledQuantity", response.getFilledQuantity());
+        addField(fields, "avgPrice", response.getAvgPrice());
+        addField(fields, "rejectReason", response.getRejectReason());
+        addField(fields, "createdAt", response.getCreatedAt());
+        addField(fields, "updatedAt", response.getUpdatedAt());
+        try {
+            redisTemplate.execute((RedisCallback<Object>) connection -> connection.scriptingCommands()
+                    .eval(WRITE_SCRIPT, ReturnType.INTEGER, 1,
+                            writeArgs(response.getOrderId(), version, "full", fields)));
+        } catch (RuntimeException e) {
+            log.warn("Failed to cache order {}: {}", response.getOrderId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Bring cached orders up to date with applied status updates, in one pipelined round trip
+     */
+    public void applyStatusUpdates(Collection<AppliedUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        synchronized (local) {
+            // Replicas may hold the old state locally until their entry expires
+            for (AppliedUpdate update : updates) {
+                Entry entry = local.get(update.getOrderId());
+                if (entry != null && entry.version < update.getVersion()) {
+                    local.remove(update.getOrderId());
+                }
+            }
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (AppliedUpdate update : updates) {
+                    List<String> fields = new ArrayList<>();
+                    addField(fields, "status", update.getStatus());
+                    addField(fields, "filledQuantity", update.getFilledQuantity());
+                    addField(fields, "avgPrice", update.getAvgPrice());
+                    addField(fields, "rejectReason", update.getRejectReason());
+                    addField(fields, "updatedAt", update.getUpdatedAt());
+                    connection.scriptingCommands().eval(WRITE_SCRIPT, ReturnType.INTEGER, 1,
+                            writeArgs(update.getOrderId(), update.getVersion(), "partial", fields));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // Entries left behind expire with their TTL
+            log.warn("Failed to update {} cached orders: {}", updates.size(), e.getMessage());
+        }
+    }
+
+    private void putLocal(OrderResponse response, long version, long now) {
+        synchronized (local) {
+            Entry existing = local.get(response.getOrderId());
+            if (existing == null || existing.version <= version) {
+                local.put(response.getOrderId(), new Entry(response, version, now + localTtlMillis));
+            }
+        }
+    }
+
+    private byte[][] writeArgs(String orderId, long version, String mode, List<String> fields) {
+        byte[][] args = new byte[4 + fields.size()][];
+        args[0] = bytes(RedisKeys.orderSummary(orderId));
+        args[1] = bytes(String.valueOf(version));
+        args[2] = bytes(mode);
+        args[3] = bytes(String.valueOf(redisTtlMillis));
+        for (int i = 0; i < fields.size(); i++) {
+            args[4 + i] = bytes(fields.get(i));
+        }
+        return args;
+    }
+
+    private static void addField(List<String> fields, String name, Object value) {
+        if (value == null) {
+            return;
+        }
+        fields.add(name);
+        if (value instanceof BigDecimal decimal) {
+            fields.add(decimal.toPlainString());
+        } else if (value instanceof Instant instant) {
+            fields.add(String.valueOf(instant.toEpochMilli()));
+        } else {
+            fields.add(value.toString());
+        }
+    }
+
+    private static OrderResponse fromHash(String orderId, Map<Object, Object> hash) {
+        return OrderResponse.builder()
+                .orderId(orderId)
+                .clientOrderId((String) hash.get("clientOrderId"))
+                .userId((String) hash.get("userId"))
+                .accountId((String) hash.get("accountId"))
+                .symbol((String) hash.get("symbol"))
+                .side(OrderSide.valueOf((String) hash.get("side")))
+                .type(OrderType.valueOf((String) hash.get("type")))
+                .quantity(decimal(hash.get("quantity")))
+                .price(decimal(hash.get("price")))
+                .timeInForce(TimeInForce.valueOf((String) hash.get("timeInForce")))
+                .status(OrderStatus.valueOf((String) hash.get("status")))
+                .filledQuantity(decimal(hash.get("filledQuantity")))
+                .avgPrice(decimal(hash.get("avgPrice")))
+                .rejectReason((String) hash.get("rejectReason"))
+                .createdAt(instant(hash.get("createdAt")))
+                .updatedAt(instant(hash.get("updatedAt")))
+                .build();
+    }
+
+    private static BigDecimal decimal(Object value) {
+        return value != null ? new BigDecimal((String) value) : null;
+    }
+
+    private static Instant instant(Object value) {
+        return value != null ? Instant.ofEpochMilli(Long.parseLong((String) value)) : null;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("tcs.order.summary.cache")
+                .description("Order summary lookups by where they were answered")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Entry(OrderResponse response, long version, long expiresAt) {
+    }
+}
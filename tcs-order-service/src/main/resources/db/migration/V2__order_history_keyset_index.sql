@@ -0,0 +1,4 @@
+-- Order history is paged by keyset on (created_at, id) within a user, newest first.
+-- The id tie-breaker makes the position unique; the old index is a prefix of this one.
+CREATE INDEX idx_orders_user_created_id ON orders(user_id, created_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_orders_user_created;
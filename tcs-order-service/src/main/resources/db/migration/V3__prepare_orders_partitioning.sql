@@ -0,0 +1,30 @@
+-- Prepares orders for daily partitioning (V4) while writers keep running. This migration runs
+-- outside a transaction: indexes are built and dropped concurrently, and the range check is
+-- validated under a SHARE UPDATE EXCLUSIVE lock, so the swap in V4 neither scans the table nor
+-- builds an index. Each step drops what a failed earlier run may have left behind.
+
+-- Keys of the partitioned table include created_at; V4 turns these into the legacy
+-- partition's keys.
+DROP INDEX CONCURRENTLY IF EXISTS orders_legacy_id_created_key;
+CREATE UNIQUE INDEX CONCURRENTLY orders_legacy_id_created_key ON orders(id, created_at);
+DROP INDEX CONCURRENTLY IF EXISTS orders_legacy_order_id_created_key;
+CREATE UNIQUE INDEX CONCURRENTLY orders_legacy_order_id_created_key ON orders(order_id, created_at);
+
+-- No query filters on these without user_id or order_id first
+DROP INDEX CONCURRENTLY IF EXISTS idx_orders_status;
+DROP INDEX CONCURRENTLY IF EXISTS idx_orders_symbol_status;
+
+-- idx_orders_user_created_id and idx_orders_client_order already match the partitioned
+-- table's indexes, and ATTACH adopts them as they are.
+
+-- Orders end before the end of tomorrow (UTC). V4 attaches the table for values up to the end
+-- of tomorrow at its own run, and ATTACH skips its validation scan when a valid check implies
+-- the partition bound. The extra day keeps writers inside the check should V4 run after midnight.
+ALTER TABLE orders DROP CONSTRAINT IF EXISTS orders_legacy_range;
+DO $$
+BEGIN
+    EXECUTE format('ALTER TABLE orders ADD CONSTRAINT orders_legacy_range CHECK (created_at < %L) NOT VALID',
+                   date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' + INTERVAL '2 days');
+END
+$$;
+ALTER TABLE orders VALIDATE CONSTRAINT orders_legacy_range;
@@ -0,0 +1,77 @@
+-- Orders move to a table partitioned by day of created_at, so inserts only touch the current
+-- day's small, cached indexes however large the table grows. The existing table becomes the
+-- partition for everything up to the end of tomorrow; daily partitions follow from there. V3
+-- built its indexes and range check, so this only takes brief locks.
+ALTER TABLE orders RENAME TO orders_legacy;
+
+-- updated_at is set by every writer, so the trigger only added a function call per update
+DROP TRIGGER IF EXISTS update_orders_updated_at ON orders_legacy;
+DROP FUNCTION IF EXISTS update_updated_at_column();
+
+CREATE TABLE orders (LIKE orders_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (created_at);
+-- The range check only holds for the legacy partition
+ALTER TABLE orders DROP CONSTRAINT orders_legacy_range;
+
+-- Unique keys of a partitioned table must include the partition key. Order IDs are unique by
+-- construction; the key still backs lookups by order_id.
+ALTER TABLE orders ADD PRIMARY KEY (id, created_at);
+ALTER TABLE orders ADD CONSTRAINT uk_orders_order_id UNIQUE (order_id, created_at);
+CREATE INDEX idx_orders_user_created_id_p ON orders(user_id, created_at DESC, id DESC);
+CREATE INDEX idx_orders_client_order_p ON orders(client_order_id) WHERE client_order_id IS NOT NULL;
+
+-- Ids are allocated 50 at a time (pooled), by Hibernate and the batch writer alike
+ALTER SEQUENCE orders_id_seq OWNED BY orders.id;
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
+SELECT setval('orders_id_seq', (SELECT COALESCE(MAX(id), 0) FROM orders_legacy) + 50);
+
+-- Back the legacy keys with the V3 indexes, which ATTACH adopts for the keys above
+ALTER TABLE orders_legacy DROP CONSTRAINT orders_pkey;
+ALTER TABLE orders_legacy DROP CONSTRAINT orders_order_id_key;
+ALTER TABLE orders_legacy ADD CONSTRAINT orders_legacy_id_created_key
+    UNIQUE USING INDEX orders_legacy_id_created_key;
+ALTER TABLE orders_legacy ADD CONSTRAINT orders_legacy_order_id_created_key
+    UNIQUE USING INDEX orders_legacy_order_id_created_key;
+
+-- Not before the check bound from V3, which then implies the partition bound
+DO $$
+BEGIN
+    EXECUTE format('ALTER TABLE orders ATTACH PARTITION orders_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                   date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' + INTERVAL '2 days');
+END
+$$;
+ALTER TABLE orders_legacy DROP CONSTRAINT orders_legacy_range;
+
+-- Creates the daily partitions from today to days_ahead days on that do not exist yet, and
+-- returns how many it created. Days covered by another partition, and partitions created
+-- concurrently by another instance, are skipped.
+CREATE OR REPLACE FUNCTION create_orders_partitions(days_ahead INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    today DATE := (now() AT TIME ZONE 'UTC')::date;
+    day DATE;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..days_ahead LOOP
+        day := today + i;
+        partition_name := 'orders_' || to_char(day, 'YYYYMMDD');
+        CONTINUE WHEN to_regclass(partition_name) IS NOT NULL;
+        BEGIN
+            EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, day::timestamp AT TIME ZONE 'UTC',
+                           (day + 1)::timestamp AT TIME ZONE 'UTC');
+            created := created + 1;
+        EXCEPTION
+            WHEN invalid_object_definition OR duplicate_table THEN
+                NULL;
+        END;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_orders_partitions(7);
+
+COMMENT ON TABLE orders IS 'Trading orders, partitioned by day of created_at (UTC)';
+COMMENT ON TABLE orders_legacy IS 'Orders created before daily partitioning';
@@ -0,0 +1,6 @@
+-- Daily partitions of orders past the retention window are detached into this schema once all
+-- their orders are final (OrderPartitionMaintainer). They stay queryable for audits and can be
+-- dumped and dropped from here without touching the live table.
+CREATE SCHEMA IF NOT EXISTS orders_archive;
+
+COMMENT ON SCHEMA orders_archive IS 'Partitions of orders detached past the retention window';
@@ -0,0 +1,33 @@
+-- A user's clientOrderId names one order. Unique keys of the partitioned table must include
+-- created_at, so this key backs the database check OrderService makes before every insert with a
+-- clientOrderId, which still holds once the Redis claim has expired, and rejects a repeat created
+-- at the same instant. It supersedes idx_orders_client_order_p for those lookups.
+--
+-- The parent index is created empty and each partition's index attached to it, so the legacy
+-- partition's is built concurrently; the daily ones are small. This migration runs outside a
+-- transaction, and each step tolerates what a failed earlier run left behind.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_orders_user_client_order
+    ON ONLY orders (user_id, client_order_id, created_at);
+
+DROP INDEX CONCURRENTLY IF EXISTS orders_legacy_user_client_order_key;
+CREATE UNIQUE INDEX CONCURRENTLY orders_legacy_user_client_order_key
+    ON orders_legacy (user_id, client_order_id, created_at);
+ALTER INDEX uk_orders_user_client_order ATTACH PARTITION orders_legacy_user_client_order_key;
+
+DO $$
+DECLARE
+    partition_name TEXT;
+BEGIN
+    FOR partition_name IN
+        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'orders'::regclass AND c.relname <> 'orders_legacy'
+    LOOP
+        EXECUTE format('CREATE UNIQUE INDEX IF NOT EXISTS %I ON %I (user_id, client_order_id, created_at)',
+                       partition_name || '_user_client_order_key', partition_name);
+        EXECUTE format('ALTER INDEX uk_orders_user_client_order ATTACH PARTITION %I',
+                       partition_name || '_user_client_order_key');
+    END LOOP;
+END
+$$;
+
+DROP INDEX IF EXISTS idx_orders_client_order_p;
@@ -0,0 +1,115 @@
+package com.tcs.order.consumer;
+
+import com.tcs.common.constants.KafkaTopics;
+import com.tcs.common.enums.OrderStatus;
+import com.tcs.common.events.avro.OrderUpdatedEvent;
+import com.tcs.order.domain.repository.OrderStatusBatchWriter;
+import com.tcs.order.domain.repository.OrderStatusBatchWriter.AppliedUpdate;
+import com.tcs.order.domain.repository.OrderStatusBatchWriter.StatusUpdate;
+import com.tcs.order.service.OrderSummaryCache;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Batching of status updates: latest update per order, one write per batch, redelivery of unknown orders
+ */
+class OrderStatusConsumerTest {
+
+    private final OrderStatusBatchWriter statusWriter = mock(OrderStatusBatchWriter.class);
+    private final OrderSummaryCache summaryCache = mock(OrderSummaryCache.class);
+    private final OrderStatusConsumer consumer = new OrderStatusConsumer(statusWriter, summaryCache);
+
+    @Test
+    void onlyTheLatestUpdateOfEachOrderIsWritten() {
+        List<ConsumerRecord<String, Object>> records = List.of(
+                record(0, update("o1", OrderStatus.PARTIALLY_FILLED, "1")),
+                record(1, update("o2", OrderStatus.SUBMITTED, "0")),
+                record(2, update("o1", OrderStatus.FILLED, "3")));
+        List<StatusUpdate> written = new ArrayList<>();
+        when(statusWriter.apply(anyList())).thenAnswer(invocation -> {
+            List<StatusUpdate> updates = invocation.getArgument(0);
+            written.addAll(updates);
+            return updates.stream().map(OrderStatusConsumerTest::applied).toList();
+        });
+
+        consumer.consumeStatusUpdates(records);
+
+        assertEquals(List.of(
+                new StatusUpdate("o1", OrderStatus.FILLED, new BigDecimal("3"), null, null),
+                new StatusUpdate("o2", OrderStatus.SUBMITTED, new BigDecimal("0"), null, null)), written);
+        verify(summaryCache).applyStatusUpdates(anyList());
+    }
+
+    @Test
+    void staleUpdatesOfExistingOrdersAreDone() {
+        when(statusWriter.apply(anyList())).thenReturn(List.of());
+        when(statusWriter.findExisting(List.of("o1"))).thenReturn(Set.of("o1"));
+
+        consumer.consumeStatusUpdates(List.of(record(0, update("o1", OrderStatus.PARTIALLY_FILLED, "1"))));
+
+        verify(statusWriter).findExisting(List.of("o1"));
+    }
+
+    @Test
+    void batchFailsFromTheEarliestUpdateOfAnUnknownOrder() {
+        List<ConsumerRecord<String, Object>> records = List.of(
+                record(0, update("known", OrderStatus.SUBMITTED, "0")),
+                record(1, update("late", OrderStatus.SUBMITTED, "0")),
+                record(2, update("early", OrderStatus.SUBMITTED, "0")),
+                record(3, update("late", OrderStatus.FILLED, "2")));
+        when(statusWriter.apply(anyList())).thenReturn(List.of(applied(
+                new StatusUpdate("known", OrderStatus.SUBMITTED, BigDecimal.ZERO, null, null))));
+        when(statusWriter.findExisting(any())).thenReturn(Set.of());
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.consumeStatusUpdates(records));
+
+        // "early" has its latest update before that of "late", so redelivery starts there
+        assertEquals(2, e.getIndex());
+    }
+
+    @Test
+    void recordsWithoutUpdatesAreIgnored() {
+        consumer.consumeStatusUpdates(List.of(record(0, "not an update")));
+
+        verify(statusWriter, never()).apply(anyList());
+    }
+
+    private static ConsumerRecord<String, Object> record(long offset, Object value) {
+        return new ConsumerRecord<>(KafkaTopics.ORDER_STATUS, 0, offset, "key", value);
+    }
+
+    private static OrderUpdatedEvent update(String orderId, OrderStatus status, String filledQuantity) {
+        return OrderUpdatedEvent.newBuilder()
+                .setOrderId(orderId)
+                .setUserId("user-1")
+                .setStatus(status.name())
+                .setFilledQuantity(filledQuantity)
+                .setAvgPrice(null)
+                .setRejectReason(null)
+                .setTimestamp(0L)
+                .setTraceId(null)
+                .build();
+    }
+
+    private static AppliedUpdate applied(StatusUpdate update) {
+        return new AppliedUpdate(update.getOrderId(), update.getStatus(), update.getFilledQuantity(),
+                update.getAvgPrice(), update.getRejectReason(), Instant.EPOCH, 1);
+    }
+}
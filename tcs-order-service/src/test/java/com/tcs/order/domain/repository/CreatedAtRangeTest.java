@@ -0,0 +1,48 @@
+package com.tcs.order.domain.repository;
+
+import com.tcs.common.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CreatedAtRangeTest {
+
+    private static final Instant FIRST = Instant.parse("2026-05-01T10:00:00Z");
+    private static final Instant LAST = Instant.parse("2026-05-03T23:30:00Z");
+
+    @Test
+    void rangeSurroundsTheTimeInTheId() {
+        CreatedAtRange range = CreatedAtRange.of(orderId(FIRST));
+
+        assertEquals(FIRST.minus(CreatedAtRange.MARGIN), range.getFrom());
+        assertEquals(FIRST.plus(CreatedAtRange.MARGIN), range.getTo());
+    }
+
+    @Test
+    void coveringSpansTheEarliestToTheLatestOrder() {
+        CreatedAtRange range = CreatedAtRange.covering(List.of(orderId(LAST), orderId(FIRST), orderId(LAST)));
+
+        assertEquals(FIRST.minus(CreatedAtRange.MARGIN), range.getFrom());
+        assertEquals(LAST.plus(CreatedAtRange.MARGIN), range.getTo());
+    }
+
+    @Test
+    void idsWithoutATimeHaveNoRange() {
+        // Order IDs issued before Snowflake IDs
+        assertNull(CreatedAtRange.of("ORD-1714557600000-42"));
+        assertNull(CreatedAtRange.of("ORD-not-a-snowflk"));
+        assertNull(CreatedAtRange.of("TRD-0A8B2FA600N1R"));
+        assertNull(CreatedAtRange.covering(List.of(orderId(FIRST), "ORD-1714557600000-42")));
+        assertNull(CreatedAtRange.covering(List.of()));
+    }
+
+    private static String orderId(Instant issuedAt) {
+        return new SnowflakeIdGenerator(1, Clock.fixed(issuedAt, ZoneOffset.UTC)).nextOrderId();
+    }
+}
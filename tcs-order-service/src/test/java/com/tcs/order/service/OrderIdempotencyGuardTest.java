@@ -0,0 +1,126 @@
+package com.tcs.order.service;
+
+import com.tcs.common.constants.RedisKeys;
+import com.tcs.common.dto.CreateOrderRequest;
+import com.tcs.common.dto.OrderResponse;
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.enums.OrderType;
+import com.tcs.common.enums.TimeInForce;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Claims of clientOrderIds and request fingerprints, and the near-cache of created orders
+ */
+class OrderIdempotencyGuardTest {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final OrderIdempotencyGuard guard = new OrderIdempotencyGuard(redisTemplate, 86_400, 2_000, 100);
+    // Keys claimed through Redis, in order
+    private final List<String> claimedKeys = new ArrayList<>();
+
+    @Test
+    void firstClaimIsNewAndARepeatLearnsTheOrder() {
+        claimReturning((String) null);
+        OrderIdempotencyGuard.Claim first = guard.claim(request("c1", "1"), "ORD-1");
+        claimReturning("ORD-1");
+        OrderIdempotencyGuard.Claim repeat = guard.claim(request("c1", "1"), "ORD-2");
+
+        assertFalse(first.isRepeat());
+        assertEquals("ORD-1", first.getOrderId());
+        assertTrue(repeat.isRepeat());
+        assertEquals("ORD-1", repeat.getOrderId());
+        assertNull(repeat.getCachedResponse());
+        assertEquals(List.of(RedisKeys.idempotency("u1", "c1")), claimedKeys.subList(0, 1));
+    }
+
+    @Test
+    void completedOrderAnswersRepeatsFromTheNearCache() {
+        claimReturning((String) null);
+        OrderIdempotencyGuard.Claim first = guard.claim(request("c1", "1"), "ORD-1");
+        OrderResponse response = OrderResponse.builder().orderId("ORD-1").build();
+        guard.complete(first, response);
+
+        OrderIdempotencyGuard.Claim repeat = guard.claim(request("c1", "1"), "ORD-2");
+
+        assertTrue(repeat.isRepeat());
+        assertSame(response, repeat.getCachedResponse());
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(), any());
+    }
+
+    @Test
+    void requestsWithoutClientOrderIdAreKeyedByTheirFields() {
+        claimReturning((String) null);
+        guard.claim(request(null, "1"), "ORD-1");
+        guard.claim(request(null, "1"), "ORD-2");
+        guard.claim(request(null, "2"), "ORD-3");
+
+        assertEquals(claimedKeys.get(0), claimedKeys.get(1));
+        assertNotEquals(claimedKeys.get(0), claimedKeys.get(2));
+        assertTrue(claimedKeys.get(0).startsWith(RedisKeys.submitTime("u1", "")));
+    }
+
+    @Test
+    void basketIsClaimedInOnePipeline() {
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.scriptingCommands()).thenReturn(mock(RedisScriptingCommands.class));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            RedisCallback<?> callback = invocation.getArgument(0);
+            callback.doInRedis(connection);
+            return Arrays.asList(null, "ORD-0");
+        });
+
+        List<OrderIdempotencyGuard.Claim> claims = guard.claimAll(
+                List.of(request("c1", "1"), request("c2", "1")), List.of("ORD-1", "ORD-2"));
+
+        assertFalse(claims.get(0).isRepeat());
+        assertEquals("ORD-1", claims.get(0).getOrderId());
+        assertTrue(claims.get(1).isRepeat());
+        assertEquals("ORD-0", claims.get(1).getOrderId());
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    private void claimReturning(String existing) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenAnswer(invocation -> {
+            List<String> keys = invocation.getArgument(1);
+            claimedKeys.addAll(keys);
+            return existing;
+        });
+    }
+
+    private static CreateOrderRequest request(String clientOrderId, String quantity) {
+        return CreateOrderRequest.builder()
+                .clientOrderId(clientOrderId)
+                .userId("u1")
+                .accountId("a1")
+                .symbol("AAPL")
+                .side(OrderSide.BUY)
+                .type(OrderType.LIMIT)
+                .timeInForce(TimeInForce.GTC)
+                .quantity(new BigDecimal(quantity))
+                .price(new BigDecimal("180.50"))
+                .build();
+    }
+}
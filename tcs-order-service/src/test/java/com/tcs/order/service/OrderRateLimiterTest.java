@@ -0,0 +1,134 @@
+package com.tcs.order.service;
+
+import com.tcs.common.constants.RedisKeys;
+import com.tcs.common.exception.RateLimitExceededException;
+import com.tcs.order.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Local token buckets and their sync with the shared buckets in Redis
+ */
+class OrderRateLimiterTest {
+
+    private final RateLimitProperties properties = new RateLimitProperties();
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Tokens charged per Redis key by the last sync
+    private final Map<String, Integer> charged = new HashMap<>();
+    private final OrderRateLimiter limiter;
+
+    OrderRateLimiterTest() {
+        // Slow refill, so nothing comes back within a test
+        properties.setUserRate(0.001);
+        properties.setUserBurst(3);
+        properties.setAccountRate(0.001);
+        properties.setAccountBurst(100);
+        limiter = new OrderRateLimiter(properties, redisTemplate, meterRegistry);
+    }
+
+    @Test
+    void burstIsAllowedThenRejectedWithARetryTime() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("u1", "a1");
+        }
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire("u1", "a1"));
+        assertTrue(e.getRetryAfterMillis() > 0);
+        assertEquals(1.0, meterRegistry.counter("tcs.order.rate-limited").count());
+        // Other users have their own bucket
+        limiter.acquire("u2", "a1");
+    }
+
+    @Test
+    void rejectionByTheAccountTakesNothingFromTheUser() {
+        properties.setAccountBurst(2);
+        OrderRateLimiter accountLimited = new OrderRateLimiter(properties, redisTemplate, meterRegistry);
+        accountLimited.acquire("u1", "a1");
+        accountLimited.acquire("u1", "a1");
+
+        assertThrows(RateLimitExceededException.class, () -> accountLimited.acquire("u2", "a1"));
+
+        syncReturning(accountLimited, "0");
+        assertEquals(2, charged.get(RedisKeys.rateLimit("account:a1")));
+        assertEquals(2, charged.get(RedisKeys.rateLimit("user:u1")));
+        assertFalse(charged.containsKey(RedisKeys.rateLimit("user:u2")));
+    }
+
+    @Test
+    void syncLowersLocalBucketsToTheSharedLevel() {
+        limiter.acquire("u1", "a1");
+
+        // Other replicas used up the rest of the user's budget
+        syncReturning(limiter, "0");
+
+        assertEquals(1, charged.get(RedisKeys.rateLimit("user:u1")));
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("u1", "a1"));
+    }
+
+    @Test
+    void tokensTakenDuringARedisOutageAreChargedLater() {
+        limiter.acquire("u1", "a1");
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        limiter.sync();
+        limiter.acquire("u1", "a1");
+
+        syncReturning(limiter, "50");
+
+        assertEquals(2, charged.get(RedisKeys.rateLimit("user:u1")));
+        assertEquals(2, charged.get(RedisKeys.rateLimit("account:a1")));
+    }
+
+    @Test
+    void disabledLimiterNeverRejects() {
+        properties.setEnabled(false);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("u1", "a1");
+        }
+    }
+
+    /**
+     * Run a sync against shared buckets that all report the given level
+     */
+    private void syncReturning(OrderRateLimiter target, String level) {
+        charged.clear();
+        RedisScriptingCommands scripting = mock(RedisScriptingCommands.class, invocation -> {
+            // eval(script, returnType, numKeys, key, rate, burst, taken, ttl)
+            Object[] arguments = invocation.getArguments();
+            charged.put(string(arguments[3]), Integer.parseInt(string(arguments[6])));
+            return null;
+        });
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.scriptingCommands()).thenReturn(scripting);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            RedisCallback<?> callback = invocation.getArgument(0);
+            callback.doInRedis(connection);
+            return charged.keySet().stream().map(key -> (Object) level).toList();
+        });
+
+        target.sync();
+    }
+
+    private static String string(Object bytes) {
+        return new String((byte[]) bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,204 @@
+package com.tcs.order.service;
+
+import com.tcs.common.dto.BatchOrderResponse;
+import com.tcs.common.dto.CreateOrderRequest;
+import com.tcs.common.dto.OrderResponse;
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.enums.OrderStatus;
+import com.tcs.common.enums.OrderType;
+import com.tcs.common.enums.TimeInForce;
+import com.tcs.common.exception.ErrorCode;
+import com.tcs.common.exception.RateLimitExceededException;
+import com.tcs.common.util.IdSource;
+import com.tcs.order.client.CoalescingRiskClient;
+import com.tcs.order.client.RiskServiceClient;
+import com.tcs.order.client.dto.RiskCheckResponse;
+import com.tcs.order.domain.entity.OrderEntity;
+import com.tcs.order.domain.repository.OrderBatchWriter;
+import com.tcs.order.domain.repository.OrderHistoryRepository;
+import com.tcs.order.domain.repository.OrderRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Order creation against mocked collaborators, committing by running the registered
+ * transaction synchronizations
+ */
+class OrderServiceTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderEventProducer eventProducer = mock(OrderEventProducer.class);
+    private final RiskServiceClient riskServiceClient = mock(RiskServiceClient.class);
+    private final CoalescingRiskClient coalescingRiskClient = mock(CoalescingRiskClient.class);
+    private final OrderIdempotencyGuard idempotencyGuard = mock(OrderIdempotencyGuard.class);
+    private final OrderSummaryCache summaryCache = mock(OrderSummaryCache.class);
+    private final OrderBatchWriter orderBatchWriter = mock(OrderBatchWriter.class);
+    private final OrderRateLimiter rateLimiter = mock(OrderRateLimiter.class);
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final IdSource idSource = mock(IdSource.class);
+
+    private final OrderService orderService = new OrderService(orderRepository, eventProducer, riskServiceClient,
+            coalescingRiskClient, idempotencyGuard, summaryCache, mock(OrderHistoryRepository.class),
+            orderBatchWriter, rateLimiter, Validation.buildDefaultValidatorFactory().getValidator(), idSource);
+
+    @BeforeEach
+    void beginTransaction() {
+        when(idSource.nextOrderId()).thenAnswer(invocation -> "ORD-" + nextId.getAndIncrement());
+        when(orderRepository.findByUserIdAndClientOrderId(anyString(), anyString())).thenReturn(Optional.empty());
+        doAnswer(invocation -> {
+            List<OrderEntity> orders = invocation.getArgument(0);
+            orders.forEach(order -> order.setVersion(0L));
+            return null;
+        }).when(orderBatchWriter).insertAll(anyList());
+        // Redis down: claims fall back to the database and the basket itself
+        when(idempotencyGuard.claimAll(anyList(), anyList())).thenThrow(new RedisConnectionFailureException("down"));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void basketTakesOneRiskCallOneInsertAndPublishesOnCommit() {
+        when(riskServiceClient.checkRiskBatch(anyList())).thenReturn(List.of(
+                approved(), RiskCheckResponse.builder().approved(false).reason("limit").build(), approved()));
+
+        BatchOrderResponse response = orderService.createOrders(List.of(
+                request("c1", "10"), request("c2", "20"), request("c3", "30")));
+
+        List<BatchOrderResponse.Result> results = response.getResults();
+        assertEquals(OrderStatus.PENDING, results.get(0).getOrder().getStatus());
+        assertEquals(OrderStatus.RISK_REJECTED, results.get(1).getOrder().getStatus());
+        assertEquals("limit", results.get(1).getOrder().getRejectReason());
+        assertEquals("ORD-3", results.get(2).getOrder().getOrderId());
+        verify(riskServiceClient).checkRiskBatch(anyList());
+        verify(orderBatchWriter).insertAll(anyList());
+        verify(eventProducer, never()).publishOrdersCreated(anyList());
+
+        commit();
+
+        verify(eventProducer).publishOrdersCreated(anyList());
+    }
+
+    @Test
+    void invalidAndRateLimitedOrdersFailOnTheirOwn() {
+        doThrow(new RateLimitExceededException("too many", 100)).when(rateLimiter).acquire(eq("u2"), anyString());
+        when(riskServiceClient.checkRiskBatch(anyList())).thenReturn(List.of(approved()));
+        CreateOrderRequest limited = request("c3", "1");
+        limited.setUserId("u2");
+
+        BatchOrderResponse response = orderService.createOrders(Arrays.asList(
+                null, request("c2", "-1"), limited, request("c4", "1")));
+
+        List<BatchOrderResponse.Result> results = response.getResults();
+        assertEquals(ErrorCode.INVALID_REQUEST.getCode(), results.get(0).getErrorCode());
+        assertEquals(ErrorCode.INVALID_REQUEST.getCode(), results.get(1).getErrorCode());
+        assertEquals(ErrorCode.RATE_LIMIT_EXCEEDED.getCode(), results.get(2).getErrorCode());
+        assertEquals(3, results.get(3).getIndex());
+        assertEquals(OrderStatus.PENDING, results.get(3).getOrder().getStatus());
+        assertNull(results.get(3).getErrorCode());
+    }
+
+    @Test
+    void repeatedClientOrderIdWithinABasketGetsTheFirstOrder() {
+        when(riskServiceClient.checkRiskBatch(anyList())).thenReturn(List.of(approved()));
+
+        BatchOrderResponse response = orderService.createOrders(List.of(request("c1", "10"), request("c1", "10")));
+
+        assertEquals("ORD-1", response.getResults().get(0).getOrder().getOrderId());
+        assertEquals("ORD-1", response.getResults().get(1).getOrder().getOrderId());
+    }
+
+    @Test
+    void clientOrderIdAlreadyInTheDatabaseReturnsThatOrder() {
+        OrderEntity existing = OrderEntity.builder()
+                .orderId("ORD-0")
+                .clientOrderId("c1")
+                .userId("u1")
+                .status(OrderStatus.FILLED)
+                .build();
+        when(orderRepository.findByUserIdAndClientOrderId("u1", "c1")).thenReturn(Optional.of(existing));
+
+        BatchOrderResponse response = orderService.createOrders(List.of(request("c1", "10")));
+
+        OrderResponse order = response.getResults().get(0).getOrder();
+        assertEquals("ORD-0", order.getOrderId());
+        assertEquals(OrderStatus.FILLED, order.getStatus());
+        verify(riskServiceClient, never()).checkRiskBatch(anyList());
+    }
+
+    @Test
+    void failedInsertPublishesNothing() {
+        when(riskServiceClient.checkRiskBatch(anyList())).thenReturn(List.of(approved()));
+        doThrow(new IllegalStateException("insert failed")).when(orderBatchWriter).insertAll(anyList());
+
+        assertThrows(IllegalStateException.class, () -> orderService.createOrders(List.of(request("c1", "10"))));
+
+        rollback();
+        verify(eventProducer, never()).publishOrdersCreated(anyList());
+        verify(summaryCache, never()).put(any(), anyLong());
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private void rollback() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+    private static RiskCheckResponse approved() {
+        return RiskCheckResponse.builder().approved(true).build();
+    }
+
+    private static CreateOrderRequest request(String clientOrderId, String quantity) {
+        return CreateOrderRequest.builder()
+                .clientOrderId(clientOrderId)
+                .userId("u1")
+                .accountId("a1")
+                .symbol("AAPL")
+                .side(OrderSide.BUY)
+                .type(OrderType.LIMIT)
+                .timeInForce(TimeInForce.GTC)
+                .quantity(new BigDecimal(quantity))
+                .price(new BigDecimal("180.50"))
+                .build();
+    }
+}
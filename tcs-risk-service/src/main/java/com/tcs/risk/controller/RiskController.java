@@ -11,6 +11,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 /**
  * REST controller for risk operations
  */
@@ -28,4 +30,13 @@ public class RiskController {
         RiskCheckResponse response = riskService.checkRisk(request);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Risk check a basket of orders; decisions come back in request order
+     */
+    @PostMapping("/check/batch")
+    public ResponseEntity<List<RiskCheckResponse>> checkRiskBatch(@RequestBody List<RiskCheckRequest> requests) {
+        log.info("Batch risk check request received for {} orders", requests.size());
+        return ResponseEntity.ok(riskService.checkRiskBatch(requests));
+    }
 }
@@ -0,0 +1,17 @@
+package com.tcs.risk.dto;
+
+import lombok.Value;
+
+/**
+ * Reference prices for one symbol, derived from executed trades.
+ * Prices are scaled longs at {@link com.tcs.common.numeric.FixedPoint#DB_SCALE}; VWAP, high and
+ * low cover the rolling window.
+ */
+@Value
+public class ReferencePrice {
+    long lastPrice;
+    long lastTradeTime;
+    long vwap;
+    long high;
+    long low;
+}
@@ -0,0 +1,120 @@
+package com.tcs.risk.service;
+
+import com.tcs.common.constants.KafkaTopics;
+import com.tcs.common.events.avro.TradeExecutedEvent;
+import com.tcs.common.numeric.FixedPoint;
+import com.tcs.risk.dto.ReferencePrice;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-symbol reference prices built from the trades topic.
+ *
+ * Every instance reads all trades (its own consumer group, starting from the latest offset),
+ * so lookups are local O(1) map reads. The listener thread is the only writer: it owns the
+ * rolling window buckets and publishes an immutable {@link ReferencePrice} per trade, which
+ * readers get without locking.
+ *
+ * The engine emits a maker and a taker trade per fill with the same price and quantity, so
+ * each fill is counted twice; that leaves VWAP, high and low unchanged.
+ */
+@Slf4j
+@Component
+public class ReferencePriceCache {
+
+    private static final int SCALE = FixedPoint.DB_SCALE;
+    private static final int BUCKETS = 10;
+
+    private final Map<String, ReferencePrice> prices = new ConcurrentHashMap<>();
+    private final Map<String, Window> windows = new HashMap<>();
+    private final long bucketMillis;
+
+    public ReferencePriceCache(@Value("${app.risk.reference-price.vwap-window-seconds}") long windowSeconds) {
+        this.bucketMillis = Math.max(1, windowSeconds * 1000 / BUCKETS);
+    }
+
+    /**
+     * Latest reference prices for a symbol, or null before its first trade
+     */
+    public ReferencePrice get(String symbol) {
+        return prices.get(symbol);
+    }
+
+    @KafkaListener(topics = KafkaTopics.TRADES, groupId = "${app.risk.reference-price.group-id}",
+            properties = "auto.offset.reset=latest")
+    public void onTrade(TradeExecutedEvent trade) {
+        try {
+            long price = FixedPoint.parse(trade.getPrice(), SCALE);
+            long quantity = FixedPoint.parse(trade.getQuantity(), SCALE);
+            long time = trade.getTimestamp();
+            if (price <= 0 || quantity <= 0) {
+                return;
+            }
+
+            Window window = windows.computeIfAbsent(trade.getSymbol(), symbol -> new Window());
+            window.add(time / bucketMillis, price, quantity);
+            prices.put(trade.getSymbol(), window.snapshot(price, time));
+        } catch (RuntimeException e) {
+            log.warn("Ignoring trade {} for reference prices: {}", trade.getTradeId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Rolling window of fixed-width time buckets, reused as a ring
+     */
+    private static final class Window {
+        private final long[] bucketIndex = new long[BUCKETS];
+        private final long[] notional = new long[BUCKETS];
+        private final long[] volume = new long[BUCKETS];
+        private final long[] high = new long[BUCKETS];
+        private final long[] low = new long[BUCKETS];
+        private long latestIndex;
+
+        Window() {
+            Arrays.fill(bucketIndex, Long.MIN_VALUE);
+        }
+
+        void add(long index, long price, long quantity) {
+            if (index <= latestIndex - BUCKETS) {
+                return;  // older than the window
+            }
+            latestIndex = Math.max(latestIndex, index);
+            int slot = (int) Math.floorMod(index, (long) BUCKETS);
+            if (bucketIndex[slot] != index) {
+                bucketIndex[slot] = index;
+                notional[slot] = 0;
+                volume[slot] = 0;
+                high[slot] = Long.MIN_VALUE;
+                low[slot] = Long.MAX_VALUE;
+            }
+            notional[slot] = Math.addExact(notional[slot], FixedPoint.multiply(price, quantity, SCALE));
+            volume[slot] = Math.addExact(volume[slot], quantity);
+            high[slot] = Math.max(high[slot], price);
+            low[slot] = Math.min(low[slot], price);
+        }
+
+        ReferencePrice snapshot(long lastPrice, long lastTradeTime) {
+            long totalNotional = 0;
+            long totalVolume = 0;
+            long windowHigh = lastPrice;
+            long windowLow = lastPrice;
+            for (int slot = 0; slot < BUCKETS; slot++) {
+                if (bucketIndex[slot] > latestIndex - BUCKETS) {
+                    totalNotional = Math.addExact(totalNotional, notional[slot]);
+                    totalVolume = Math.addExact(totalVolume, volume[slot]);
+                    windowHigh = Math.max(windowHigh, high[slot]);
+                    windowLow = Math.min(windowLow, low[slot]);
+                }
+            }
+            long vwap = totalVolume > 0 ? FixedPoint.divide(totalNotional, totalVolume, SCALE) : lastPrice;
+            return new ReferencePrice(lastPrice, lastTradeTime, vwap, windowHigh, windowLow);
+        }
+    }
+}
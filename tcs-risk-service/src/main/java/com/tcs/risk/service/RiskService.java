@@ -1,8 +1,10 @@
 package com.tcs.risk.service;
 
-import com.tcs.common.enums.OrderSide;
+import com.tcs.common.numeric.FixedPoint;
+import com.tcs.common.util.SnowflakeIdGenerator;
 import com.tcs.risk.domain.entity.RiskLimit;
 import com.tcs.risk.domain.repository.RiskLimitRepository;
+import com.tcs.risk.dto.ReferencePrice;
 import com.tcs.risk.dto.RiskCheckRequest;
 import com.tcs.risk.dto.RiskCheckResponse;
 import lombok.RequiredArgsConstructor;
@@ -12,19 +14,33 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Risk management service
+ *
+ * Amounts are converted to scaled longs (8 decimals, matching the NUMERIC columns) on entry,
+ * so the checks run on primitives and Redis quotas are exact integer counters.
+ *
+ * Market orders are valued at the symbol's last traded price and limit prices are checked against
+ * it, both from the in-memory {@link ReferencePriceCache}.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RiskService {
 
+    private static final int SCALE = FixedPoint.DB_SCALE;
+
     private final RiskLimitRepository riskLimitRepository;
     private final RedisTemplate<String, String> redisTemplate;
+    private final ReferencePriceCache referencePrices;
+    private final SnowflakeIdGenerator idGenerator;
 
     @Value("${app.risk.default-notional-limit}")
     private BigDecimal defaultNotionalLimit;
@@ -38,32 +54,97 @@ public class RiskService {
     @Value("${app.risk.quota-ttl}")
     private Long quotaTtl;
 
+    @Value("${app.risk.market-order-fallback-price}")
+    private BigDecimal marketOrderFallbackPrice;
+
+    @Value("${app.risk.price-band-percent}")
+    private BigDecimal priceBandPercent;
+
     /**
      * Perform risk check for an order
      */
     public RiskCheckResponse checkRisk(RiskCheckRequest request) {
         log.info("Performing risk check for order {} user {}", request.getOrderId(), request.getUserId());
+        return checkRisk(request, findAccountLimit(request), findSymbolLimit(request));
+    }
 
-        String riskDecisionId = UUID.randomUUID().toString();
+    /**
+     * Risk check a basket of orders in sequence, so each sees the quota reserved by the ones
+     * before it. Limits are looked up once per account and symbol in the basket.
+     *
+     * @return one decision per request, in request order
+     */
+    public List<RiskCheckResponse> checkRiskBatch(List<RiskCheckRequest> requests) {
+        log.info("Performing risk check for a basket of {} orders", requests.size());
+        Map<String, RiskLimit> accountLimits = new HashMap<>();
+        Map<String, Optional<RiskLimit>> symbolLimits = new HashMap<>();
+
+        List<RiskCheckResponse> responses = new ArrayList<>(requests.size());
+        for (RiskCheckRequest request : requests) {
+            String account = request.getUserId() + ":" + request.getAccountId();
+            RiskLimit accountLimit = accountLimits.computeIfAbsent(account, key -> findAccountLimit(request));
+            RiskLimit symbolLimit = symbolLimits
+                    .computeIfAbsent(account + ":" + request.getSymbol(),
+                            key -> Optional.ofNullable(findSymbolLimit(request)))
+                    .orElse(null);
+            responses.add(checkRisk(request, accountLimit, symbolLimit));
+        }
+        return responses;
+    }
 
-        // Get risk limits (from DB or use defaults)
-        RiskLimit accountLimit = riskLimitRepository
+    private RiskLimit findAccountLimit(RiskCheckRequest request) {
+        // From DB or use defaults
+        return riskLimitRepository
                 .findAccountLimit(request.getUserId(), request.getAccountId())
                 .orElse(createDefaultAccountLimit(request.getUserId(), request.getAccountId()));
+    }
 
-        RiskLimit symbolLimit = riskLimitRepository
+    private RiskLimit findSymbolLimit(RiskCheckRequest request) {
+        return riskLimitRepository
                 .findSymbolLimit(request.getUserId(), request.getAccountId(), request.getSymbol())
                 .orElse(null);
+    }
+
+    private RiskCheckResponse checkRisk(RiskCheckRequest request, RiskLimit accountLimit, RiskLimit symbolLimit) {
+        String riskDecisionId = idGenerator.nextId("RSK");
+        try {
+            return checkRisk(request, accountLimit, symbolLimit, riskDecisionId);
+        } catch (ArithmeticException e) {
+            // More than 8 decimals, or amounts that overflow a long at that scale
+            log.warn("Order {} has amounts out of range: {}", request.getOrderId(), e.getMessage());
+            return RiskCheckResponse.builder()
+                    .approved(false)
+                    .reason("Quantity or price out of range")
+                    .riskDecisionId(riskDecisionId)
+                    .build();
+        }
+    }
+
+    private RiskCheckResponse checkRisk(RiskCheckRequest request, RiskLimit accountLimit, RiskLimit symbolLimit,
+                                        String riskDecisionId) {
+        long quantity = FixedPoint.fromBigDecimal(request.getQuantity(), SCALE);
+        ReferencePrice reference = referencePrices.get(request.getSymbol());
+
+        // Fat-finger check: limit price too far from the last trade
+        if (request.getPrice() != null && !checkPriceBand(request.getPrice(), reference)) {
+            log.warn("Price {} outside band for symbol {}", request.getPrice(), request.getSymbol());
+            return RiskCheckResponse.builder()
+                    .approved(false)
+                    .reason("Price outside allowed band")
+                    .riskDecisionId(riskDecisionId)
+                    .build();
+        }
 
         // Calculate order notional value
-        BigDecimal notionalValue = calculateNotionalValue(request);
+        long notionalValue = calculateNotionalValue(request, quantity, reference);
 
         // Check notional limit using Redis
         BigDecimal effectiveNotionalLimit = symbolLimit != null && symbolLimit.getNotionalLimit() != null
                 ? symbolLimit.getNotionalLimit()
                 : accountLimit.getNotionalLimit();
+        long notionalLimit = FixedPoint.fromBigDecimal(effectiveNotionalLimit, SCALE);
 
-        if (!checkNotionalLimit(request.getUserId(), notionalValue, effectiveNotionalLimit)) {
+        if (!checkNotionalLimit(request.getUserId(), notionalValue, notionalLimit)) {
             log.warn("Notional limit exceeded for user {}", request.getUserId());
             return RiskCheckResponse.builder()
                     .approved(false)
@@ -76,8 +157,9 @@ public class RiskService {
         BigDecimal effectivePositionLimit = symbolLimit != null && symbolLimit.getPositionLimit() != null
                 ? symbolLimit.getPositionLimit()
                 : accountLimit.getPositionLimit();
+        long positionLimit = FixedPoint.fromBigDecimal(effectivePositionLimit, SCALE);
 
-        if (!checkPositionLimit(request.getUserId(), request.getSymbol(), request.getQuantity(), effectivePositionLimit)) {
+        if (!checkPositionLimit(request.getUserId(), request.getSymbol(), quantity, positionLimit)) {
             log.warn("Position limit exceeded for user {} symbol {}", request.getUserId(), request.getSymbol());
             return RiskCheckResponse.builder()
                     .approved(false)
@@ -98,7 +180,7 @@ public class RiskService {
         }
 
         // Reserve quota in Redis
-        reserveQuota(request.getUserId(), request.getSymbol(), notionalValue, request.getQuantity());
+        reserveQuota(request.getUserId(), request.getSymbol(), notionalValue, quantity);
 
         log.info("Risk check passed for order {}", request.getOrderId());
         return RiskCheckResponse.builder()
@@ -114,48 +196,45 @@ public class RiskService {
     public void releaseQuota(String userId, String symbol, BigDecimal notionalValue, BigDecimal quantity) {
         log.info("Releasing quota for user {} symbol {}", userId, symbol);
 
-        String notionalKey = "quota:notional:" + userId;
-        String positionKey = "quota:position:" + userId + ":" + symbol;
-
-        // Increment back the reserved amounts
-        redisTemplate.opsForValue().increment(notionalKey, notionalValue.doubleValue());
-        redisTemplate.opsForValue().increment(positionKey, quantity.doubleValue());
+        // Give back the reserved amounts
+        redisTemplate.opsForValue().decrement(notionalKey(userId), FixedPoint.fromBigDecimal(notionalValue, SCALE));
+        redisTemplate.opsForValue().decrement(positionKey(userId, symbol), FixedPoint.fromBigDecimal(quantity, SCALE));
     }
 
-    private BigDecimal calculateNotionalValue(RiskCheckRequest request) {
+    private long calculateNotionalValue(RiskCheckRequest request, long quantity, ReferencePrice reference) {
         if (request.getPrice() != null) {
-            return request.getPrice().multiply(request.getQuantity());
+            return FixedPoint.multiply(FixedPoint.fromBigDecimal(request.getPrice(), SCALE), quantity, SCALE);
         }
-        // For market orders, use a conservative estimate (could be improved with real-time market data)
-        return request.getQuantity().multiply(BigDecimal.valueOf(100)); // Placeholder
+        // Market orders: last traded price, or the configured estimate before the symbol has traded
+        long price = reference != null
+                ? reference.getLastPrice()
+                : FixedPoint.fromBigDecimal(marketOrderFallbackPrice, SCALE);
+        return FixedPoint.multiply(price, quantity, SCALE);
     }
 
-    private boolean checkNotionalLimit(String userId, BigDecimal notionalValue, BigDecimal limit) {
-        String key = "quota:notional:" + userId;
+    private boolean checkPriceBand(BigDecimal price, ReferencePrice reference) {
+        if (reference == null) {
+            return true;  // Nothing to compare against yet
+        }
+        long lastPrice = reference.getLastPrice();
+        long band = FixedPoint.multiply(lastPrice, FixedPoint.fromBigDecimal(priceBandPercent, SCALE), SCALE) / 100;
+        return Math.abs(FixedPoint.fromBigDecimal(price, SCALE) - lastPrice) <= band;
+    }
 
+    private boolean checkNotionalLimit(String userId, long notionalValue, long limit) {
         // Get current usage
-        String currentStr = redisTemplate.opsForValue().get(key);
-        BigDecimal current = currentStr != null ? new BigDecimal(currentStr) : BigDecimal.ZERO;
+        String currentStr = redisTemplate.opsForValue().get(notionalKey(userId));
+        long current = currentStr != null ? Long.parseLong(currentStr) : 0;
 
         // Check if adding this order would exceed limit
-        if (current.add(notionalValue).compareTo(limit) > 0) {
-            return false;
-        }
-
-        return true;
+        return Math.addExact(current, notionalValue) <= limit;
     }
 
-    private boolean checkPositionLimit(String userId, String symbol, BigDecimal quantity, BigDecimal limit) {
-        String key = "quota:position:" + userId + ":" + symbol;
-
-        String currentStr = redisTemplate.opsForValue().get(key);
-        BigDecimal current = currentStr != null ? new BigDecimal(currentStr) : BigDecimal.ZERO;
-
-        if (current.add(quantity).compareTo(limit) > 0) {
-            return false;
-        }
+    private boolean checkPositionLimit(String userId, String symbol, long quantity, long limit) {
+        String currentStr = redisTemplate.opsForValue().get(positionKey(userId, symbol));
+        long current = currentStr != null ? Long.parseLong(currentStr) : 0;
 
-        return true;
+        return Math.addExact(current, quantity) <= limit;
     }
 
     private boolean checkOrderCountLimit(String userId, Integer limit) {
@@ -167,15 +246,15 @@ public class RiskService {
         return current < limit;
     }
 
-    private void reserveQuota(String userId, String symbol, BigDecimal notionalValue, BigDecimal quantity) {
+    private void reserveQuota(String userId, String symbol, long notionalValue, long quantity) {
         // Reserve notional
-        String notionalKey = "quota:notional:" + userId;
-        redisTemplate.opsForValue().increment(notionalKey, notionalValue.doubleValue());
+        String notionalKey = notionalKey(userId);
+        redisTemplate.opsForValue().increment(notionalKey, notionalValue);
         redisTemplate.expire(notionalKey, quotaTtl, TimeUnit.SECONDS);
 
         // Reserve position
-        String positionKey = "quota:position:" + userId + ":" + symbol;
-        redisTemplate.opsForValue().increment(positionKey, quantity.doubleValue());
+        String positionKey = positionKey(userId, symbol);
+        redisTemplate.opsForValue().increment(positionKey, quantity);
         redisTemplate.expire(positionKey, quotaTtl, TimeUnit.SECONDS);
 
         // Increment order count
@@ -194,4 +273,13 @@ public class RiskService {
                 .enabled(true)
                 .build();
     }
+
+    // Quotas are integer units at SCALE; the "_units" keys keep them apart from the older float counters
+    private static String notionalKey(String userId) {
+        return "quota:notional_units:" + userId;
+    }
+
+    private static String positionKey(String userId, String symbol) {
+        return "quota:position_units:" + userId + ":" + symbol;
+    }
 }
@@ -0,0 +1,170 @@
+package com.tcs.trade.archive;
+
+import com.tcs.trade.config.TradeArchiveProperties;
+import com.tcs.trade.domain.repository.TradeHistoryFilter;
+import com.tcs.trade.domain.repository.TradeRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Columnar archive of the trades dropped from the database: one file per UTC day,
+ * trades-YYYY-MM-DD.tcol under app.trade-archive.directory, in (executed_at, id) order.
+ *
+ * Files are written under a temporary name, synced and moved into place, and the directory is
+ * synced after the move, so a reader never sees a partial day and writing a day again replaces it.
+ * Every engine instance serving queries must see the same directory, so there is no default: with
+ * archiving enabled the directory has to be configured, typically a volume shared by all instances.
+ * With archiving disabled and no directory, there are no archived days.
+ */
+@Slf4j
+@Component
+public class TradeArchive {
+
+    private static final String PREFIX = "trades-";
+    private static final String SUFFIX = ".tcol";
+
+    private final Path directory;
+    private final int rowGroupSize;
+
+    public TradeArchive(TradeArchiveProperties properties) {
+        String configured = properties.getDirectory();
+        if (configured == null || configured.isBlank()) {
+            if (properties.isEnabled()) {
+                throw new IllegalStateException("app.trade-archive.directory (TRADE_ARCHIVE_DIR) must be set "
+                        + "to a directory shared by all engine instances when archiving is enabled");
+            }
+            this.directory = null;
+        } else {
+            this.directory = Paths.get(configured);
+        }
+        this.rowGroupSize = properties.getRowGroupSize();
+    }
+
+    /**
+     * Days with an archive file, in order
+     */
+    public NavigableSet<LocalDate> days() {
+        NavigableSet<LocalDate> days = new TreeSet<>();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return days;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .forEach(name -> {
+                        try {
+                            days.add(LocalDate.parse(name.substring(PREFIX.length(),
+                                    name.length() - SUFFIX.length())));
+                        } catch (DateTimeParseException e) {
+                            log.warn("Ignoring unexpected file {} in the trade archive", name);
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("Failed to list trade archive directory {}: {}", directory, e.getMessage());
+        }
+        return days;
+    }
+
+    /**
+     * Start writing the file of a day; nothing is visible until {@link DayWriter#commit()}
+     */
+    public DayWriter create(LocalDate day) throws IOException {
+        if (directory == null) {
+            throw new IllegalStateException("No trade archive directory configured");
+        }
+        Files.createDirectories(directory);
+        return new DayWriter(dayPath(day));
+    }
+
+    /**
+     * Hand the day's trades matching the filter to the consumer, oldest first
+     */
+    public void scan(LocalDate day, TradeHistoryFilter filter, Consumer<TradeRecord> consumer) throws IOException {
+        long fromMicros = filter.getFrom() != null ? ceilMicros(filter.getFrom()) : Long.MIN_VALUE;
+        long toMicros = filter.getTo() != null ? ceilMicros(filter.getTo()) : Long.MAX_VALUE;
+        try (InputStream input = Files.newInputStream(dayPath(day));
+             TradeColumnarReader reader = new TradeColumnarReader(input)) {
+            reader.scan(filter.getUserId(), filter.getSymbol(), fromMicros, toMicros, consumer);
+        }
+    }
+
+    private Path dayPath(LocalDate day) {
+        return directory.resolve(PREFIX + day + SUFFIX);
+    }
+
+    // Stored times are whole microseconds, so a row is at or after an instant iff it is at or after this
+    private static long ceilMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000 + (instant.getNano() + 999) / 1_000;
+    }
+
+    /**
+     * Writer of one day's file
+     */
+    public final class DayWriter implements AutoCloseable {
+
+        private final Path target;
+        private final Path temp;
+        private final FileOutputStream file;
+        private final TradeColumnarWriter writer;
+        private long count;
+        private boolean committed;
+
+        private DayWriter(Path target) throws IOException {
+            this.target = target;
+            this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.file = new FileOutputStream(temp.toFile());
+            this.writer = new TradeColumnarWriter(file, rowGroupSize);
+        }
+
+        /**
+         * Append a trade; trades must come in (executed_at, id) order
+         */
+        public void append(TradeRecord trade) throws IOException {
+            writer.append(trade);
+            count++;
+        }
+
+        /**
+         * Finish the file, sync it to disk, move it into place and sync the directory so the move
+         * survives a crash
+         *
+         * @return the number of trades written
+         */
+        public long commit() throws IOException {
+            writer.finish();
+            file.getFD().sync();
+            writer.close();
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel parent = FileChannel.open(target.getParent(), StandardOpenOption.READ)) {
+                parent.force(true);
+            }
+            committed = true;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                writer.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
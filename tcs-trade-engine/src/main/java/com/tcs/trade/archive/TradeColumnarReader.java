@@ -0,0 +1,164 @@
+package com.tcs.trade.archive;
+
+import com.tcs.common.enums.OrderSide;
+import com.tcs.trade.domain.repository.TradeRecord;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads files written by {@link TradeColumnarWriter}, decoding only the row groups that can
+ * hold a matching trade
+ */
+class TradeColumnarReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final OrderSide[] SIDES = OrderSide.values();
+
+    private final DataInputStream in;
+
+    TradeColumnarReader(InputStream input) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(input, BUFFER_SIZE), BUFFER_SIZE));
+        int magic = in.readInt();
+        int version = in.readInt();
+        if (magic != TradeColumnarWriter.MAGIC || version != TradeColumnarWriter.VERSION) {
+            throw new IOException("Unrecognised trade archive format");
+        }
+    }
+
+    /**
+     * Hand the trades of the user and symbol (null for any) executed in [fromMicros, toMicros)
+     * to the consumer, in file order
+     */
+    void scan(String userId, String symbol, long fromMicros, long toMicros, Consumer<TradeRecord> consumer)
+            throws IOException {
+        int rowCount;
+        while ((rowCount = in.readInt()) > 0) {
+            long minMicros = in.readLong();
+            long maxMicros = in.readLong();
+            String[] users = readStrings();
+            String[] symbols = readStrings();
+            int columnBytes = in.readInt();
+
+            int wantedUser = userId != null ? indexOf(users, userId) : -1;
+            int wantedSymbol = symbol != null ? indexOf(symbols, symbol) : -1;
+            if ((userId != null && wantedUser < 0) || (symbol != null && wantedSymbol < 0)
+                    || maxMicros < fromMicros || minMicros >= toMicros) {
+                in.skipNBytes(columnBytes);
+                continue;
+            }
+
+            byte[] block = new byte[columnBytes];
+            in.readFully(block);
+            DataInputStream columns = new DataInputStream(new ByteArrayInputStream(block));
+            long[] ids = readDeltas(columns, rowCount);
+            long[] micros = readDeltas(columns, rowCount);
+            int[] userIndexes = readIndexes(columns, rowCount);
+            int[] symbolIndexes = readIndexes(columns, rowCount);
+            byte[] sides = new byte[rowCount];
+            columns.readFully(sides);
+            String[] quantities = readUtf(columns, rowCount);
+            String[] prices = readUtf(columns, rowCount);
+            String[] totalAmounts = readUtf(columns, rowCount);
+            String[] tradeIds = readUtf(columns, rowCount);
+            String[] orderIds = readUtf(columns, rowCount);
+            String[] traceIds = new String[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                traceIds[i] = columns.readBoolean() ? columns.readUTF() : null;
+            }
+
+            for (int i = 0; i < rowCount; i++) {
+                if ((wantedUser >= 0 && userIndexes[i] != wantedUser)
+                        || (wantedSymbol >= 0 && symbolIndexes[i] != wantedSymbol)
+                        || micros[i] < fromMicros || micros[i] >= toMicros) {
+                    continue;
+                }
+                consumer.accept(TradeRecord.builder()
+                        .id(ids[i])
+                        .tradeId(tradeIds[i])
+                        .orderId(orderIds[i])
+                        .userId(users[userIndexes[i]])
+                        .symbol(symbols[symbolIndexes[i]])
+                        .side(SIDES[sides[i]])
+                        .quantity(new BigDecimal(quantities[i]))
+                        .price(new BigDecimal(prices[i]))
+                        .totalAmount(new BigDecimal(totalAmounts[i]))
+                        .traceId(traceIds[i])
+                        .executedAt(fromMicros(micros[i]))
+                        .build());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String[] readStrings() throws IOException {
+        String[] values = new String[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readUTF();
+        }
+        return values;
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long[] readDeltas(DataInput input, int count) throws IOException {
+        long[] values = new long[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long encoded = readVarLong(input);
+            previous += (encoded >>> 1) ^ -(encoded & 1);
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    private static int[] readIndexes(DataInput input, int count) throws IOException {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = (int) readVarLong(input);
+        }
+        return values;
+    }
+
+    private static String[] readUtf(DataInput input, int count) throws IOException {
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = input.readUTF();
+        }
+        return values;
+    }
+
+    private static long readVarLong(DataInput input) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = input.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static Instant fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1_000L);
+    }
+}
@@ -0,0 +1,173 @@
+package com.tcs.trade.archive;
+
+import com.tcs.trade.domain.repository.TradeRecord;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes trades column by column in row groups, gzip-compressed.
+ *
+ * Layout: magic, version, then row groups, each with its row count, the smallest and largest
+ * executed_at in epoch microseconds, the distinct users and symbols, the byte length of its
+ * columns and the columns themselves: id and executed_at as zigzag varint deltas, user and symbol
+ * as varint indexes into the group's lists, side as a byte, quantity, price and total amount as
+ * decimal strings, trade ID and order ID, and the trace ID behind a presence flag. A row count of
+ * zero ends the file. Laying out like values together lets gzip compress them far better than
+ * rows, and the group header lets a reader skip groups without the user or symbol it wants.
+ */
+class TradeColumnarWriter implements AutoCloseable {
+
+    static final int MAGIC = 0x54435341;  // "TCSA"
+    static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final GZIPOutputStream gzip;
+    private final DataOutputStream out;
+    private final int rowGroupSize;
+    private final List<TradeRecord> group;
+    private final ByteArrayOutputStream columns = new ByteArrayOutputStream(BUFFER_SIZE);
+    private final DataOutputStream columnsOut = new DataOutputStream(columns);
+
+    TradeColumnarWriter(OutputStream output, int rowGroupSize) throws IOException {
+        this.gzip = new GZIPOutputStream(output, BUFFER_SIZE);
+        this.out = new DataOutputStream(new BufferedOutputStream(gzip, BUFFER_SIZE));
+        this.rowGroupSize = rowGroupSize;
+        this.group = new ArrayList<>(rowGroupSize);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    /**
+     * Append a trade; trades must come in (executed_at, id) order
+     */
+    void append(TradeRecord trade) throws IOException {
+        group.add(trade);
+        if (group.size() >= rowGroupSize) {
+            writeGroup();
+        }
+    }
+
+    /**
+     * Write the last row group and the end marker, leaving the underlying stream open
+     */
+    void finish() throws IOException {
+        writeGroup();
+        out.writeInt(0);
+        out.flush();
+        gzip.finish();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeGroup() throws IOException {
+        if (group.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> users = new HashMap<>();
+        Map<String, Integer> symbols = new HashMap<>();
+        List<String> userList = new ArrayList<>();
+        List<String> symbolList = new ArrayList<>();
+        long minMicros = Long.MAX_VALUE;
+        long maxMicros = Long.MIN_VALUE;
+
+        columns.reset();
+        long previous = 0;
+        for (TradeRecord trade : group) {
+            writeVarLong(columnsOut, zigzag(trade.getId() - previous));
+            previous = trade.getId();
+        }
+        previous = 0;
+        for (TradeRecord trade : group) {
+            long micros = toMicros(trade.getExecutedAt());
+            minMicros = Math.min(minMicros, micros);
+            maxMicros = Math.max(maxMicros, micros);
+            writeVarLong(columnsOut, zigzag(micros - previous));
+            previous = micros;
+        }
+        for (TradeRecord trade : group) {
+            writeVarLong(columnsOut, users.computeIfAbsent(trade.getUserId(), user -> {
+                userList.add(user);
+                return userList.size() - 1;
+            }));
+        }
+        for (TradeRecord trade : group) {
+            writeVarLong(columnsOut, symbols.computeIfAbsent(trade.getSymbol(), symbol -> {
+                symbolList.add(symbol);
+                return symbolList.size() - 1;
+            }));
+        }
+        for (TradeRecord trade : group) {
+            columnsOut.writeByte(trade.getSide().ordinal());
+        }
+        writeDecimals(group.stream().map(TradeRecord::getQuantity).toList());
+        writeDecimals(group.stream().map(TradeRecord::getPrice).toList());
+        writeDecimals(group.stream().map(TradeRecord::getTotalAmount).toList());
+        for (TradeRecord trade : group) {
+            columnsOut.writeUTF(trade.getTradeId());
+        }
+        for (TradeRecord trade : group) {
+            columnsOut.writeUTF(trade.getOrderId());
+        }
+        for (TradeRecord trade : group) {
+            columnsOut.writeBoolean(trade.getTraceId() != null);
+            if (trade.getTraceId() != null) {
+                columnsOut.writeUTF(trade.getTraceId());
+            }
+        }
+        columnsOut.flush();
+
+        out.writeInt(group.size());
+        out.writeLong(minMicros);
+        out.writeLong(maxMicros);
+        writeStrings(userList);
+        writeStrings(symbolList);
+        out.writeInt(columns.size());
+        columns.writeTo(out);
+        group.clear();
+    }
+
+    private void writeDecimals(List<BigDecimal> values) throws IOException {
+        for (BigDecimal value : values) {
+            columnsOut.writeUTF(value.toPlainString());
+        }
+    }
+
+    private void writeStrings(List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static void writeVarLong(DataOutput output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+}
@@ -0,0 +1,18 @@
+package com.tcs.trade.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Periodic call auction settings, bound from app.auction
+ */
+@Data
+@ConfigurationProperties(prefix = "app.auction")
+public class AuctionProperties {
+
+    private List<String> symbols = new ArrayList<>();
+    private long uncrossIntervalMs = 1000;
+}
@@ -0,0 +1,17 @@
+package com.tcs.trade.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Book handoff between engine instances, bound from app.book-handoff
+ */
+@Data
+@ConfigurationProperties(prefix = "app.book-handoff")
+public class BookHandoffProperties {
+
+    private boolean enabled = true;
+    private long checkpointIntervalMs = 60_000;
+    private long timeoutMs = 30_000;
+    private int maxMessageBytes = 64 * 1024 * 1024;
+}
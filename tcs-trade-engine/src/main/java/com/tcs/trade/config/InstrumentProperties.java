@@ -0,0 +1,26 @@
+package com.tcs.trade.config;
+
+import com.tcs.common.numeric.FixedPoint;
+import com.tcs.common.numeric.SymbolScales;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-symbol fixed-point scales, bound from app.instruments
+ */
+@Data
+@ConfigurationProperties(prefix = "app.instruments")
+public class InstrumentProperties {
+
+    private int defaultPriceScale = FixedPoint.DB_SCALE;
+    private int defaultQuantityScale = FixedPoint.DB_SCALE;
+    private Map<String, Integer> priceScales = new HashMap<>();
+    private Map<String, Integer> quantityScales = new HashMap<>();
+
+    public SymbolScales toSymbolScales() {
+        return new SymbolScales(defaultPriceScale, defaultQuantityScale, priceScales, quantityScales);
+    }
+}
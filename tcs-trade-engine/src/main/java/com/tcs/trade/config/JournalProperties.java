@@ -0,0 +1,18 @@
+package com.tcs.trade.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Matching journal and snapshot settings, bound from app.journal
+ */
+@Data
+@ConfigurationProperties(prefix = "app.journal")
+public class JournalProperties {
+
+    private boolean enabled = true;
+    private String directory = "./data/journal";
+    private int segmentSize = 256 * 1024 * 1024;
+    private long snapshotInterval = 1_000_000;
+    private boolean fsync = false;
+}
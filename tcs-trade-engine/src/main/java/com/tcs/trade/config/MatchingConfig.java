@@ -0,0 +1,79 @@
+package com.tcs.trade.config;
+
+import com.tcs.common.constants.KafkaTopics;
+import com.tcs.common.numeric.SymbolScales;
+import com.tcs.trade.domain.repository.CopyTradeBatchWriter;
+import com.tcs.trade.domain.repository.JpaTradeBatchWriter;
+import com.tcs.trade.domain.repository.TradeBatchWriter;
+import com.tcs.trade.domain.repository.TradeRepository;
+import com.tcs.trade.service.OrderConsumptionHalter;
+import com.tcs.trade.service.TransactionalBatchCommitter;
+import org.springframework.beans.factory.annotation.Value;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+/**
+ * Matching engine configuration
+ */
+@Configuration
+@EnableConfigurationProperties({InstrumentProperties.class, JournalProperties.class, AuctionProperties.class,
+        SymbolRoutingProperties.class, BookHandoffProperties.class, TradeArchiveProperties.class})
+public class MatchingConfig {
+
+    @Bean
+    public SymbolScales symbolScales(InstrumentProperties instrumentProperties) {
+        return instrumentProperties.toSymbolScales();
+    }
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
+    /**
+     * Latest book snapshot per orders partition: compacted, and sized for a whole partition's books
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.book-handoff.enabled", havingValue = "true", matchIfMissing = true)
+    public NewTopic bookHandoffTopic(BookHandoffProperties handoffProperties) {
+        return TopicBuilder.name(KafkaTopics.BOOK_HANDOFF)
+                .partitions(1)
+                .config(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT)
+                .config(TopicConfig.MAX_MESSAGE_BYTES_CONFIG, String.valueOf(handoffProperties.getMaxMessageBytes()))
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.trade-store.mode", havingValue = "copy", matchIfMissing = true)
+    public TradeBatchWriter copyTradeBatchWriter(DataSource dataSource) {
+        return new CopyTradeBatchWriter(dataSource);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.trade-store.mode", havingValue = "jpa")
+    public TradeBatchWriter jpaTradeBatchWriter(TradeRepository tradeRepository,
+                                                TransactionTemplate transactionTemplate) {
+        return new JpaTradeBatchWriter(tradeRepository, transactionTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.transactional", havingValue = "true")
+    public TransactionalBatchCommitter transactionalBatchCommitter(
+            ProducerFactory<String, Object> producerFactory,
+            @Value("${app.kafka.transaction-id-prefix}") String transactionIdPrefix,
+            OrderConsumptionHalter consumptionHalter,
+            @Value("${app.kafka.stuck-batch-timeout-ms}") long stuckBatchTimeoutMillis) {
+        return new TransactionalBatchCommitter(producerFactory, transactionIdPrefix, consumptionHalter,
+                stuckBatchTimeoutMillis);
+    }
+}
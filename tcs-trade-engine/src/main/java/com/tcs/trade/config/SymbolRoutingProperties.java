@@ -0,0 +1,17 @@
+package com.tcs.trade.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Symbol to orders-partition routing and hot symbol detection, bound from app.symbol-routing
+ */
+@Data
+@ConfigurationProperties(prefix = "app.symbol-routing")
+public class SymbolRoutingProperties {
+
+    private String dedicatedPartitions = "";
+    private long hotSymbolWindowMs = 60_000;
+    private double hotSymbolShare = 0.5;
+    private long hotSymbolMinRate = 1000;
+}
@@ -0,0 +1,23 @@
+package com.tcs.trade.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Daily trade partitions and their columnar archive, bound from app.trade-archive
+ */
+@Data
+@ConfigurationProperties(prefix = "app.trade-archive")
+public class TradeArchiveProperties {
+
+    private boolean enabled = true;
+    /** Shared by every instance serving queries; required when enabled */
+    private String directory;
+    private int retentionDays = 30;
+    private int partitionsAhead = 7;
+    private long checkIntervalMs = 3_600_000;
+    private int rowGroupSize = 16_384;
+    private int exportFetchSize = 10_000;
+    private int maxPageSize = 500;
+    private int maxArchiveDaysPerQuery = 31;
+}
@@ -0,0 +1,27 @@
+package com.tcs.trade.consumer;
+
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Acknowledges a whole poll batch once every record in it has been acknowledged.
+ * Each record's pipeline output acknowledges its share, from whichever thread finishes it.
+ */
+public class BatchAcknowledgment implements Acknowledgment {
+
+    private final Acknowledgment batchAcknowledgment;
+    private final AtomicInteger pending;
+
+    public BatchAcknowledgment(Acknowledgment batchAcknowledgment, int recordCount) {
+        this.batchAcknowledgment = batchAcknowledgment;
+        this.pending = new AtomicInteger(recordCount);
+    }
+
+    @Override
+    public void acknowledge() {
+        if (pending.decrementAndGet() == 0) {
+            batchAcknowledgment.acknowledge();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.tcs.trade.consumer;
+
+import com.tcs.common.constants.KafkaTopics;
+import com.tcs.common.events.avro.BookHandoffEvent;
+import com.tcs.trade.config.BookHandoffProperties;
+import com.tcs.trade.service.BookHandoffReader;
+import com.tcs.trade.service.MatchingEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves order books with their orders partitions when the consumer group rebalances.
+ *
+ * With cooperative assignment only the partitions that actually move are revoked and assigned.
+ * A revoked partition's books are checkpointed before its offsets are committed; a newly assigned
+ * partition starts from the fresher of the local and the handed-off books, and the consumer
+ * rewinds to the offset those books reflect so they catch up with the committed position.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookHandoffRebalanceListener implements ConsumerAwareRebalanceListener {
+
+    private final MatchingEngine matchingEngine;
+    private final BookHandoffReader handoffReader;
+    private final BookHandoffProperties handoffProperties;
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Set<Integer> revoked = orderPartitions(partitions);
+        if (!revoked.isEmpty()) {
+            log.info("Handing off orders partitions {}", revoked);
+            matchingEngine.handOff(revoked);
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // Another instance may already own them, so there is nothing consistent left to hand off
+        Set<Integer> lost = orderPartitions(partitions);
+        if (!lost.isEmpty()) {
+            log.warn("Lost orders partitions {}, dropping their books", lost);
+            matchingEngine.release(lost);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Set<Integer> added = orderPartitions(partitions);
+        if (added.isEmpty()) {
+            return;
+        }
+        matchingEngine.initRouting(consumer.partitionsFor(KafkaTopics.ORDERS).size());
+
+        // Books recovered from the journal for partitions another instance now owns
+        Set<Integer> unowned = new HashSet<>();
+        for (int partition = 0; partition < matchingEngine.getRouter().getPartitionCount(); partition++) {
+            if (!consumer.assignment().contains(new TopicPartition(KafkaTopics.ORDERS, partition))) {
+                unowned.add(partition);
+            }
+        }
+        matchingEngine.release(unowned);
+
+        Map<Integer, Long> positions = new HashMap<>();
+        for (int partition : added) {
+            positions.put(partition, consumer.position(new TopicPartition(KafkaTopics.ORDERS, partition)));
+        }
+        List<BookHandoffEvent> handoffs = handoffProperties.isEnabled() ? handoffReader.readLatest() : List.of();
+
+        Map<Integer, Long> rewinds = matchingEngine.install(added, positions, handoffs);
+        rewinds.forEach((partition, offset) ->
+                consumer.seek(new TopicPartition(KafkaTopics.ORDERS, partition), offset));
+    }
+
+    private static Set<Integer> orderPartitions(Collection<TopicPartition> partitions) {
+        Set<Integer> orderPartitions = new HashSet<>();
+        for (TopicPartition partition : partitions) {
+            if (KafkaTopics.ORDERS.equals(partition.topic())) {
+                orderPartitions.add(partition.partition());
+            }
+        }
+        return orderPartitions;
+    }
+}
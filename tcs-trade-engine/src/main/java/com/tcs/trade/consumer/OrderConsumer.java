@@ -1,38 +1,115 @@
 package com.tcs.trade.consumer;
 
 import com.tcs.common.constants.KafkaTopics;
-import com.tcs.trade.dto.OrderCreatedEvent;
+import com.tcs.common.events.avro.OrderCreatedEvent;
+import com.tcs.common.events.avro.TradingPhaseEvent;
+import com.tcs.common.util.LatencyHeaders;
 import com.tcs.trade.service.MatchingEngine;
+import com.tcs.trade.service.OrderConsumptionHalter;
+import com.tcs.trade.service.SymbolLoadMonitor;
+import com.tcs.trade.service.TransactionalBatchCommitter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
- * Kafka consumer for order events
+ * Kafka consumer for order events and the trading phase changes sequenced with them
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class OrderConsumer {
+public class OrderConsumer implements ConsumerSeekAware {
 
     private final MatchingEngine matchingEngine;
+    private final ObjectProvider<TransactionalBatchCommitter> transactionalCommitter;
+    private final SymbolLoadMonitor loadMonitor;
+    private final OrderConsumptionHalter consumptionHalter;
+
+    @Value("${app.latency-tracing.enabled}")
+    private boolean latencyTracing;
+
+    /**
+     * Takes a whole poll batch. Records arrive grouped by partition in offset order and are
+     * handed to the shards in that order; the batch is acknowledged once, when the last of
+     * its records has been persisted and published. In transactional mode the batch's events
+     * and offsets are committed together in one Kafka transaction instead. Book checkpoints for
+     * handoff are taken between batches.
+     *
+     * Every record ends acknowledged or halts consumption: a record that is neither an order nor a
+     * phase change is acknowledged and skipped, and one that cannot be handed to its shard stops
+     * the batch there, as later records of its partition must not be applied before it.
+     */
+    @KafkaListener(id = OrderConsumptionHalter.LISTENER_ID, topics = KafkaTopics.ORDERS,
+            groupId = "trade-engine-group")
+    public void consumeOrders(List<ConsumerRecord<String, SpecificRecord>> records,
+                              Acknowledgment acknowledgment, Consumer<?, ?> consumer) {
+        log.debug("Received {} order events", records.size());
+        if (consumptionHalter.isHalted()) {
+            // Left unacknowledged while the container stops, for the partitions' next owner
+            return;
+        }
+        TransactionalBatchCommitter committer = transactionalCommitter.getIfAvailable();
+        Acknowledgment batchAcknowledgment = committer != null
+                ? committer.begin(records, acknowledgment, consumer.groupMetadata())
+                : new BatchAcknowledgment(acknowledgment, records.size());
 
-    @KafkaListener(topics = KafkaTopics.ORDERS, groupId = "trade-engine-group")
-    public void consumeOrder(OrderCreatedEvent orderEvent, Acknowledgment acknowledgment) {
-        try {
-            log.info("Received order event: orderId={}, symbol={}, side={}",
-                    orderEvent.getOrderId(), orderEvent.getSymbol(), orderEvent.getSide());
+        long receivedAtMicros = latencyTracing ? LatencyHeaders.nowMicros() : 0;
+        for (ConsumerRecord<String, SpecificRecord> record : records) {
+            try {
+                if (record.value() instanceof TradingPhaseEvent phaseEvent) {
+                    log.debug("Received trading phase change: symbol={}, phase={}",
+                            phaseEvent.getSymbol(), phaseEvent.getPhase());
+                    matchingEngine.submitPhaseChange(phaseEvent, record.partition(), record.offset(),
+                            batchAcknowledgment);
+                    continue;
+                }
+                if (!(record.value() instanceof OrderCreatedEvent orderEvent)) {
+                    log.error("Skipping record {}-{} of unexpected type {}", record.partition(), record.offset(),
+                            record.value() == null ? null : record.value().getClass().getName());
+                    batchAcknowledgment.acknowledge();
+                    continue;
+                }
 
-            matchingEngine.processOrder(orderEvent);
+                log.debug("Received order event: orderId={}, symbol={}, side={}",
+                        orderEvent.getOrderId(), orderEvent.getSymbol(), orderEvent.getSide());
 
-            // Manually acknowledge after successful processing
-            acknowledgment.acknowledge();
+                long sentAtMicros = latencyTracing ? LatencyHeaders.get(record.headers(), LatencyHeaders.SENT_AT) : 0;
+                matchingEngine.submit(orderEvent, record.partition(), record.offset(), batchAcknowledgment,
+                        sentAtMicros, receivedAtMicros);
+                loadMonitor.record(orderEvent.getSymbol(), record.partition());
 
-        } catch (Exception e) {
-            log.error("Error processing order {}: {}", orderEvent.getOrderId(), e.getMessage(), e);
-            // Don't acknowledge - message will be redelivered
+            } catch (Exception e) {
+                log.error("Error processing record {}-{}: {}", record.partition(), record.offset(), e.getMessage(), e);
+                // Not handed off, so the batch is never acknowledged and is redelivered to the next owner
+                consumptionHalter.halt("failed to hand off record " + record.partition() + "-" + record.offset()
+                        + ": " + e.getMessage());
+                return;
+            }
         }
+        matchingEngine.checkpointIfDue();
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        Map<TopicPartition, Long> orderPartitions = new HashMap<>();
+        assignments.forEach((partition, position) -> {
+            if (KafkaTopics.ORDERS.equals(partition.topic())) {
+                orderPartitions.put(partition, position);
+            }
+        });
+        matchingEngine.onPartitionsAssigned(orderPartitions);
     }
 }
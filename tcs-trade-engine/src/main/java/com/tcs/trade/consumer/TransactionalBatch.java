@@ -0,0 +1,84 @@
+package com.tcs.trade.consumer;
+
+import com.tcs.trade.service.TransactionalBatchCommitter;
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * One poll batch processed under a Kafka transaction.
+ *
+ * The publishing stage buffers the batch's sends here instead of sending them, and
+ * acknowledges each record as usual. Once every record is acknowledged the committer sends
+ * everything plus the batch's offsets in one transaction. Only the publishing thread
+ * touches the sends and the count.
+ */
+public class TransactionalBatch implements Acknowledgment {
+
+    private final TransactionalBatchCommitter committer;
+    private final Acknowledgment batchAcknowledgment;
+    private final Map<TopicPartition, OffsetAndMetadata> offsets;
+    private final ConsumerGroupMetadata groupMetadata;
+    private final List<Consumer<KafkaOperations<String, Object>>> sends = new ArrayList<>();
+    private final long startedAtNanos = System.nanoTime();
+    private volatile int pending;
+
+    public TransactionalBatch(TransactionalBatchCommitter committer, Acknowledgment batchAcknowledgment,
+                              Map<TopicPartition, OffsetAndMetadata> offsets, ConsumerGroupMetadata groupMetadata,
+                              int recordCount) {
+        this.committer = committer;
+        this.batchAcknowledgment = batchAcknowledgment;
+        this.offsets = offsets;
+        this.groupMetadata = groupMetadata;
+        this.pending = recordCount;
+    }
+
+    public void addSend(Consumer<KafkaOperations<String, Object>> send) {
+        sends.add(send);
+    }
+
+    @Override
+    public void acknowledge() {
+        if (--pending == 0) {
+            committer.onComplete(this);
+        }
+    }
+
+    public boolean isComplete() {
+        return pending == 0;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public long getStartedAtNanos() {
+        return startedAtNanos;
+    }
+
+    public List<Consumer<KafkaOperations<String, Object>>> getSends() {
+        return sends;
+    }
+
+    public Map<TopicPartition, OffsetAndMetadata> getOffsets() {
+        return offsets;
+    }
+
+    public ConsumerGroupMetadata getGroupMetadata() {
+        return groupMetadata;
+    }
+
+    /**
+     * Let the listener container know the batch is done once its transaction committed
+     */
+    public void acknowledgeBatch() {
+        batchAcknowledgment.acknowledge();
+    }
+}
@@ -0,0 +1,37 @@
+package com.tcs.trade.controller;
+
+import com.tcs.common.routing.SymbolRouter;
+import com.tcs.trade.service.MatchingEngine;
+import com.tcs.trade.service.SymbolLoadMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admin view of symbol routing on this instance: the routing in use, the orders partitions
+ * it owns and the load seen on them, including hot symbols
+ */
+@RestController
+@RequestMapping("/api/admin/symbol-routing")
+@RequiredArgsConstructor
+public class SymbolRoutingController {
+
+    private final MatchingEngine matchingEngine;
+    private final SymbolLoadMonitor loadMonitor;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getRouting() {
+        SymbolRouter router = matchingEngine.getRouter();
+        Map<String, Object> routing = new LinkedHashMap<>();
+        routing.put("partitionCount", router != null ? router.getPartitionCount() : 0);
+        routing.put("dedicatedPartitions", router != null ? router.getDedicatedPartitions() : Map.of());
+        routing.put("ownedPartitions", matchingEngine.getOwnedPartitions());
+        routing.put("load", loadMonitor.getLoad());
+        return ResponseEntity.ok(routing);
+    }
+}
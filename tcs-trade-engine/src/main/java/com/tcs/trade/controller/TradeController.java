@@ -0,0 +1,59 @@
+package com.tcs.trade.controller;
+
+import com.tcs.common.dto.TradePageResponse;
+import com.tcs.common.exception.ErrorResponse;
+import com.tcs.common.exception.TcsException;
+import com.tcs.common.util.TraceContext;
+import com.tcs.trade.domain.repository.TradeHistoryFilter;
+import com.tcs.trade.service.TradeQueryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+
+/**
+ * Trade history of a user or a symbol, from the database and the archive alike
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/trades")
+@RequiredArgsConstructor
+public class TradeController {
+
+    private final TradeQueryService tradeQueryService;
+
+    @GetMapping
+    public ResponseEntity<TradePageResponse> getTrades(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        log.debug("Fetching trades for user {} and symbol {}", userId, symbol);
+        TradeHistoryFilter filter = TradeHistoryFilter.builder()
+                .userId(userId)
+                .symbol(symbol)
+                .from(from)
+                .to(to)
+                .build();
+        return ResponseEntity.ok(tradeQueryService.getTrades(filter, cursor, limit));
+    }
+
+    // Every TcsException raised here is a bad request
+    @ExceptionHandler(TcsException.class)
+    public ResponseEntity<ErrorResponse> handleTcsException(TcsException ex) {
+        ErrorResponse response = ErrorResponse.from(ex);
+        response.setTraceId(TraceContext.getTraceId());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+}
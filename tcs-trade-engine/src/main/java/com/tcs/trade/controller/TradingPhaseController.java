@@ -0,0 +1,32 @@
+package com.tcs.trade.controller;
+
+import com.tcs.common.enums.TradingPhase;
+import com.tcs.trade.service.TradingPhaseService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin endpoint for moving a symbol into or out of a call auction.
+ * The change is applied asynchronously, in sequence with the symbol's orders.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/trading-phase")
+@RequiredArgsConstructor
+public class TradingPhaseController {
+
+    private final TradingPhaseService tradingPhaseService;
+
+    @PostMapping("/{symbol}")
+    public ResponseEntity<Void> requestPhase(@PathVariable String symbol, @RequestParam TradingPhase phase) {
+        log.info("Trading phase change requested: symbol={}, phase={}", symbol, phase);
+        tradingPhaseService.requestPhase(symbol, phase);
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -5,30 +5,26 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
-@Table(name = "trades", indexes = {
-        @Index(name = "idx_trades_order", columnList = "orderId"),
-        @Index(name = "idx_trades_user", columnList = "userId,executedAt"),
-        @Index(name = "idx_trades_symbol", columnList = "symbol,executedAt")
-})
-@EntityListeners(AuditingEntityListener.class)
+// Partitioned by day of executed_at; keys and indexes are defined by the migrations
+@Table(name = "trades")
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class TradeEntity {
 
+    // Pooled sequence so Hibernate can batch inserts; must match the sequence increment
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trades_id_seq")
+    @SequenceGenerator(name = "trades_id_seq", sequenceName = "trades_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false, unique = true, length = 64)
+    @Column(nullable = false, length = 64)
     private String tradeId;
 
     @Column(nullable = false, length = 64)
@@ -55,7 +51,7 @@ public class TradeEntity {
     @Column(length = 64)
     private String traceId;
 
-    @CreatedDate
+    // Event time of the record that caused the trade, set by the trade factory
     @Column(nullable = false, updatable = false)
     private Instant executedAt;
 }
@@ -0,0 +1,87 @@
+package com.tcs.trade.domain.repository;
+
+import com.tcs.trade.domain.entity.TradeEntity;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Streams trades into Postgres with COPY in one transaction.
+ * Much cheaper per row than INSERT, even batched: no statement per row and one round trip
+ * for the whole group. Ids come from the column default.
+ *
+ * COPY cannot skip conflicting rows, so trades are copied into a session-local staging table
+ * and moved into trades with one INSERT that skips trades already stored, as when the trades of
+ * a redelivered record are written again.
+ */
+@RequiredArgsConstructor
+public class CopyTradeBatchWriter implements TradeBatchWriter {
+
+    private static final String STAGING_SQL = "CREATE TEMP TABLE IF NOT EXISTS trades_staging "
+            + "ON COMMIT DELETE ROWS AS SELECT " + TradeCopyFormat.COLUMNS + " FROM trades WITH NO DATA";
+    private static final String COPY_SQL = "COPY trades_staging (" + TradeCopyFormat.COLUMNS + ") FROM STDIN";
+    private static final String INSERT_SQL = "INSERT INTO trades (" + TradeCopyFormat.COLUMNS + ") "
+            + "SELECT " + TradeCopyFormat.COLUMNS + " FROM trades_staging "
+            + "ON CONFLICT (trade_id, executed_at) DO NOTHING";
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+
+    // Reused across batches; the persistence stage is the only caller
+    private final StringBuilder row = new StringBuilder(256);
+
+    @Override
+    public void writeBatch(List<TradeEntity> trades) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(STAGING_SQL);
+                copy(connection, trades);
+                statement.executeUpdate(INSERT_SQL);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("COPY of " + trades.size() + " trades failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void copy(Connection connection, List<TradeEntity> trades) throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        try {
+            row.setLength(0);
+            for (TradeEntity trade : trades) {
+                TradeCopyFormat.appendRow(row, trade);
+                if (row.length() >= CHUNK_SIZE) {
+                    writeChunk(copyIn);
+                }
+            }
+            writeChunk(copyIn);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void writeChunk(CopyIn copyIn) throws SQLException {
+        if (row.length() > 0) {
+            byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            row.setLength(0);
+        }
+    }
+}
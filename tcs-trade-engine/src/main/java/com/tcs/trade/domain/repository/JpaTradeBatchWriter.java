@@ -0,0 +1,41 @@
+package com.tcs.trade.domain.repository;
+
+import com.tcs.trade.domain.entity.TradeEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Inserts trades through JPA in one transaction, relying on Hibernate JDBC batching.
+ * Trades already stored, as when the trades of a redelivered record are written again, are skipped.
+ */
+@RequiredArgsConstructor
+public class JpaTradeBatchWriter implements TradeBatchWriter {
+
+    private final TradeRepository tradeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void writeBatch(List<TradeEntity> trades) {
+        transactionTemplate.executeWithoutResult(status -> tradeRepository.saveAll(unstored(trades)));
+    }
+
+    private List<TradeEntity> unstored(List<TradeEntity> trades) {
+        if (trades.isEmpty()) {
+            return trades;
+        }
+        Instant from = trades.stream().map(TradeEntity::getExecutedAt).min(Comparator.naturalOrder()).get();
+        Instant to = trades.stream().map(TradeEntity::getExecutedAt).max(Comparator.naturalOrder()).get();
+        Set<String> stored = new HashSet<>(tradeRepository.findStoredTradeIds(
+                trades.stream().map(TradeEntity::getTradeId).toList(), from, to));
+        if (stored.isEmpty()) {
+            return trades;
+        }
+        return trades.stream().filter(trade -> !stored.contains(trade.getTradeId())).toList();
+    }
+}
@@ -0,0 +1,13 @@
+package com.tcs.trade.domain.repository;
+
+import com.tcs.trade.domain.entity.TradeEntity;
+
+import java.util.List;
+
+/**
+ * Writes a group of new trades atomically: either all of them are committed or none
+ */
+public interface TradeBatchWriter {
+
+    void writeBatch(List<TradeEntity> trades);
+}
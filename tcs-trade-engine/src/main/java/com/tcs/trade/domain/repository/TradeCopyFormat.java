@@ -0,0 +1,53 @@
+package com.tcs.trade.domain.repository;
+
+import com.tcs.trade.domain.entity.TradeEntity;
+
+import java.math.BigDecimal;
+
+/**
+ * Trade rows in Postgres COPY text format: tab-separated, \N for null, backslash escapes.
+ * Shared by the COPY writer and replay output, which loads with {@code \copy trades (COLUMNS) FROM}.
+ */
+public final class TradeCopyFormat {
+
+    public static final String COLUMNS = "trade_id, order_id, user_id, symbol, side, quantity, "
+            + "price, total_amount, trace_id, executed_at";
+
+    private TradeCopyFormat() {
+        // Prevent instantiation
+    }
+
+    public static void appendRow(StringBuilder row, TradeEntity trade) {
+        appendText(row, trade.getTradeId()).append('\t');
+        appendText(row, trade.getOrderId()).append('\t');
+        appendText(row, trade.getUserId()).append('\t');
+        appendText(row, trade.getSymbol()).append('\t');
+        appendText(row, trade.getSide()).append('\t');
+        appendNumber(row, trade.getQuantity()).append('\t');
+        appendNumber(row, trade.getPrice()).append('\t');
+        appendNumber(row, trade.getTotalAmount()).append('\t');
+        appendText(row, trade.getTraceId()).append('\t');
+        row.append(trade.getExecutedAt()).append('\n');  // ISO-8601 UTC, accepted by timestamptz
+    }
+
+    private static StringBuilder appendNumber(StringBuilder row, BigDecimal value) {
+        return row.append(value.toPlainString());
+    }
+
+    private static StringBuilder appendText(StringBuilder row, String value) {
+        if (value == null) {
+            return row.append("\\N");
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> row.append("\\\\");
+                case '\t' -> row.append("\\t");
+                case '\n' -> row.append("\\n");
+                case '\r' -> row.append("\\r");
+                default -> row.append(c);
+            }
+        }
+        return row;
+    }
+}
@@ -0,0 +1,18 @@
+package com.tcs.trade.domain.repository;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Filters of the trade history; null fields do not filter, but one of userId and symbol is required
+ */
+@Value
+@Builder
+public class TradeHistoryFilter {
+    String userId;
+    String symbol;
+    Instant from;       // inclusive
+    Instant to;         // exclusive
+}
@@ -0,0 +1,92 @@
+package com.tcs.trade.domain.repository;
+
+import com.tcs.common.enums.OrderSide;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the trades still in the database newest first, by keyset on (executed_at, id) rather
+ * than OFFSET, so every page costs the same however deep it is. Served by the (user_id,
+ * executed_at, id) and (symbol, executed_at, id) indexes of each partition; bounds on
+ * executed_at prune whole partitions.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TradeHistoryRepository {
+
+    static final String COLUMNS = "id, trade_id, order_id, user_id, symbol, side, quantity, price, total_amount, "
+            + "trace_id, executed_at";
+
+    static final RowMapper<TradeRecord> ROW_MAPPER = (rs, rowNum) -> toRecord(rs);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Up to {@code limit} trades older than the position, or the newest ones without a position
+     */
+    public List<TradeRecord> findPage(TradeHistoryFilter filter, Position before, int limit) {
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM trades WHERE true");
+        if (filter.getUserId() != null) {
+            sql.append(" AND user_id = ?");
+            parameters.add(filter.getUserId());
+        }
+        if (filter.getSymbol() != null) {
+            sql.append(" AND symbol = ?");
+            parameters.add(filter.getSymbol());
+        }
+        if (filter.getFrom() != null) {
+            sql.append(" AND executed_at >= ?");
+            parameters.add(Timestamp.from(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND executed_at < ?");
+            parameters.add(Timestamp.from(filter.getTo()));
+        }
+        if (before != null) {
+            // The plain bound lets the planner prune partitions; the row comparison does the keyset
+            sql.append(" AND executed_at <= ? AND (executed_at, id) < (?, ?)");
+            parameters.add(Timestamp.from(before.getExecutedAt()));
+            parameters.add(Timestamp.from(before.getExecutedAt()));
+            parameters.add(before.getId());
+        }
+        sql.append(" ORDER BY executed_at DESC, id DESC LIMIT ?");
+        parameters.add(limit);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, parameters.toArray());
+    }
+
+    static TradeRecord toRecord(ResultSet rs) throws SQLException {
+        return TradeRecord.builder()
+                .id(rs.getLong("id"))
+                .tradeId(rs.getString("trade_id"))
+                .orderId(rs.getString("order_id"))
+                .userId(rs.getString("user_id"))
+                .symbol(rs.getString("symbol"))
+                .side(OrderSide.valueOf(rs.getString("side")))
+                .quantity(rs.getBigDecimal("quantity"))
+                .price(rs.getBigDecimal("price"))
+                .totalAmount(rs.getBigDecimal("total_amount"))
+                .traceId(rs.getString("trace_id"))
+                .executedAt(rs.getTimestamp("executed_at").toInstant())
+                .build();
+    }
+
+    /**
+     * Keyset position of a trade in the history
+     */
+    @Value
+    public static class Position {
+        Instant executedAt;
+        long id;
+    }
+}
@@ -0,0 +1,123 @@
+package com.tcs.trade.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * The partitions of the trades table: trades_YYYYMMDD for each UTC day, and trades_legacy for
+ * everything executed before daily partitioning, until it is archived.
+ *
+ * Export and drop are meant to run inside the caller's transaction, holding
+ * {@link #tryLockArchiving()}, so only one instance archives at a time.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TradePartitionRepository {
+
+    public static final String LEGACY = "trades_legacy";
+
+    private static final String DAILY_PREFIX = "trades_";
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    // Arbitrary key of the advisory lock taken while archiving, unique within the database
+    private static final long ARCHIVE_LOCK_KEY = 0x5443535452414445L;  // "TCSTRADE"
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Partitions attached to trades, oldest first; the legacy partition, if any, comes first
+     */
+    public List<Partition> findPartitions() {
+        List<String> names = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'trades'::regclass
+                """, String.class);
+        return names.stream()
+                .map(TradePartitionRepository::toPartition)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(Partition::getDay, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    /**
+     * Create the daily partitions from today to {@code daysAhead} days on that do not exist yet
+     *
+     * @return how many were created
+     */
+    public int createPartitions(int daysAhead) {
+        Integer created = jdbcTemplate.queryForObject("SELECT create_trades_partitions(?)", Integer.class,
+                daysAhead);
+        return created != null ? created : 0;
+    }
+
+    /**
+     * Take the archiving lock until the end of the current transaction, unless another session holds it
+     */
+    public boolean tryLockArchiving() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                Boolean.class, ARCHIVE_LOCK_KEY));
+    }
+
+    /**
+     * Hand every trade of the partition to the consumer in (executed_at, id) order, through a
+     * server-side cursor fetching {@code fetchSize} rows at a time. Must run in a transaction.
+     */
+    public void stream(Partition partition, int fetchSize, Consumer<TradeRecord> consumer) {
+        String sql = "SELECT " + TradeHistoryRepository.COLUMNS + " FROM " + partition.getName()
+                + " ORDER BY executed_at, id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(TradeHistoryRepository.toRecord(rs)));
+    }
+
+    /**
+     * Detach the partition and drop it, releasing its storage at once without DELETE or vacuum
+     */
+    public void drop(Partition partition) {
+        jdbcTemplate.execute("ALTER TABLE trades DETACH PARTITION " + partition.getName());
+        jdbcTemplate.execute("DROP TABLE " + partition.getName());
+    }
+
+    private static Partition toPartition(String name) {
+        if (LEGACY.equals(name)) {
+            return new Partition(name, null);
+        }
+        if (name.startsWith(DAILY_PREFIX)) {
+            try {
+                return new Partition(name, LocalDate.parse(name.substring(DAILY_PREFIX.length()), DAY_FORMAT));
+            } catch (DateTimeParseException e) {
+                // Not one of ours
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A partition of trades; the day is null for the legacy partition
+     */
+    @Value
+    public static class Partition {
+        String name;
+        LocalDate day;
+
+        public boolean isLegacy() {
+            return day == null;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.tcs.trade.domain.repository;
+
+import com.tcs.common.enums.OrderSide;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A stored trade with every column, as read from a partition or an archive file
+ */
+@Value
+@Builder
+public class TradeRecord {
+    long id;
+    String tradeId;
+    String orderId;
+    String userId;
+    String symbol;
+    OrderSide side;
+    BigDecimal quantity;
+    BigDecimal price;
+    BigDecimal totalAmount;
+    String traceId;
+    Instant executedAt;
+
+    /**
+     * Whether this trade comes strictly before the keyset position (executedAt, id)
+     */
+    public boolean isBefore(Instant positionExecutedAt, long positionId) {
+        int compared = executedAt.compareTo(positionExecutedAt);
+        return compared < 0 || (compared == 0 && id < positionId);
+    }
+}
@@ -6,16 +6,23 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
+/**
+ * Trades by order. History by user or symbol is paged by keyset through {@link TradeHistoryRepository}.
+ */
 @Repository
 public interface TradeRepository extends JpaRepository<TradeEntity, Long> {
 
     List<TradeEntity> findByOrderId(String orderId);
 
-    @Query("SELECT t FROM TradeEntity t WHERE t.userId = :userId ORDER BY t.executedAt DESC")
-    List<TradeEntity> findByUserId(@Param("userId") String userId);
-
-    @Query("SELECT t FROM TradeEntity t WHERE t.symbol = :symbol ORDER BY t.executedAt DESC")
-    List<TradeEntity> findBySymbol(@Param("symbol") String symbol);
+    /**
+     * Which of the trade IDs are already stored; the execution time bounds limit the partitions searched
+     */
+    @Query("SELECT t.tradeId FROM TradeEntity t WHERE t.tradeId IN :tradeIds "
+            + "AND t.executedAt BETWEEN :from AND :to")
+    List<String> findStoredTradeIds(@Param("tradeIds") Collection<String> tradeIds,
+                                    @Param("from") Instant from, @Param("to") Instant to);
 }
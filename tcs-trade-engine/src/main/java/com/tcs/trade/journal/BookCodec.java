@@ -0,0 +1,126 @@
+package com.tcs.trade.journal;
+
+import com.tcs.common.enums.TradingPhase;
+import com.tcs.trade.matching.BookOrder;
+import com.tcs.trade.matching.OrderBook;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of whole books handed between engine instances.
+ *
+ * Each book is its symbol, trading phase, order count and resting orders in priority order,
+ * each order length-prefixed and laid out as in the journal. Shards encode their books
+ * separately; {@link #frame} joins the parts behind a magic, version and book count and
+ * appends a CRC32C over everything before it.
+ */
+public final class BookCodec {
+
+    private static final int MAGIC = 0x54434248;  // "TCBH"
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 3 * Integer.BYTES;
+    private static final TradingPhase[] PHASES = TradingPhase.values();
+
+    private BookCodec() {
+    }
+
+    /**
+     * Encode books for one part of a frame
+     */
+    public static byte[] encodeBooks(Collection<OrderBook> books) {
+        Encoder encoder = new Encoder();
+        books.forEach(encoder::writeBook);
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Join encoded parts holding {@code bookCount} books in total into a checksummed frame
+     */
+    public static ByteBuffer frame(List<byte[]> parts, int bookCount) {
+        int length = HEADER_LENGTH + Integer.BYTES;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(length);
+        frame.putInt(MAGIC).putInt(VERSION).putInt(bookCount);
+        parts.forEach(frame::put);
+        CRC32C crc = new CRC32C();
+        crc.update(frame.array(), 0, frame.position());
+        frame.putInt((int) crc.getValue());
+        return frame.flip();
+    }
+
+    /**
+     * Decode a frame back into books
+     *
+     * @throws IllegalArgumentException if the frame is damaged or of an unknown version
+     */
+    public static List<OrderBook> decode(ByteBuffer frame) {
+        ByteBuffer buffer = frame.duplicate();
+        if (buffer.remaining() < HEADER_LENGTH + Integer.BYTES) {
+            throw new IllegalArgumentException("Book frame is truncated");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(buffer.position(), buffer.remaining() - Integer.BYTES));
+        if (buffer.getInt(buffer.limit() - Integer.BYTES) != (int) crc.getValue()) {
+            throw new IllegalArgumentException("Book frame checksum mismatch");
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalArgumentException("Unrecognised book frame format");
+        }
+
+        int bookCount = buffer.getInt();
+        List<OrderBook> books = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            OrderBook book = new OrderBook(OrderCodec.getString(buffer));
+            book.restorePhase(PHASES[buffer.get()]);
+            int orderCount = buffer.getInt();
+            for (int j = 0; j < orderCount; j++) {
+                int orderLength = buffer.getInt();
+                book.restore(OrderCodec.read(buffer.slice(buffer.position(), orderLength)));
+                buffer.position(buffer.position() + orderLength);
+            }
+            books.add(book);
+        }
+        return books;
+    }
+
+    /**
+     * Growable buffer the books of one part are written to
+     */
+    private static final class Encoder {
+        private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+        void writeBook(OrderBook book) {
+            ensure(Short.BYTES + OrderCodec.maxLength(book.getSymbol()) + 1 + Integer.BYTES);
+            OrderCodec.putString(buffer, book.getSymbol());
+            buffer.put((byte) book.getPhase().ordinal()).putInt(book.getOrderCount());
+            book.forEachRestingOrder(this::writeOrder);
+        }
+
+        void writeOrder(BookOrder order) {
+            ensure(Integer.BYTES + OrderCodec.maxLength(order));
+            int lengthPosition = buffer.position();
+            buffer.position(lengthPosition + Integer.BYTES);
+            OrderCodec.write(buffer, order);
+            buffer.putInt(lengthPosition, buffer.position() - lengthPosition - Integer.BYTES);
+        }
+
+        byte[] toByteArray() {
+            byte[] encoded = new byte[buffer.position()];
+            buffer.flip().get(encoded);
+            return encoded;
+        }
+
+        private void ensure(int length) {
+            if (buffer.remaining() < length) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length));
+                buffer = grown.put(buffer.flip());
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.tcs.trade.journal;
+
+import com.tcs.trade.matching.OrderBook;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shard state loaded from a snapshot
+ */
+@Value
+public class BookSnapshot {
+    long sequence;                  // last journal sequence reflected in the books
+    Map<Integer, Long> offsets;     // highest Kafka offset applied, per orders partition
+    List<OrderBook> books;
+}
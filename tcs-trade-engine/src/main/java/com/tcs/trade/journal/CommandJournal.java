@@ -0,0 +1,292 @@
+package com.tcs.trade.journal;
+
+import com.tcs.common.enums.TradingPhase;
+import com.tcs.trade.matching.BookOrder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of the orders applied by one matching shard, in memory-mapped segments.
+ *
+ * Record layout: int body length, int CRC32C of the body, then the body (long sequence,
+ * int Kafka partition, long Kafka offset, encoded order). A trading phase change has the
+ * marker {@code -2} where an order's id length would be, then the symbol and the phase ordinal.
+ * A partition reset, written when a partition's books are replaced by a handoff from another
+ * instance, has the marker {@code -3}, then the count and symbols of the books it replaced.
+ * The length is written last, so a zero length marks the end of a segment and a torn record
+ * fails its checksum.
+ *
+ * Segments are named after the first sequence they hold. Not thread-safe: appends happen on
+ * the shard thread only.
+ */
+@Slf4j
+class CommandJournal implements AutoCloseable {
+
+    private static final String SUFFIX = ".journal";
+    private static final int RECORD_HEADER_LENGTH = 2 * Integer.BYTES;
+    private static final int COMMAND_HEADER_LENGTH = Long.BYTES + Integer.BYTES + Long.BYTES;
+    private static final short PHASE_CHANGE_MARKER = -2;  // never a valid order id length
+    private static final short PARTITION_RESET_MARKER = -3;
+    private static final TradingPhase[] PHASES = TradingPhase.values();
+
+    private final Path directory;
+    private final int shardId;
+    private final int segmentSize;
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentStart;
+
+    CommandJournal(Path directory, int shardId, int segmentSize) {
+        this.directory = directory;
+        this.shardId = shardId;
+        this.segmentSize = segmentSize;
+    }
+
+    void append(long sequence, int partition, long offset, BookOrder order) {
+        int maxLength = RECORD_HEADER_LENGTH + COMMAND_HEADER_LENGTH + OrderCodec.maxLength(order);
+        if (maxLength > segmentSize - Integer.BYTES) {
+            throw new IllegalArgumentException("Order " + order.getOrderId() + " does not fit a journal segment");
+        }
+        int start = beginRecord(sequence, partition, offset, maxLength);
+        OrderCodec.write(segment, order);
+        endRecord(start);
+    }
+
+    void appendPhaseChange(long sequence, int partition, long offset, String symbol, TradingPhase phase) {
+        int maxLength = RECORD_HEADER_LENGTH + COMMAND_HEADER_LENGTH + 2 * Short.BYTES
+                + OrderCodec.maxLength(symbol) + 1;
+        int start = beginRecord(sequence, partition, offset, maxLength);
+        segment.putShort(PHASE_CHANGE_MARKER);
+        OrderCodec.putString(segment, symbol);
+        segment.put((byte) phase.ordinal());
+        endRecord(start);
+    }
+
+    void appendPartitionReset(long sequence, int partition, long offset, Collection<String> symbols) {
+        int maxLength = RECORD_HEADER_LENGTH + COMMAND_HEADER_LENGTH + Short.BYTES + Integer.BYTES;
+        for (String symbol : symbols) {
+            maxLength += Short.BYTES + OrderCodec.maxLength(symbol);
+        }
+        if (maxLength > segmentSize - Integer.BYTES) {
+            throw new IllegalArgumentException("Reset of partition " + partition + " does not fit a journal segment");
+        }
+        int start = beginRecord(sequence, partition, offset, maxLength);
+        segment.putShort(PARTITION_RESET_MARKER);
+        segment.putInt(symbols.size());
+        for (String symbol : symbols) {
+            OrderCodec.putString(segment, symbol);
+        }
+        endRecord(start);
+    }
+
+    /**
+     * Position the segment at a new record's command and write its header
+     *
+     * @return the record start, for {@link #endRecord}
+     */
+    private int beginRecord(long sequence, int partition, long offset, int maxLength) {
+        // Keep room for the zero length that terminates the segment
+        if (segment == null || segment.remaining() < maxLength + Integer.BYTES) {
+            roll(sequence);
+        }
+
+        int start = segment.position();
+        segment.position(start + RECORD_HEADER_LENGTH);
+        segment.putLong(sequence);
+        segment.putInt(partition);
+        segment.putLong(offset);
+        return start;
+    }
+
+    private void endRecord(int start) {
+        int bodyStart = start + RECORD_HEADER_LENGTH;
+        int bodyLength = segment.position() - bodyStart;
+        crc.reset();
+        crc.update(segment.slice(bodyStart, bodyLength));
+        segment.putInt(start + Integer.BYTES, (int) crc.getValue());
+        segment.putInt(start, bodyLength);
+    }
+
+    /**
+     * Force appended records to disk
+     */
+    void flush() {
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Close the current segment and start a new one whose first record will be {@code nextSequence}
+     */
+    void roll(long nextSequence) {
+        closeSegment();
+        Path path = segmentPath(nextSequence);
+        try {
+            Files.createDirectories(directory);
+            // Truncate: an existing segment with this name can only hold a torn write that recovery skipped
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            segmentStart = nextSequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open journal segment " + path, e);
+        }
+        log.debug("Shard {} journal rolled to {}", shardId, path.getFileName());
+    }
+
+    /**
+     * Delete segments holding only records up to and including {@code sequence}
+     */
+    void deleteSegmentsUpTo(long sequence) {
+        List<Long> starts = segmentStarts();
+        for (int i = 0; i + 1 < starts.size(); i++) {
+            long start = starts.get(i);
+            if (start == segmentStart || starts.get(i + 1) - 1 > sequence) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(segmentPath(start));
+            } catch (IOException e) {
+                log.warn("Failed to delete journal segment {}: {}", segmentPath(start), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Feed every record after {@code afterSequence} to the handler, in sequence order.
+     * Reading stops at the first gap in the sequence, so a torn tail is never applied.
+     *
+     * @return the last sequence read, or {@code afterSequence} when there is nothing newer
+     */
+    long replay(long afterSequence, ShardJournal.CommandHandler handler) {
+        long lastSequence = afterSequence;
+        List<Long> starts = segmentStarts();
+        for (int i = 0; i < starts.size(); i++) {
+            long start = starts.get(i);
+            if (i + 1 < starts.size() && starts.get(i + 1) <= afterSequence + 1) {
+                continue;
+            }
+            if (start > lastSequence + 1) {
+                log.warn("Shard {} journal has a gap before sequence {}, stopping replay at {}",
+                        shardId, start, lastSequence);
+                break;
+            }
+            lastSequence = replaySegment(segmentPath(start), lastSequence, handler);
+        }
+        return lastSequence;
+    }
+
+    private long replaySegment(Path path, long lastSequence, ShardJournal.CommandHandler handler) {
+        try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            while (buffer.remaining() >= RECORD_HEADER_LENGTH) {
+                int start = buffer.position();
+                int bodyLength = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (bodyLength <= 0) {
+                    break;
+                }
+                if (bodyLength > buffer.remaining() || checksum != checksum(buffer, bodyLength)) {
+                    log.warn("Shard {} journal {} has a torn record at position {}",
+                            shardId, path.getFileName(), start);
+                    break;
+                }
+
+                ByteBuffer body = buffer.slice(buffer.position(), bodyLength);
+                buffer.position(buffer.position() + bodyLength);
+                long sequence = body.getLong();
+                if (sequence <= lastSequence) {
+                    continue;
+                }
+                if (sequence != lastSequence + 1) {
+                    log.warn("Shard {} journal expected sequence {} but found {}", shardId, lastSequence + 1, sequence);
+                    break;
+                }
+                int partition = body.getInt();
+                long offset = body.getLong();
+                short marker = body.getShort(body.position());
+                if (marker == PHASE_CHANGE_MARKER) {
+                    body.getShort();
+                    String symbol = OrderCodec.getString(body);
+                    handler.onPhaseChange(sequence, partition, offset, symbol, PHASES[body.get()]);
+                } else if (marker == PARTITION_RESET_MARKER) {
+                    body.getShort();
+                    int symbolCount = body.getInt();
+                    List<String> symbols = new ArrayList<>(symbolCount);
+                    for (int i = 0; i < symbolCount; i++) {
+                        symbols.add(OrderCodec.getString(body));
+                    }
+                    handler.onPartitionReset(sequence, partition, offset, symbols);
+                } else {
+                    handler.onCommand(sequence, partition, offset, OrderCodec.read(body));
+                }
+                lastSequence = sequence;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read journal segment " + path, e);
+        }
+        return lastSequence;
+    }
+
+    private int checksum(ByteBuffer buffer, int length) {
+        crc.reset();
+        crc.update(buffer.slice(buffer.position(), length));
+        return (int) crc.getValue();
+    }
+
+    private List<Long> segmentStarts() {
+        String prefix = "shard-" + shardId + "-";
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list journal directory " + directory, e);
+        }
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("shard-%d-%020d%s", shardId, firstSequence, SUFFIX));
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        segment.force();
+        segment = null;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close journal segment for shard {}: {}", shardId, e.getMessage());
+        }
+        channel = null;
+    }
+
+    @Override
+    public void close() {
+        closeSegment();
+    }
+}
@@ -0,0 +1,113 @@
+package com.tcs.trade.journal;
+
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.enums.OrderType;
+import com.tcs.common.enums.TimeInForce;
+import com.tcs.trade.matching.BookOrder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary layout of a book order shared by the journal, snapshots and book handoffs.
+ * Enums are stored by ordinal, so reordering them requires bumping the file format version.
+ */
+final class OrderCodec {
+
+    private static final OrderSide[] SIDES = OrderSide.values();
+    private static final OrderType[] TYPES = OrderType.values();
+    private static final TimeInForce[] TIME_IN_FORCES = TimeInForce.values();
+
+    // five longs, five bytes, four string length prefixes
+    private static final int FIXED_LENGTH = 5 * Long.BYTES + 5 + 4 * Short.BYTES;
+
+    private OrderCodec() {
+    }
+
+    /**
+     * Upper bound of the encoded size, without encoding the strings
+     */
+    static int maxLength(BookOrder order) {
+        return FIXED_LENGTH + maxLength(order.getOrderId()) + maxLength(order.getUserId())
+                + maxLength(order.getSymbol()) + maxLength(order.getTraceId());
+    }
+
+    static void write(ByteBuffer buffer, BookOrder order) {
+        putString(buffer, order.getOrderId());
+        putString(buffer, order.getUserId());
+        putString(buffer, order.getSymbol());
+        putString(buffer, order.getTraceId());
+        buffer.put((byte) order.getSide().ordinal());
+        buffer.put((byte) order.getType().ordinal());
+        buffer.put((byte) order.getTimeInForce().ordinal());
+        buffer.put((byte) order.getPriceScale());
+        buffer.put((byte) order.getQuantityScale());
+        buffer.putLong(order.getPrice());
+        buffer.putLong(order.getQuantity());
+        buffer.putLong(order.getRemainingQuantity());
+        buffer.putLong(order.getFilledQuantity());
+        buffer.putLong(order.getFilledNotional());
+    }
+
+    static BookOrder read(ByteBuffer buffer) {
+        String orderId = getString(buffer);
+        String userId = getString(buffer);
+        String symbol = getString(buffer);
+        String traceId = getString(buffer);
+        OrderSide side = SIDES[buffer.get()];
+        OrderType type = TYPES[buffer.get()];
+        TimeInForce timeInForce = TIME_IN_FORCES[buffer.get()];
+        int priceScale = buffer.get();
+        int quantityScale = buffer.get();
+        long price = buffer.getLong();
+        long quantity = buffer.getLong();
+        buffer.getLong();  // remaining quantity, implied by quantity and filled quantity
+        long filledQuantity = buffer.getLong();
+        long filledNotional = buffer.getLong();
+
+        BookOrder order = BookOrder.builder()
+                .orderId(orderId)
+                .userId(userId)
+                .symbol(symbol)
+                .side(side)
+                .type(type)
+                .timeInForce(timeInForce)
+                .price(price)
+                .quantity(quantity)
+                .priceScale(priceScale)
+                .quantityScale(quantityScale)
+                .traceId(traceId)
+                .build();
+        if (filledQuantity != 0) {
+            order.restoreFillState(filledQuantity, filledNotional);
+        }
+        return order;
+    }
+
+    static int maxLength(String value) {
+        return value == null ? 0 : value.length() * 3;
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String too long to journal: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
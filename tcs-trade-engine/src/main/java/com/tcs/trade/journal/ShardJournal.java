@@ -0,0 +1,141 @@
+package com.tcs.trade.journal;
+
+import com.tcs.common.enums.TradingPhase;
+import com.tcs.trade.matching.BookOrder;
+import com.tcs.trade.matching.OrderBook;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Durable state of one matching shard: the command journal plus periodic book snapshots.
+ *
+ * Recovery loads the newest readable snapshot and replays only the journal records after it.
+ * The journal is kept back to the previous snapshot, so a damaged latest snapshot can fall back
+ * one generation without losing commands.
+ */
+@Slf4j
+public class ShardJournal implements AutoCloseable {
+
+    private final int shardId;
+    private final int shardCount;
+    private final long snapshotInterval;
+    private final boolean fsync;
+    private final CommandJournal journal;
+    private final SnapshotStore snapshots;
+
+    private long lastSnapshotSequence;
+
+    public ShardJournal(Path directory, int shardId, int shardCount, int segmentSize,
+                        long snapshotInterval, boolean fsync) {
+        this.shardId = shardId;
+        this.shardCount = shardCount;
+        this.snapshotInterval = snapshotInterval;
+        this.fsync = fsync;
+        this.journal = new CommandJournal(directory, shardId, segmentSize);
+        this.snapshots = new SnapshotStore(directory, shardId);
+    }
+
+    /**
+     * Load the newest snapshot that reads back cleanly, or null when there is none
+     */
+    public BookSnapshot loadSnapshot() {
+        for (long sequence : snapshots.sequences()) {
+            try {
+                BookSnapshot snapshot = snapshots.read(sequence, shardCount);
+                lastSnapshotSequence = snapshot.getSequence();
+                return snapshot;
+            } catch (IllegalStateException e) {
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Shard {} snapshot at sequence {} is unreadable, trying an older one: {}",
+                        shardId, sequence, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replay journal records after {@code afterSequence} and open a fresh segment for new appends
+     *
+     * @return the last sequence replayed
+     */
+    public long replay(long afterSequence, CommandHandler handler) {
+        long lastSequence = journal.replay(afterSequence, handler);
+        journal.roll(lastSequence + 1);
+        return lastSequence;
+    }
+
+    public void append(long sequence, int partition, long offset, BookOrder order) {
+        journal.append(sequence, partition, offset, order);
+    }
+
+    public void appendPhaseChange(long sequence, int partition, long offset, String symbol, TradingPhase phase) {
+        journal.appendPhaseChange(sequence, partition, offset, symbol, phase);
+    }
+
+    /**
+     * Record that a partition's books were replaced by ones the journal does not hold, so
+     * recovery drops the replaced books and leaves the partition to be handed over again
+     */
+    public void appendPartitionReset(long sequence, int partition, long offset, Collection<String> symbols) {
+        journal.appendPartitionReset(sequence, partition, offset, symbols);
+    }
+
+    /**
+     * Make a batch of appends durable. Mapped writes already survive a process crash;
+     * forcing them only matters for power loss, so it is optional.
+     */
+    public void endOfBatch() {
+        if (fsync) {
+            journal.flush();
+        }
+    }
+
+    public boolean isSnapshotDue(long sequence) {
+        return sequence - lastSnapshotSequence >= snapshotInterval;
+    }
+
+    /**
+     * Snapshot the books as of {@code sequence}, then drop journal segments and snapshots
+     * older than the previous snapshot
+     */
+    public void snapshot(long sequence, Map<Integer, Long> offsets, Collection<OrderBook> books) throws IOException {
+        long start = System.nanoTime();
+        long orderCount = snapshots.write(shardCount, sequence, offsets, books);
+        journal.roll(sequence + 1);
+
+        long previousSequence = lastSnapshotSequence;
+        lastSnapshotSequence = sequence;
+        journal.deleteSegmentsUpTo(previousSequence);
+        snapshots.deleteBefore(previousSequence);
+
+        log.info("Shard {} snapshot at sequence {}: {} books, {} orders in {} ms",
+                shardId, sequence, books.size(), orderCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public long getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public long getLastSnapshotSequence() {
+        return lastSnapshotSequence;
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+
+    public interface CommandHandler {
+        void onCommand(long sequence, int partition, long offset, BookOrder order);
+
+        void onPhaseChange(long sequence, int partition, long offset, String symbol, TradingPhase phase);
+
+        void onPartitionReset(long sequence, int partition, long offset, List<String> symbols);
+    }
+}
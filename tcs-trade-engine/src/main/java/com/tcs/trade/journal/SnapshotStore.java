@@ -0,0 +1,295 @@
+package com.tcs.trade.journal;
+
+import com.tcs.common.enums.TradingPhase;
+import com.tcs.trade.matching.BookOrder;
+import com.tcs.trade.matching.OrderBook;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary snapshots of a shard's books.
+ *
+ * Layout: magic, version, shard id, shard count, journal sequence, applied Kafka offsets,
+ * then per book its symbol, order count, trading phase (since version 2) and resting orders
+ * in priority order, each length-prefixed, and a trailing CRC32C over everything before it. Files are written to a temporary name
+ * and moved into place, so a crash mid-write never leaves a partial snapshot behind.
+ */
+@Slf4j
+class SnapshotStore {
+
+    private static final int MAGIC = 0x54435353;  // "TCSS"
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_PHASE = 1;
+    private static final TradingPhase[] PHASES = TradingPhase.values();
+    private static final String SUFFIX = ".snapshot";
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path directory;
+    private final int shardId;
+
+    SnapshotStore(Path directory, int shardId) {
+        this.directory = directory;
+        this.shardId = shardId;
+    }
+
+    /**
+     * Write a snapshot of the given books as of {@code sequence}
+     *
+     * @return the number of orders written
+     */
+    long write(int shardCount, long sequence, Map<Integer, Long> offsets, Collection<OrderBook> books)
+            throws IOException {
+        Files.createDirectories(directory);
+        Path target = snapshotPath(sequence);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        long orderCount = 0;
+        try (Writer writer = new Writer(FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+            ByteBuffer buffer = writer.reserve(6 * Integer.BYTES + Long.BYTES);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(shardId).putInt(shardCount).putLong(sequence);
+            buffer.putInt(offsets.size());
+            for (Map.Entry<Integer, Long> entry : offsets.entrySet()) {
+                writer.reserve(Integer.BYTES + Long.BYTES).putInt(entry.getKey()).putLong(entry.getValue());
+            }
+
+            writer.reserve(Integer.BYTES).putInt(books.size());
+            for (OrderBook book : books) {
+                byte[] symbol = book.getSymbol().getBytes(StandardCharsets.UTF_8);
+                writer.reserve(Short.BYTES + symbol.length + Integer.BYTES + 1)
+                        .putShort((short) symbol.length).put(symbol).putInt(book.getOrderCount())
+                        .put((byte) book.getPhase().ordinal());
+                book.forEachRestingOrder(order -> writeOrder(writer, order));
+                orderCount += book.getOrderCount();
+            }
+            writer.finish();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return orderCount;
+    }
+
+    /**
+     * Journal sequences of the snapshots on disk, newest first
+     */
+    List<Long> sequences() {
+        String prefix = "shard-" + shardId + "-";
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length())))
+                    .sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.warn("Failed to list snapshot directory {}: {}", directory, e.getMessage());
+            return List.of();
+        }
+    }
+
+    BookSnapshot read(long sequence, int shardCount) throws IOException {
+        Path path = snapshotPath(sequence);
+        try (Reader reader = new Reader(FileChannel.open(path, StandardOpenOption.READ))) {
+            ByteBuffer buffer = reader.require(6 * Integer.BYTES + Long.BYTES);
+            int magic = buffer.getInt();
+            int version = buffer.getInt();
+            if (magic != MAGIC || (version != VERSION && version != VERSION_WITHOUT_PHASE)) {
+                throw new IOException("Unrecognised snapshot format in " + path);
+            }
+            int snapshotShard = buffer.getInt();
+            int snapshotShardCount = buffer.getInt();
+            if (snapshotShard != shardId || snapshotShardCount != shardCount) {
+                throw new IllegalStateException(String.format(
+                        "Snapshot %s was written by shard %d of %d, but this is shard %d of %d; "
+                                + "the shard count cannot change while journaled state exists",
+                        path, snapshotShard, snapshotShardCount, shardId, shardCount));
+            }
+            long snapshotSequence = buffer.getLong();
+
+            int offsetCount = buffer.getInt();
+            Map<Integer, Long> offsets = new HashMap<>(offsetCount * 2);
+            for (int i = 0; i < offsetCount; i++) {
+                buffer = reader.require(Integer.BYTES + Long.BYTES);
+                offsets.put(buffer.getInt(), buffer.getLong());
+            }
+
+            int bookCount = reader.require(Integer.BYTES).getInt();
+            List<OrderBook> books = new ArrayList<>(bookCount);
+            for (int i = 0; i < bookCount; i++) {
+                int symbolLength = reader.require(Short.BYTES).getShort();
+                byte[] symbol = new byte[symbolLength];
+                reader.require(symbolLength + Integer.BYTES).get(symbol);
+                int orderCount = reader.current().getInt();
+
+                OrderBook book = new OrderBook(new String(symbol, StandardCharsets.UTF_8));
+                if (version != VERSION_WITHOUT_PHASE) {
+                    book.restorePhase(PHASES[reader.require(1).get()]);
+                }
+                for (int j = 0; j < orderCount; j++) {
+                    int length = reader.require(Integer.BYTES).getInt();
+                    book.restore(OrderCodec.read(reader.require(length)));
+                }
+                books.add(book);
+            }
+            reader.verifyChecksum();
+            return new BookSnapshot(snapshotSequence, offsets, books);
+        }
+    }
+
+    /**
+     * Delete snapshots older than {@code sequence}
+     */
+    void deleteBefore(long sequence) {
+        for (long existing : sequences()) {
+            if (existing < sequence) {
+                try {
+                    Files.deleteIfExists(snapshotPath(existing));
+                } catch (IOException e) {
+                    log.warn("Failed to delete snapshot {}: {}", snapshotPath(existing), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void writeOrder(Writer writer, BookOrder order) {
+        ByteBuffer buffer = writer.reserve(Integer.BYTES + OrderCodec.maxLength(order));
+        int lengthPosition = buffer.position();
+        buffer.position(lengthPosition + Integer.BYTES);
+        OrderCodec.write(buffer, order);
+        buffer.putInt(lengthPosition, buffer.position() - lengthPosition - Integer.BYTES);
+    }
+
+    private Path snapshotPath(long sequence) {
+        return directory.resolve(String.format("shard-%d-%020d%s", shardId, sequence, SUFFIX));
+    }
+
+    /**
+     * Buffered channel writer that checksums everything it writes
+     */
+    private static final class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CRC32C crc = new CRC32C();
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        ByteBuffer reserve(int length) {
+            if (length > BUFFER_SIZE) {
+                throw new IllegalArgumentException("Snapshot record of " + length + " bytes exceeds the buffer");
+            }
+            if (buffer.remaining() < length) {
+                drain();
+            }
+            return buffer;
+        }
+
+        void finish() throws IOException {
+            drain();
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        private void drain() {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Buffered channel reader that checksums everything it hands out
+     */
+    private static final class Reader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CRC32C crc = new CRC32C();
+
+        Reader(FileChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+
+        ByteBuffer current() {
+            return buffer;
+        }
+
+        /**
+         * Make at least {@code length} unread bytes available
+         */
+        ByteBuffer require(int length) throws IOException {
+            if (length > BUFFER_SIZE) {
+                throw new IOException("Snapshot record of " + length + " bytes exceeds the buffer");
+            }
+            if (buffer.remaining() < length) {
+                checksumConsumed();
+                buffer.compact();
+                while (buffer.position() < length) {
+                    if (channel.read(buffer) < 0) {
+                        throw new IOException("Snapshot is truncated");
+                    }
+                }
+                buffer.flip();
+            }
+            return buffer;
+        }
+
+        void verifyChecksum() throws IOException {
+            checksumConsumed();
+            int expected = (int) crc.getValue();
+            if (require(Integer.BYTES).getInt() != expected) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+        }
+
+        private void checksumConsumed() {
+            ByteBuffer consumed = buffer.duplicate();
+            consumed.limit(buffer.position());
+            consumed.position(0);
+            crc.update(consumed);
+            // Discard the consumed bytes so they are not checksummed twice
+            buffer.compact().flip();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.tcs.trade.matching;
+
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.enums.OrderType;
+import com.tcs.common.enums.TimeInForce;
+import com.tcs.common.numeric.FixedPoint;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Order as held by the order book.
+ * Resting orders are linked into the FIFO queue of their price level.
+ *
+ * Prices and quantities are scaled longs at the symbol's price and quantity scale.
+ */
+@Getter
+public class BookOrder {
+
+    private final String orderId;
+    private final String userId;
+    private final String symbol;
+    private final OrderSide side;
+    private final OrderType type;
+    private final TimeInForce timeInForce;
+    private final long price;  // 0 for MARKET orders
+    private final long quantity;
+    private final int priceScale;
+    private final int quantityScale;
+    private final String traceId;
+
+    private long remainingQuantity;
+    private long filledQuantity;
+    private long filledNotional;  // at price scale
+
+    // Intrusive FIFO links, owned by PriceLevel
+    PriceLevel level;
+    BookOrder prev;
+    BookOrder next;
+
+    @Builder
+    public BookOrder(String orderId, String userId, String symbol, OrderSide side, OrderType type,
+                     TimeInForce timeInForce, long price, long quantity, int priceScale, int quantityScale,
+                     String traceId) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.symbol = symbol;
+        this.side = side;
+        this.type = type;
+        this.timeInForce = timeInForce;
+        this.price = price;
+        this.quantity = quantity;
+        this.priceScale = priceScale;
+        this.quantityScale = quantityScale;
+        this.traceId = traceId;
+        this.remainingQuantity = quantity;
+    }
+
+    public boolean isFilled() {
+        return remainingQuantity == 0;
+    }
+
+    /**
+     * Reinstate fill progress of an order restored from a snapshot
+     */
+    public void restoreFillState(long filledQuantity, long filledNotional) {
+        this.filledQuantity = filledQuantity;
+        this.filledNotional = filledNotional;
+        this.remainingQuantity = quantity - filledQuantity;
+    }
+
+    void fill(long fillQuantity, long fillPrice) {
+        remainingQuantity -= fillQuantity;
+        filledQuantity += fillQuantity;
+        filledNotional = Math.addExact(filledNotional,
+                FixedPoint.multiply(fillPrice, fillQuantity, quantityScale));
+    }
+}
@@ -0,0 +1,15 @@
+package com.tcs.trade.matching;
+
+import com.tcs.common.enums.OrderSide;
+
+/**
+ * Receives aggregated price level state from an order book
+ */
+@FunctionalInterface
+public interface DepthListener {
+
+    /**
+     * @param quantity total resting quantity at the level, 0 when the level is gone
+     */
+    void onLevel(String symbol, OrderSide side, long price, long quantity, int orderCount);
+}
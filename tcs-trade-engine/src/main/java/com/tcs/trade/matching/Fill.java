@@ -0,0 +1,17 @@
+package com.tcs.trade.matching;
+
+import lombok.Value;
+
+/**
+ * A single execution between the incoming (taker) order and one resting (maker) order.
+ * Maker fill state is captured at the time of the fill, since the maker keeps trading afterwards.
+ */
+@Value
+public class Fill {
+    BookOrder maker;
+    long quantity;
+    long price;
+    long makerFilledQuantity;
+    long makerFilledNotional;
+    boolean makerFilled;
+}
@@ -0,0 +1,26 @@
+package com.tcs.trade.matching;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of submitting one order to an order book.
+ * The taker's fill state is captured on completion because a resting order keeps trading.
+ */
+@Value
+public class MatchResult {
+    BookOrder order;
+    List<Fill> fills;
+    boolean resting;
+    long filledQuantity;
+    long filledNotional;
+
+    public boolean isFilled() {
+        return filledQuantity == order.getQuantity();
+    }
+
+    static MatchResult of(BookOrder order, List<Fill> fills, boolean resting) {
+        return new MatchResult(order, fills, resting, order.getFilledQuantity(), order.getFilledNotional());
+    }
+}
@@ -0,0 +1,476 @@
+package com.tcs.trade.matching;
+
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.enums.OrderType;
+import com.tcs.common.enums.TimeInForce;
+import com.tcs.common.enums.TradingPhase;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Price-time priority limit order book for a single symbol.
+ *
+ * Price levels are kept in sorted maps (O(log levels) to add or drop a level) and the best
+ * level of each side is cached, so the top of book is read in O(1). Within a level orders
+ * fill in arrival order.
+ *
+ * In the auction phase orders are only collected, and the book may be crossed. The uncross
+ * executes everything that crosses at the single price maximising executed volume, found
+ * from cumulative volumes per price level rather than by matching orders pairwise.
+ *
+ * Not thread-safe: callers must guarantee a single writer per book.
+ */
+public class OrderBook {
+
+    @Getter
+    private final String symbol;
+
+    private final TreeMap<Long, PriceLevel> bids = new TreeMap<>(Comparator.reverseOrder());
+    private final TreeMap<Long, PriceLevel> asks = new TreeMap<>();
+    private final Map<String, BookOrder> ordersById = new HashMap<>();
+
+    private PriceLevel bestBid;
+    private PriceLevel bestAsk;
+
+    @Getter
+    private TradingPhase phase = TradingPhase.CONTINUOUS;
+
+    // Levels changed since the last depth drain, collected only when depth tracking is on
+    private boolean depthTracking;
+    private final List<PriceLevel> changedBids = new ArrayList<>();
+    private final List<PriceLevel> changedAsks = new ArrayList<>();
+
+    public OrderBook(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Match an incoming order against resting liquidity and rest any GTC limit remainder.
+     * During an auction a GTC limit order rests unmatched and any other order is turned away.
+     */
+    public MatchResult submit(BookOrder order) {
+        if (ordersById.containsKey(order.getOrderId())) {
+            // Redelivered order that is already resting; matching it again would double-fill
+            return MatchResult.of(order, Collections.emptyList(), true);
+        }
+
+        if (phase == TradingPhase.AUCTION) {
+            if (!isAccepted(order)) {
+                return MatchResult.of(order, Collections.emptyList(), false);
+            }
+            rest(order);
+            return MatchResult.of(order, Collections.emptyList(), true);
+        }
+
+        if (order.getTimeInForce() == TimeInForce.FOK && !canFillCompletely(order)) {
+            return MatchResult.of(order, Collections.emptyList(), false);
+        }
+
+        List<Fill> fills = match(order);
+
+        boolean resting = false;
+        if (!order.isFilled() && order.getType() == OrderType.LIMIT
+                && order.getTimeInForce() == TimeInForce.GTC) {
+            rest(order);
+            resting = true;
+        }
+
+        return MatchResult.of(order, fills, resting);
+    }
+
+    /**
+     * Whether the order can enter the book in the current phase: auctions only collect
+     * GTC limit orders, since nothing executes until the uncross
+     */
+    public boolean isAccepted(BookOrder order) {
+        return phase == TradingPhase.CONTINUOUS
+                || (order.getType() == OrderType.LIMIT && order.getTimeInForce() == TimeInForce.GTC);
+    }
+
+    /**
+     * Switch the trading phase. Leaving an auction, or entering it again while in it, first
+     * uncrosses the collected orders.
+     *
+     * @return one result per buy order executed in the uncross, with its fills against sell
+     * orders; empty when nothing crossed
+     */
+    public List<MatchResult> setPhase(TradingPhase next) {
+        List<MatchResult> results = phase == TradingPhase.AUCTION ? uncross() : Collections.emptyList();
+        phase = next;
+        return results;
+    }
+
+    /**
+     * Reinstate the phase of a book restored from a snapshot, without uncrossing
+     */
+    public void restorePhase(TradingPhase phase) {
+        this.phase = phase;
+    }
+
+    /**
+     * Remove a resting order from the book
+     *
+     * @return the removed order, or null if it is not resting
+     */
+    public BookOrder cancel(String orderId) {
+        BookOrder order = ordersById.remove(orderId);
+        if (order == null) {
+            return null;
+        }
+        PriceLevel level = order.level;
+        level.remove(order);
+        markChanged(order.getSide(), level);
+        if (level.isEmpty()) {
+            removeLevel(order.getSide(), level);
+        }
+        return order;
+    }
+
+    /**
+     * Put a previously resting order back at the tail of its level without matching.
+     * Used during recovery; orders must be restored in their original priority order.
+     */
+    public void restore(BookOrder order) {
+        rest(order);
+    }
+
+    /**
+     * Visit resting orders, bids from best to worst then asks from best to worst,
+     * in time priority within each level
+     */
+    public void forEachRestingOrder(Consumer<BookOrder> visitor) {
+        for (PriceLevel level : bids.values()) {
+            for (BookOrder order = level.getHead(); order != null; order = order.next) {
+                visitor.accept(order);
+            }
+        }
+        for (PriceLevel level : asks.values()) {
+            for (BookOrder order = level.getHead(); order != null; order = order.next) {
+                visitor.accept(order);
+            }
+        }
+    }
+
+    /**
+     * Start collecting changed levels for {@link #drainDepthChanges}
+     */
+    public void enableDepthTracking() {
+        this.depthTracking = true;
+    }
+
+    public boolean hasDepthChanges() {
+        return !changedBids.isEmpty() || !changedAsks.isEmpty();
+    }
+
+    /**
+     * Report the current state of every level changed since the last drain, once per level
+     */
+    public void drainDepthChanges(DepthListener listener) {
+        drain(changedBids, OrderSide.BUY, listener);
+        drain(changedAsks, OrderSide.SELL, listener);
+    }
+
+    /**
+     * Report every level, bids then asks, best first
+     */
+    public void forEachLevel(DepthListener listener) {
+        for (PriceLevel level : bids.values()) {
+            listener.onLevel(symbol, OrderSide.BUY, level.getPrice(), level.getTotalQuantity(), level.getOrderCount());
+        }
+        for (PriceLevel level : asks.values()) {
+            listener.onLevel(symbol, OrderSide.SELL, level.getPrice(), level.getTotalQuantity(), level.getOrderCount());
+        }
+    }
+
+    public PriceLevel getBestBid() {
+        return bestBid;
+    }
+
+    public PriceLevel getBestAsk() {
+        return bestAsk;
+    }
+
+    public int getOrderCount() {
+        return ordersById.size();
+    }
+
+    public int getBidLevelCount() {
+        return bids.size();
+    }
+
+    public int getAskLevelCount() {
+        return asks.size();
+    }
+
+    private List<Fill> match(BookOrder taker) {
+        List<Fill> fills = new ArrayList<>();
+        OrderSide makerSide = opposite(taker.getSide());
+
+        while (!taker.isFilled()) {
+            PriceLevel level = makerSide == OrderSide.SELL ? bestAsk : bestBid;
+            if (level == null || !crosses(taker, level.getPrice())) {
+                break;
+            }
+
+            BookOrder maker = level.getHead();
+            while (maker != null && !taker.isFilled()) {
+                long quantity = Math.min(taker.getRemainingQuantity(), maker.getRemainingQuantity());
+                long price = level.getPrice();
+
+                taker.fill(quantity, price);
+                maker.fill(quantity, price);
+                level.reduce(quantity);
+
+                fills.add(new Fill(maker, quantity, price,
+                        maker.getFilledQuantity(), maker.getFilledNotional(), maker.isFilled()));
+
+                BookOrder next = maker.next;
+                if (maker.isFilled()) {
+                    level.remove(maker);
+                    ordersById.remove(maker.getOrderId());
+                }
+                maker = next;
+            }
+
+            markChanged(makerSide, level);
+            if (level.isEmpty()) {
+                removeLevel(makerSide, level);
+            }
+        }
+
+        return fills;
+    }
+
+    /**
+     * Execute every crossing order at the equilibrium price.
+     *
+     * Only prices of levels between the best ask and the best bid can be the equilibrium. Cumulative
+     * buy volume at or above each candidate and sell volume at or below it come from one pass over
+     * each side's levels; the price with the largest executable volume (the smaller of the two)
+     * wins, then the smallest surplus. Remaining ties go to the highest price when buyers are left
+     * over, the lowest when sellers are, and the middle candidate otherwise. Orders then fill in
+     * price-time priority from the top of each side, all at the one price.
+     */
+    private List<MatchResult> uncross() {
+        if (bestBid == null || bestAsk == null || bestBid.getPrice() < bestAsk.getPrice()) {
+            return Collections.emptyList();
+        }
+        long high = bestBid.getPrice();
+        long low = bestAsk.getPrice();
+
+        // Ascending candidate prices, each with the volume of both sides at that price
+        Collection<PriceLevel> crossingAsks = asks.subMap(low, true, high, true).values();
+        Collection<PriceLevel> crossingBids = bids.subMap(high, true, low, true).values();
+        int capacity = crossingAsks.size() + crossingBids.size();
+        long[] prices = new long[capacity];
+        long[] buyVolume = new long[capacity];
+        long[] sellVolume = new long[capacity];
+        int count = mergeLevels(crossingAsks, crossingBids, prices, buyVolume, sellVolume);
+
+        // Sell volume at or below each price, buy volume at or above it
+        for (int i = 1; i < count; i++) {
+            sellVolume[i] += sellVolume[i - 1];
+        }
+        for (int i = count - 2; i >= 0; i--) {
+            buyVolume[i] += buyVolume[i + 1];
+        }
+
+        int best = equilibriumIndex(count, buyVolume, sellVolume);
+        long price = prices[best];
+        long volume = Math.min(buyVolume[best], sellVolume[best]);
+        return execute(price, volume);
+    }
+
+    /**
+     * Merge ask levels (ascending) and bid levels (descending) into ascending distinct prices
+     *
+     * @return the number of distinct prices
+     */
+    private static int mergeLevels(Collection<PriceLevel> crossingAsks, Collection<PriceLevel> crossingBids,
+                                   long[] prices, long[] buyVolume, long[] sellVolume) {
+        PriceLevel[] bidLevels = crossingBids.toArray(new PriceLevel[0]);
+        int bidIndex = bidLevels.length - 1;
+        int count = 0;
+        for (PriceLevel ask : crossingAsks) {
+            while (bidIndex >= 0 && bidLevels[bidIndex].getPrice() < ask.getPrice()) {
+                prices[count] = bidLevels[bidIndex].getPrice();
+                buyVolume[count++] = bidLevels[bidIndex--].getTotalQuantity();
+            }
+            prices[count] = ask.getPrice();
+            sellVolume[count] = ask.getTotalQuantity();
+            if (bidIndex >= 0 && bidLevels[bidIndex].getPrice() == ask.getPrice()) {
+                buyVolume[count] = bidLevels[bidIndex--].getTotalQuantity();
+            }
+            count++;
+        }
+        while (bidIndex >= 0) {
+            prices[count] = bidLevels[bidIndex].getPrice();
+            buyVolume[count++] = bidLevels[bidIndex--].getTotalQuantity();
+        }
+        return count;
+    }
+
+    private static int equilibriumIndex(int count, long[] buyVolume, long[] sellVolume) {
+        long bestVolume = -1;
+        long bestSurplus = Long.MAX_VALUE;
+        int first = 0;
+        int last = 0;
+        for (int i = 0; i < count; i++) {
+            long volume = Math.min(buyVolume[i], sellVolume[i]);
+            long surplus = Math.abs(buyVolume[i] - sellVolume[i]);
+            if (volume > bestVolume || (volume == bestVolume && surplus < bestSurplus)) {
+                bestVolume = volume;
+                bestSurplus = surplus;
+                first = i;
+                last = i;
+            } else if (volume == bestVolume && surplus == bestSurplus) {
+                last = i;
+            }
+        }
+        if (first == last) {
+            return first;
+        }
+        // Ties are contiguous: buy volume falls and sell volume rises with price
+        boolean buyPressure = true;
+        boolean sellPressure = true;
+        for (int i = first; i <= last; i++) {
+            buyPressure &= buyVolume[i] > sellVolume[i];
+            sellPressure &= sellVolume[i] > buyVolume[i];
+        }
+        if (buyPressure) {
+            return last;
+        }
+        if (sellPressure) {
+            return first;
+        }
+        return (first + last) >>> 1;
+    }
+
+    /**
+     * Fill {@code volume} from the top of both sides at {@code price}, pairing buys with sells
+     * in priority order. Each buy order gets one result with its fills; the sells are the makers.
+     */
+    private List<MatchResult> execute(long price, long volume) {
+        List<MatchResult> results = new ArrayList<>();
+        List<Fill> fills = new ArrayList<>();
+        long remaining = volume;
+        while (remaining > 0) {
+            PriceLevel buyLevel = bestBid;
+            PriceLevel sellLevel = bestAsk;
+            BookOrder buy = buyLevel.getHead();
+            BookOrder sell = sellLevel.getHead();
+            long quantity = Math.min(remaining, Math.min(buy.getRemainingQuantity(), sell.getRemainingQuantity()));
+
+            buy.fill(quantity, price);
+            sell.fill(quantity, price);
+            buyLevel.reduce(quantity);
+            sellLevel.reduce(quantity);
+            remaining -= quantity;
+            fills.add(new Fill(sell, quantity, price,
+                    sell.getFilledQuantity(), sell.getFilledNotional(), sell.isFilled()));
+
+            if (buy.isFilled() || remaining == 0) {
+                results.add(MatchResult.of(buy, fills, !buy.isFilled()));
+                fills = new ArrayList<>();
+            }
+            removeIfFilled(sell, sellLevel);
+            removeIfFilled(buy, buyLevel);
+        }
+        return results;
+    }
+
+    private void removeIfFilled(BookOrder order, PriceLevel level) {
+        markChanged(order.getSide(), level);
+        if (order.isFilled()) {
+            level.remove(order);
+            ordersById.remove(order.getOrderId());
+            if (level.isEmpty()) {
+                removeLevel(order.getSide(), level);
+            }
+        }
+    }
+
+    private boolean canFillCompletely(BookOrder taker) {
+        TreeMap<Long, PriceLevel> levels = taker.getSide() == OrderSide.BUY ? asks : bids;
+        long available = 0;
+        for (PriceLevel level : levels.values()) {
+            if (!crosses(taker, level.getPrice())) {
+                break;
+            }
+            available += level.getTotalQuantity();
+            if (available >= taker.getRemainingQuantity()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void rest(BookOrder order) {
+        TreeMap<Long, PriceLevel> levels = order.getSide() == OrderSide.BUY ? bids : asks;
+        PriceLevel level = levels.get(order.getPrice());
+        if (level == null) {
+            level = new PriceLevel(order.getPrice());
+            levels.put(order.getPrice(), level);
+            if (order.getSide() == OrderSide.BUY) {
+                if (bestBid == null || order.getPrice() > bestBid.getPrice()) {
+                    bestBid = level;
+                }
+            } else if (bestAsk == null || order.getPrice() < bestAsk.getPrice()) {
+                bestAsk = level;
+            }
+        }
+        level.append(order);
+        ordersById.put(order.getOrderId(), order);
+        markChanged(order.getSide(), level);
+    }
+
+    private void markChanged(OrderSide side, PriceLevel level) {
+        if (depthTracking && !level.depthChanged) {
+            level.depthChanged = true;
+            (side == OrderSide.BUY ? changedBids : changedAsks).add(level);
+        }
+    }
+
+    private void drain(List<PriceLevel> levels, OrderSide side, DepthListener listener) {
+        for (PriceLevel level : levels) {
+            level.depthChanged = false;
+            // A removed level reports zero quantity and orders
+            listener.onLevel(symbol, side, level.getPrice(), level.getTotalQuantity(), level.getOrderCount());
+        }
+        levels.clear();
+    }
+
+    private void removeLevel(OrderSide side, PriceLevel level) {
+        if (side == OrderSide.BUY) {
+            bids.remove(level.getPrice());
+            if (bestBid == level) {
+                bestBid = bids.isEmpty() ? null : bids.firstEntry().getValue();
+            }
+        } else {
+            asks.remove(level.getPrice());
+            if (bestAsk == level) {
+                bestAsk = asks.isEmpty() ? null : asks.firstEntry().getValue();
+            }
+        }
+    }
+
+    private static boolean crosses(BookOrder taker, long levelPrice) {
+        if (taker.getType() == OrderType.MARKET) {
+            return true;
+        }
+        return taker.getSide() == OrderSide.BUY ? taker.getPrice() >= levelPrice : taker.getPrice() <= levelPrice;
+    }
+
+    private static OrderSide opposite(OrderSide side) {
+        return side == OrderSide.BUY ? OrderSide.SELL : OrderSide.BUY;
+    }
+}
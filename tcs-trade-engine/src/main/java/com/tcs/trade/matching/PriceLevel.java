@@ -0,0 +1,65 @@
+package com.tcs.trade.matching;
+
+import lombok.Getter;
+
+/**
+ * All resting orders at a single price, kept in arrival (time priority) order.
+ * Orders are linked intrusively so append and removal are O(1).
+ */
+@Getter
+public class PriceLevel {
+
+    private final long price;
+    private long totalQuantity;
+    private int orderCount;
+
+    private BookOrder head;
+    private BookOrder tail;
+
+    // Queued for the next depth drain, owned by OrderBook
+    boolean depthChanged;
+
+    PriceLevel(long price) {
+        this.price = price;
+    }
+
+    public boolean isEmpty() {
+        return head == null;
+    }
+
+    void append(BookOrder order) {
+        order.level = this;
+        order.prev = tail;
+        order.next = null;
+        if (tail == null) {
+            head = order;
+        } else {
+            tail.next = order;
+        }
+        tail = order;
+        orderCount++;
+        totalQuantity += order.getRemainingQuantity();
+    }
+
+    void remove(BookOrder order) {
+        if (order.prev == null) {
+            head = order.next;
+        } else {
+            order.prev.next = order.next;
+        }
+        if (order.next == null) {
+            tail = order.prev;
+        } else {
+            order.next.prev = order.prev;
+        }
+        orderCount--;
+        totalQuantity -= order.getRemainingQuantity();
+        order.level = null;
+        order.prev = null;
+        order.next = null;
+    }
+
+    void reduce(long quantity) {
+        totalQuantity -= quantity;
+    }
+}
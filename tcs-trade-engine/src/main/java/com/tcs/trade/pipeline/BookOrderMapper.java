@@ -0,0 +1,55 @@
+package com.tcs.trade.pipeline;
+
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.enums.OrderType;
+import com.tcs.common.enums.TimeInForce;
+import com.tcs.common.events.avro.OrderCreatedEvent;
+import com.tcs.common.numeric.FixedPoint;
+import com.tcs.common.numeric.SymbolScales;
+import com.tcs.trade.matching.BookOrder;
+
+/**
+ * Converts inbound order events to book orders at the symbol's scales
+ */
+public final class BookOrderMapper {
+
+    private BookOrderMapper() {
+        // Prevent instantiation
+    }
+
+    /**
+     * @throws IllegalArgumentException, ArithmeticException or NullPointerException for an invalid order
+     */
+    public static BookOrder toBookOrder(OrderCreatedEvent orderEvent, SymbolScales symbolScales) {
+        OrderType type = OrderType.valueOf(orderEvent.getType());
+        String symbol = orderEvent.getSymbol();
+        int priceScale = symbolScales.priceScale(symbol);
+        int quantityScale = symbolScales.quantityScale(symbol);
+
+        long price = 0;
+        if (type == OrderType.LIMIT) {
+            if (orderEvent.getPrice() == null) {
+                throw new IllegalArgumentException("limit order without price");
+            }
+            price = FixedPoint.parse(orderEvent.getPrice(), priceScale);
+        }
+        long quantity = FixedPoint.parse(orderEvent.getQuantity(), quantityScale);
+        if ((type == OrderType.LIMIT && price <= 0) || quantity <= 0) {
+            throw new IllegalArgumentException("price and quantity must be positive");
+        }
+
+        return BookOrder.builder()
+                .orderId(orderEvent.getOrderId())
+                .userId(orderEvent.getUserId())
+                .symbol(symbol)
+                .side(OrderSide.valueOf(orderEvent.getSide()))
+                .type(type)
+                .timeInForce(TimeInForce.valueOf(orderEvent.getTimeInForce()))
+                .price(price)
+                .quantity(quantity)
+                .priceScale(priceScale)
+                .quantityScale(quantityScale)
+                .traceId(orderEvent.getTraceId())
+                .build();
+    }
+}
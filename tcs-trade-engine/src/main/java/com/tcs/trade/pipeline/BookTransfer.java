@@ -0,0 +1,76 @@
+package com.tcs.trade.pipeline;
+
+import com.tcs.common.routing.SymbolRouter;
+import com.tcs.trade.matching.OrderBook;
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Books of a set of orders partitions moving between the matching shards and the handoff topic.
+ *
+ * The same transfer is published to every shard. Each handles its own books on its own thread,
+ * adds a {@link ShardPart} and counts down, so the caller sees all shards at one point in the
+ * order stream.
+ */
+@Getter
+public class BookTransfer {
+
+    private final SymbolRouter router;
+    private final Set<Integer> partitions;
+    // CHECKPOINT: last offset delivered per partition; INSTALL: consumer position per partition
+    private final Map<Integer, Long> offsets;
+    private final Map<Integer, PartitionBooks> handoffs;  // INSTALL: received books per partition
+    private final Map<Integer, List<OrderBook>> moved;     // INSTALL: by shard, books routed here from another partition
+    private final Queue<ShardPart> parts = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch remaining;
+
+    public BookTransfer(SymbolRouter router, Set<Integer> partitions, Map<Integer, Long> offsets,
+                        Map<Integer, PartitionBooks> handoffs, Map<Integer, List<OrderBook>> moved, int shardCount) {
+        this.router = router;
+        this.partitions = partitions;
+        this.offsets = offsets;
+        this.handoffs = handoffs;
+        this.moved = moved;
+        this.remaining = new CountDownLatch(shardCount);
+    }
+
+    void complete(ShardPart part) {
+        parts.add(part);
+        remaining.countDown();
+    }
+
+    public boolean await(long timeoutMillis) throws InterruptedException {
+        return remaining.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Handed-off books of one partition, split by the shard that owns them here
+     */
+    @Value
+    public static class PartitionBooks {
+        long offset;                            // last orders offset reflected in the books
+        Map<Integer, List<OrderBook>> books;    // by shard
+    }
+
+    /**
+     * One shard's share of a transfer
+     */
+    @Value
+    public static class ShardPart {
+        MatchingShard shard;
+        long sequence;                          // shard sequence when the transfer was handled
+        Map<Integer, byte[]> books;             // CHECKPOINT: encoded books per partition
+        Map<Integer, Integer> bookCounts;
+        Map<Integer, Integer> orderCounts;
+        Set<Integer> ahead;                     // CHECKPOINT: partitions applied past the delivered offset
+        Map<Integer, Long> appliedOffsets;      // INSTALL: offset the shard's books reflect per partition
+    }
+}
@@ -0,0 +1,29 @@
+package com.tcs.trade.pipeline;
+
+import com.tcs.common.enums.OrderSide;
+import lombok.Data;
+
+/**
+ * Ring buffer slot carrying the new state of one price level to the market data stage
+ */
+@Data
+public class DepthUpdate {
+    private String symbol;
+    private OrderSide side;
+    private long price;
+    private long quantity;      // 0 when the level is gone
+    private int orderCount;
+
+    public void set(String symbol, OrderSide side, long price, long quantity, int orderCount) {
+        this.symbol = symbol;
+        this.side = side;
+        this.price = price;
+        this.quantity = quantity;
+        this.orderCount = orderCount;
+    }
+
+    public void clear() {
+        this.symbol = null;
+        this.side = null;
+    }
+}
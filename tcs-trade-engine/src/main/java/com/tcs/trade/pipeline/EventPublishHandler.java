@@ -0,0 +1,213 @@
+package com.tcs.trade.pipeline;
+
+import com.tcs.common.enums.OrderStatus;
+import com.tcs.common.enums.TimeInForce;
+import com.tcs.common.events.avro.OrderCreatedEvent;
+import com.tcs.common.events.avro.OrderUpdatedEvent;
+import com.tcs.common.events.avro.TradeExecutedEvent;
+import com.tcs.common.numeric.FixedPoint;
+import com.tcs.common.util.LatencyHeaders;
+import com.tcs.trade.consumer.TransactionalBatch;
+import com.tcs.trade.domain.entity.TradeEntity;
+import com.tcs.trade.matching.BookOrder;
+import com.tcs.trade.matching.Fill;
+import com.tcs.trade.matching.MatchResult;
+import com.tcs.trade.service.TradeEventProducer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.core.KafkaOperations;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Publishing stage: emits trade and order status events for persisted outputs,
+ * then acknowledges the inbound Kafka record.
+ * For records consumed in a transactional batch the events are buffered in the batch and
+ * sent with its offsets when the batch commits.
+ */
+@Slf4j
+public class EventPublishHandler implements StageHandler<MatchOutput> {
+
+    private final TradeEventProducer eventProducer;
+    private TransactionalBatch transaction;  // batch of the output being published, if transactional
+
+    public EventPublishHandler(TradeEventProducer eventProducer) {
+        this.eventProducer = eventProducer;
+    }
+
+    @Override
+    public void onEvent(MatchOutput output, long sequence, boolean endOfBatch) {
+        transaction = output.getAcknowledgment() instanceof TransactionalBatch batch ? batch : null;
+        try {
+            if (output.getRejectReason() != null) {
+                publishRejected(output.getOrderEvent(), output.getRejectReason());
+            } else if (output.getResult() != null) {
+                publishResult(output.getResult(), output.getTrades(), 0, latencyHeaders(output));
+            } else if (output.getAuctionResults() != null) {
+                publishAuctionResults(output);
+            }
+
+            if (output.getAcknowledgment() != null) {
+                output.getAcknowledgment().acknowledge();
+            }
+            if (output.getShard() != null) {
+                output.getShard().markPublished(output.getJournalSequence());
+            }
+        } finally {
+            transaction = null;
+            output.clear();
+        }
+    }
+
+    private void send(Consumer<KafkaOperations<String, Object>> send) {
+        if (transaction != null) {
+            transaction.addSend(send);
+        } else {
+            send.accept(eventProducer.getKafkaTemplate());
+        }
+    }
+
+    /**
+     * Publish the trades and order updates of one result, whose trades start at {@code firstTrade}
+     */
+    private void publishResult(MatchResult result, List<TradeEntity> trades, int firstTrade, Headers headers) {
+        List<Fill> fills = result.getFills();
+        for (int i = 0; i < fills.size(); i++) {
+            // Trades are recorded maker first, then taker, for each fill
+            Fill fill = fills.get(i);
+            publishTrade(trades.get(firstTrade + 2 * i), fill.getMaker(), fill, null);
+            publishTrade(trades.get(firstTrade + 2 * i + 1), result.getOrder(), fill, i == 0 ? headers : null);
+        }
+        for (Fill fill : fills) {
+            publishMakerUpdate(fill);
+        }
+        publishTakerUpdate(result);
+    }
+
+    /**
+     * Uncross of an auction: each executed buy order, with the sell orders it filled against as makers
+     */
+    private void publishAuctionResults(MatchOutput output) {
+        int firstTrade = 0;
+        for (MatchResult result : output.getAuctionResults()) {
+            publishResult(result, output.getTrades(), firstTrade, null);
+            firstTrade += 2 * result.getFills().size();
+        }
+    }
+
+    private void publishTrade(TradeEntity trade, BookOrder order, Fill fill, Headers headers) {
+        int priceScale = order.getPriceScale();
+        int quantityScale = order.getQuantityScale();
+
+        TradeExecutedEvent tradeEvent = TradeExecutedEvent.newBuilder()
+                .setTradeId(trade.getTradeId())
+                .setOrderId(trade.getOrderId())
+                .setUserId(trade.getUserId())
+                .setSymbol(trade.getSymbol())
+                .setSide(trade.getSide())
+                .setQuantity(FixedPoint.format(fill.getQuantity(), quantityScale))
+                .setPrice(FixedPoint.format(fill.getPrice(), priceScale))
+                .setTotalAmount(FixedPoint.format(TradeFactory.totalAmount(order, fill), FixedPoint.AMOUNT_SCALE))
+                .setTimestamp(trade.getExecutedAt().toEpochMilli())
+                .setTraceId(trade.getTraceId())
+                .build();
+
+        send(operations -> eventProducer.publishTradeExecuted(operations, tradeEvent, headers));
+    }
+
+    private void publishMakerUpdate(Fill fill) {
+        BookOrder maker = fill.getMaker();
+        OrderStatus status = fill.isMakerFilled() ? OrderStatus.FILLED : OrderStatus.PARTIALLY_FILLED;
+
+        OrderUpdatedEvent orderUpdate = OrderUpdatedEvent.newBuilder()
+                .setOrderId(maker.getOrderId())
+                .setUserId(maker.getUserId())
+                .setStatus(status.name())
+                .setFilledQuantity(FixedPoint.format(fill.getMakerFilledQuantity(), maker.getQuantityScale()))
+                .setAvgPrice(formatAvgPrice(maker, fill.getMakerFilledQuantity(), fill.getMakerFilledNotional()))
+                .setTimestamp(Instant.now().toEpochMilli())
+                .setTraceId(maker.getTraceId())
+                .build();
+
+        send(operations -> eventProducer.publishOrderUpdated(operations, orderUpdate));
+    }
+
+    private void publishTakerUpdate(MatchResult result) {
+        BookOrder order = result.getOrder();
+        boolean partiallyFilled = result.getFilledQuantity() > 0;
+
+        OrderStatus status;
+        String reason = null;
+        if (result.isFilled()) {
+            status = OrderStatus.FILLED;
+        } else if (result.isResting()) {
+            status = partiallyFilled ? OrderStatus.PARTIALLY_FILLED : OrderStatus.SUBMITTED;
+        } else if (partiallyFilled) {
+            status = OrderStatus.CANCELLED;
+            reason = "Unfilled quantity cancelled";
+        } else {
+            status = OrderStatus.REJECTED;
+            reason = order.getTimeInForce() == TimeInForce.FOK
+                    ? "Fill-or-kill order could not be fully filled"
+                    : "No matching orders available";
+        }
+
+        if (reason != null) {
+            log.info("Order {} {}: {}", order.getOrderId(), status, reason);
+        }
+
+        OrderUpdatedEvent orderUpdate = OrderUpdatedEvent.newBuilder()
+                .setOrderId(order.getOrderId())
+                .setUserId(order.getUserId())
+                .setStatus(status.name())
+                .setFilledQuantity(FixedPoint.format(result.getFilledQuantity(), order.getQuantityScale()))
+                .setAvgPrice(formatAvgPrice(order, result.getFilledQuantity(), result.getFilledNotional()))
+                .setRejectReason(reason)
+                .setTimestamp(Instant.now().toEpochMilli())
+                .setTraceId(order.getTraceId())
+                .build();
+
+        send(operations -> eventProducer.publishOrderUpdated(operations, orderUpdate));
+    }
+
+    private void publishRejected(OrderCreatedEvent orderEvent, String reason) {
+        log.info("Rejecting order {}: {}", orderEvent.getOrderId(), reason);
+
+        OrderUpdatedEvent orderUpdate = OrderUpdatedEvent.newBuilder()
+                .setOrderId(orderEvent.getOrderId())
+                .setUserId(orderEvent.getUserId())
+                .setStatus("REJECTED")
+                .setFilledQuantity("0")
+                .setRejectReason(reason)
+                .setTimestamp(Instant.now().toEpochMilli())
+                .setTraceId(orderEvent.getTraceId())
+                .build();
+
+        send(operations -> eventProducer.publishOrderUpdated(operations, orderUpdate));
+    }
+
+    /**
+     * Stage timestamps of the taking order, sent with its first trade when latency tracing is enabled
+     */
+    private static Headers latencyHeaders(MatchOutput output) {
+        if (output.getMatchedAtMicros() == 0) {
+            return null;
+        }
+        Headers headers = new RecordHeaders();
+        LatencyHeaders.add(headers, LatencyHeaders.SENT_AT, output.getSentAtMicros());
+        LatencyHeaders.add(headers, LatencyHeaders.RECEIVED_AT, output.getReceivedAtMicros());
+        LatencyHeaders.add(headers, LatencyHeaders.MATCHED_AT, output.getMatchedAtMicros());
+        return headers;
+    }
+
+    private static String formatAvgPrice(BookOrder order, long filledQuantity, long filledNotional) {
+        if (filledQuantity == 0) {
+            return null;
+        }
+        long avgPrice = FixedPoint.divide(filledNotional, filledQuantity, order.getQuantityScale());
+        return FixedPoint.format(avgPrice, order.getPriceScale());
+    }
+}
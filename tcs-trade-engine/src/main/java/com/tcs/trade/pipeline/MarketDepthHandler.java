@@ -0,0 +1,192 @@
+package com.tcs.trade.pipeline;
+
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.events.avro.MarketDepthEvent;
+import com.tcs.common.events.avro.PriceLevelUpdate;
+import com.tcs.common.numeric.FixedPoint;
+import com.tcs.common.numeric.SymbolScales;
+import com.tcs.trade.service.TradeEventProducer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Market data stage: keeps aggregated depth per symbol and publishes it as L2 increments.
+ *
+ * Level updates from the shards are conflated per level and only published every
+ * conflation interval, so a burst of ticks on one level costs a single CHANGE. Levels that
+ * end the interval where they started are not published at all. Full snapshots go out on
+ * their own interval so consumers can resync.
+ */
+@Slf4j
+public class MarketDepthHandler implements StageHandler<DepthUpdate> {
+
+    private static final String SNAPSHOT = "SNAPSHOT";
+    private static final String INCREMENTAL = "INCREMENTAL";
+
+    private final TradeEventProducer eventProducer;
+    private final SymbolScales symbolScales;
+    private final long conflationIntervalNanos;
+    private final long snapshotIntervalNanos;
+
+    private final Map<String, SymbolDepth> depths = new HashMap<>();
+    private final Set<SymbolDepth> changed = new LinkedHashSet<>();
+    private long nextFlushNanos;
+    private long nextSnapshotNanos;
+
+    public MarketDepthHandler(TradeEventProducer eventProducer, SymbolScales symbolScales,
+                              long conflationIntervalMillis, long snapshotIntervalMillis) {
+        this.eventProducer = eventProducer;
+        this.symbolScales = symbolScales;
+        this.conflationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(conflationIntervalMillis);
+        this.snapshotIntervalNanos = TimeUnit.MILLISECONDS.toNanos(snapshotIntervalMillis);
+        long now = System.nanoTime();
+        this.nextFlushNanos = now + conflationIntervalNanos;
+        this.nextSnapshotNanos = now + snapshotIntervalNanos;
+    }
+
+    @Override
+    public void onEvent(DepthUpdate update, long sequence, boolean endOfBatch) {
+        try {
+            SymbolDepth depth = depths.computeIfAbsent(update.getSymbol(), SymbolDepth::new);
+            depth.pending(update.getSide()).put(update.getPrice(), new Level(update.getQuantity(), update.getOrderCount()));
+            changed.add(depth);
+        } finally {
+            update.clear();
+        }
+
+        if (endOfBatch) {
+            publishIfDue();
+        }
+    }
+
+    @Override
+    public void onIdle() {
+        publishIfDue();
+    }
+
+    @Override
+    public void onShutdown() {
+        flushIncrements();
+    }
+
+    private void publishIfDue() {
+        long now = System.nanoTime();
+        if (now - nextFlushNanos >= 0) {
+            flushIncrements();
+            nextFlushNanos = now + conflationIntervalNanos;
+        }
+        if (now - nextSnapshotNanos >= 0) {
+            // Increments go first, so the snapshot's sequence covers everything applied
+            flushIncrements();
+            publishSnapshots();
+            nextSnapshotNanos = now + snapshotIntervalNanos;
+        }
+    }
+
+    private void flushIncrements() {
+        for (SymbolDepth depth : changed) {
+            List<PriceLevelUpdate> levels = new ArrayList<>();
+            depth.apply(OrderSide.BUY, levels);
+            depth.apply(OrderSide.SELL, levels);
+            if (!levels.isEmpty()) {
+                depth.sequence++;
+                publish(depth, INCREMENTAL, levels);
+            }
+        }
+        changed.clear();
+    }
+
+    private void publishSnapshots() {
+        for (SymbolDepth depth : depths.values()) {
+            List<PriceLevelUpdate> levels = new ArrayList<>(depth.bids.size() + depth.asks.size());
+            depth.bids.forEach((price, level) -> levels.add(toUpdate(depth, "ADD", OrderSide.BUY, price, level)));
+            depth.asks.forEach((price, level) -> levels.add(toUpdate(depth, "ADD", OrderSide.SELL, price, level)));
+            publish(depth, SNAPSHOT, levels);
+        }
+    }
+
+    private void publish(SymbolDepth depth, String type, List<PriceLevelUpdate> levels) {
+        try {
+            eventProducer.publishMarketDepth(MarketDepthEvent.newBuilder()
+                    .setSymbol(depth.symbol)
+                    .setType(type)
+                    .setSequence(depth.sequence)
+                    .setLevels(levels)
+                    .setTimestamp(Instant.now().toEpochMilli())
+                    .build());
+        } catch (Exception e) {
+            // Consumers detect the sequence gap and resync from the next snapshot
+            log.error("Failed to publish {} depth for {}: {}", type, depth.symbol, e.getMessage(), e);
+        }
+    }
+
+    private PriceLevelUpdate toUpdate(SymbolDepth depth, String action, OrderSide side, long price, Level level) {
+        int quantityScale = symbolScales.quantityScale(depth.symbol);
+        return PriceLevelUpdate.newBuilder()
+                .setAction(action)
+                .setSide(side.name())
+                .setPrice(FixedPoint.format(price, symbolScales.priceScale(depth.symbol)))
+                .setQuantity(FixedPoint.format(level.quantity, quantityScale))
+                .setOrderCount(level.orderCount)
+                .build();
+    }
+
+    private record Level(long quantity, int orderCount) {
+    }
+
+    /**
+     * Published depth of one symbol plus the level changes conflated since the last flush
+     */
+    private final class SymbolDepth {
+        private final String symbol;
+        private final TreeMap<Long, Level> bids = new TreeMap<>(Comparator.reverseOrder());
+        private final TreeMap<Long, Level> asks = new TreeMap<>();
+        private final Map<Long, Level> pendingBids = new HashMap<>();
+        private final Map<Long, Level> pendingAsks = new HashMap<>();
+        private long sequence;
+
+        SymbolDepth(String symbol) {
+            this.symbol = symbol;
+        }
+
+        Map<Long, Level> pending(OrderSide side) {
+            return side == OrderSide.BUY ? pendingBids : pendingAsks;
+        }
+
+        /**
+         * Fold the pending changes of one side into the published depth, collecting the deltas
+         */
+        void apply(OrderSide side, List<PriceLevelUpdate> updates) {
+            Map<Long, Level> pending = pending(side);
+            TreeMap<Long, Level> levels = side == OrderSide.BUY ? bids : asks;
+            for (Map.Entry<Long, Level> entry : pending.entrySet()) {
+                long price = entry.getKey();
+                Level level = entry.getValue();
+                Level previous = levels.get(price);
+                if (level.quantity() == 0) {
+                    if (previous != null) {
+                        levels.remove(price);
+                        updates.add(toUpdate(this, "DELETE", side, price, level));
+                    }
+                } else if (previous == null) {
+                    levels.put(price, level);
+                    updates.add(toUpdate(this, "ADD", side, price, level));
+                } else if (!previous.equals(level)) {
+                    levels.put(price, level);
+                    updates.add(toUpdate(this, "CHANGE", side, price, level));
+                }
+            }
+            pending.clear();
+        }
+    }
+}
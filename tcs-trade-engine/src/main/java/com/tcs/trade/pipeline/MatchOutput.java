@@ -0,0 +1,64 @@
+package com.tcs.trade.pipeline;
+
+import com.tcs.common.events.avro.OrderCreatedEvent;
+import com.tcs.trade.domain.entity.TradeEntity;
+import com.tcs.trade.matching.MatchResult;
+import lombok.Data;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+
+/**
+ * Ring buffer slot carrying the outcome of one inbound order or phase change to the downstream stages
+ */
+@Data
+public class MatchOutput {
+    private OrderCreatedEvent orderEvent;
+    private MatchResult result;         // null when the order never reached a book
+    private List<MatchResult> auctionResults;  // phase change: the uncross, one result per executed buy order
+    private String rejectReason;        // set when the order was rejected before matching
+    private List<TradeEntity> trades;   // filled in by the persistence stage
+    private Acknowledgment acknowledgment;
+    private int partition;              // orders partition and offset of the inbound record
+    private long offset;
+    private long eventTimestamp;        // event time of the inbound record, the trades' execution time
+    private MatchingShard shard;        // shard that produced the output
+    private long journalSequence;       // shard journal sequence when the output was produced
+    private long sentAtMicros;          // latency tracing timestamps, 0 when disabled
+    private long receivedAtMicros;
+    private long matchedAtMicros;
+
+    public void copyFrom(MatchOutput other) {
+        this.orderEvent = other.orderEvent;
+        this.result = other.result;
+        this.auctionResults = other.auctionResults;
+        this.rejectReason = other.rejectReason;
+        this.trades = other.trades;
+        this.acknowledgment = other.acknowledgment;
+        this.partition = other.partition;
+        this.offset = other.offset;
+        this.eventTimestamp = other.eventTimestamp;
+        this.shard = other.shard;
+        this.journalSequence = other.journalSequence;
+        this.sentAtMicros = other.sentAtMicros;
+        this.receivedAtMicros = other.receivedAtMicros;
+        this.matchedAtMicros = other.matchedAtMicros;
+    }
+
+    public void clear() {
+        this.orderEvent = null;
+        this.result = null;
+        this.auctionResults = null;
+        this.rejectReason = null;
+        this.trades = null;
+        this.acknowledgment = null;
+        this.partition = 0;
+        this.offset = 0;
+        this.eventTimestamp = 0;
+        this.shard = null;
+        this.journalSequence = 0;
+        this.sentAtMicros = 0;
+        this.receivedAtMicros = 0;
+        this.matchedAtMicros = 0;
+    }
+}
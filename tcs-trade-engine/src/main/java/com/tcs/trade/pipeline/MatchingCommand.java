@@ -0,0 +1,75 @@
+package com.tcs.trade.pipeline;
+
+import com.tcs.common.events.avro.OrderCreatedEvent;
+import com.tcs.common.events.avro.TradingPhaseEvent;
+import lombok.Data;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.Map;
+
+/**
+ * Ring buffer slot carrying an inbound order or phase change, or a control command, to a matching shard
+ */
+@Data
+public class MatchingCommand {
+
+    public enum Type {
+        ORDER,
+        PHASE_CHANGE,
+        PARTITIONS_ASSIGNED,
+        CHECKPOINT,     // encode the books of some partitions for the handoff topic
+        RELEASE,        // drop the books of partitions now owned by another instance
+        INSTALL         // take over the books of newly assigned partitions
+    }
+
+    private Type type;
+    private OrderCreatedEvent orderEvent;
+    private TradingPhaseEvent phaseEvent;
+    private int partition;
+    private long offset;
+    private Acknowledgment acknowledgment;
+    private Map<Integer, Long> positions;   // PARTITIONS_ASSIGNED: consumer position per partition
+    private BookTransfer transfer;          // CHECKPOINT, RELEASE, INSTALL
+    private long sentAtMicros;              // latency tracing timestamps, 0 when disabled
+    private long receivedAtMicros;
+
+    public void set(OrderCreatedEvent orderEvent, int partition, long offset, Acknowledgment acknowledgment) {
+        this.type = Type.ORDER;
+        this.orderEvent = orderEvent;
+        this.partition = partition;
+        this.offset = offset;
+        this.acknowledgment = acknowledgment;
+    }
+
+    public void setPhaseChange(TradingPhaseEvent phaseEvent, int partition, long offset,
+                               Acknowledgment acknowledgment) {
+        this.type = Type.PHASE_CHANGE;
+        this.phaseEvent = phaseEvent;
+        this.partition = partition;
+        this.offset = offset;
+        this.acknowledgment = acknowledgment;
+    }
+
+    public void setPartitionsAssigned(Map<Integer, Long> positions) {
+        this.type = Type.PARTITIONS_ASSIGNED;
+        this.positions = positions;
+    }
+
+    public void setTransfer(Type type, BookTransfer transfer) {
+        this.type = type;
+        this.transfer = transfer;
+    }
+
+    public void clear() {
+        this.type = null;
+        this.orderEvent = null;
+        this.phaseEvent = null;
+        this.partition = 0;
+        this.offset = 0;
+        this.acknowledgment = null;
+        this.positions = null;
+        this.transfer = null;
+        this.sentAtMicros = 0;
+        this.receivedAtMicros = 0;
+    }
+}
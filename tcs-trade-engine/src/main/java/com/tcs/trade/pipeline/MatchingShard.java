@@ -0,0 +1,654 @@
+package com.tcs.trade.pipeline;
+
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.enums.TradingPhase;
+import com.tcs.common.events.avro.OrderCreatedEvent;
+import com.tcs.common.events.avro.TradingPhaseEvent;
+import com.tcs.common.numeric.SymbolScales;
+import com.tcs.common.util.LatencyHeaders;
+import com.tcs.trade.journal.BookCodec;
+import com.tcs.trade.journal.BookSnapshot;
+import com.tcs.trade.journal.ShardJournal;
+import com.tcs.trade.matching.BookOrder;
+import com.tcs.trade.matching.DepthListener;
+import com.tcs.trade.matching.MatchResult;
+import com.tcs.trade.matching.OrderBook;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Matching stage for a disjoint subset of symbols.
+ * The shard thread is the only writer of its books, so matching runs without locks.
+ *
+ * With a journal, every order is appended before it reaches a book, and outputs are only
+ * handed downstream once the batch's appends are done. Records redelivered after a restart
+ * are recognised by their Kafka offset and answered from the recovered results instead of
+ * being matched twice.
+ *
+ * Price levels changed by a batch are reported to the market data stage once per batch.
+ *
+ * Trading phase changes arrive on the orders topic like orders and are journaled and
+ * recovered the same way, so an uncross is never lost or executed twice.
+ *
+ * A command that cannot be journaled fails the shard: it and every later order or phase change
+ * are dropped unapplied and unacknowledged, and consumption is halted. Applying later records
+ * would move the applied offsets past the failed one, which would then be skipped as a
+ * duplicate when redelivered.
+ *
+ * When orders partitions move between engine instances, the books of those partitions are
+ * checkpointed, released and installed here at a point in the shard's command stream, so every
+ * shard's part of a handoff reflects the same orders.
+ */
+@Slf4j
+public class MatchingShard implements StageHandler<MatchingCommand> {
+
+    private static final long SNAPSHOT_QUIESCE_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long SNAPSHOT_QUIESCE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long SNAPSHOT_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int shardId;
+    private final PipelineStage<MatchOutput> persistenceStage;
+    private final SymbolScales symbolScales;
+    private final ShardJournal journal;  // null when journaling is disabled
+    private final PipelineStage<DepthUpdate> depthStage;  // null when market data is disabled
+    private final DepthListener depthPublisher = this::publishLevel;
+    private final Consumer<String> failureHandler;
+    private final Map<String, OrderBook> books = new HashMap<>();
+    private final List<OrderBook> depthChangedBooks = new ArrayList<>();
+    private boolean trackDepth;
+
+    // Highest Kafka offset applied per orders partition, and results of journal records
+    // replayed at startup, kept until their record is redelivered or the consumer moves past it
+    private final Map<Integer, Long> appliedOffsets = new HashMap<>();
+    private final Map<Integer, TreeMap<Long, List<MatchResult>>> recoveredResults = new HashMap<>();
+    // Consumer position per newly assigned partition: records below it were published by the
+    // partition's previous owner and are only applied to bring handed-off books up to date
+    private final Map<Integer, Long> rebuildUntil = new HashMap<>();
+    // Partitions whose handed-off books were dropped on recovery, as the journal does not hold them
+    private final Set<Integer> lostPartitions = new HashSet<>();
+
+    private final List<MatchOutput> outputs = new ArrayList<>();
+    private int batchSize;
+    private long sequence;
+    private volatile long publishedSequence;
+    private long nextSnapshotWaitNanos;
+    private boolean failed;
+
+    /**
+     * @param failureHandler told why, once, when the shard fails and stops applying commands
+     */
+    public MatchingShard(int shardId, PipelineStage<MatchOutput> persistenceStage, SymbolScales symbolScales,
+                         ShardJournal journal, PipelineStage<DepthUpdate> depthStage,
+                         Consumer<String> failureHandler) {
+        this.shardId = shardId;
+        this.persistenceStage = persistenceStage;
+        this.symbolScales = symbolScales;
+        this.journal = journal;
+        this.depthStage = depthStage;
+        this.failureHandler = failureHandler;
+    }
+
+    /**
+     * Rebuild books from the latest snapshot and the journal tail, then report their full depth.
+     * Must run before the shard's stage is started.
+     */
+    public void recover() {
+        if (journal != null) {
+            recoverFromJournal();
+        }
+        if (depthStage != null) {
+            trackDepth = true;
+            for (OrderBook book : books.values()) {
+                book.enableDepthTracking();
+                book.forEachLevel(depthPublisher);
+            }
+        }
+    }
+
+    private void recoverFromJournal() {
+        long start = System.nanoTime();
+        BookSnapshot snapshot = journal.loadSnapshot();
+        if (snapshot != null) {
+            snapshot.getBooks().forEach(book -> books.put(book.getSymbol(), book));
+            appliedOffsets.putAll(snapshot.getOffsets());
+            sequence = snapshot.getSequence();
+        }
+
+        // Books installed from a handoff after the snapshot are not in the journal, so a reset
+        // partition is left without state, to be handed over again on assignment
+        long snapshotSequence = sequence;
+        sequence = journal.replay(sequence, new ShardJournal.CommandHandler() {
+            @Override
+            public void onCommand(long recordSequence, int partition, long offset, BookOrder order) {
+                if (!lostPartitions.contains(partition)) {
+                    MatchResult result = bookFor(order.getSymbol()).submit(order);
+                    recovered(partition, offset, Collections.singletonList(result));
+                }
+            }
+
+            @Override
+            public void onPhaseChange(long recordSequence, int partition, long offset, String symbol,
+                                      TradingPhase phase) {
+                if (!lostPartitions.contains(partition)) {
+                    recovered(partition, offset, bookFor(symbol).setPhase(phase));
+                }
+            }
+
+            @Override
+            public void onPartitionReset(long recordSequence, int partition, long offset, List<String> symbols) {
+                symbols.forEach(books::remove);
+                appliedOffsets.remove(partition);
+                recoveredResults.remove(partition);
+                lostPartitions.add(partition);
+            }
+        });
+        publishedSequence = sequence;
+
+        int orderCount = books.values().stream().mapToInt(OrderBook::getOrderCount).sum();
+        log.info("Shard {} recovered {} books with {} resting orders from snapshot {} and {} journal records in {} ms",
+                shardId, books.size(), orderCount, snapshotSequence, sequence - snapshotSequence,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void recovered(int partition, long offset, List<MatchResult> results) {
+        appliedOffsets.merge(partition, offset, Math::max);
+        recoveredResults.computeIfAbsent(partition, p -> new TreeMap<>()).put(offset, results);
+    }
+
+    @Override
+    public void onEvent(MatchingCommand command, long ringSequence, boolean endOfBatch) {
+        try {
+            switch (command.getType()) {
+                case ORDER -> handleOrder(command);
+                case PHASE_CHANGE -> handlePhaseChange(command);
+                case PARTITIONS_ASSIGNED -> discardRecoveredBelow(command.getPositions());
+                case CHECKPOINT -> checkpoint(command.getTransfer());
+                case RELEASE -> release(command.getTransfer());
+                case INSTALL -> install(command.getTransfer());
+            }
+        } finally {
+            command.clear();
+        }
+
+        if (endOfBatch) {
+            flush();
+            snapshotIfDue(false);
+        }
+    }
+
+    @Override
+    public void onIdle() {
+        snapshotIfDue(true);
+    }
+
+    /**
+     * Called by the publishing stage once every output up to {@code journalSequence} is published
+     */
+    void markPublished(long journalSequence) {
+        publishedSequence = journalSequence;
+    }
+
+    /**
+     * Whether every output up to {@code journalSequence} has been published and acknowledged
+     */
+    public boolean isPublishedThrough(long journalSequence) {
+        return publishedSequence >= journalSequence;
+    }
+
+    public int getShardId() {
+        return shardId;
+    }
+
+    /**
+     * Snapshot on shutdown so the next start has no journal tail to replay.
+     * Must run after this shard and the downstream stages have stopped.
+     */
+    public void close() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            if (isQuiescent() && sequence > journal.getLastSnapshotSequence()) {
+                journal.snapshot(sequence, appliedOffsets, books.values());
+            }
+        } catch (IOException e) {
+            log.error("Shard {} failed to write shutdown snapshot: {}", shardId, e.getMessage(), e);
+        } finally {
+            journal.close();
+        }
+    }
+
+    private void handleOrder(MatchingCommand command) {
+        if (failed) {
+            return;
+        }
+        OrderCreatedEvent orderEvent = command.getOrderEvent();
+        MatchOutput output = nextOutput();
+        output.setOrderEvent(orderEvent);
+        output.setAcknowledgment(command.getAcknowledgment());
+        output.setPartition(command.getPartition());
+        output.setOffset(command.getOffset());
+        output.setEventTimestamp(orderEvent.getTimestamp());
+        output.setSentAtMicros(command.getSentAtMicros());
+        output.setReceivedAtMicros(command.getReceivedAtMicros());
+
+        if ("RISK_REJECTED".equals(orderEvent.getStatus())) {
+            log.info("Order {} already rejected by risk, skipping matching", orderEvent.getOrderId());
+            return;
+        }
+
+        int partition = command.getPartition();
+        boolean rebuilding = isRebuilding(partition, command.getOffset());
+        BookOrder order;
+        try {
+            order = BookOrderMapper.toBookOrder(orderEvent, symbolScales);
+        } catch (IllegalArgumentException | ArithmeticException | NullPointerException e) {
+            if (!rebuilding) {
+                output.setRejectReason("Invalid order: " + e.getMessage());
+            }
+            return;
+        }
+
+        if (command.getOffset() <= appliedOffsets.getOrDefault(partition, -1L)) {
+            // Applied before a restart; re-emit the recovered outcome if it may not have been published
+            List<MatchResult> recovered = takeRecoveredResults(partition, command.getOffset());
+            output.setResult(recovered == null ? null : recovered.get(0));
+            log.info("Shard {} skipping redelivered order {} at {}-{}",
+                    shardId, order.getOrderId(), partition, command.getOffset());
+            return;
+        }
+        discardRecovered(partition, command.getOffset());
+
+        OrderBook book = bookFor(order.getSymbol());
+        if (!book.isAccepted(order)) {
+            if (!rebuilding) {
+                output.setRejectReason("Only GTC limit orders are accepted during the auction");
+            }
+            return;
+        }
+
+        if (journal != null) {
+            try {
+                journal.append(sequence + 1, partition, command.getOffset(), order);
+            } catch (RuntimeException e) {
+                log.error("Shard {} failed to journal order {}: {}", shardId, order.getOrderId(), e.getMessage(), e);
+                fail(output, "shard " + shardId + " failed to journal order " + order.getOrderId()
+                        + " at " + partition + "-" + command.getOffset() + ": " + e.getMessage());
+                return;
+            }
+        }
+        sequence++;
+        appliedOffsets.put(partition, command.getOffset());
+
+        boolean depthAlreadyChanged = book.hasDepthChanges();
+        MatchResult result = book.submit(order);
+        if (!depthAlreadyChanged && book.hasDepthChanges()) {
+            depthChangedBooks.add(book);
+        }
+        // While rebuilding, the outcome was already published by the previous owner
+        output.setResult(rebuilding ? null : result);
+        if (command.getReceivedAtMicros() != 0) {
+            output.setMatchedAtMicros(LatencyHeaders.nowMicros());
+        }
+        log.debug("Shard {} matched order {}: fills={}, resting={}",
+                shardId, order.getOrderId(), result.getFills().size(), result.isResting());
+    }
+
+    /**
+     * Switch a book's phase, uncrossing it when it was in an auction. The whole uncross travels
+     * downstream as one output, acknowledging the command once its trades are stored and published.
+     */
+    private void handlePhaseChange(MatchingCommand command) {
+        if (failed) {
+            return;
+        }
+        TradingPhaseEvent phaseEvent = command.getPhaseEvent();
+        MatchOutput output = nextOutput();
+        output.setAcknowledgment(command.getAcknowledgment());
+        output.setPartition(command.getPartition());
+        output.setOffset(command.getOffset());
+        output.setEventTimestamp(phaseEvent.getTimestamp());
+
+        TradingPhase phase;
+        try {
+            phase = TradingPhase.valueOf(phaseEvent.getPhase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring unknown trading phase {} for {}", phaseEvent.getPhase(), phaseEvent.getSymbol());
+            return;
+        }
+
+        int partition = command.getPartition();
+        boolean rebuilding = isRebuilding(partition, command.getOffset());
+        if (command.getOffset() <= appliedOffsets.getOrDefault(partition, -1L)) {
+            output.setAuctionResults(takeRecoveredResults(partition, command.getOffset()));
+            log.info("Shard {} skipping redelivered phase change of {} at {}-{}",
+                    shardId, phaseEvent.getSymbol(), partition, command.getOffset());
+            return;
+        }
+        discardRecovered(partition, command.getOffset());
+
+        if (journal != null) {
+            try {
+                journal.appendPhaseChange(sequence + 1, partition, command.getOffset(), phaseEvent.getSymbol(), phase);
+            } catch (RuntimeException e) {
+                log.error("Shard {} failed to journal phase change of {}: {}",
+                        shardId, phaseEvent.getSymbol(), e.getMessage(), e);
+                fail(output, "shard " + shardId + " failed to journal phase change of " + phaseEvent.getSymbol()
+                        + " at " + partition + "-" + command.getOffset() + ": " + e.getMessage());
+                return;
+            }
+        }
+        sequence++;
+        appliedOffsets.put(partition, command.getOffset());
+
+        OrderBook book = bookFor(phaseEvent.getSymbol());
+        TradingPhase previous = book.getPhase();
+        boolean depthAlreadyChanged = book.hasDepthChanges();
+        long start = System.nanoTime();
+        List<MatchResult> results = book.setPhase(phase);
+        if (!depthAlreadyChanged && book.hasDepthChanges()) {
+            depthChangedBooks.add(book);
+        }
+        output.setAuctionResults(rebuilding ? null : results);
+        log.info("Shard {} switched {} from {} to {}, uncrossing {} buy orders in {} us",
+                shardId, book.getSymbol(), previous, phase, results.size(), (System.nanoTime() - start) / 1_000);
+    }
+
+    /**
+     * Encode this shard's books of the transfer's partitions. A partition this shard has applied
+     * past the last delivered offset, as while catching up after a rewind, is reported as ahead:
+     * its books would not line up with the other shards'.
+     */
+    private void checkpoint(BookTransfer transfer) {
+        Map<Integer, byte[]> encoded = new HashMap<>();
+        Map<Integer, Integer> bookCounts = new HashMap<>();
+        Map<Integer, Integer> orderCounts = new HashMap<>();
+        booksByPartition(transfer).forEach((partition, partitionBooks) -> {
+            encoded.put(partition, BookCodec.encodeBooks(partitionBooks));
+            bookCounts.put(partition, partitionBooks.size());
+            orderCounts.put(partition, partitionBooks.stream().mapToInt(OrderBook::getOrderCount).sum());
+        });
+        Set<Integer> ahead = new HashSet<>();
+        for (int partition : transfer.getPartitions()) {
+            Long applied = appliedOffsets.get(partition);
+            if (applied != null && applied > transfer.getOffsets().getOrDefault(partition, -1L)) {
+                ahead.add(partition);
+            }
+        }
+        transfer.complete(new BookTransfer.ShardPart(this, sequence, encoded, bookCounts, orderCounts, ahead,
+                Map.of()));
+    }
+
+    /**
+     * Drop the books of partitions another instance now owns. The journal still holds them,
+     * which is harmless: they are valid books as of their applied offset.
+     */
+    private void release(BookTransfer transfer) {
+        booksByPartition(transfer).values().forEach(partitionBooks -> partitionBooks.forEach(this::removeBook));
+        for (int partition : transfer.getPartitions()) {
+            appliedOffsets.remove(partition);
+            recoveredResults.remove(partition);
+            rebuildUntil.remove(partition);
+            lostPartitions.remove(partition);
+        }
+        transfer.complete(new BookTransfer.ShardPart(this, sequence, Map.of(), Map.of(), Map.of(), Set.of(),
+                Map.of()));
+    }
+
+    /**
+     * For each newly assigned partition keep whichever of the local and the handed-off books
+     * reflect the later offset. Books are a function of the partition's orders alone, so either
+     * is correct as of its offset; the caller rewinds the partition to the earliest of them.
+     */
+    private void install(BookTransfer transfer) {
+        Map<Integer, List<OrderBook>> localBooks = booksByPartition(transfer);
+        Map<Integer, Long> applied = new HashMap<>();
+        for (int partition : transfer.getPartitions()) {
+            BookTransfer.PartitionBooks handoff = transfer.getHandoffs().get(partition);
+            Long localOffset = appliedOffsets.get(partition);
+            if (handoff != null && (localOffset == null || handoff.getOffset() > localOffset)) {
+                installPartition(partition, handoff, localBooks.getOrDefault(partition, List.of()));
+            }
+            Long offset = appliedOffsets.get(partition);
+            if (offset != null) {
+                applied.put(partition, offset);
+            } else if (lostPartitions.contains(partition)) {
+                // Reset on recovery and not handed over again: rebuild from the start of the partition
+                applied.put(partition, -1L);
+            }
+            lostPartitions.remove(partition);
+            Long position = transfer.getOffsets().get(partition);
+            if (position != null) {
+                rebuildUntil.put(partition, position);
+            }
+        }
+        // Books of symbols whose partition changed since they were handed off; their old partition
+        // was drained before the routing changed
+        for (OrderBook book : transfer.getMoved().getOrDefault(shardId, List.of())) {
+            if (!books.containsKey(book.getSymbol())) {
+                addBook(book);
+            }
+        }
+        transfer.complete(new BookTransfer.ShardPart(this, sequence, Map.of(), Map.of(), Map.of(), Set.of(),
+                applied));
+    }
+
+    private void installPartition(int partition, BookTransfer.PartitionBooks handoff, List<OrderBook> replaced) {
+        if (journal != null) {
+            try {
+                journal.appendPartitionReset(sequence + 1, partition, handoff.getOffset(),
+                        replaced.stream().map(OrderBook::getSymbol).toList());
+            } catch (RuntimeException e) {
+                log.error("Shard {} failed to journal reset of partition {}, keeping its local books: {}",
+                        shardId, partition, e.getMessage(), e);
+                return;
+            }
+        }
+        sequence++;
+        // Carries the new sequence downstream, so snapshots wait for nothing
+        nextOutput();
+
+        replaced.forEach(this::removeBook);
+        recoveredResults.remove(partition);
+        List<OrderBook> installed = handoff.getBooks().getOrDefault(shardId, List.of());
+        installed.forEach(this::addBook);
+        appliedOffsets.put(partition, handoff.getOffset());
+        log.info("Shard {} installed {} handed-off books of partition {} at offset {}, replacing {} local books",
+                shardId, installed.size(), partition, handoff.getOffset(), replaced.size());
+    }
+
+    /**
+     * Drop the failed command's output, never acknowledging its record, and stop applying commands.
+     * The batch's earlier outputs still go downstream.
+     */
+    private void fail(MatchOutput output, String reason) {
+        batchSize--;
+        output.clear();
+        failed = true;
+        failureHandler.accept(reason);
+    }
+
+    /**
+     * Hand the batch's outputs downstream once its journal appends are durable
+     */
+    private void flush() {
+        if (journal != null && batchSize > 0) {
+            try {
+                journal.endOfBatch();
+            } catch (RuntimeException e) {
+                // The appends still sit in the page cache; holding back the outputs would only lose them
+                log.error("Shard {} failed to force journal: {}", shardId, e.getMessage(), e);
+            }
+        }
+        for (int i = 0; i < batchSize; i++) {
+            MatchOutput output = outputs.get(i);
+            output.setShard(this);
+            output.setJournalSequence(sequence);
+            persistenceStage.publish(MatchOutput::copyFrom, output);
+            output.clear();
+        }
+        batchSize = 0;
+
+        for (OrderBook book : depthChangedBooks) {
+            book.drainDepthChanges(depthPublisher);
+        }
+        depthChangedBooks.clear();
+    }
+
+    private void publishLevel(String symbol, OrderSide side, long price, long quantity, int orderCount) {
+        RingBuffer<DepthUpdate> ringBuffer = depthStage.getRingBuffer();
+        long sequence = ringBuffer.next();
+        try {
+            ringBuffer.get(sequence).set(symbol, side, price, quantity, orderCount);
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    /**
+     * Snapshot once enough commands were journaled and every output before the snapshot
+     * has been published, so recovery never needs results from before it.
+     * Between batches the shard only waits briefly for the downstream stages to drain when
+     * idle or when the snapshot is overdue, and backs off if they do not.
+     */
+    private void snapshotIfDue(boolean idle) {
+        if (journal == null || !journal.isSnapshotDue(sequence)) {
+            return;
+        }
+        if (!isQuiescent()) {
+            boolean overdue = journal.isSnapshotDue(sequence - journal.getSnapshotInterval());
+            long now = System.nanoTime();
+            if (!(idle || overdue) || now < nextSnapshotWaitNanos) {
+                return;
+            }
+            long deadline = now + SNAPSHOT_QUIESCE_TIMEOUT_NANOS;
+            while (!isQuiescent()) {
+                if (System.nanoTime() > deadline) {
+                    log.debug("Shard {} snapshot deferred, outputs still in flight", shardId);
+                    nextSnapshotWaitNanos = System.nanoTime() + SNAPSHOT_RETRY_NANOS;
+                    return;
+                }
+                LockSupport.parkNanos(SNAPSHOT_QUIESCE_PARK_NANOS);
+            }
+        }
+        try {
+            journal.snapshot(sequence, appliedOffsets, books.values());
+        } catch (IOException | RuntimeException e) {
+            log.error("Shard {} failed to write snapshot at sequence {}: {}", shardId, sequence, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Whether the record is below the position its partition was assigned at
+     */
+    private boolean isRebuilding(int partition, long offset) {
+        if (rebuildUntil.isEmpty()) {
+            return false;
+        }
+        Long until = rebuildUntil.get(partition);
+        if (until == null) {
+            return false;
+        }
+        if (offset < until) {
+            return true;
+        }
+        rebuildUntil.remove(partition);
+        return false;
+    }
+
+    private Map<Integer, List<OrderBook>> booksByPartition(BookTransfer transfer) {
+        Map<Integer, List<OrderBook>> byPartition = new HashMap<>();
+        for (OrderBook book : books.values()) {
+            int partition = transfer.getRouter().partitionFor(book.getSymbol());
+            if (transfer.getPartitions().contains(partition)) {
+                byPartition.computeIfAbsent(partition, p -> new ArrayList<>()).add(book);
+            }
+        }
+        return byPartition;
+    }
+
+    private void addBook(OrderBook book) {
+        books.put(book.getSymbol(), book);
+        if (trackDepth) {
+            book.enableDepthTracking();
+            book.forEachLevel(depthPublisher);
+        }
+    }
+
+    /**
+     * Remove a book, reporting its levels as emptied
+     */
+    private void removeBook(OrderBook book) {
+        books.remove(book.getSymbol());
+        depthChangedBooks.remove(book);
+        if (trackDepth) {
+            book.forEachLevel((symbol, side, price, quantity, orderCount) -> publishLevel(symbol, side, price, 0, 0));
+        }
+    }
+
+    private boolean isQuiescent() {
+        return publishedSequence >= sequence && recoveredResults.isEmpty();
+    }
+
+    private List<MatchResult> takeRecoveredResults(int partition, long offset) {
+        TreeMap<Long, List<MatchResult>> results = recoveredResults.get(partition);
+        if (results == null) {
+            return null;
+        }
+        List<MatchResult> result = results.remove(offset);
+        discardRecovered(partition, offset);
+        return result;
+    }
+
+    /**
+     * Records of a partition arrive in offset order, so results below the current offset
+     * will never be asked for again
+     */
+    private void discardRecovered(int partition, long offset) {
+        TreeMap<Long, List<MatchResult>> results = recoveredResults.get(partition);
+        if (results != null) {
+            results.headMap(offset).clear();
+            if (results.isEmpty()) {
+                recoveredResults.remove(partition);
+            }
+        }
+    }
+
+    /**
+     * Offsets below the consumer's position were committed, so their outputs were published
+     */
+    private void discardRecoveredBelow(Map<Integer, Long> positions) {
+        positions.forEach(this::discardRecovered);
+    }
+
+    private MatchOutput nextOutput() {
+        if (batchSize == outputs.size()) {
+            outputs.add(new MatchOutput());
+        }
+        return outputs.get(batchSize++);
+    }
+
+    private OrderBook bookFor(String symbol) {
+        OrderBook book = books.get(symbol);
+        if (book == null) {
+            book = new OrderBook(symbol);
+            if (trackDepth) {
+                book.enableDepthTracking();
+            }
+            books.put(symbol, book);
+        }
+        return book;
+    }
+}
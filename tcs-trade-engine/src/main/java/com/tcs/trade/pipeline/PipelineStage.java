@@ -0,0 +1,138 @@
+package com.tcs.trade.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A single-threaded processing stage fed by its own ring buffer.
+ * Everything the handler touches is confined to the stage thread, so it needs no locking.
+ *
+ * An exception from the handler fails the stage: the event and every later one are released
+ * without being handled, so nothing downstream acknowledges past the failed event, and the
+ * failure handler is told once. Carrying on would let later records be acknowledged and the
+ * failed one be skipped when redelivered.
+ */
+@Slf4j
+public class PipelineStage<E> {
+
+    private static final int SPIN_TRIES = 200;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long STOP_TIMEOUT_MILLIS = 30_000;
+
+    private final String name;
+    private final RingBuffer<E> ringBuffer;
+    private final StageHandler<E> handler;
+    private final Consumer<String> failureHandler;
+    private final Thread thread;
+    private volatile boolean running;
+    private boolean failed;   // stage thread only
+
+    /**
+     * @param failureHandler told why, once, when the handler throws and the stage stops handling events
+     */
+    public PipelineStage(String name, int bufferSize, Supplier<E> slotFactory, StageHandler<E> handler,
+                         Consumer<String> failureHandler) {
+        this.name = name;
+        this.ringBuffer = new RingBuffer<>(bufferSize, slotFactory);
+        this.handler = handler;
+        this.failureHandler = failureHandler;
+        this.thread = new Thread(this::run, name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RingBuffer<E> getRingBuffer() {
+        return ringBuffer;
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+        log.info("Pipeline stage {} started with buffer size {}", name, ringBuffer.getSize());
+    }
+
+    /**
+     * Stop the stage after draining everything already published
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Pipeline stage {} stopped", name);
+    }
+
+    /**
+     * Fill the next free slot in place and hand it to the stage
+     */
+    public <A> void publish(BiConsumer<E, A> translator, A arg) {
+        long sequence = ringBuffer.next();
+        try {
+            translator.accept(ringBuffer.get(sequence), arg);
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    private void run() {
+        long nextSequence = 0;
+        int idleCount = 0;
+
+        while (true) {
+            long available = ringBuffer.highestPublished(nextSequence);
+            if (available >= nextSequence) {
+                for (long sequence = nextSequence; sequence <= available && !failed; sequence++) {
+                    try {
+                        handler.onEvent(ringBuffer.get(sequence), sequence, sequence == available);
+                    } catch (Exception e) {
+                        log.error("Stage {} failed to process sequence {}: {}", name, sequence, e.getMessage(), e);
+                        fail("stage " + name + " failed to process sequence " + sequence + ": " + e.getMessage());
+                    }
+                }
+                ringBuffer.release(available);
+                nextSequence = available + 1;
+                idleCount = 0;
+                continue;
+            }
+
+            if (!running) {
+                break;
+            }
+
+            if (++idleCount < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                if (!failed) {
+                    try {
+                        handler.onIdle();
+                    } catch (Exception e) {
+                        log.error("Stage {} failed while idle: {}", name, e.getMessage(), e);
+                        fail("stage " + name + " failed while idle: " + e.getMessage());
+                    }
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+
+        try {
+            handler.onShutdown();
+        } catch (Exception e) {
+            log.error("Stage {} failed to shut down: {}", name, e.getMessage(), e);
+        }
+    }
+
+    private void fail(String reason) {
+        failed = true;
+        failureHandler.accept(reason);
+    }
+}
@@ -0,0 +1,91 @@
+package com.tcs.trade.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Bounded multi-producer / single-consumer ring of preallocated, reusable slots.
+ *
+ * Producers claim a sequence, fill the slot in place and publish it. The consumer reads
+ * published slots in sequence order and releases them in bulk once processed. A producer
+ * that laps the consumer parks until space frees up, which pushes backpressure to the caller.
+ */
+public final class RingBuffer<E> {
+
+    private static final long PRODUCER_PARK_NANOS = 1_000;
+
+    private final Object[] entries;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private volatile long consumed = -1;
+
+    public RingBuffer(int size, Supplier<E> factory) {
+        if (size <= 0 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Ring buffer size must be a power of two: " + size);
+        }
+        this.entries = new Object[size];
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            entries[i] = factory.get();
+            published.set(i, -1);
+        }
+    }
+
+    public int getSize() {
+        return entries.length;
+    }
+
+    /**
+     * Claim the next sequence, parking while the ring is full
+     */
+    public long next() {
+        long sequence = claimed.incrementAndGet();
+        long wrapPoint = sequence - entries.length;
+        while (wrapPoint > consumed) {
+            LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+        }
+        return sequence;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) entries[(int) sequence & mask];
+    }
+
+    /**
+     * Make a claimed slot visible to the consumer
+     */
+    public void publish(long sequence) {
+        published.lazySet((int) sequence & mask, sequence);
+    }
+
+    /**
+     * Highest contiguously published sequence starting at {@code from}, or {@code from - 1} if none
+     */
+    long highestPublished(long from) {
+        long limit = consumed + entries.length;
+        long sequence = from;
+        while (sequence <= limit && published.get((int) sequence & mask) == sequence) {
+            sequence++;
+        }
+        return sequence - 1;
+    }
+
+    /**
+     * Hand slots up to and including {@code sequence} back to producers
+     */
+    void release(long sequence) {
+        consumed = sequence;
+    }
+
+    /**
+     * Number of claimed slots not yet released by the consumer
+     */
+    public long getBacklog() {
+        return claimed.get() - consumed;
+    }
+}
@@ -0,0 +1,24 @@
+package com.tcs.trade.pipeline;
+
+/**
+ * Callback run on a pipeline stage's own thread.
+ *
+ * Slots handed to {@link #onEvent} stay valid until the call with {@code endOfBatch = true}
+ * returns, so handlers may keep references to them to group work across a batch.
+ */
+public interface StageHandler<E> {
+
+    void onEvent(E event, long sequence, boolean endOfBatch) throws Exception;
+
+    /**
+     * Called when the stage has nothing to process, before it parks
+     */
+    default void onIdle() throws Exception {
+    }
+
+    /**
+     * Called once the stage has drained on stop, before its thread exits
+     */
+    default void onShutdown() throws Exception {
+    }
+}
@@ -0,0 +1,74 @@
+package com.tcs.trade.pipeline;
+
+import com.tcs.common.numeric.FixedPoint;
+import com.tcs.trade.domain.entity.TradeEntity;
+import com.tcs.trade.matching.BookOrder;
+import com.tcs.trade.matching.Fill;
+import com.tcs.trade.matching.MatchResult;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns the fills of a match into trade records, maker first then taker for each fill.
+ *
+ * Trades are a function of the inbound record that caused the match: IDs come from its orders
+ * partition and offset and the trade's position among the record's trades, and the execution
+ * time is the record's event time. Results re-emitted for a redelivered record, by this instance
+ * after a restart or by the partition's next owner, give the same trades, which the store skips.
+ */
+public class TradeFactory {
+
+    /**
+     * @param firstTrade position of the result's first trade among the record's trades, for
+     *                   records with several results such as an auction uncross
+     */
+    public List<TradeEntity> toTrades(MatchResult result, int partition, long offset, int firstTrade,
+                                      Instant executedAt) {
+        List<TradeEntity> trades = new ArrayList<>(result.getFills().size() * 2);
+        int index = firstTrade;
+        for (Fill fill : result.getFills()) {
+            trades.add(toTrade(fill.getMaker(), fill, tradeId(partition, offset, index++), executedAt));
+            trades.add(toTrade(result.getOrder(), fill, tradeId(partition, offset, index++), executedAt));
+        }
+        return trades;
+    }
+
+    /**
+     * ID of the {@code index}-th trade caused by the record at {@code partition}-{@code offset}
+     * of the orders topic, e.g. TRD-3-1048576-0
+     */
+    public static String tradeId(int partition, long offset, int index) {
+        return "TRD-" + partition + "-" + offset + "-" + index;
+    }
+
+    /**
+     * Amount of a fill at {@link FixedPoint#AMOUNT_SCALE}, the scale of trades.total_amount:
+     * price times quantity at the price scale, rounded half-up. Shared by the stored trade and
+     * its event so both carry the same value.
+     */
+    public static long totalAmount(BookOrder order, Fill fill) {
+        long amount = FixedPoint.multiply(fill.getPrice(), fill.getQuantity(), order.getQuantityScale());
+        return FixedPoint.round(amount, order.getPriceScale(), FixedPoint.AMOUNT_SCALE);
+    }
+
+    private TradeEntity toTrade(BookOrder order, Fill fill, String tradeId, Instant executedAt) {
+        int priceScale = order.getPriceScale();
+        int quantityScale = order.getQuantityScale();
+
+        // Storage edge: the only place fills become BigDecimal
+        return TradeEntity.builder()
+                .tradeId(tradeId)
+                .orderId(order.getOrderId())
+                .userId(order.getUserId())
+                .symbol(order.getSymbol())
+                .side(order.getSide().name())
+                .quantity(FixedPoint.toBigDecimal(fill.getQuantity(), quantityScale))
+                .price(FixedPoint.toBigDecimal(fill.getPrice(), priceScale))
+                .totalAmount(FixedPoint.toBigDecimal(totalAmount(order, fill), FixedPoint.AMOUNT_SCALE))
+                .traceId(order.getTraceId())
+                .executedAt(executedAt)
+                .build();
+    }
+}
@@ -0,0 +1,208 @@
+package com.tcs.trade.pipeline;
+
+import com.tcs.trade.domain.entity.TradeEntity;
+import com.tcs.trade.domain.repository.TradeBatchWriter;
+import com.tcs.trade.matching.MatchResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Persistence stage: write-behind store for executed trades.
+ *
+ * Turns fills into trade records and group-commits them once enough trades are pending or
+ * the oldest has waited the commit interval. Outputs are handed on for publishing, and so
+ * acknowledged, only after the commit that covers them; a crash before that leaves their
+ * offsets uncommitted. The stage's ring buffer is the bounded queue: when the store falls
+ * behind, matching shards block on it.
+ *
+ * A failed group commit is retried with exponential backoff, holding up the stage. If every
+ * attempt fails the stage fails: it keeps the unwritten trades and every later output, forwards
+ * nothing more, and consumption is halted, so the records are redelivered to the partitions'
+ * next owner. Trades are derived from their records, so it writes the same trades again.
+ */
+@Slf4j
+public class TradePersistenceHandler implements StageHandler<MatchOutput> {
+
+    private final TradeBatchWriter tradeWriter;
+    private final TradeFactory tradeFactory;
+    private final PipelineStage<MatchOutput> publishStage;
+    private final int commitSize;
+    private final long commitIntervalNanos;
+    private final int commitAttempts;
+    private final long retryBackoffMillis;
+    private final Consumer<String> failureHandler;
+    private final Timer commitTimer;
+    private final Counter tradeCounter;
+
+    // Outputs waiting for the next commit, copied out of the ring so it can move on
+    private final List<MatchOutput> pending = new ArrayList<>();
+    private final List<TradeEntity> pendingTrades = new ArrayList<>();
+    private volatile int pendingCount;
+    private int pendingSize;
+    private long firstPendingNanos;
+    private boolean failed;
+
+    /**
+     * @param commitAttempts     attempts at a group commit before the stage fails
+     * @param retryBackoffMillis wait before the first retry, doubled for each further one
+     * @param failureHandler     told why, once, when the stage fails
+     */
+    public TradePersistenceHandler(TradeBatchWriter tradeWriter, TradeFactory tradeFactory,
+                                   PipelineStage<MatchOutput> publishStage, int commitSize,
+                                   long commitIntervalMillis, int commitAttempts, long retryBackoffMillis,
+                                   Consumer<String> failureHandler, MeterRegistry meterRegistry,
+                                   Supplier<Number> queueDepth) {
+        this.tradeWriter = tradeWriter;
+        this.tradeFactory = tradeFactory;
+        this.publishStage = publishStage;
+        this.commitSize = commitSize;
+        this.commitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(commitIntervalMillis);
+        this.commitAttempts = commitAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.failureHandler = failureHandler;
+        this.commitTimer = Timer.builder("tcs.trade.store.commit")
+                .description("Latency of one trade group commit")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        this.tradeCounter = Counter.builder("tcs.trade.store.trades")
+                .description("Trades committed")
+                .register(meterRegistry);
+        Gauge.builder("tcs.trade.store.queue.depth", () -> queueDepth.get().longValue() + pendingCount)
+                .description("Outputs queued for or awaiting a trade commit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onEvent(MatchOutput output, long sequence, boolean endOfBatch) {
+        List<TradeEntity> trades = toTrades(output);
+        if (!trades.isEmpty()) {
+            output.setTrades(trades);
+            if (pendingTrades.isEmpty()) {
+                firstPendingNanos = System.nanoTime();
+            }
+            pendingTrades.addAll(trades);
+        } else {
+            output.setTrades(Collections.emptyList());
+        }
+        addPending(output);
+        output.clear();
+
+        if (failed) {
+            return;
+        }
+        if (pendingTrades.size() >= commitSize) {
+            commit();
+        } else if (endOfBatch) {
+            commitIfDue();
+        }
+    }
+
+    @Override
+    public void onIdle() {
+        commitIfDue();
+    }
+
+    @Override
+    public void onShutdown() {
+        if (failed) {
+            log.warn("Leaving {} unwritten trades for {} orders to be redelivered",
+                    pendingTrades.size(), pendingSize);
+        } else if (pendingSize > 0) {
+            commit();
+        }
+    }
+
+    private List<TradeEntity> toTrades(MatchOutput output) {
+        Instant executedAt = Instant.ofEpochMilli(output.getEventTimestamp());
+        MatchResult result = output.getResult();
+        if (result != null && !result.getFills().isEmpty()) {
+            return tradeFactory.toTrades(result, output.getPartition(), output.getOffset(), 0, executedAt);
+        }
+        if (output.getAuctionResults() != null && !output.getAuctionResults().isEmpty()) {
+            List<TradeEntity> trades = new ArrayList<>();
+            for (MatchResult auctionResult : output.getAuctionResults()) {
+                trades.addAll(tradeFactory.toTrades(auctionResult, output.getPartition(), output.getOffset(),
+                        trades.size(), executedAt));
+            }
+            return trades;
+        }
+        return Collections.emptyList();
+    }
+
+    private void commitIfDue() {
+        // Outputs without trades need no commit, but may not overtake earlier ones
+        if (!failed && pendingSize > 0
+                && (pendingTrades.isEmpty() || System.nanoTime() - firstPendingNanos >= commitIntervalNanos)) {
+            commit();
+        }
+    }
+
+    private void commit() {
+        if (!pendingTrades.isEmpty() && !write()) {
+            failed = true;
+            failureHandler.accept("failed to store " + pendingTrades.size() + " trades after "
+                    + commitAttempts + " attempts");
+            return;
+        }
+        for (int i = 0; i < pendingSize; i++) {
+            publishStage.publish(MatchOutput::copyFrom, pending.get(i));
+            pending.get(i).clear();
+        }
+        pendingSize = 0;
+        pendingCount = 0;
+        pendingTrades.clear();
+    }
+
+    /**
+     * Write the pending trades, retrying with exponential backoff
+     *
+     * @return false once every attempt has failed
+     */
+    private boolean write() {
+        long backoffMillis = retryBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                long start = System.nanoTime();
+                tradeWriter.writeBatch(pendingTrades);
+                commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                tradeCounter.increment(pendingTrades.size());
+                log.debug("Committed {} trades for {} orders", pendingTrades.size(), pendingSize);
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= commitAttempts) {
+                    log.error("Failed to commit {} trades for {} orders after {} attempts: {}",
+                            pendingTrades.size(), pendingSize, attempt, e.getMessage(), e);
+                    return false;
+                }
+                log.warn("Failed to commit {} trades for {} orders, retrying in {} ms: {}",
+                        pendingTrades.size(), pendingSize, backoffMillis, e.getMessage());
+            }
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            backoffMillis *= 2;
+        }
+    }
+
+    private void addPending(MatchOutput output) {
+        if (pendingSize == pending.size()) {
+            pending.add(new MatchOutput());
+        }
+        pending.get(pendingSize++).copyFrom(output);
+        pendingCount = pendingSize;
+    }
+}
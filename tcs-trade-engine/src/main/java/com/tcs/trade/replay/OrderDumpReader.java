@@ -0,0 +1,148 @@
+package com.tcs.trade.replay;
+
+import com.tcs.common.enums.OrderStatus;
+import com.tcs.common.events.avro.OrderCreatedEvent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads an export of the order service's orders table in Postgres CSV format with a header:
+ * <pre>
+ * \copy (SELECT * FROM orders ORDER BY created_at, id) TO 'orders.csv' WITH (FORMAT csv, HEADER)
+ * </pre>
+ * Rows are replayed in file order. Orders rejected by risk never reached the engine and are
+ * skipped; the rest are replayed as the PENDING event the order service published.
+ */
+final class OrderDumpReader {
+
+    // Postgres timestamptz text output, e.g. 2024-03-01 09:30:00.123456+00
+    private static final DateTimeFormatter TIMESTAMP = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .appendLiteral(' ')
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .parseLenient()
+            .appendOffset("+HH:mm", "Z")
+            .toFormatter();
+
+    private OrderDumpReader() {
+    }
+
+    static List<OrderCreatedEvent> read(Path file) throws IOException {
+        List<OrderCreatedEvent> orders = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> header = readRecord(reader);
+            if (header == null) {
+                return orders;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i), i);
+            }
+
+            List<String> row;
+            while ((row = readRecord(reader)) != null) {
+                Row values = new Row(columns, row);
+                if (OrderStatus.RISK_REJECTED.name().equals(values.get("status"))) {
+                    continue;
+                }
+                orders.add(OrderCreatedEvent.newBuilder()
+                        .setOrderId(values.required("order_id"))
+                        .setClientOrderId(values.get("client_order_id"))
+                        .setUserId(values.required("user_id"))
+                        .setAccountId(values.required("account_id"))
+                        .setSymbol(values.required("symbol"))
+                        .setSide(values.required("side"))
+                        .setType(values.required("type"))
+                        .setQuantity(values.required("quantity"))
+                        .setPrice(values.get("price"))
+                        .setTimeInForce(values.required("time_in_force"))
+                        .setStatus(OrderStatus.PENDING.name())
+                        .setTimestamp(OffsetDateTime.parse(values.required("created_at"), TIMESTAMP)
+                                .toInstant().toEpochMilli())
+                        .setTraceId(values.get("trace_id"))
+                        .build());
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * One CSV record; quoted fields may contain commas, doubled quotes and line breaks.
+     * An empty unquoted field is NULL.
+     */
+    private static List<String> readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("Unterminated quoted field");
+                }
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.isEmpty() && !wasQuoted ? null : field.toString());
+                field.setLength(0);
+                wasQuoted = false;
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.isEmpty() && !wasQuoted ? null : field.toString());
+        return fields;
+    }
+
+    private record Row(Map<String, Integer> columns, List<String> values) {
+
+        String get(String column) {
+            Integer index = columns.get(column);
+            return index == null || index >= values.size() ? null : values.get(index);
+        }
+
+        String required(String column) {
+            String value = get(column);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing " + column + " in row " + values);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.tcs.trade.replay;
+
+import com.tcs.common.constants.KafkaTopics;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Copies the orders topic, from the beginning up to its end offsets at start, into a file
+ * for {@link ReplayRunner}. Reads committed records only and commits no offsets.
+ *
+ * Usage: {@code OrderTopicCapture --bootstrap-servers=localhost:9092 --output=orders.bin [--topic=orders]}
+ */
+public final class OrderTopicCapture {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private OrderTopicCapture() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        ReplayOptions options = ReplayOptions.parse(args);
+        String topic = options.get("topic", KafkaTopics.ORDERS);
+        Path output = Path.of(options.required("output"));
+
+        Properties properties = new Properties();
+        properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, options.required("bootstrap-servers"));
+        properties.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000);
+
+        long count = 0;
+        try (KafkaConsumer<byte[], byte[]> consumer =
+                     new KafkaConsumer<>(properties, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output), 1 << 16))) {
+            List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+                    .map(PartitionInfo::partition)
+                    .map(partition -> new TopicPartition(topic, partition))
+                    .toList();
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            while (!reachedEnd(consumer, endOffsets)) {
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    if (record.offset() < endOffsets.get(new TopicPartition(record.topic(), record.partition()))
+                            && record.value() != null) {
+                        OrderTopicFile.write(out, record.value());
+                        count++;
+                    }
+                }
+            }
+        }
+        System.out.printf("Captured %d records from %s to %s%n", count, topic, output);
+    }
+
+    private static boolean reachedEnd(KafkaConsumer<?, ?> consumer, Map<TopicPartition, Long> endOffsets) {
+        for (Map.Entry<TopicPartition, Long> end : endOffsets.entrySet()) {
+            if (consumer.position(end.getKey()) < end.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
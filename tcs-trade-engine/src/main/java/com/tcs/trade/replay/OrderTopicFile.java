@@ -0,0 +1,50 @@
+package com.tcs.trade.replay;
+
+import com.tcs.common.constants.KafkaTopics;
+import com.tcs.common.serde.AvroDeserializer;
+import org.apache.avro.specific.SpecificRecord;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Captured orders topic: the raw Kafka record values, each prefixed by its length as a
+ * big-endian int, in the order they were consumed: orders and the trading phase changes
+ * sequenced with them. Written by {@link OrderTopicCapture}.
+ */
+final class OrderTopicFile {
+
+    private OrderTopicFile() {
+    }
+
+    static void write(DataOutputStream out, byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    static List<SpecificRecord> read(Path file) throws IOException {
+        List<SpecificRecord> records = new ArrayList<>();
+        try (AvroDeserializer<SpecificRecord> deserializer = new AvroDeserializer<>();
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                byte[] value = new byte[length];
+                in.readFully(value);
+                records.add(deserializer.deserialize(KafkaTopics.ORDERS, value));
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,151 @@
+package com.tcs.trade.replay;
+
+import com.tcs.common.enums.TradingPhase;
+import com.tcs.common.events.avro.OrderCreatedEvent;
+import com.tcs.common.events.avro.TradingPhaseEvent;
+import com.tcs.common.numeric.FixedPoint;
+import com.tcs.common.numeric.SymbolScales;
+import com.tcs.trade.domain.entity.TradeEntity;
+import com.tcs.trade.matching.BookOrder;
+import com.tcs.trade.matching.MatchResult;
+import com.tcs.trade.matching.OrderBook;
+import com.tcs.trade.pipeline.BookOrderMapper;
+import com.tcs.trade.pipeline.TradeFactory;
+import lombok.Getter;
+import org.apache.avro.specific.SpecificRecord;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Single-threaded matching of a recorded order stream through the production order books.
+ *
+ * Orders are mapped and matched exactly as by a matching shard, and trades built by the same
+ * factory as the persistence stage. Trades carry the recorded time of the order or phase change
+ * being applied, and IDs from its position in the stream, as partition 0, so the same input
+ * always gives the same trades.
+ * Trading phase changes recorded on the orders topic are applied in sequence, as by a shard.
+ */
+class ReplayEngine {
+
+    private final SymbolScales symbolScales;
+    private final TradeFactory tradeFactory = new TradeFactory();
+    private final Map<String, OrderBook> books = new HashMap<>();
+    private final Consumer<TradeEntity> tradeSink;
+
+    @Getter
+    private long orders;
+    @Getter
+    private long rejected;
+    @Getter
+    private long trades;
+    @Getter
+    private long matchingNanos;  // mapping and matching only, without building trades
+    private long position = -1;  // of the record being applied
+
+    ReplayEngine(SymbolScales symbolScales, Consumer<TradeEntity> tradeSink) {
+        this.symbolScales = symbolScales;
+        this.tradeSink = tradeSink;
+    }
+
+    void submit(SpecificRecord record) {
+        position++;
+        if (record instanceof TradingPhaseEvent phaseEvent) {
+            changePhase(phaseEvent);
+        } else {
+            submit((OrderCreatedEvent) record);
+        }
+    }
+
+    private void submit(OrderCreatedEvent orderEvent) {
+        orders++;
+        long start = System.nanoTime();
+        BookOrder order;
+        try {
+            order = BookOrderMapper.toBookOrder(orderEvent, symbolScales);
+        } catch (IllegalArgumentException | ArithmeticException | NullPointerException e) {
+            rejected++;
+            return;
+        }
+        OrderBook book = books.computeIfAbsent(order.getSymbol(), OrderBook::new);
+        if (!book.isAccepted(order)) {
+            rejected++;
+            return;
+        }
+        MatchResult result = book.submit(order);
+        matchingNanos += System.nanoTime() - start;
+
+        if (!result.getFills().isEmpty()) {
+            emitTrades(result, 0, Instant.ofEpochMilli(orderEvent.getTimestamp()));
+        }
+    }
+
+    private void changePhase(TradingPhaseEvent phaseEvent) {
+        TradingPhase phase;
+        try {
+            phase = TradingPhase.valueOf(phaseEvent.getPhase());
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<MatchResult> results = books.computeIfAbsent(phaseEvent.getSymbol(), OrderBook::new).setPhase(phase);
+        matchingNanos += System.nanoTime() - start;
+
+        Instant executedAt = Instant.ofEpochMilli(phaseEvent.getTimestamp());
+        int firstTrade = 0;
+        for (MatchResult result : results) {
+            firstTrade += emitTrades(result, firstTrade, executedAt);
+        }
+    }
+
+    /**
+     * @return the number of trades emitted
+     */
+    private int emitTrades(MatchResult result, int firstTrade, Instant executedAt) {
+        List<TradeEntity> matchTrades = tradeFactory.toTrades(result, 0, position, firstTrade, executedAt);
+        trades += matchTrades.size();
+        matchTrades.forEach(tradeSink);
+        return matchTrades.size();
+    }
+
+    int getBookCount() {
+        return books.size();
+    }
+
+    long getRestingOrderCount() {
+        return books.values().stream().mapToLong(OrderBook::getOrderCount).sum();
+    }
+
+    /**
+     * Resting orders as CSV, by symbol, then in book priority order
+     */
+    void writeBooks(Writer out) throws IOException {
+        out.write("symbol,side,price,order_id,user_id,quantity,remaining_quantity,filled_quantity\n");
+        StringBuilder row = new StringBuilder(128);
+        for (OrderBook book : new TreeMap<>(books).values()) {
+            book.forEachRestingOrder(order -> {
+                row.setLength(0);
+                row.append(order.getSymbol()).append(',')
+                        .append(order.getSide()).append(',')
+                        .append(FixedPoint.format(order.getPrice(), order.getPriceScale())).append(',')
+                        .append(order.getOrderId()).append(',')
+                        .append(order.getUserId()).append(',')
+                        .append(FixedPoint.format(order.getQuantity(), order.getQuantityScale())).append(',')
+                        .append(FixedPoint.format(order.getRemainingQuantity(), order.getQuantityScale())).append(',')
+                        .append(FixedPoint.format(order.getFilledQuantity(), order.getQuantityScale())).append('\n');
+                try {
+                    out.append(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
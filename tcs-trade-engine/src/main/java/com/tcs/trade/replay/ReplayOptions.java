@@ -0,0 +1,53 @@
+package com.tcs.trade.replay;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code --name=value} command line options of the replay tools
+ */
+final class ReplayOptions {
+
+    private final Map<String, String> values;
+
+    private ReplayOptions(Map<String, String> values) {
+        this.values = values;
+    }
+
+    static ReplayOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new ReplayOptions(values);
+    }
+
+    String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    String required(String name) {
+        String value = values.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing --" + name + "=...");
+        }
+        return value;
+    }
+
+    /**
+     * Values of options named {@code prefix.<key>}, by key
+     */
+    Map<String, Integer> intsWithPrefix(String prefix) {
+        Map<String, Integer> result = new HashMap<>();
+        values.forEach((name, value) -> {
+            if (name.startsWith(prefix + ".")) {
+                result.put(name.substring(prefix.length() + 1), Integer.parseInt(value));
+            }
+        });
+        return result;
+    }
+}
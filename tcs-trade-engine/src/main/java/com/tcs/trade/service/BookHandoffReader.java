@@ -0,0 +1,74 @@
+package com.tcs.trade.service;
+
+import com.tcs.common.constants.KafkaTopics;
+import com.tcs.common.events.avro.BookHandoffEvent;
+import com.tcs.trade.config.BookHandoffProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the latest book checkpoint of every orders partition from the handoff topic
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookHandoffReader {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(200);
+
+    private final ConsumerFactory<Object, Object> consumerFactory;
+    private final BookHandoffProperties handoffProperties;
+
+    public List<BookHandoffEvent> readLatest() {
+        long start = System.nanoTime();
+        Map<Integer, BookHandoffEvent> latest = new HashMap<>();
+        try (Consumer<Object, Object> consumer = consumerFactory.createConsumer(null, "-book-handoff")) {
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(KafkaTopics.BOOK_HANDOFF);
+            if (partitionInfos == null || partitionInfos.isEmpty()) {
+                return List.of();
+            }
+            List<TopicPartition> partitions = partitionInfos.stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            long deadline = System.currentTimeMillis() + handoffProperties.getTimeoutMs();
+            while (!caughtUp(consumer, endOffsets)) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("Timed out reading " + KafkaTopics.BOOK_HANDOFF);
+                }
+                for (ConsumerRecord<Object, Object> record : consumer.poll(POLL_TIMEOUT)) {
+                    if (record.value() instanceof BookHandoffEvent event) {
+                        latest.put(event.getPartition(), event);
+                    }
+                }
+            }
+        }
+        log.info("Read book checkpoints of {} partitions in {} ms",
+                latest.size(), (System.nanoTime() - start) / 1_000_000);
+        return new ArrayList<>(latest.values());
+    }
+
+    private static boolean caughtUp(Consumer<?, ?> consumer, Map<TopicPartition, Long> endOffsets) {
+        for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+            if (consumer.position(entry.getKey()) < entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,143 +1,507 @@
 package com.tcs.trade.service;
 
-import com.tcs.common.util.IdGenerator;
-import com.tcs.trade.domain.entity.TradeEntity;
-import com.tcs.trade.domain.repository.TradeRepository;
-import com.tcs.trade.dto.OrderCreatedEvent;
-import com.tcs.trade.dto.OrderUpdatedEvent;
-import com.tcs.trade.dto.TradeExecutedEvent;
+import com.tcs.common.events.avro.BookHandoffEvent;
+import com.tcs.common.events.avro.OrderCreatedEvent;
+import com.tcs.common.events.avro.TradingPhaseEvent;
+import com.tcs.common.numeric.SymbolScales;
+import com.tcs.common.routing.SymbolRouter;
+import com.tcs.trade.config.BookHandoffProperties;
+import com.tcs.trade.config.JournalProperties;
+import com.tcs.trade.config.SymbolRoutingProperties;
+import com.tcs.trade.domain.repository.TradeBatchWriter;
+import com.tcs.trade.journal.BookCodec;
+import com.tcs.trade.journal.ShardJournal;
+import com.tcs.trade.matching.OrderBook;
+import com.tcs.trade.pipeline.BookTransfer;
+import com.tcs.trade.pipeline.DepthUpdate;
+import com.tcs.trade.pipeline.EventPublishHandler;
+import com.tcs.trade.pipeline.MarketDepthHandler;
+import com.tcs.trade.pipeline.MatchOutput;
+import com.tcs.trade.pipeline.MatchingCommand;
+import com.tcs.trade.pipeline.MatchingShard;
+import com.tcs.trade.pipeline.PipelineStage;
+import com.tcs.trade.pipeline.TradeFactory;
+import com.tcs.trade.pipeline.TradePersistenceHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.time.Instant;
-import java.util.Random;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Simplified matching engine for demo purposes
- * In production, this would implement sophisticated matching algorithms
+ * Matching engine pipeline.
+ *
+ * Kafka ingress hands each order to the matching shard that owns its symbol. Every shard is a
+ * single thread fed by a preallocated ring buffer, so each order book has exactly one writer and
+ * per-symbol order is preserved. Matched output flows through a write-behind persistence stage,
+ * which group-commits trades, and then a publishing stage, which acknowledges the inbound
+ * record once its events are sent.
+ *
+ * Shards also report changed price levels to a market data stage that publishes conflated depth.
+ *
+ * Each shard journals its orders and snapshots its books, so a restart rebuilds the books
+ * from local disk rather than from the orders topic.
+ *
+ * A symbol can be switched to call-auction trading: phase changes are sequenced with its
+ * orders on the orders topic and handled by the owning shard like an order.
+ *
+ * Orders are partitioned by symbol, so several instances split the symbols by orders partition.
+ * The books of owned partitions are checkpointed to a compacted handoff topic, on an interval
+ * and when a partition is revoked, so the next owner starts from them instead of empty books.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MatchingEngine {
 
-    private final TradeRepository tradeRepository;
+    private final TradeBatchWriter tradeWriter;
     private final TradeEventProducer eventProducer;
-    private final Random random = new Random();
+    private final MeterRegistry meterRegistry;
+    private final SymbolScales symbolScales;
+    private final JournalProperties journalProperties;
+    private final Clock clock;
+    private final SymbolRoutingProperties routingProperties;
+    private final BookHandoffProperties handoffProperties;
+    private final OrderConsumptionHalter consumptionHalter;
 
-    @Value("${app.matching.simulated-execution-probability}")
-    private double executionProbability;
+    @Value("${app.matching.shards}")
+    private int shardCount;
+
+    @Value("${app.matching.ring-buffer-size}")
+    private int ringBufferSize;
+
+    @Value("${app.trade-store.commit-size}")
+    private int commitSize;
+
+    @Value("${app.trade-store.commit-interval-ms}")
+    private long commitIntervalMs;
+
+    @Value("${app.trade-store.commit-attempts}")
+    private int commitAttempts;
+
+    @Value("${app.trade-store.retry-backoff-ms}")
+    private long retryBackoffMs;
+
+    @Value("${app.market-data.enabled}")
+    private boolean marketDataEnabled;
+
+    @Value("${app.market-data.conflation-interval-ms}")
+    private long conflationIntervalMs;
+
+    @Value("${app.market-data.snapshot-interval-ms}")
+    private long depthSnapshotIntervalMs;
+
+    private final List<PipelineStage<MatchingCommand>> shards = new ArrayList<>();
+    private final List<MatchingShard> shardHandlers = new ArrayList<>();
+    private PipelineStage<MatchOutput> persistenceStage;
+    private PipelineStage<MatchOutput> publishStage;
+    private PipelineStage<DepthUpdate> depthStage;
+
+    // Partition bookkeeping, updated by the consumer thread only
+    private volatile SymbolRouter router;
+    private long[] deliveredOffsets;   // last offset handed to the shards, per orders partition
+    private final Set<Integer> ownedPartitions = ConcurrentHashMap.newKeySet();
+    private long nextCheckpointMillis;
+    private CompletableFuture<Void> pendingCheckpoint = CompletableFuture.completedFuture(null);
+    private final ExecutorService handoffExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-handoff");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() {
+        publishStage = new PipelineStage<>("match-publish", ringBufferSize, MatchOutput::new,
+                new EventPublishHandler(eventProducer), consumptionHalter::halt);
+        persistenceStage = new PipelineStage<>("match-persist", ringBufferSize, MatchOutput::new,
+                new TradePersistenceHandler(tradeWriter, new TradeFactory(), publishStage,
+                        commitSize, commitIntervalMs, commitAttempts, retryBackoffMs, consumptionHalter::halt,
+                        meterRegistry, () -> persistenceStage.getRingBuffer().getBacklog()),
+                consumptionHalter::halt);
+        if (marketDataEnabled) {
+            depthStage = new PipelineStage<>("market-depth", ringBufferSize, DepthUpdate::new,
+                    new MarketDepthHandler(eventProducer, symbolScales, conflationIntervalMs, depthSnapshotIntervalMs),
+                    consumptionHalter::halt);
+            // Running before recovery, which reports the recovered depth
+            depthStage.start();
+        }
+        for (int i = 0; i < shardCount; i++) {
+            MatchingShard shard = new MatchingShard(i, persistenceStage, symbolScales, createJournal(i), depthStage,
+                    consumptionHalter::halt);
+            shardHandlers.add(shard);
+            shards.add(new PipelineStage<>("match-shard-" + i, ringBufferSize, MatchingCommand::new, shard,
+                    consumptionHalter::halt));
+        }
+
+        // Shards own disjoint state, so they recover in parallel
+        long recoveryStart = System.nanoTime();
+        shardHandlers.parallelStream().forEach(MatchingShard::recover);
+        log.info("Order books recovered in {} ms", (System.nanoTime() - recoveryStart) / 1_000_000);
+
+        publishStage.start();
+        persistenceStage.start();
+        shards.forEach(PipelineStage::start);
+        log.info("Matching engine started with {} shards", shardCount);
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Upstream first, so every stage drains into a still-running successor
+        shards.forEach(PipelineStage::stop);
+        persistenceStage.stop();
+        publishStage.stop();
+        if (depthStage != null) {
+            depthStage.stop();
+        }
+        handoffExecutor.shutdownNow();
+        shardHandlers.forEach(MatchingShard::close);
+    }
+
+    /**
+     * Hand an inbound order to the shard owning its symbol.
+     * Blocks while that shard's ring buffer is full.
+     * The timestamps are 0 unless latency tracing is enabled.
+     */
+    public void submit(OrderCreatedEvent orderEvent, int partition, long offset, Acknowledgment acknowledgment,
+                       long sentAtMicros, long receivedAtMicros) {
+        PipelineStage<MatchingCommand> shard = shards.get(shardFor(orderEvent.getSymbol()));
+        shard.publish((command, event) -> {
+            command.set(event, partition, offset, acknowledgment);
+            command.setSentAtMicros(sentAtMicros);
+            command.setReceivedAtMicros(receivedAtMicros);
+        }, orderEvent);
+        delivered(partition, offset);
+    }
+
+    /**
+     * Hand an inbound trading phase change to the shard owning its symbol
+     */
+    public void submitPhaseChange(TradingPhaseEvent phaseEvent, int partition, long offset,
+                                  Acknowledgment acknowledgment) {
+        PipelineStage<MatchingCommand> shard = shards.get(shardFor(phaseEvent.getSymbol()));
+        shard.publish((command, event) -> command.setPhaseChange(event, partition, offset, acknowledgment),
+                phaseEvent);
+        delivered(partition, offset);
+    }
+
+    /**
+     * Tell every shard where the consumer resumes, so results recovered for records
+     * that will not be redelivered can be dropped
+     */
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments) {
+        Map<Integer, Long> positions = new HashMap<>();
+        assignments.forEach((partition, position) -> positions.put(partition.partition(), position));
+        for (PipelineStage<MatchingCommand> shard : shards) {
+            shard.publish(MatchingCommand::setPartitionsAssigned, positions);
+        }
+    }
+
+    public SymbolRouter getRouter() {
+        return router;
+    }
+
+    public Set<Integer> getOwnedPartitions() {
+        return Set.copyOf(ownedPartitions);
+    }
+
+    /**
+     * Whether this instance owns the orders partition the symbol is routed to
+     */
+    public boolean ownsSymbol(String symbol) {
+        SymbolRouter currentRouter = router;
+        return currentRouter != null && ownedPartitions.contains(currentRouter.partitionFor(symbol));
+    }
+
+    /**
+     * Set up routing for the orders topic's partition count, on the first assignment
+     */
+    public SymbolRouter initRouting(int partitionCount) {
+        if (router == null || router.getPartitionCount() != partitionCount) {
+            router = new SymbolRouter(partitionCount,
+                    SymbolRouter.parseDedicatedPartitions(routingProperties.getDedicatedPartitions()));
+            deliveredOffsets = new long[partitionCount];
+            Arrays.fill(deliveredOffsets, -1);
+            log.info("Routing symbols over {} orders partitions, dedicated: {}",
+                    partitionCount, router.getDedicatedPartitions());
+        }
+        return router;
+    }
+
+    /**
+     * Take over newly assigned partitions. Each shard keeps, per partition, whichever of its own
+     * and the handed-off books reflect the later offset.
+     *
+     * @param positions consumer position per partition; records below it were already published
+     * @return per partition, the earlier offset to rewind to so the books catch up
+     */
+    public Map<Integer, Long> install(Set<Integer> partitions, Map<Integer, Long> positions,
+                                      Collection<BookHandoffEvent> handoffs) {
+        Map<Integer, BookTransfer.PartitionBooks> handoffBooks = new HashMap<>();
+        Map<Integer, List<OrderBook>> moved = new HashMap<>();
+        splitHandoffs(partitions, handoffs, handoffBooks, moved);
+
+        BookTransfer transfer = new BookTransfer(router, partitions, positions, handoffBooks, moved, shards.size());
+        runOnShards(MatchingCommand.Type.INSTALL, transfer);
+
+        Map<Integer, Long> rewinds = new HashMap<>();
+        for (int partition : partitions) {
+            long position = positions.get(partition);
+            long reflected = Long.MAX_VALUE;
+            for (BookTransfer.ShardPart part : transfer.getParts()) {
+                reflected = Math.min(reflected, part.getAppliedOffsets().getOrDefault(partition, Long.MAX_VALUE));
+            }
+            if (reflected == Long.MAX_VALUE) {
+                if (position > 0) {
+                    log.warn("No books of orders partition {} found, starting it with empty books at offset {}",
+                            partition, position);
+                }
+                reflected = position - 1;
+            } else if (reflected + 1 < position) {
+                rewinds.put(partition, reflected + 1);
+            }
+            deliveredOffsets[partition] = Math.min(reflected, position - 1);
+        }
+        ownedPartitions.addAll(partitions);
+        nextCheckpointMillis = 0;
+        log.info("Installed orders partitions {}, rewinding {}", partitions, rewinds);
+        return rewinds;
+    }
 
     /**
-     * Process order and attempt matching
+     * Hand revoked partitions to their next owner: checkpoint their books once everything
+     * delivered from them is published, then drop them. Blocks the consumer thread, so the
+     * partitions' offsets are committed only after the handoff.
      */
-    @Transactional
-    public void processOrder(OrderCreatedEvent orderEvent) {
-        log.info("Processing order {} for matching", orderEvent.getOrderId());
+    public void handOff(Set<Integer> partitions) {
+        if (router == null || partitions.isEmpty()) {
+            return;
+        }
+        if (handoffProperties.isEnabled()) {
+            try {
+                checkpoint(partitions).get(2 * handoffProperties.getTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted handing off orders partitions " + partitions, e);
+            } catch (ExecutionException | TimeoutException e) {
+                // The next owner falls back to the previous checkpoint and replays from there
+                log.error("Failed to hand off orders partitions {}: {}", partitions, e.getMessage(), e);
+            }
+        }
+        release(partitions);
+    }
 
-        // Skip if already rejected by risk
-        if ("RISK_REJECTED".equals(orderEvent.getStatus())) {
-            log.info("Order {} already rejected by risk, skipping matching", orderEvent.getOrderId());
+    /**
+     * Drop the books of partitions this instance does not own, such as lost partitions or
+     * ones recovered from the journal that another instance now owns
+     */
+    public void release(Set<Integer> partitions) {
+        if (router == null || partitions.isEmpty()) {
+            return;
+        }
+        runOnShards(MatchingCommand.Type.RELEASE,
+                new BookTransfer(router, partitions, Map.of(), Map.of(), Map.of(), shards.size()));
+        ownedPartitions.removeAll(partitions);
+    }
+
+    /**
+     * Checkpoint the owned partitions if the interval has passed and the previous one is done.
+     * Called by the consumer thread, between batches.
+     */
+    public void checkpointIfDue() {
+        if (!handoffProperties.isEnabled() || router == null || ownedPartitions.isEmpty()) {
             return;
         }
+        long now = System.currentTimeMillis();
+        if (now < nextCheckpointMillis || !pendingCheckpoint.isDone()) {
+            return;
+        }
+        nextCheckpointMillis = now + handoffProperties.getCheckpointIntervalMs();
+        pendingCheckpoint = checkpoint(Set.copyOf(ownedPartitions));
+    }
+
+    /**
+     * Put a checkpoint barrier behind everything delivered so far on every shard, and publish
+     * the books once the shards have encoded them and published every output before the barrier
+     */
+    private CompletableFuture<Void> checkpoint(Set<Integer> partitions) {
+        Map<Integer, Long> offsets = new HashMap<>();
+        for (int partition : partitions) {
+            offsets.put(partition, deliveredOffsets[partition]);
+        }
+        BookTransfer transfer = new BookTransfer(router, partitions, offsets, Map.of(), Map.of(), shards.size());
+        for (PipelineStage<MatchingCommand> shard : shards) {
+            shard.publish((command, t) -> command.setTransfer(MatchingCommand.Type.CHECKPOINT, t), transfer);
+        }
+        return CompletableFuture.runAsync(() -> publishCheckpoint(transfer), handoffExecutor);
+    }
+
+    private void publishCheckpoint(BookTransfer transfer) {
+        long start = System.nanoTime();
+        awaitShards(transfer);
+        awaitPublished(transfer);
+
+        SymbolRouter transferRouter = transfer.getRouter();
+        int bookTotal = 0;
+        long orderTotal = 0;
+        for (int partition : transfer.getPartitions()) {
+            List<byte[]> parts = new ArrayList<>();
+            int bookCount = 0;
+            long orderCount = 0;
+            boolean ahead = false;
+            for (BookTransfer.ShardPart part : transfer.getParts()) {
+                ahead |= part.getAhead().contains(partition);
+                byte[] encoded = part.getBooks().get(partition);
+                if (encoded != null) {
+                    parts.add(encoded);
+                    bookCount += part.getBookCounts().get(partition);
+                    orderCount += part.getOrderCounts().get(partition);
+                }
+            }
+            if (ahead) {
+                log.debug("Skipping checkpoint of orders partition {}, still catching up", partition);
+                continue;
+            }
+            BookHandoffEvent event = BookHandoffEvent.newBuilder()
+                    .setPartition(partition)
+                    .setOffset(transfer.getOffsets().get(partition))
+                    .setPartitionCount(transferRouter.getPartitionCount())
+                    .setDedicatedPartitions(routingProperties.getDedicatedPartitions())
+                    .setBookCount(bookCount)
+                    .setOrderCount(orderCount)
+                    .setBooks(BookCodec.frame(parts, bookCount))
+                    .setTimestamp(clock.millis())
+                    .build();
+            try {
+                eventProducer.publishBookHandoff(event).get(handoffProperties.getTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted publishing book checkpoint", e);
+            } catch (ExecutionException | TimeoutException e) {
+                throw new IllegalStateException("Failed to publish book checkpoint of orders partition "
+                        + partition + ": " + e.getMessage(), e);
+            }
+            bookTotal += bookCount;
+            orderTotal += orderCount;
+        }
+        log.info("Checkpointed {} books with {} orders of orders partitions {} in {} ms",
+                bookTotal, orderTotal, transfer.getPartitions(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Decode the handed-off books of newly assigned partitions, split by the shard owning them here.
+     * Checkpoints written under the same routing are only decoded for the assigned partitions;
+     * otherwise symbols may have moved, so every checkpoint is searched for them.
+     */
+    private void splitHandoffs(Set<Integer> partitions, Collection<BookHandoffEvent> handoffs,
+                               Map<Integer, BookTransfer.PartitionBooks> handoffBooks,
+                               Map<Integer, List<OrderBook>> moved) {
+        for (BookHandoffEvent handoff : handoffs) {
+            boolean sameRouting = handoff.getPartitionCount() == router.getPartitionCount()
+                    && SymbolRouter.parseDedicatedPartitions(handoff.getDedicatedPartitions())
+                    .equals(router.getDedicatedPartitions());
+            boolean assigned = partitions.contains(handoff.getPartition());
+            if (sameRouting && !assigned) {
+                continue;
+            }
+
+            List<OrderBook> books;
+            try {
+                books = BookCodec.decode(handoff.getBooks());
+            } catch (IllegalArgumentException e) {
+                log.error("Ignoring damaged book checkpoint of orders partition {}: {}",
+                        handoff.getPartition(), e.getMessage());
+                continue;
+            }
+            Map<Integer, List<OrderBook>> byShard = new HashMap<>();
+            for (OrderBook book : books) {
+                int partition = router.partitionFor(book.getSymbol());
+                if (partition == handoff.getPartition()) {
+                    byShard.computeIfAbsent(shardFor(book.getSymbol()), s -> new ArrayList<>()).add(book);
+                } else if (partitions.contains(partition)) {
+                    moved.computeIfAbsent(shardFor(book.getSymbol()), s -> new ArrayList<>()).add(book);
+                }
+            }
+            if (assigned) {
+                handoffBooks.put(handoff.getPartition(), new BookTransfer.PartitionBooks(handoff.getOffset(), byShard));
+            }
+        }
+    }
+
+    /**
+     * Run a transfer on every shard and wait for all of them
+     */
+    private void runOnShards(MatchingCommand.Type type, BookTransfer transfer) {
+        for (PipelineStage<MatchingCommand> shard : shards) {
+            shard.publish((command, t) -> command.setTransfer(type, t), transfer);
+        }
+        awaitShards(transfer);
+    }
+
+    private void awaitShards(BookTransfer transfer) {
+        try {
+            if (!transfer.await(handoffProperties.getTimeoutMs())) {
+                throw new IllegalStateException("Matching shards did not complete a book transfer in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a book transfer", e);
+        }
+    }
+
+    /**
+     * Wait until every output each shard produced before the transfer is published
+     */
+    private void awaitPublished(BookTransfer transfer) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(handoffProperties.getTimeoutMs());
+        for (BookTransfer.ShardPart part : transfer.getParts()) {
+            while (!part.getShard().isPublishedThrough(part.getSequence())) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Outputs of shard " + part.getShard().getShardId()
+                            + " were not published in time for a book checkpoint");
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private void delivered(int partition, long offset) {
+        if (deliveredOffsets != null && partition < deliveredOffsets.length) {
+            deliveredOffsets[partition] = offset;
+        }
+    }
+
+    private ShardJournal createJournal(int shardId) {
+        if (!journalProperties.isEnabled()) {
+            return null;
+        }
+        return new ShardJournal(Path.of(journalProperties.getDirectory()), shardId, shardCount,
+                journalProperties.getSegmentSize(), journalProperties.getSnapshotInterval(),
+                journalProperties.isFsync());
+    }
 
-        // Simulate matching logic
-        // In production, this would:
-        // 1. Check order book for matching orders
-        // 2. Apply price-time priority
-        // 3. Execute matches
-        // 4. Handle partial fills
-        // 5. Manage order book state
-
-        boolean shouldExecute = random.nextDouble() < executionProbability;
-
-        if (shouldExecute) {
-            executeOrder(orderEvent);
-        } else {
-            rejectOrder(orderEvent, "No matching orders available");
-        }
-    }
-
-    private void executeOrder(OrderCreatedEvent orderEvent) {
-        // For demo: execute at limit price for LIMIT orders, or simulate market price for MARKET
-        BigDecimal executionPrice = orderEvent.getPrice() != null
-                ? new BigDecimal(orderEvent.getPrice())
-                : simulateMarketPrice();
-
-        BigDecimal quantity = new BigDecimal(orderEvent.getQuantity());
-        BigDecimal totalAmount = executionPrice.multiply(quantity);
-
-        // Create trade record
-        String tradeId = IdGenerator.generateTradeId();
-        TradeEntity trade = TradeEntity.builder()
-                .tradeId(tradeId)
-                .orderId(orderEvent.getOrderId())
-                .userId(orderEvent.getUserId())
-                .symbol(orderEvent.getSymbol())
-                .side(orderEvent.getSide())
-                .quantity(quantity)
-                .price(executionPrice)
-                .totalAmount(totalAmount)
-                .traceId(orderEvent.getTraceId())
-                .build();
-
-        trade = tradeRepository.save(trade);
-        log.info("Trade {} executed: order={}, qty={}, price={}",
-                tradeId, orderEvent.getOrderId(), quantity, executionPrice);
-
-        // Publish trade executed event
-        TradeExecutedEvent tradeEvent = TradeExecutedEvent.builder()
-                .tradeId(tradeId)
-                .orderId(orderEvent.getOrderId())
-                .userId(orderEvent.getUserId())
-                .symbol(orderEvent.getSymbol())
-                .side(orderEvent.getSide())
-                .quantity(quantity.toString())
-                .price(executionPrice.toString())
-                .totalAmount(totalAmount.toString())
-                .timestamp(Instant.now().toEpochMilli())
-                .traceId(orderEvent.getTraceId())
-                .build();
-
-        eventProducer.publishTradeExecuted(tradeEvent);
-
-        // Publish order updated event (status = FILLED)
-        OrderUpdatedEvent orderUpdate = OrderUpdatedEvent.builder()
-                .orderId(orderEvent.getOrderId())
-                .userId(orderEvent.getUserId())
-                .status("FILLED")
-                .filledQuantity(quantity.toString())
-                .avgPrice(executionPrice.toString())
-                .timestamp(Instant.now().toEpochMilli())
-                .traceId(orderEvent.getTraceId())
-                .build();
-
-        eventProducer.publishOrderUpdated(orderUpdate);
-    }
-
-    private void rejectOrder(OrderCreatedEvent orderEvent, String reason) {
-        log.info("Rejecting order {}: {}", orderEvent.getOrderId(), reason);
-
-        OrderUpdatedEvent orderUpdate = OrderUpdatedEvent.builder()
-                .orderId(orderEvent.getOrderId())
-                .userId(orderEvent.getUserId())
-                .status("REJECTED")
-                .filledQuantity("0")
-                .rejectReason(reason)
-                .timestamp(Instant.now().toEpochMilli())
-                .traceId(orderEvent.getTraceId())
-                .build();
-
-        eventProducer.publishOrderUpdated(orderUpdate);
-    }
-
-    private BigDecimal simulateMarketPrice() {
-        // Simulate market price between 100 and 200
-        double price = 100 + (random.nextDouble() * 100);
-        return BigDecimal.valueOf(price).setScale(2, BigDecimal.ROUND_HALF_UP);
+    private int shardFor(String symbol) {
+        return symbol == null ? 0 : Math.floorMod(symbol.hashCode(), shards.size());
     }
 }
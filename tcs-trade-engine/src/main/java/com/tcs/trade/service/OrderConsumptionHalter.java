@@ -0,0 +1,52 @@
+package com.tcs.trade.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stops consuming orders once a record can no longer be applied in offset order.
+ *
+ * Applying later records of a partition past one that failed would move the journal's applied
+ * offsets beyond it, so on redelivery it would be taken for a duplicate and never matched. The
+ * listener container is stopped instead: its partitions go to other instances from the last
+ * committed offset, and this instance needs a restart to consume again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderConsumptionHalter {
+
+    public static final String LISTENER_ID = "trade-engine-orders";
+
+    private final ObjectProvider<KafkaListenerEndpointRegistry> registry;
+    private final AtomicBoolean halted = new AtomicBoolean();
+
+    /**
+     * Stop the orders listener; safe to call from any thread, any number of times
+     */
+    public void halt(String reason) {
+        if (!halted.compareAndSet(false, true)) {
+            return;
+        }
+        log.error("Halting order consumption: {}", reason);
+        KafkaListenerEndpointRegistry endpointRegistry = registry.getIfAvailable();
+        MessageListenerContainer container = endpointRegistry != null
+                ? endpointRegistry.getListenerContainer(LISTENER_ID) : null;
+        if (container == null) {
+            log.error("Orders listener not found; records after the failure are discarded until restart");
+            return;
+        }
+        // Asynchronous, so a pipeline thread calling this never waits on the listener thread
+        container.stop(() -> log.error("Order consumption halted; restart the engine to resume"));
+    }
+
+    public boolean isHalted() {
+        return halted.get();
+    }
+}
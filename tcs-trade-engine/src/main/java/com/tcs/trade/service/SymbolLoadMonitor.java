@@ -0,0 +1,105 @@
+package com.tcs.trade.service;
+
+import com.tcs.common.routing.SymbolRouter;
+import com.tcs.trade.config.SymbolRoutingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds hot symbols: ones taking most of their orders partition's traffic, so that partition's
+ * owner cannot be relieved by adding instances. Such symbols are candidates for a dedicated
+ * partition in app.symbol-routing.dedicated-partitions.
+ *
+ * Records are counted by the consumer thread over fixed windows; each closed window is
+ * published as an immutable {@link Load} for the admin endpoint and metrics.
+ */
+@Slf4j
+@Component
+public class SymbolLoadMonitor {
+
+    private final SymbolRoutingProperties properties;
+    private final MatchingEngine matchingEngine;
+
+    // Current window, touched by the consumer thread only
+    private final Map<String, long[]> symbolCounts = new HashMap<>();
+    private final Map<Integer, long[]> partitionCounts = new HashMap<>();
+    private long windowStartMillis = System.currentTimeMillis();
+
+    private volatile Load load = new Load(0, Map.of(), List.of());
+
+    public SymbolLoadMonitor(SymbolRoutingProperties properties, MatchingEngine matchingEngine,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.matchingEngine = matchingEngine;
+        Gauge.builder("tcs.matching.symbols.hot", () -> load.getHotSymbols().size())
+                .description("Symbols dominating their orders partition in the last window")
+                .register(meterRegistry);
+    }
+
+    public void record(String symbol, int partition) {
+        long now = System.currentTimeMillis();
+        if (now - windowStartMillis >= properties.getHotSymbolWindowMs()) {
+            closeWindow(now);
+        }
+        symbolCounts.computeIfAbsent(symbol, s -> new long[] {partition, 0})[1]++;
+        partitionCounts.computeIfAbsent(partition, p -> new long[1])[0]++;
+    }
+
+    public Load getLoad() {
+        return load;
+    }
+
+    private void closeWindow(long now) {
+        double seconds = (now - windowStartMillis) / 1000.0;
+        SymbolRouter router = matchingEngine.getRouter();
+
+        Map<Integer, Long> partitionRates = new HashMap<>();
+        partitionCounts.forEach((partition, count) -> partitionRates.put(partition, Math.round(count[0] / seconds)));
+
+        List<HotSymbol> hotSymbols = new ArrayList<>();
+        symbolCounts.forEach((symbol, count) -> {
+            int partition = (int) count[0];
+            long rate = Math.round(count[1] / seconds);
+            double share = (double) count[1] / partitionCounts.get(partition)[0];
+            if (rate >= properties.getHotSymbolMinRate() && share >= properties.getHotSymbolShare()
+                    && (router == null || !router.isDedicated(symbol))) {
+                hotSymbols.add(new HotSymbol(symbol, partition, rate, share));
+            }
+        });
+        for (HotSymbol hot : hotSymbols) {
+            log.warn("Hot symbol {}: {} orders/s, {}% of orders partition {}; consider a dedicated partition",
+                    hot.getSymbol(), hot.getRate(), Math.round(hot.getShare() * 100), hot.getPartition());
+        }
+
+        load = new Load(windowStartMillis, Map.copyOf(partitionRates), List.copyOf(hotSymbols));
+        symbolCounts.clear();
+        partitionCounts.clear();
+        windowStartMillis = now;
+    }
+
+    /**
+     * Record rates of one closed window, per second
+     */
+    @Value
+    public static class Load {
+        long windowStart;
+        Map<Integer, Long> partitionRates;
+        List<HotSymbol> hotSymbols;
+    }
+
+    @Value
+    public static class HotSymbol {
+        String symbol;
+        int partition;
+        long rate;
+        double share;   // of its partition's records
+    }
+}
@@ -0,0 +1,136 @@
+package com.tcs.trade.service;
+
+import com.tcs.trade.archive.TradeArchive;
+import com.tcs.trade.config.TradeArchiveProperties;
+import com.tcs.trade.domain.repository.TradePartitionRepository;
+import com.tcs.trade.domain.repository.TradePartitionRepository.Partition;
+import com.tcs.trade.domain.repository.TradeRecord;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Moves the partitions of trades past app.trade-archive.retention-days into the
+ * {@link TradeArchive}, so the table, its indexes and its vacuum work stay at the retention
+ * window however much history is kept.
+ *
+ * Each partition is exported to its day's file, then detached and dropped in the transaction
+ * that read it; one interrupted midway is still in the table and is exported again next run.
+ * The legacy partition is split into a file per day once all of it is past the horizon, and
+ * goes before any daily one. A transaction-scoped advisory lock lets only one instance archive.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.trade-archive.enabled", havingValue = "true", matchIfMissing = true)
+public class TradeArchiver {
+
+    private final TradePartitionRepository partitionRepository;
+    private final TradeArchive archive;
+    private final TransactionTemplate transactionTemplate;
+    private final TradeArchiveProperties properties;
+    private final Clock clock;
+
+    @Scheduled(initialDelayString = "${app.trade-archive.check-interval-ms}",
+            fixedDelayString = "${app.trade-archive.check-interval-ms}")
+    public void archiveExpiredPartitions() {
+        try {
+            // One transaction per partition, so each is dropped as soon as its files are in place
+            boolean archived;
+            do {
+                archived = Boolean.TRUE.equals(transactionTemplate.execute(status -> archiveOldest()));
+            } while (archived);
+        } catch (RuntimeException e) {
+            // Nothing was dropped for the failed partition; retried next interval
+            log.error("Failed to archive partitions of trades: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Archive the oldest partition if it is past the horizon and no other instance is archiving
+     *
+     * @return whether a partition was archived
+     */
+    private boolean archiveOldest() {
+        if (!partitionRepository.tryLockArchiving()) {
+            return false;
+        }
+        List<Partition> partitions = partitionRepository.findPartitions();
+        if (partitions.size() < 2) {
+            return false;
+        }
+        LocalDate horizon = LocalDate.now(clock).minusDays(properties.getRetentionDays());
+        Partition oldest = partitions.get(0);
+        // The legacy partition ends where the first daily one begins
+        boolean expired = oldest.isLegacy()
+                ? !partitions.get(1).getDay().isAfter(horizon)
+                : oldest.getDay().isBefore(horizon);
+        if (!expired) {
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        try (DayExport export = new DayExport()) {
+            partitionRepository.stream(oldest, properties.getExportFetchSize(), export::append);
+            export.commit();
+            partitionRepository.drop(oldest);
+            log.info("Archived {} trades of {} into {} day files in {} ms",
+                    export.count, oldest.getName(), export.days, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive " + oldest.getName(), e);
+        }
+        return true;
+    }
+
+    /**
+     * Writes trades in (executed_at, id) order to the file of their day, one day at a time
+     */
+    private class DayExport implements AutoCloseable {
+
+        private LocalDate day;
+        private TradeArchive.DayWriter writer;
+        private long count;
+        private int days;
+
+        void append(TradeRecord trade) {
+            try {
+                LocalDate tradeDay = LocalDate.ofInstant(trade.getExecutedAt(), ZoneOffset.UTC);
+                if (!tradeDay.equals(day)) {
+                    commit();
+                    writer = archive.create(tradeDay);
+                    day = tradeDay;
+                }
+                writer.append(trade);
+                count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void commit() throws IOException {
+            if (writer != null) {
+                writer.commit();
+                writer.close();
+                writer = null;
+                days++;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+}
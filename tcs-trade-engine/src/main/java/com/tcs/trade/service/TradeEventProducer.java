@@ -1,15 +1,26 @@
 package com.tcs.trade.service;
 
 import com.tcs.common.constants.KafkaTopics;
-import com.tcs.trade.dto.OrderUpdatedEvent;
-import com.tcs.trade.dto.TradeExecutedEvent;
+import com.tcs.common.events.avro.BookHandoffEvent;
+import com.tcs.common.events.avro.MarketDepthEvent;
+import com.tcs.common.events.avro.OrderUpdatedEvent;
+import com.tcs.common.events.avro.TradeExecutedEvent;
+import com.tcs.common.events.avro.TradingPhaseEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
- * Kafka producer for trade events
+ * Kafka producer for trade events.
+ * The overloads taking {@link KafkaOperations} send through a caller-supplied producer,
+ * such as the operations of a running Kafka transaction.
  */
 @Slf4j
 @Service
@@ -18,14 +29,54 @@ public class TradeEventProducer {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
+    public KafkaTemplate<String, Object> getKafkaTemplate() {
+        return kafkaTemplate;
+    }
+
     public void publishTradeExecuted(TradeExecutedEvent event) {
-        kafkaTemplate.send(KafkaTopics.TRADES, event.getTradeId(), event);
-        log.info("Published trade executed event: tradeId={}", event.getTradeId());
+        publishTradeExecuted(kafkaTemplate, event);
+    }
+
+    public void publishTradeExecuted(KafkaOperations<String, Object> operations, TradeExecutedEvent event) {
+        publishTradeExecuted(operations, event, null);
+    }
+
+    public void publishTradeExecuted(KafkaOperations<String, Object> operations, TradeExecutedEvent event,
+                                     Iterable<Header> headers) {
+        operations.send(new ProducerRecord<>(KafkaTopics.TRADES, null, event.getTradeId(), event, headers));
+        log.debug("Published trade executed event: tradeId={}", event.getTradeId());
     }
 
     public void publishOrderUpdated(OrderUpdatedEvent event) {
-        kafkaTemplate.send(KafkaTopics.ORDER_STATUS, event.getOrderId(), event);
-        log.info("Published order updated event: orderId={}, status={}",
+        publishOrderUpdated(kafkaTemplate, event);
+    }
+
+    public void publishOrderUpdated(KafkaOperations<String, Object> operations, OrderUpdatedEvent event) {
+        operations.send(KafkaTopics.ORDER_STATUS, event.getOrderId(), event);
+        log.debug("Published order updated event: orderId={}, status={}",
                 event.getOrderId(), event.getStatus());
     }
+
+    /**
+     * Sequence a phase change with the symbol's orders; the matching engine applies it on consumption
+     */
+    public void publishTradingPhase(TradingPhaseEvent event) {
+        kafkaTemplate.send(KafkaTopics.ORDERS, event.getSymbol(), event);
+        log.info("Published trading phase event: symbol={}, phase={}", event.getSymbol(), event.getPhase());
+    }
+
+    /**
+     * Replace the book checkpoint of an orders partition; the topic is compacted by partition
+     */
+    public CompletableFuture<SendResult<String, Object>> publishBookHandoff(BookHandoffEvent event) {
+        log.debug("Publishing book handoff: partition={}, offset={}, books={}",
+                event.getPartition(), event.getOffset(), event.getBookCount());
+        return kafkaTemplate.send(KafkaTopics.BOOK_HANDOFF, String.valueOf(event.getPartition()), event);
+    }
+
+    public void publishMarketDepth(MarketDepthEvent event) {
+        kafkaTemplate.send(KafkaTopics.MARKET_DEPTH, event.getSymbol(), event);
+        log.debug("Published market depth event: symbol={}, type={}, sequence={}",
+                event.getSymbol(), event.getType(), event.getSequence());
+    }
 }
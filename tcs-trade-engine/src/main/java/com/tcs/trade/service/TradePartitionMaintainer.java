@@ -0,0 +1,34 @@
+package com.tcs.trade.service;
+
+import com.tcs.trade.config.TradeArchiveProperties;
+import com.tcs.trade.domain.repository.TradePartitionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps daily partitions of the trades table created app.trade-archive.partitions-ahead days
+ * ahead, so a trade never finds its day missing. Safe to run on every instance at once.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TradePartitionMaintainer {
+
+    private final TradePartitionRepository partitionRepository;
+    private final TradeArchiveProperties properties;
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.trade-archive.check-interval-ms}")
+    public void createUpcomingPartitions() {
+        try {
+            int created = partitionRepository.createPartitions(properties.getPartitionsAhead());
+            if (created > 0) {
+                log.info("Created {} upcoming daily partitions of trades", created);
+            }
+        } catch (RuntimeException e) {
+            // Retried next interval, with days of partitions still ahead
+            log.error("Failed to create upcoming partitions of trades: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.tcs.trade.service;
+
+import com.tcs.common.dto.TradePageResponse;
+import com.tcs.common.dto.TradeResponse;
+import com.tcs.common.exception.ErrorCode;
+import com.tcs.common.exception.TcsException;
+import com.tcs.trade.archive.TradeArchive;
+import com.tcs.trade.config.TradeArchiveProperties;
+import com.tcs.trade.domain.repository.TradeHistoryFilter;
+import com.tcs.trade.domain.repository.TradeHistoryRepository;
+import com.tcs.trade.domain.repository.TradeHistoryRepository.Position;
+import com.tcs.trade.domain.repository.TradePartitionRepository;
+import com.tcs.trade.domain.repository.TradeRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+
+/**
+ * Trade history across the database and the archive, newest first.
+ *
+ * A page is read from the partitions still in the database; only when they run out does it go
+ * on into the archived days, newest first. Those are all older than the oldest daily partition,
+ * so one keyset position orders both. A page scans at most app.trade-archive.max-archive-days-per-query
+ * archived days, returning a cursor at the last one scanned if it has to stop short.
+ */
+@Service
+@RequiredArgsConstructor
+public class TradeQueryService {
+
+    private final TradeHistoryRepository historyRepository;
+    private final TradePartitionRepository partitionRepository;
+    private final TradeArchive archive;
+    private final TradeArchiveProperties properties;
+
+    /**
+     * Get a page of the trades of a user or symbol, continuing after the cursor if given
+     */
+    public TradePageResponse getTrades(TradeHistoryFilter filter, String cursor, int limit) {
+        if (filter.getUserId() == null && filter.getSymbol() == null) {
+            throw new TcsException(ErrorCode.INVALID_REQUEST, "A user or a symbol is required");
+        }
+        if (limit < 1 || limit > properties.getMaxPageSize()) {
+            throw new TcsException(ErrorCode.INVALID_REQUEST,
+                    "Limit must be between 1 and " + properties.getMaxPageSize());
+        }
+        Position before = decodeCursor(cursor);
+        // One extra row tells whether there is a next page, without counting
+        List<TradeRecord> rows = new ArrayList<>(historyRepository.findPage(filter, before, limit + 1));
+        String archiveCursor = null;
+        if (rows.size() <= limit) {
+            Position after = rows.isEmpty() ? before : position(rows.get(rows.size() - 1));
+            archiveCursor = readArchive(filter, after, limit + 1, rows);
+        }
+
+        boolean more = rows.size() > limit;
+        List<TradeRecord> page = more ? rows.subList(0, limit) : rows;
+        return TradePageResponse.builder()
+                .trades(page.stream().map(TradeQueryService::toResponse).toList())
+                .nextCursor(more ? encodeCursor(position(page.get(page.size() - 1))) : archiveCursor)
+                .build();
+    }
+
+    /**
+     * Add to the rows the newest archived trades before the position until there are {@code wanted}
+     *
+     * @return a cursor to go on from if the day limit stopped the scan, otherwise null
+     */
+    private String readArchive(TradeHistoryFilter filter, Position before, int wanted, List<TradeRecord> rows) {
+        NavigableSet<LocalDate> days = archive.days();
+        if (days.isEmpty()) {
+            return null;
+        }
+        // Days still in the database are read from there, even if an archive file was left behind
+        List<TradePartitionRepository.Partition> partitions = partitionRepository.findPartitions();
+        if (!partitions.isEmpty()) {
+            if (partitions.get(0).isLegacy()) {
+                return null;
+            }
+            days = days.headSet(partitions.get(0).getDay(), false);
+        }
+        Instant upper = before != null ? before.getExecutedAt() : null;
+        if (filter.getTo() != null && (upper == null || filter.getTo().isBefore(upper))) {
+            upper = filter.getTo();
+        }
+        if (upper != null) {
+            days = days.headSet(LocalDate.ofInstant(upper.minusNanos(1), ZoneOffset.UTC), true);
+        }
+        if (filter.getFrom() != null) {
+            days = days.tailSet(LocalDate.ofInstant(filter.getFrom(), ZoneOffset.UTC), true);
+        }
+
+        int scanned = 0;
+        for (Iterator<LocalDate> iterator = days.descendingIterator(); iterator.hasNext(); ) {
+            LocalDate day = iterator.next();
+            // Keep only the newest trades the page can still take; the file is oldest first
+            int room = wanted - rows.size();
+            Deque<TradeRecord> newest = new ArrayDeque<>(room + 1);
+            try {
+                archive.scan(day, filter, trade -> {
+                    if (before == null || trade.isBefore(before.getExecutedAt(), before.getId())) {
+                        newest.addLast(trade);
+                        if (newest.size() > room) {
+                            newest.removeFirst();
+                        }
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read archived trades of " + day, e);
+            }
+            newest.descendingIterator().forEachRemaining(rows::add);
+            scanned++;
+            if (rows.size() >= wanted) {
+                return null;
+            }
+            if (scanned == properties.getMaxArchiveDaysPerQuery() && iterator.hasNext()) {
+                // Everything before the start of the last day scanned
+                return encodeCursor(new Position(day.atStartOfDay(ZoneOffset.UTC).toInstant(), Long.MIN_VALUE));
+            }
+        }
+        return null;
+    }
+
+    private static Position position(TradeRecord trade) {
+        return new Position(trade.getExecutedAt(), trade.getId());
+    }
+
+    private static TradeResponse toResponse(TradeRecord trade) {
+        return TradeResponse.builder()
+                .tradeId(trade.getTradeId())
+                .orderId(trade.getOrderId())
+                .symbol(trade.getSymbol())
+                .side(trade.getSide())
+                .quantity(trade.getQuantity())
+                .price(trade.getPrice())
+                .totalAmount(trade.getTotalAmount())
+                .executedAt(trade.getExecutedAt())
+                .build();
+    }
+
+    /**
+     * Opaque continuation token: the keyset position the next page starts before
+     */
+    private static String encodeCursor(Position position) {
+        Instant executedAt = position.getExecutedAt();
+        String value = executedAt.getEpochSecond() + ":" + executedAt.getNano() + ":" + position.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            Instant executedAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new Position(executedAt, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new TcsException(ErrorCode.INVALID_REQUEST, "Invalid cursor");
+        }
+    }
+}
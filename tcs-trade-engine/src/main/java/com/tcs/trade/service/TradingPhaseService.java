@@ -0,0 +1,61 @@
+package com.tcs.trade.service;
+
+import com.tcs.common.enums.TradingPhase;
+import com.tcs.common.events.avro.TradingPhaseEvent;
+import com.tcs.common.util.TraceContext;
+import com.tcs.trade.config.AuctionProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+
+/**
+ * Switches symbols between continuous trading and call auctions.
+ *
+ * Phase changes are not applied directly: they are published to the orders topic keyed by
+ * symbol, so the owning shard sees them in sequence with the symbol's orders and journals
+ * them like an order. Re-entering the auction phase uncrosses the book and keeps collecting,
+ * which is how the configured symbols run as periodic call auctions. Each instance only times
+ * the auctions of symbols on the orders partitions it owns, so every symbol is uncrossed once
+ * per interval however many instances run.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TradingPhaseService {
+
+    private final TradeEventProducer eventProducer;
+    private final MatchingEngine matchingEngine;
+    private final AuctionProperties auctionProperties;
+    private final Clock clock;
+
+    public void requestPhase(String symbol, TradingPhase phase) {
+        TradingPhaseEvent event = TradingPhaseEvent.newBuilder()
+                .setSymbol(symbol)
+                .setPhase(phase.name())
+                .setTimestamp(clock.millis())
+                .setTraceId(TraceContext.generateTraceId())
+                .build();
+        eventProducer.publishTradingPhase(event);
+    }
+
+    /**
+     * Uncross every periodic auction symbol this instance owns and start collecting its next auction
+     */
+    @Scheduled(fixedDelayString = "${app.auction.uncross-interval-ms}")
+    public void uncrossPeriodicAuctions() {
+        if (auctionProperties.getSymbols().isEmpty()) {
+            return;
+        }
+        int requested = 0;
+        for (String symbol : auctionProperties.getSymbols()) {
+            if (matchingEngine.ownsSymbol(symbol)) {
+                requestPhase(symbol, TradingPhase.AUCTION);
+                requested++;
+            }
+        }
+        log.debug("Requested uncross for {} of {} auction symbols", requested, auctionProperties.getSymbols().size());
+    }
+}
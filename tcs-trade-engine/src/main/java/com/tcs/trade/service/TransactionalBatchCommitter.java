@@ -0,0 +1,128 @@
+package com.tcs.trade.service;
+
+import com.tcs.trade.consumer.TransactionalBatch;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Commits poll batches as Kafka transactions, in the order they were consumed.
+ *
+ * Batches finish out of order because their records are matched on different shards, but
+ * the offsets of a later batch imply the earlier ones, so a finished batch waits for its
+ * predecessors. If a transaction keeps failing, committing stops: nothing later is sent or
+ * committed, and a restart resumes from the last committed batch.
+ *
+ * Every later batch waits behind the oldest, holding its buffered sends, so consumption is
+ * halted when committing stops or the oldest batch stays incomplete for longer than
+ * app.kafka.stuck-batch-timeout-ms.
+ */
+@Slf4j
+public class TransactionalBatchCommitter {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final KafkaTemplate<String, Object> transactionalTemplate;
+    private final OrderConsumptionHalter consumptionHalter;
+    private final long stuckBatchTimeoutNanos;
+    private final Queue<TransactionalBatch> inFlight = new ConcurrentLinkedQueue<>();
+    private volatile boolean halted;
+
+    public TransactionalBatchCommitter(ProducerFactory<String, Object> producerFactory, String transactionIdPrefix,
+                                       OrderConsumptionHalter consumptionHalter, long stuckBatchTimeoutMillis) {
+        this.consumptionHalter = consumptionHalter;
+        this.stuckBatchTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(stuckBatchTimeoutMillis);
+        // Own transactional factory, so the auto-configured template stays non-transactional
+        DefaultKafkaProducerFactory<String, Object> transactionalFactory =
+                new DefaultKafkaProducerFactory<>(producerFactory.getConfigurationProperties());
+        transactionalFactory.setTransactionIdPrefix(transactionIdPrefix);
+        this.transactionalTemplate = new KafkaTemplate<>(transactionalFactory);
+    }
+
+    /**
+     * Start a batch for the records of one poll. Called on the listener thread.
+     */
+    public TransactionalBatch begin(List<? extends ConsumerRecord<?, ?>> records, Acknowledgment acknowledgment,
+                                    ConsumerGroupMetadata groupMetadata) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (ConsumerRecord<?, ?> record : records) {
+            // Records of a partition arrive in offset order, so the last one wins
+            offsets.put(new TopicPartition(record.topic(), record.partition()),
+                    new OffsetAndMetadata(record.offset() + 1));
+        }
+        TransactionalBatch batch = new TransactionalBatch(this, acknowledgment, offsets, groupMetadata, records.size());
+        inFlight.add(batch);
+        return batch;
+    }
+
+    /**
+     * Called on the publishing thread when a batch's last record is acknowledged
+     */
+    public void onComplete(TransactionalBatch batch) {
+        TransactionalBatch head;
+        while ((head = inFlight.peek()) != null && head.isComplete()) {
+            inFlight.poll();
+            commit(head);
+        }
+    }
+
+    /**
+     * Halt consumption if the oldest batch has been waiting on its records for too long
+     */
+    @Scheduled(fixedDelayString = "${app.kafka.stuck-batch-timeout-ms}")
+    public void checkOldestBatch() {
+        TransactionalBatch head = inFlight.peek();
+        if (head == null || head.isComplete() || consumptionHalter.isHalted()) {
+            return;
+        }
+        long waitingNanos = System.nanoTime() - head.getStartedAtNanos();
+        if (waitingNanos > stuckBatchTimeoutNanos) {
+            consumptionHalter.halt(String.format(
+                    "batch for offsets %s still has %d of its records unacknowledged after %d ms, "
+                            + "with %d batches queued behind it",
+                    head.getOffsets(), head.getPending(), TimeUnit.NANOSECONDS.toMillis(waitingNanos),
+                    inFlight.size() - 1));
+            // Never committed now; let go of their buffered sends
+            halted = true;
+            inFlight.clear();
+        }
+    }
+
+    private void commit(TransactionalBatch batch) {
+        if (halted) {
+            return;
+        }
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                transactionalTemplate.executeInTransaction(operations -> {
+                    batch.getSends().forEach(send -> send.accept(operations));
+                    operations.sendOffsetsToTransaction(batch.getOffsets(), batch.getGroupMetadata());
+                    return null;
+                });
+                batch.acknowledgeBatch();
+                return;
+            } catch (Exception e) {
+                log.warn("Kafka transaction for offsets {} failed (attempt {}/{}): {}",
+                        batch.getOffsets(), attempt, MAX_ATTEMPTS, e.getMessage());
+            }
+        }
+        halted = true;
+        inFlight.clear();
+        consumptionHalter.halt("Kafka transaction for offsets " + batch.getOffsets() + " failed "
+                + MAX_ATTEMPTS + " times; no further batches will be committed until restart");
+    }
+}
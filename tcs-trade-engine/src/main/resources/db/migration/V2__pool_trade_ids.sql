@@ -0,0 +1,2 @@
+-- Let Hibernate allocate trade ids in blocks of 50 (pooled optimizer) so inserts can be batched
+ALTER SEQUENCE trades_id_seq INCREMENT BY 50;
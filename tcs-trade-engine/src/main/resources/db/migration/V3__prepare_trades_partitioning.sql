@@ -0,0 +1,34 @@
+-- Prepares trades for daily partitioning (V4) while writers keep running. This migration runs
+-- outside a transaction: indexes are built concurrently, and the range check is validated under
+-- a SHARE UPDATE EXCLUSIVE lock, so the swap in V4 neither scans the table nor builds an index.
+-- Each step drops what a failed earlier run may have left behind.
+
+-- Keys of the partitioned table include executed_at; V4 turns these into the legacy
+-- partition's keys.
+DROP INDEX CONCURRENTLY IF EXISTS trades_legacy_id_executed_key;
+CREATE UNIQUE INDEX CONCURRENTLY trades_legacy_id_executed_key ON trades(id, executed_at);
+DROP INDEX CONCURRENTLY IF EXISTS trades_legacy_trade_id_executed_key;
+CREATE UNIQUE INDEX CONCURRENTLY trades_legacy_trade_id_executed_key ON trades(trade_id, executed_at);
+
+-- History is paged by keyset on (executed_at, id); these supersede the V1 indexes without id
+DROP INDEX CONCURRENTLY IF EXISTS trades_legacy_user_executed_id_idx;
+CREATE INDEX CONCURRENTLY trades_legacy_user_executed_id_idx ON trades(user_id, executed_at DESC, id DESC);
+DROP INDEX CONCURRENTLY IF EXISTS trades_legacy_symbol_executed_id_idx;
+CREATE INDEX CONCURRENTLY trades_legacy_symbol_executed_id_idx ON trades(symbol, executed_at DESC, id DESC);
+DROP INDEX CONCURRENTLY IF EXISTS idx_trades_user_executed;
+DROP INDEX CONCURRENTLY IF EXISTS idx_trades_symbol_executed;
+
+-- idx_trades_order already matches the partitioned table's order_id index, and
+-- idx_trades_executed stays for the archive export until the legacy partition is dropped.
+
+-- Trades end before the end of tomorrow (UTC). V4 attaches the table for values up to the end
+-- of tomorrow at its own run, and ATTACH skips its validation scan when a valid check implies
+-- the partition bound. The extra day keeps writers inside the check should V4 run after midnight.
+ALTER TABLE trades DROP CONSTRAINT IF EXISTS trades_legacy_range;
+DO $$
+BEGIN
+    EXECUTE format('ALTER TABLE trades ADD CONSTRAINT trades_legacy_range CHECK (executed_at < %L) NOT VALID',
+                   date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' + INTERVAL '2 days');
+END
+$$;
+ALTER TABLE trades VALIDATE CONSTRAINT trades_legacy_range;
@@ -0,0 +1,72 @@
+-- Trades move to a table partitioned by day of executed_at. Inserts only touch the current
+-- day's indexes, and days past the retention horizon are archived to files and dropped whole,
+-- without DELETE or vacuum. The existing table becomes the partition for everything up to the
+-- end of tomorrow; daily partitions follow from there. V3 built its indexes and range check, so
+-- this only takes brief locks.
+ALTER TABLE trades RENAME TO trades_legacy;
+
+CREATE TABLE trades (LIKE trades_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (executed_at);
+-- The range check only holds for the legacy partition
+ALTER TABLE trades DROP CONSTRAINT trades_legacy_range;
+
+-- Unique keys of a partitioned table must include the partition key. Trade IDs are unique by
+-- construction; the key still backs lookups by trade_id.
+ALTER TABLE trades ADD PRIMARY KEY (id, executed_at);
+ALTER TABLE trades ADD CONSTRAINT uk_trades_trade_id UNIQUE (trade_id, executed_at);
+CREATE INDEX idx_trades_order_p ON trades(order_id);
+CREATE INDEX idx_trades_user_executed_p ON trades(user_id, executed_at DESC, id DESC);
+CREATE INDEX idx_trades_symbol_executed_p ON trades(symbol, executed_at DESC, id DESC);
+
+ALTER SEQUENCE trades_id_seq OWNED BY trades.id;
+
+-- Back the legacy keys with the V3 indexes, which ATTACH adopts for the keys above
+ALTER TABLE trades_legacy DROP CONSTRAINT trades_pkey;
+ALTER TABLE trades_legacy DROP CONSTRAINT trades_trade_id_key;
+ALTER TABLE trades_legacy ADD CONSTRAINT trades_legacy_id_executed_key
+    UNIQUE USING INDEX trades_legacy_id_executed_key;
+ALTER TABLE trades_legacy ADD CONSTRAINT trades_legacy_trade_id_executed_key
+    UNIQUE USING INDEX trades_legacy_trade_id_executed_key;
+
+-- Not before the check bound from V3, which then implies the partition bound
+DO $$
+BEGIN
+    EXECUTE format('ALTER TABLE trades ATTACH PARTITION trades_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                   date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' + INTERVAL '2 days');
+END
+$$;
+ALTER TABLE trades_legacy DROP CONSTRAINT trades_legacy_range;
+
+-- Creates the daily partitions from today to days_ahead days on that do not exist yet, and
+-- returns how many it created. Days covered by another partition, and partitions created
+-- concurrently by another instance, are skipped.
+CREATE OR REPLACE FUNCTION create_trades_partitions(days_ahead INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    today DATE := (now() AT TIME ZONE 'UTC')::date;
+    day DATE;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..days_ahead LOOP
+        day := today + i;
+        partition_name := 'trades_' || to_char(day, 'YYYYMMDD');
+        CONTINUE WHEN to_regclass(partition_name) IS NOT NULL;
+        BEGIN
+            EXECUTE format('CREATE TABLE %I PARTITION OF trades FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, day::timestamp AT TIME ZONE 'UTC',
+                           (day + 1)::timestamp AT TIME ZONE 'UTC');
+            created := created + 1;
+        EXCEPTION
+            WHEN invalid_object_definition OR duplicate_table THEN
+                NULL;
+        END;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_trades_partitions(7);
+
+COMMENT ON TABLE trades IS 'Trade executions, partitioned by day of executed_at (UTC)';
+COMMENT ON TABLE trades_legacy IS 'Trades executed before daily partitioning';
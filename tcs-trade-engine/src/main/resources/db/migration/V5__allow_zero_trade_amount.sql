@@ -0,0 +1,8 @@
+-- Trade amounts are price * quantity rounded half-up to the column's two decimals, so a fill
+-- worth less than half a cent stores 0.00. The price and quantity checks still rule out empty
+-- trades. Dropping the check takes a brief lock and scans nothing.
+ALTER TABLE trades DROP CONSTRAINT IF EXISTS trades_total_amount_check;
+-- The legacy partition had the check before it was attached, so keeps its own copy
+ALTER TABLE trades_legacy DROP CONSTRAINT IF EXISTS trades_total_amount_check;
+
+COMMENT ON COLUMN trades.total_amount IS 'Total trade amount (price * quantity, rounded half-up to 2 decimals)';
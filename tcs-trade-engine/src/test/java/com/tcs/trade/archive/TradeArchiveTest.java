@@ -0,0 +1,145 @@
+package com.tcs.trade.archive;
+
+import com.tcs.common.enums.OrderSide;
+import com.tcs.trade.config.TradeArchiveProperties;
+import com.tcs.trade.domain.repository.TradeHistoryFilter;
+import com.tcs.trade.domain.repository.TradeRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Columnar archive round trips: what is written reads back as the same trades
+ */
+class TradeArchiveTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+    private static final Instant START = Instant.parse("2026-03-14T09:30:00.123456Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void columnsReadBackAsWrittenAcrossRowGroups() throws IOException {
+        List<TradeRecord> trades = trades(25);
+
+        assertEquals(trades, readBack(trades, null, null, Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void scanFiltersByUserSymbolAndTime() throws IOException {
+        List<TradeRecord> trades = trades(25);
+        long fromMicros = TradeColumnarWriter.toMicros(trades.get(5).getExecutedAt());
+        long toMicros = TradeColumnarWriter.toMicros(trades.get(20).getExecutedAt());
+
+        List<TradeRecord> expected = trades.stream()
+                .filter(trade -> trade.getUserId().equals("user-1") && trade.getSymbol().equals("ETHUSDT"))
+                .filter(trade -> !trade.getExecutedAt().isBefore(trades.get(5).getExecutedAt())
+                        && trade.getExecutedAt().isBefore(trades.get(20).getExecutedAt()))
+                .toList();
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, readBack(trades, "user-1", "ETHUSDT", fromMicros, toMicros));
+        // Groups without the user are skipped whole
+        assertEquals(List.of(), readBack(trades, "user-9", null, Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void committedDayIsListedAndScanned() throws IOException {
+        TradeArchive archive = new TradeArchive(properties(directory.toString(), true));
+        List<TradeRecord> trades = trades(10);
+        try (TradeArchive.DayWriter writer = archive.create(DAY)) {
+            for (TradeRecord trade : trades) {
+                writer.append(trade);
+            }
+            assertEquals(10, writer.commit());
+        }
+
+        assertEquals(Set.of(DAY), archive.days());
+        List<TradeRecord> scanned = new ArrayList<>();
+        archive.scan(DAY, TradeHistoryFilter.builder().from(trades.get(3).getExecutedAt()).build(), scanned::add);
+        assertEquals(trades.subList(3, 10), scanned);
+    }
+
+    @Test
+    void uncommittedDayLeavesNothingBehind() throws IOException {
+        TradeArchive archive = new TradeArchive(properties(directory.toString(), true));
+        try (TradeArchive.DayWriter writer = archive.create(DAY)) {
+            writer.append(trades(1).get(0));
+        }
+
+        assertTrue(archive.days().isEmpty());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void enabledArchiveNeedsADirectory() {
+        assertThrows(IllegalStateException.class, () -> new TradeArchive(properties(null, true)));
+        assertThrows(IllegalStateException.class, () -> new TradeArchive(properties(" ", true)));
+        assertTrue(new TradeArchive(properties(null, false)).days().isEmpty());
+    }
+
+    private static List<TradeRecord> readBack(List<TradeRecord> trades, String userId, String symbol,
+                                              long fromMicros, long toMicros) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TradeColumnarWriter writer = new TradeColumnarWriter(bytes, 4)) {
+            for (TradeRecord trade : trades) {
+                writer.append(trade);
+            }
+            writer.finish();
+        }
+
+        List<TradeRecord> read = new ArrayList<>();
+        try (TradeColumnarReader reader = new TradeColumnarReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            reader.scan(userId, symbol, fromMicros, toMicros, read::add);
+        }
+        return read;
+    }
+
+    private static List<TradeRecord> trades(int count) {
+        List<TradeRecord> trades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            trades.add(TradeRecord.builder()
+                    .id(1_000 + i * 3L)
+                    .tradeId("TRD-0-" + (500 + i / 2) + "-" + i % 2)
+                    .orderId("ORD-" + i)
+                    .userId("user-" + i % 3)
+                    .symbol(i % 2 == 0 ? "BTCUSDT" : "ETHUSDT")
+                    .side(i % 2 == 0 ? OrderSide.BUY : OrderSide.SELL)
+                    .quantity(new BigDecimal("0.00000" + (i + 10)))
+                    .price(new BigDecimal("65000.50000000"))
+                    .totalAmount(new BigDecimal(i % 5 == 0 ? "0.00" : "1234.56"))
+                    .traceId(i % 4 == 0 ? null : "trace-" + i)
+                    .executedAt(START.plusNanos(i * 1_500_000L))
+                    .build());
+        }
+        return trades;
+    }
+
+    private static TradeArchiveProperties properties(String directory, boolean enabled) {
+        TradeArchiveProperties properties = new TradeArchiveProperties();
+        properties.setDirectory(directory);
+        properties.setEnabled(enabled);
+        properties.setRowGroupSize(4);
+        return properties;
+    }
+}
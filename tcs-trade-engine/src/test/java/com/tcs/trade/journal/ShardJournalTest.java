@@ -0,0 +1,228 @@
+package com.tcs.trade.journal;
+
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.enums.OrderType;
+import com.tcs.common.enums.TimeInForce;
+import com.tcs.common.enums.TradingPhase;
+import com.tcs.trade.matching.BookOrder;
+import com.tcs.trade.matching.OrderBook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Journal and snapshot round trips: books recovered from disk match the books that were journaled
+ */
+class ShardJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final long SNAPSHOT_INTERVAL = 1_000;
+
+    @TempDir
+    Path directory;
+
+    private final Map<String, OrderBook> books = new LinkedHashMap<>();
+    private final Map<Integer, Long> offsets = new LinkedHashMap<>();
+    private long sequence;
+    private long offset = 100;
+
+    @Test
+    void replayWithoutSnapshotRebuildsTheBooks() {
+        try (ShardJournal journal = open()) {
+            assertNull(journal.loadSnapshot());
+            journal.replay(0, new Recovery(new LinkedHashMap<>(), new LinkedHashMap<>()));
+            submitOrders(journal, 0, 60);
+            journal.endOfBatch();
+        }
+
+        assertRecovered(null, 60);
+    }
+
+    @Test
+    void recoveryLoadsTheSnapshotAndReplaysOnlyTheTail() throws IOException {
+        try (ShardJournal journal = open()) {
+            journal.replay(0, new Recovery(new LinkedHashMap<>(), new LinkedHashMap<>()));
+            submitOrders(journal, 0, 40);
+            journal.snapshot(sequence, offsets, books.values());
+            submitOrders(journal, 40, 30);
+            changePhase(journal, "ETHUSDT", TradingPhase.AUCTION);
+            submitOrders(journal, 70, 10);
+        }
+
+        assertRecovered(40L, 81);
+    }
+
+    @Test
+    void damagedLatestSnapshotFallsBackOneGeneration() throws IOException {
+        try (ShardJournal journal = open()) {
+            journal.replay(0, new Recovery(new LinkedHashMap<>(), new LinkedHashMap<>()));
+            submitOrders(journal, 0, 30);
+            journal.snapshot(sequence, offsets, books.values());
+            submitOrders(journal, 30, 30);
+            journal.snapshot(sequence, offsets, books.values());
+            submitOrders(journal, 60, 10);
+        }
+        Path latest = files(".snapshot").get(1);
+        byte[] bytes = Files.readAllBytes(latest);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(latest, bytes);
+
+        assertRecovered(30L, 70);
+    }
+
+    @Test
+    void tornTailIsNotReplayed() throws IOException {
+        try (ShardJournal journal = open()) {
+            journal.replay(0, new Recovery(new LinkedHashMap<>(), new LinkedHashMap<>()));
+            submitOrders(journal, 0, 3);
+        }
+        // Damage the body of the third record, as a write cut short would
+        Path segment = files(".journal").get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.BIG_ENDIAN);
+        int third = 0;
+        for (int i = 0; i < 2; i++) {
+            third += 2 * Integer.BYTES + buffer.getInt(third);
+        }
+        bytes[third + 2 * Integer.BYTES + Long.BYTES] ^= 0x01;
+        Files.write(segment, bytes);
+
+        Map<String, OrderBook> recovered = new LinkedHashMap<>();
+        try (ShardJournal journal = open()) {
+            assertNull(journal.loadSnapshot());
+            assertEquals(2, journal.replay(0, new Recovery(recovered, new LinkedHashMap<>())));
+        }
+        assertEquals(2, recovered.values().stream().mapToInt(OrderBook::getOrderCount).sum());
+    }
+
+    /**
+     * Recover from disk as the shard does and compare with the live books
+     */
+    private void assertRecovered(Long snapshotSequence, long lastSequence) {
+        Map<String, OrderBook> recovered = new LinkedHashMap<>();
+        Map<Integer, Long> recoveredOffsets = new LinkedHashMap<>();
+        try (ShardJournal journal = open()) {
+            BookSnapshot snapshot = journal.loadSnapshot();
+            long after = 0;
+            if (snapshotSequence == null) {
+                assertNull(snapshot);
+            } else {
+                assertEquals(snapshotSequence.longValue(), snapshot.getSequence());
+                snapshot.getBooks().forEach(book -> recovered.put(book.getSymbol(), book));
+                recoveredOffsets.putAll(snapshot.getOffsets());
+                after = snapshot.getSequence();
+            }
+            assertEquals(lastSequence, journal.replay(after, new Recovery(recovered, recoveredOffsets)));
+        }
+
+        assertEquals(offsets, recoveredOffsets);
+        assertEquals(books.keySet(), recovered.keySet());
+        for (OrderBook book : books.values()) {
+            OrderBook copy = recovered.get(book.getSymbol());
+            assertEquals(book.getPhase(), copy.getPhase());
+            assertEquals(restingOrders(book), restingOrders(copy));
+        }
+    }
+
+    private void submitOrders(ShardJournal journal, int first, int count) {
+        for (int i = first; i < first + count; i++) {
+            String symbol = i % 3 == 0 ? "ETHUSDT" : "BTCUSDT";
+            OrderSide side = i % 2 == 0 ? OrderSide.BUY : OrderSide.SELL;
+            // Prices around 100.00 so orders cross and leave partially filled makers behind
+            long price = 10_000 + (side == OrderSide.BUY ? 1 : -1) * (i % 7) * 10;
+            BookOrder order = limit("o" + i, symbol, side, price, 1 + i % 5);
+            int partition = i % 2;
+            journal.append(++sequence, partition, ++offset, order);
+            book(symbol).submit(order);
+            offsets.put(partition, offset);
+        }
+    }
+
+    private void changePhase(ShardJournal journal, String symbol, TradingPhase phase) {
+        journal.appendPhaseChange(++sequence, 0, ++offset, symbol, phase);
+        book(symbol).setPhase(phase);
+        offsets.put(0, offset);
+    }
+
+    private OrderBook book(String symbol) {
+        return books.computeIfAbsent(symbol, OrderBook::new);
+    }
+
+    private ShardJournal open() {
+        return new ShardJournal(directory, 0, 1, SEGMENT_SIZE, SNAPSHOT_INTERVAL, true);
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(suffix)).sorted().toList();
+        }
+    }
+
+    private static List<String> restingOrders(OrderBook book) {
+        List<String> orders = new ArrayList<>();
+        book.forEachRestingOrder(order -> orders.add(order.getOrderId() + " " + order.getSide() + " "
+                + order.getPrice() + " " + order.getRemainingQuantity() + " " + order.getFilledQuantity()
+                + " " + order.getFilledNotional()));
+        return orders;
+    }
+
+    private static BookOrder limit(String orderId, String symbol, OrderSide side, long price, long quantity) {
+        return BookOrder.builder()
+                .orderId(orderId)
+                .userId("user-" + orderId)
+                .symbol(symbol)
+                .side(side)
+                .type(OrderType.LIMIT)
+                .timeInForce(TimeInForce.GTC)
+                .price(price)
+                .quantity(quantity)
+                .priceScale(2)
+                .quantityScale(0)
+                .build();
+    }
+
+    /**
+     * Applies replayed commands the way a shard does
+     */
+    private static final class Recovery implements ShardJournal.CommandHandler {
+
+        private final Map<String, OrderBook> books;
+        private final Map<Integer, Long> offsets;
+
+        private Recovery(Map<String, OrderBook> books, Map<Integer, Long> offsets) {
+            this.books = books;
+            this.offsets = offsets;
+        }
+
+        @Override
+        public void onCommand(long sequence, int partition, long offset, BookOrder order) {
+            books.computeIfAbsent(order.getSymbol(), OrderBook::new).submit(order);
+            offsets.put(partition, offset);
+        }
+
+        @Override
+        public void onPhaseChange(long sequence, int partition, long offset, String symbol, TradingPhase phase) {
+            books.computeIfAbsent(symbol, OrderBook::new).setPhase(phase);
+            offsets.put(partition, offset);
+        }
+
+        @Override
+        public void onPartitionReset(long sequence, int partition, long offset, List<String> symbols) {
+            symbols.forEach(books::remove);
+            offsets.put(partition, offset);
+        }
+    }
+}
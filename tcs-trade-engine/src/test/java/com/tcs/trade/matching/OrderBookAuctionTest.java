@@ -0,0 +1,184 @@
+package com.tcs.trade.matching;
+
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.enums.OrderType;
+import com.tcs.common.enums.TimeInForce;
+import com.tcs.common.enums.TradingPhase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Auction collection and the uncross: prices at scale 2, quantities at scale 0
+ */
+class OrderBookAuctionTest {
+
+    private final OrderBook book = new OrderBook("BTCUSDT");
+
+    @BeforeEach
+    void startAuction() {
+        assertTrue(book.setPhase(TradingPhase.AUCTION).isEmpty());
+    }
+
+    @Test
+    void collectsCrossingOrdersWithoutMatching() {
+        book.submit(limit("s1", OrderSide.SELL, 9900, 10, TimeInForce.GTC));
+
+        MatchResult buy = book.submit(limit("b1", OrderSide.BUY, 10100, 10, TimeInForce.GTC));
+        MatchResult ioc = book.submit(limit("b2", OrderSide.BUY, 10100, 10, TimeInForce.IOC));
+
+        assertTrue(buy.getFills().isEmpty());
+        assertTrue(buy.isResting());
+        assertTrue(ioc.getFills().isEmpty());
+        assertFalse(ioc.isResting());
+        assertEquals(10100, book.getBestBid().getPrice());
+        assertEquals(9900, book.getBestAsk().getPrice());
+        assertEquals(2, book.getOrderCount());
+    }
+
+    @Test
+    void maximumVolumeWinsOverSmallerSurplus() {
+        // At 100.00: 20 to buy, 10 to sell, 10 executable. At 101.00: 9 to buy, 10 to sell, 9 executable.
+        book.submit(limit("s1", OrderSide.SELL, 10000, 10, TimeInForce.GTC));
+        book.submit(limit("b1", OrderSide.BUY, 10000, 11, TimeInForce.GTC));
+        book.submit(limit("b2", OrderSide.BUY, 10100, 9, TimeInForce.GTC));
+
+        List<MatchResult> results = book.setPhase(TradingPhase.CONTINUOUS);
+
+        assertEquals(2, results.size());
+        assertResult(results.get(0), "b2", 9, false);
+        assertResult(results.get(1), "b1", 1, true);
+        assertAllFillsAt(results, 10000);
+        assertEquals(TradingPhase.CONTINUOUS, book.getPhase());
+    }
+
+    @Test
+    void equalVolumeGoesToSmallestSurplus() {
+        // 10 executes at each of 100.00, 101.00 and 102.00; only at 100.00 is nothing left over
+        book.submit(limit("b1", OrderSide.BUY, 10200, 10, TimeInForce.GTC));
+        book.submit(limit("s1", OrderSide.SELL, 10000, 10, TimeInForce.GTC));
+        book.submit(limit("s2", OrderSide.SELL, 10100, 5, TimeInForce.GTC));
+
+        List<MatchResult> results = book.setPhase(TradingPhase.CONTINUOUS);
+
+        assertEquals(1, results.size());
+        assertResult(results.get(0), "b1", 10, false);
+        assertAllFillsAt(results, 10000);
+        assertEquals("s1", results.get(0).getFills().get(0).getMaker().getOrderId());
+        assertNull(book.getBestBid());
+        assertEquals(10100, book.getBestAsk().getPrice());
+        assertEquals(5, book.getBestAsk().getTotalQuantity());
+    }
+
+    @Test
+    void remainingTieGoesToHighestPriceWhenBuyersAreLeftOver() {
+        // 15 executes at 99.00 and at 100.00 with 20 to buy against 15 to sell
+        book.submit(limit("b1", OrderSide.BUY, 10200, 10, TimeInForce.GTC));
+        book.submit(limit("b2", OrderSide.BUY, 10000, 10, TimeInForce.GTC));
+        book.submit(limit("s1", OrderSide.SELL, 9900, 15, TimeInForce.GTC));
+        book.submit(limit("s2", OrderSide.SELL, 10100, 10, TimeInForce.GTC));
+
+        List<MatchResult> results = book.setPhase(TradingPhase.CONTINUOUS);
+
+        assertEquals(2, results.size());
+        assertResult(results.get(0), "b1", 10, false);
+        assertResult(results.get(1), "b2", 5, true);
+        assertAllFillsAt(results, 10000);
+    }
+
+    @Test
+    void remainingTieGoesToLowestPriceWhenSellersAreLeftOver() {
+        // 10 executes at 100.00 and at 101.00 with 10 to buy against 15 to sell
+        book.submit(limit("b1", OrderSide.BUY, 10100, 10, TimeInForce.GTC));
+        book.submit(limit("s1", OrderSide.SELL, 9900, 5, TimeInForce.GTC));
+        book.submit(limit("s2", OrderSide.SELL, 10000, 10, TimeInForce.GTC));
+
+        List<MatchResult> results = book.setPhase(TradingPhase.CONTINUOUS);
+
+        assertEquals(1, results.size());
+        MatchResult result = results.get(0);
+        assertResult(result, "b1", 10, false);
+        assertEquals("s1", result.getFills().get(0).getMaker().getOrderId());
+        assertEquals("s2", result.getFills().get(1).getMaker().getOrderId());
+        assertAllFillsAt(results, 10000);
+    }
+
+    @Test
+    void bookThatDoesNotCrossIsLeftAsIs() {
+        book.submit(limit("b1", OrderSide.BUY, 9900, 10, TimeInForce.GTC));
+        book.submit(limit("s1", OrderSide.SELL, 10000, 10, TimeInForce.GTC));
+
+        List<MatchResult> results = book.setPhase(TradingPhase.CONTINUOUS);
+
+        assertTrue(results.isEmpty());
+        assertEquals(2, book.getOrderCount());
+        assertEquals(10, book.getBestBid().getTotalQuantity());
+        assertEquals(10, book.getBestAsk().getTotalQuantity());
+        assertEquals(TradingPhase.CONTINUOUS, book.getPhase());
+    }
+
+    @Test
+    void unexecutedOrdersRestAndTradeContinuouslyAfterTheUncross() {
+        book.submit(limit("b1", OrderSide.BUY, 10200, 10, TimeInForce.GTC));
+        book.submit(limit("b2", OrderSide.BUY, 10000, 10, TimeInForce.GTC));
+        book.submit(limit("s1", OrderSide.SELL, 9900, 15, TimeInForce.GTC));
+        book.submit(limit("s2", OrderSide.SELL, 10100, 10, TimeInForce.GTC));
+
+        book.setPhase(TradingPhase.CONTINUOUS);
+
+        // b2 keeps 5 of its 10 at 100.00, s2 is untouched at 101.00
+        assertEquals(2, book.getOrderCount());
+        assertEquals(1, book.getBidLevelCount());
+        assertEquals(1, book.getAskLevelCount());
+        PriceLevel bid = book.getBestBid();
+        assertEquals(10000, bid.getPrice());
+        assertEquals(5, bid.getTotalQuantity());
+        assertEquals(5, bid.getHead().getFilledQuantity());
+        assertEquals(10100, book.getBestAsk().getPrice());
+        assertEquals(10, book.getBestAsk().getTotalQuantity());
+
+        MatchResult result = book.submit(limit("s3", OrderSide.SELL, 10000, 5, TimeInForce.IOC));
+
+        assertTrue(result.isFilled());
+        assertEquals("b2", result.getFills().get(0).getMaker().getOrderId());
+        assertTrue(result.getFills().get(0).isMakerFilled());
+        assertNull(book.getBestBid());
+    }
+
+    private static void assertResult(MatchResult result, String buyId, long filledQuantity, boolean resting) {
+        assertEquals(buyId, result.getOrder().getOrderId());
+        assertEquals(filledQuantity, result.getFilledQuantity());
+        assertEquals(resting, result.isResting());
+    }
+
+    private static void assertAllFillsAt(List<MatchResult> results, long price) {
+        for (MatchResult result : results) {
+            assertEquals(price * result.getFilledQuantity(), result.getFilledNotional());
+            for (Fill fill : result.getFills()) {
+                assertEquals(price, fill.getPrice());
+            }
+        }
+    }
+
+    private static BookOrder limit(String orderId, OrderSide side, long price, long quantity,
+                                   TimeInForce timeInForce) {
+        return BookOrder.builder()
+                .orderId(orderId)
+                .userId("user-" + orderId)
+                .symbol("BTCUSDT")
+                .side(side)
+                .type(OrderType.LIMIT)
+                .timeInForce(timeInForce)
+                .price(price)
+                .quantity(quantity)
+                .priceScale(2)
+                .quantityScale(0)
+                .build();
+    }
+}
@@ -0,0 +1,213 @@
+package com.tcs.trade.matching;
+
+import com.tcs.common.enums.OrderSide;
+import com.tcs.common.enums.OrderType;
+import com.tcs.common.enums.TimeInForce;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Continuous matching: prices at scale 2, quantities at scale 0
+ */
+class OrderBookTest {
+
+    private final OrderBook book = new OrderBook("BTCUSDT");
+
+    @Test
+    void fillsBestPriceFirstThenArrivalOrder() {
+        book.submit(limit("s1", OrderSide.SELL, 10100, 5, TimeInForce.GTC));
+        book.submit(limit("s2", OrderSide.SELL, 10000, 5, TimeInForce.GTC));
+        book.submit(limit("s3", OrderSide.SELL, 10000, 5, TimeInForce.GTC));
+
+        MatchResult result = book.submit(limit("b1", OrderSide.BUY, 10100, 12, TimeInForce.GTC));
+
+        List<Fill> fills = result.getFills();
+        assertEquals(3, fills.size());
+        assertFill(fills.get(0), "s2", 5, 10000);
+        assertFill(fills.get(1), "s3", 5, 10000);
+        assertFill(fills.get(2), "s1", 2, 10100);
+        assertTrue(result.isFilled());
+        assertFalse(result.isResting());
+        assertEquals(5 * 10000 + 5 * 10000 + 2 * 10100, result.getFilledNotional());
+
+        assertEquals(10100, book.getBestAsk().getPrice());
+        assertEquals(3, book.getBestAsk().getTotalQuantity());
+        assertEquals(1, book.getAskLevelCount());
+        assertNull(book.getBestBid());
+    }
+
+    @Test
+    void partiallyFilledMakerKeepsItsPlace() {
+        book.submit(limit("s1", OrderSide.SELL, 10000, 10, TimeInForce.GTC));
+        book.submit(limit("s2", OrderSide.SELL, 10000, 10, TimeInForce.GTC));
+
+        MatchResult first = book.submit(limit("b1", OrderSide.BUY, 10000, 4, TimeInForce.GTC));
+
+        assertTrue(first.isFilled());
+        Fill fill = first.getFills().get(0);
+        assertFill(fill, "s1", 4, 10000);
+        assertEquals(4, fill.getMakerFilledQuantity());
+        assertFalse(fill.isMakerFilled());
+        assertEquals(16, book.getBestAsk().getTotalQuantity());
+        assertEquals("s1", book.getBestAsk().getHead().getOrderId());
+
+        MatchResult second = book.submit(limit("b2", OrderSide.BUY, 10000, 8, TimeInForce.GTC));
+
+        assertFill(second.getFills().get(0), "s1", 6, 10000);
+        assertTrue(second.getFills().get(0).isMakerFilled());
+        assertFill(second.getFills().get(1), "s2", 2, 10000);
+        assertEquals("s2", book.getBestAsk().getHead().getOrderId());
+        assertEquals(8, book.getBestAsk().getTotalQuantity());
+        assertEquals(1, book.getOrderCount());
+    }
+
+    @Test
+    void gtcRemainderRestsAtItsLimit() {
+        book.submit(limit("s1", OrderSide.SELL, 10000, 3, TimeInForce.GTC));
+
+        MatchResult result = book.submit(limit("b1", OrderSide.BUY, 10050, 10, TimeInForce.GTC));
+
+        assertEquals(3, result.getFilledQuantity());
+        assertFalse(result.isFilled());
+        assertTrue(result.isResting());
+        assertNull(book.getBestAsk());
+        assertEquals(10050, book.getBestBid().getPrice());
+        assertEquals(7, book.getBestBid().getTotalQuantity());
+    }
+
+    @Test
+    void fokIsRejectedWhenItCannotFillCompletely() {
+        book.submit(limit("s1", OrderSide.SELL, 10000, 5, TimeInForce.GTC));
+        book.submit(limit("s2", OrderSide.SELL, 10200, 5, TimeInForce.GTC));
+
+        // Only 5 is available at or below the limit
+        MatchResult result = book.submit(limit("b1", OrderSide.BUY, 10100, 8, TimeInForce.FOK));
+
+        assertTrue(result.getFills().isEmpty());
+        assertEquals(0, result.getFilledQuantity());
+        assertFalse(result.isResting());
+        assertEquals(2, book.getOrderCount());
+        assertEquals(5, book.getBestAsk().getTotalQuantity());
+        assertNull(book.getBestBid());
+    }
+
+    @Test
+    void fokFillsAcrossLevelsWhenEnoughIsAvailable() {
+        book.submit(limit("s1", OrderSide.SELL, 10000, 5, TimeInForce.GTC));
+        book.submit(limit("s2", OrderSide.SELL, 10100, 5, TimeInForce.GTC));
+
+        MatchResult result = book.submit(limit("b1", OrderSide.BUY, 10100, 8, TimeInForce.FOK));
+
+        assertTrue(result.isFilled());
+        assertEquals(2, result.getFills().size());
+        assertEquals(2, book.getBestAsk().getTotalQuantity());
+    }
+
+    @Test
+    void iocRemainderIsCancelled() {
+        book.submit(limit("s1", OrderSide.SELL, 10000, 5, TimeInForce.GTC));
+
+        MatchResult result = book.submit(limit("b1", OrderSide.BUY, 10100, 8, TimeInForce.IOC));
+
+        assertEquals(5, result.getFilledQuantity());
+        assertFalse(result.isFilled());
+        assertFalse(result.isResting());
+        assertNull(book.getBestBid());
+        assertNull(book.getBestAsk());
+        assertEquals(0, book.getOrderCount());
+        assertNull(book.cancel("b1"));
+    }
+
+    @Test
+    void marketOrderSweepsLevelsAndNeverRests() {
+        book.submit(limit("s1", OrderSide.SELL, 10000, 5, TimeInForce.GTC));
+        book.submit(limit("s2", OrderSide.SELL, 10500, 5, TimeInForce.GTC));
+
+        MatchResult result = book.submit(BookOrder.builder()
+                .orderId("b1").symbol("BTCUSDT").side(OrderSide.BUY).type(OrderType.MARKET)
+                .timeInForce(TimeInForce.GTC).quantity(12).priceScale(2).quantityScale(0)
+                .build());
+
+        assertEquals(10, result.getFilledQuantity());
+        assertFalse(result.isResting());
+        assertNull(book.getBestAsk());
+        assertNull(book.getBestBid());
+    }
+
+    @Test
+    void cancellingLastOrderAtBestLevelPromotesNextLevel() {
+        book.submit(limit("b1", OrderSide.BUY, 9900, 5, TimeInForce.GTC));
+        book.submit(limit("b2", OrderSide.BUY, 9800, 5, TimeInForce.GTC));
+        book.submit(limit("s1", OrderSide.SELL, 10000, 5, TimeInForce.GTC));
+        book.submit(limit("s2", OrderSide.SELL, 10100, 5, TimeInForce.GTC));
+
+        assertEquals("b1", book.cancel("b1").getOrderId());
+        assertEquals("s1", book.cancel("s1").getOrderId());
+
+        assertEquals(9800, book.getBestBid().getPrice());
+        assertEquals(10100, book.getBestAsk().getPrice());
+        assertEquals(1, book.getBidLevelCount());
+        assertEquals(1, book.getAskLevelCount());
+        assertNull(book.cancel("b1"));
+
+        // The removed level no longer matches
+        MatchResult result = book.submit(limit("b3", OrderSide.BUY, 10000, 5, TimeInForce.IOC));
+        assertTrue(result.getFills().isEmpty());
+    }
+
+    @Test
+    void cancellingOneOfSeveralOrdersKeepsTheLevel() {
+        book.submit(limit("s1", OrderSide.SELL, 10000, 5, TimeInForce.GTC));
+        book.submit(limit("s2", OrderSide.SELL, 10000, 7, TimeInForce.GTC));
+        PriceLevel level = book.getBestAsk();
+
+        book.cancel("s1");
+
+        assertSame(level, book.getBestAsk());
+        assertEquals(7, level.getTotalQuantity());
+        assertEquals(1, level.getOrderCount());
+        assertEquals("s2", level.getHead().getOrderId());
+    }
+
+    @Test
+    void redeliveredRestingOrderIsNotMatchedAgain() {
+        BookOrder buy = limit("b1", OrderSide.BUY, 10000, 5, TimeInForce.GTC);
+        book.submit(buy);
+        book.submit(limit("s1", OrderSide.SELL, 10100, 5, TimeInForce.GTC));
+
+        MatchResult result = book.submit(limit("b1", OrderSide.BUY, 10000, 5, TimeInForce.GTC));
+
+        assertTrue(result.getFills().isEmpty());
+        assertEquals(2, book.getOrderCount());
+        assertEquals(5, book.getBestBid().getTotalQuantity());
+    }
+
+    private static void assertFill(Fill fill, String makerId, long quantity, long price) {
+        assertEquals(makerId, fill.getMaker().getOrderId());
+        assertEquals(quantity, fill.getQuantity());
+        assertEquals(price, fill.getPrice());
+    }
+
+    private static BookOrder limit(String orderId, OrderSide side, long price, long quantity,
+                                   TimeInForce timeInForce) {
+        return BookOrder.builder()
+                .orderId(orderId)
+                .userId("user-" + orderId)
+                .symbol("BTCUSDT")
+                .side(side)
+                .type(OrderType.LIMIT)
+                .timeInForce(timeInForce)
+                .price(price)
+                .quantity(quantity)
+                .priceScale(2)
+                .quantityScale(0)
+                .build();
+    }
+}